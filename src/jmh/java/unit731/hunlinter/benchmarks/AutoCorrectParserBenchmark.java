@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.parsers.autocorrect.AutoCorrectParser;
+import unit731.hunlinter.parsers.exceptions.ExceptionsParser;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/** Loading and saving large auto-correct and exceptions lists, and looking up corrections in them */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutoCorrectParserBenchmark{
+
+	private static final int ENTRIES = 100_000;
+	private static final int QUERIES = 1_000;
+
+
+	private String[] incorrectForms;
+	private String[] correctForms;
+	private File acoFile;
+	private File wexFile;
+	private AutoCorrectParser acoParser;
+	private ExceptionsParser wexParser;
+
+
+	@Setup
+	public void setup() throws Exception{
+		final String[] words = Arrays.stream(BenchmarkFixtures.words(ENTRIES * 3))
+			.distinct()
+			.limit(ENTRIES * 2)
+			.toArray(String[]::new);
+		incorrectForms = Arrays.copyOfRange(words, 0, ENTRIES);
+		correctForms = Arrays.copyOfRange(words, ENTRIES, ENTRIES * 2);
+
+		final String[] acoLines = new String[ENTRIES + 3];
+		final String[] wexLines = new String[ENTRIES + 3];
+		acoLines[0] = wexLines[0] = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+		acoLines[1] = wexLines[1] = "<block-list:block-list xmlns:block-list=\"http://openoffice.org/2001/block-list\">";
+		for(int i = 0; i < ENTRIES; i ++){
+			acoLines[i + 2] = "   <block-list:block block-list:abbreviated-name=\"" + incorrectForms[i]
+				+ "\" block-list:name=\"" + correctForms[i] + "\"/>";
+			wexLines[i + 2] = "   <block-list:block block-list:abbreviated-name=\"" + incorrectForms[i] + "\"/>";
+		}
+		acoLines[ENTRIES + 2] = wexLines[ENTRIES + 2] = "</block-list:block-list>";
+		acoFile = FileHelper.createDeleteOnExitFile("DocumentList", ".xml", acoLines);
+		wexFile = FileHelper.createDeleteOnExitFile("WordExceptList", ".xml", wexLines);
+
+		acoParser = new AutoCorrectParser();
+		acoParser.parse(acoFile);
+		wexParser = new ExceptionsParser("WordExceptList.xml");
+		wexParser.parse(wexFile, BenchmarkFixtures.LANGUAGE);
+	}
+
+	@Benchmark
+	public void parseAutoCorrect(final Blackhole blackhole) throws Exception{
+		final AutoCorrectParser parser = new AutoCorrectParser();
+		parser.parse(acoFile);
+		blackhole.consume(parser);
+	}
+
+	@Benchmark
+	public void saveAutoCorrect() throws Exception{
+		acoParser.save(FileHelper.createDeleteOnExitFile("DocumentList", ".xml"));
+	}
+
+	/** As done while typing a new correction */
+	@Benchmark
+	public void containsCorrection(final Blackhole blackhole){
+		for(int i = 0; i < QUERIES; i ++)
+			blackhole.consume(acoParser.contains(incorrectForms[i * 97], correctForms[i * 97]));
+	}
+
+	@Benchmark
+	public void parseExceptions(final Blackhole blackhole) throws Exception{
+		final ExceptionsParser parser = new ExceptionsParser("WordExceptList.xml");
+		parser.parse(wexFile, BenchmarkFixtures.LANGUAGE);
+		blackhole.consume(parser);
+	}
+
+	@Benchmark
+	public void saveExceptions() throws Exception{
+		wexParser.save(FileHelper.createDeleteOnExitFile("WordExceptList", ".xml"));
+	}
+
+	/** As done by the exceptions panes when a tag is added, and then removed */
+	@Benchmark
+	public void addAndRemoveException(){
+		final List<String> tags = List.of("ŧèstAs");
+		wexParser.modify(ExceptionsParser.TagChangeType.ADD, tags);
+		wexParser.modify(ExceptionsParser.TagChangeType.REMOVE, tags);
+	}
+
+	/** As done while typing a new exception */
+	@Benchmark
+	public void containsException(final Blackhole blackhole){
+		for(int i = 0; i < QUERIES; i ++)
+			blackhole.consume(wexParser.contains(incorrectForms[i * 97]));
+	}
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.slf4j.LoggerFactory;
+import unit731.hunlinter.languages.BaseBuilder;
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.affix.AffixParser;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.hyphenation.HyphenationParser;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * Self-contained data shared by the benchmarks.
+ * <p>
+ * The affix and hyphenation files are bundled with the benchmarks, while the dictionary is generated from a fixed seed, so
+ * every run works on the very same input.
+ */
+final class BenchmarkFixtures{
+
+	static final String LANGUAGE = "vec-IT";
+
+	private static final long SEED = 731l;
+
+	private static final String[] ONSETS = {"b", "c", "d", "f", "g", "l", "m", "n", "p", "r", "s", "t", "v", "x", "ŧ", "br", "tr",
+		"st", "pr", "sc", "gr", "ch"};
+	private static final String[] VOWELS = {"a", "e", "i", "o", "u", "è", "ò", "ó"};
+	private static final String[] NOUN_ENDINGS = {"o", "a", "ón", "èl", "ol", "e"};
+	private static final String[] ADJECTIVE_ENDINGS = {"o", "e", "le"};
+
+	static{
+		//the test logging configuration logs at trace level, which would dominate every measurement
+		if(LoggerFactory.getLogger("unit731.hunlinter").isDebugEnabled())
+			throw new IllegalStateException("Benchmarks must run with the logging configuration of the benchmark profile"
+				+ " (-Dlogback.configurationFile=logback-benchmark.xml)");
+	}
+
+
+	private BenchmarkFixtures(){}
+
+	static AffixData loadAffixData() throws IOException{
+		final AffixParser affParser = new AffixParser();
+		affParser.parse(copyResource("vec.aff"), LANGUAGE);
+		return affParser.getAffixData();
+	}
+
+	static WordGenerator createWordGenerator(final AffixData affixData){
+		return new WordGenerator(affixData, null);
+	}
+
+	static HyphenationParser loadHyphenationParser() throws IOException{
+		final HyphenationParser hypParser = new HyphenationParser(BaseBuilder.getComparator(LANGUAGE));
+		hypParser.parse(copyResource("hyph_vec.dic"));
+		return hypParser;
+	}
+
+	/**
+	 * @param size	The number of lines.
+	 * @return	Dictionary lines (without the header) with nouns, verbs, and adjectives, each with its part-of-speech.
+	 */
+	static String[] dictionaryLines(final int size){
+		final Random random = new Random(SEED);
+		final Set<String> lines = new LinkedHashSet<>(size);
+		while(lines.size() < size){
+			final String stem = stem(random);
+			switch(random.nextInt(3)){
+				case 0 -> lines.add(stem + pick(random, NOUN_ENDINGS) + "/AC po:noun");
+				case 1 -> lines.add(stem + "ar/BP po:verb");
+				default -> lines.add(stem + pick(random, ADJECTIVE_ENDINGS) + "/AD po:adjective");
+			}
+		}
+		return lines.toArray(String[]::new);
+	}
+
+	/**
+	 * @param size	The number of words.
+	 * @return	Words (without flags) of two or three syllables.
+	 */
+	static String[] words(final int size){
+		final Random random = new Random(SEED);
+		final String[] words = new String[size];
+		for(int i = 0; i < size; i ++)
+			words[i] = stem(random) + pick(random, VOWELS);
+		return words;
+	}
+
+	/**
+	 * @param wordGenerator	The generator used to inflect the lines.
+	 * @param lines	The dictionary lines.
+	 * @return	All the inflections of the given lines.
+	 */
+	static List<Inflection> inflections(final WordGenerator wordGenerator, final String[] lines){
+		final List<Inflection> inflections = new ArrayList<>();
+		for(final String line : lines){
+			final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+			inflections.addAll(List.of(wordGenerator.applyAffixRules(dicEntry)));
+		}
+		return inflections;
+	}
+
+	private static String stem(final Random random){
+		final StringBuilder sb = new StringBuilder();
+		final int syllables = 2 + random.nextInt(2);
+		for(int i = 0; i < syllables; i ++)
+			sb.append(pick(random, ONSETS))
+				.append(pick(random, VOWELS));
+		sb.append(pick(random, ONSETS));
+		return sb.toString();
+	}
+
+	private static String pick(final Random random, final String[] values){
+		return values[random.nextInt(values.length)];
+	}
+
+	private static File copyResource(final String name) throws IOException{
+		try(final InputStream is = BenchmarkFixtures.class.getResourceAsStream("/benchmarks/" + name)){
+			final int extensionIndex = name.lastIndexOf('.');
+			return FileHelper.createDeleteOnExitFile(name.substring(0, extensionIndex), name.substring(extensionIndex),
+				is.readAllBytes());
+		}
+	}
+
+}
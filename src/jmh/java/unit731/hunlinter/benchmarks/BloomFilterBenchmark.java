@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import unit731.hunlinter.datastructures.bloomfilter.BloomFilter;
+import unit731.hunlinter.datastructures.bloomfilter.BloomFilterInterface;
+import unit731.hunlinter.datastructures.bloomfilter.BloomFilterParameters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Insertion and membership test of a bloom filter, from a single thread and from all the available threads (to measure the
+ * contention on the bit array).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BloomFilterBenchmark{
+
+	private static final int WORDS = 100_000;
+	private static final int EXPECTED_ELEMENTS = 1_000_000;
+	private static final double FALSE_POSITIVE_PROBABILITY = 0.001;
+
+
+	/** Index of the next word used by each thread */
+	@State(Scope.Thread)
+	public static class Cursor{
+
+		private int index;
+
+	}
+
+
+	private BloomFilterInterface<String> filter;
+	private String[] words;
+
+
+	@Setup
+	public void setup(){
+		final BloomFilterParameters parameters = new BloomFilterParameters(){
+			@Override
+			public int getExpectedNumberOfElements(){
+				return EXPECTED_ELEMENTS;
+			}
+
+			@Override
+			public double getFalsePositiveProbability(){
+				return FALSE_POSITIVE_PROBABILITY;
+			}
+		};
+		filter = new BloomFilter<>(StandardCharsets.UTF_8, parameters);
+
+		words = BenchmarkFixtures.words(WORDS);
+		//half of the words are already present
+		for(int i = 0; i < WORDS; i += 2)
+			filter.add(words[i]);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean add(final Cursor cursor){
+		return filter.add(nextWord(cursor));
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean addAllThreads(final Cursor cursor){
+		return filter.add(nextWord(cursor));
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean contains(final Cursor cursor){
+		return filter.contains(nextWord(cursor));
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean containsAllThreads(final Cursor cursor){
+		return filter.contains(nextWord(cursor));
+	}
+
+	private String nextWord(final Cursor cursor){
+		return words[(cursor.index ++ & Integer.MAX_VALUE) % WORDS];
+	}
+
+}
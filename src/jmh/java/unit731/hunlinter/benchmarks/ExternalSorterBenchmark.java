@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.datastructures.fsa.builders.LexicographicalComparator;
+import unit731.hunlinter.languages.BaseBuilder;
+import unit731.hunlinter.services.sorters.externalsorter.ByteArrayExternalSorter;
+import unit731.hunlinter.services.sorters.externalsorter.ExternalSorter;
+import unit731.hunlinter.services.sorters.externalsorter.ExternalSorterOptions;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+/** Sorting (with removal of duplicates) of a word list, both from file and from memory */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExternalSorterBenchmark{
+
+	private static final int WORDS = 200_000;
+	/** Small enough to force the in-memory sorter to spill some runs to disk */
+	private static final long MEMORY_BUDGET = 2l * 1024 * 1024;
+
+
+	private File inputFile;
+	private File outputFile;
+	private ExternalSorterOptions options;
+	private byte[][] sequences;
+
+
+	@Setup
+	public void setup() throws IOException{
+		final String[] words = BenchmarkFixtures.words(WORDS);
+		inputFile = FileHelper.createDeleteOnExitFile("hunlinter-benchmark", ".txt", words);
+		outputFile = FileHelper.createDeleteOnExitFile("hunlinter-benchmark", ".txt");
+		options = ExternalSorterOptions.builder()
+			.charset(StandardCharsets.UTF_8)
+			.sortInParallel()
+			.comparator(BaseBuilder.getComparator(BenchmarkFixtures.LANGUAGE))
+			.useTemporaryAsZip()
+			.removeDuplicates()
+			.build();
+
+		sequences = Arrays.stream(words)
+			.map(word -> word.getBytes(StandardCharsets.UTF_8))
+			.toArray(byte[][]::new);
+	}
+
+	@Benchmark
+	public long sortFile() throws IOException{
+		new ExternalSorter()
+			.sort(inputFile, options, outputFile);
+		return outputFile.length();
+	}
+
+	@Benchmark
+	public void sortByteArrays(final Blackhole blackhole) throws IOException{
+		try(final ByteArrayExternalSorter sorter = new ByteArrayExternalSorter(MEMORY_BUDGET,
+				LexicographicalComparator.lexicographicalComparator())){
+			sorter.addAll(sequences);
+			sorter.forEachSorted(blackhole::consume, null);
+		}
+	}
+
+}
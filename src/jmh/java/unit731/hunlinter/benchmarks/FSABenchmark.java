@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import unit731.hunlinter.datastructures.fsa.FSA;
+import unit731.hunlinter.datastructures.fsa.builders.FSABuilder;
+import unit731.hunlinter.datastructures.fsa.builders.LexicographicalComparator;
+import unit731.hunlinter.datastructures.fsa.lookup.DictionaryLookup;
+import unit731.hunlinter.datastructures.fsa.lookup.WordData;
+import unit731.hunlinter.datastructures.fsa.serializers.CFSA2Serializer;
+import unit731.hunlinter.datastructures.fsa.stemming.Dictionary;
+import unit731.hunlinter.datastructures.fsa.stemming.DictionaryMetadata;
+import unit731.hunlinter.datastructures.fsa.stemming.DictionaryMetadataBuilder;
+import unit731.hunlinter.datastructures.fsa.stemming.EncoderType;
+import unit731.hunlinter.datastructures.fsa.stemming.SequenceEncoderInterface;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+/** Creation of a Part-of-Speech FSA, and lookup of the stems */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FSABenchmark{
+
+	private static final int LINES = 5_000;
+	private static final char SEPARATOR = '+';
+
+
+	/** Index of the next word looked up by each thread */
+	@State(Scope.Thread)
+	public static class Cursor{
+
+		private int index;
+
+	}
+
+
+	private byte[][] sortedEntries;
+	private DictionaryLookup dictionaryLookup;
+	private String[] words;
+
+
+	@Setup
+	public void setup() throws IOException{
+		final WordGenerator wordGenerator = BenchmarkFixtures.createWordGenerator(BenchmarkFixtures.loadAffixData());
+		final DictionaryMetadata metadata = new DictionaryMetadataBuilder()
+			.separator(SEPARATOR)
+			.encoding(StandardCharsets.UTF_8)
+			.encoder(EncoderType.SUFFIX)
+			.build();
+		final SequenceEncoderInterface sequenceEncoder = metadata.getSequenceEncoderType().get();
+
+		//entries are: inflected<SEP>encoded stem<SEP>part-of-speech
+		final Set<String> inflectedWords = new LinkedHashSet<>();
+		final List<byte[]> entries = new ArrayList<>();
+		for(final String line : BenchmarkFixtures.dictionaryLines(LINES)){
+			final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+			final byte[] stem = dicEntry.getWord().getBytes(StandardCharsets.UTF_8);
+			final byte[] tag = line.substring(line.indexOf(' ') + 1).getBytes(StandardCharsets.UTF_8);
+			for(final Inflection inflection : wordGenerator.applyAffixRules(dicEntry)){
+				inflectedWords.add(inflection.getWord());
+
+				final byte[] word = inflection.getWord().getBytes(StandardCharsets.UTF_8);
+				final byte[] encodedStem = sequenceEncoder.encode(word, stem);
+				final byte[] entry = new byte[word.length + 1 + encodedStem.length + 1 + tag.length];
+				System.arraycopy(word, 0, entry, 0, word.length);
+				entry[word.length] = SEPARATOR;
+				System.arraycopy(encodedStem, 0, entry, word.length + 1, encodedStem.length);
+				entry[word.length + 1 + encodedStem.length] = SEPARATOR;
+				System.arraycopy(tag, 0, entry, word.length + 2 + encodedStem.length, tag.length);
+				entries.add(entry);
+			}
+		}
+		final Comparator<byte[]> comparator = LexicographicalComparator.lexicographicalComparator();
+		entries.sort(comparator);
+		final List<byte[]> uniqueEntries = new ArrayList<>(entries.size());
+		for(final byte[] entry : entries)
+			if(uniqueEntries.isEmpty() || comparator.compare(uniqueEntries.get(uniqueEntries.size() - 1), entry) != 0)
+				uniqueEntries.add(entry);
+		sortedEntries = uniqueEntries.toArray(byte[][]::new);
+		words = inflectedWords.toArray(String[]::new);
+
+		final FSA fsa = FSA.read(new ByteArrayInputStream(buildAndSerialize()));
+		dictionaryLookup = new DictionaryLookup(new Dictionary(fsa, metadata));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public byte[] buildAndSerialize() throws IOException{
+		final FSA fsa = new FSABuilder()
+			.build(sortedEntries);
+		return new CFSA2Serializer()
+			.serialize(fsa, new ByteArrayOutputStream(), null)
+			.toByteArray();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public WordData[] lookup(final Cursor cursor){
+		return lookup(cursor.index ++);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public WordData[] lookupAllThreads(final Cursor cursor){
+		return lookup(cursor.index ++);
+	}
+
+	private WordData[] lookup(final int index){
+		return dictionaryLookup.lookup(words[(index & Integer.MAX_VALUE) % words.length]);
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.datastructures.ahocorasicktrie.AhoCorasickTrie;
+import unit731.hunlinter.parsers.hyphenation.HyphenationParser;
+import unit731.hunlinter.parsers.hyphenation.Hyphenator;
+import unit731.hunlinter.parsers.hyphenation.HyphenatorInterface;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/** Hyphenation of words, and the pattern search it is based upon */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HyphenatorBenchmark{
+
+	private static final int WORDS = 1_000;
+
+
+	private HyphenatorInterface hyphenator;
+	private AhoCorasickTrie<String> patterns;
+	private String[] words;
+
+
+	@Setup
+	public void setup() throws IOException{
+		final HyphenationParser hypParser = BenchmarkFixtures.loadHyphenationParser();
+		hyphenator = new Hyphenator(hypParser, HyphenationParser.BREAK_CHARACTER);
+		patterns = hypParser.getPatterns()
+			.getPatterns(HyphenationParser.Level.NON_COMPOUND);
+		words = BenchmarkFixtures.words(WORDS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public void hyphenate(final Blackhole blackhole){
+		for(final String word : words)
+			blackhole.consume(hyphenator.hyphenate(word));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public void searchInText(final Blackhole blackhole){
+		for(final String word : words)
+			blackhole.consume(patterns.searchInText(word));
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.services.ParserHelper;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+
+/** Sequential reading of a large dictionary file, line by line */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserHelperBenchmark{
+
+	private static final int DISTINCT_LINES = 100_000;
+	private static final long FILE_SIZE = 50l * 1024 * 1024;
+
+
+	private File dicFile;
+
+
+	@Setup
+	public void setup() throws IOException{
+		final String[] lines = BenchmarkFixtures.dictionaryLines(DISTINCT_LINES);
+		dicFile = FileHelper.createDeleteOnExitFile(BenchmarkFixtures.LANGUAGE, ".dic");
+		try(final BufferedWriter writer = Files.newBufferedWriter(dicFile.toPath(), StandardCharsets.UTF_8)){
+			writer.write("0\n");
+			long size = 0l;
+			for(int i = 0; size < FILE_SIZE; i ++){
+				final String line = lines[i % lines.length];
+				writer.write(line);
+				writer.write('\n');
+				size += line.length() + 1;
+			}
+		}
+	}
+
+	@Benchmark
+	public void forEachLine(final Blackhole blackhole){
+		ParserHelper.forEachLine(dicFile, StandardCharsets.UTF_8, (index, line) -> blackhole.consume(line),
+			blackhole::consume, ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH);
+	}
+
+	/** The previous implementation: count the lines, then read them again through a {@link Scanner} */
+	@Benchmark
+	public void countThenScan(final Blackhole blackhole) throws IOException{
+		final int totalLines = FileHelper.getLinesCount(dicFile, StandardCharsets.UTF_8);
+		final int progressStep = (int)Math.ceil(totalLines / 100.f);
+		int progress = 0;
+		try(final Scanner scanner = FileHelper.createScanner(dicFile.toPath(), StandardCharsets.UTF_8)){
+			ParserHelper.assertLinesCount(scanner);
+			while(scanner.hasNextLine()){
+				final String line = scanner.nextLine();
+				if(!ParserHelper.isComment(line, ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH))
+					blackhole.consume(line);
+				if(++ progress % progressStep == 0)
+					blackhole.consume(progress);
+			}
+		}
+	}
+
+}
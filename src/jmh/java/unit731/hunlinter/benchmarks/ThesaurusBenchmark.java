@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.parsers.thesaurus.SynonymsEntry;
+import unit731.hunlinter.parsers.thesaurus.ThesaurusDictionary;
+import unit731.hunlinter.parsers.thesaurus.ThesaurusEntry;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/** Lookups on a large synthetic thesaurus, as done by the thesaurus linter and by the insertion of new synonyms */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThesaurusBenchmark{
+
+	private static final int GROUPS = 10_000;
+	private static final int QUERIES = 1_000;
+	private static final String[] PART_OF_SPEECHES = {"noun", "adj", "verb", "adv"};
+
+
+	private ThesaurusDictionary dictionary;
+	private List<ThesaurusEntry> entries;
+	private String[][] queryPartOfSpeeches;
+	private String[][] querySynonyms;
+
+
+	@Setup
+	public void setup(){
+		final Random random = new Random(731l);
+		final String[] words = BenchmarkFixtures.words(GROUPS * 4);
+		dictionary = new ThesaurusDictionary(BenchmarkFixtures.LANGUAGE);
+		queryPartOfSpeeches = new String[QUERIES][];
+		querySynonyms = new String[QUERIES][];
+		for(int i = 0; i < GROUPS; i ++){
+			final String[] partOfSpeeches = {PART_OF_SPEECHES[random.nextInt(PART_OF_SPEECHES.length)]};
+			final String[] synonyms = new String[3 + random.nextInt(3)];
+			for(int j = 0; j < synonyms.length; j ++)
+				synonyms[j] = words[random.nextInt(words.length)];
+			dictionary.add(partOfSpeeches, synonyms);
+
+			if(i < QUERIES){
+				queryPartOfSpeeches[i] = partOfSpeeches;
+				querySynonyms[i] = synonyms;
+			}
+		}
+		entries = dictionary.getSynonymsDictionary();
+	}
+
+	/** What the thesaurus linter does for each entry */
+	@Benchmark
+	public void lint(final Blackhole blackhole){
+		for(final ThesaurusEntry entry : entries){
+			final String originalDefinition = entry.getDefinition();
+			for(final SynonymsEntry syn : entry.getSynonyms()){
+				final String[] partOfSpeeches = syn.getPartOfSpeeches();
+				for(final String definition : syn.getSynonyms())
+					blackhole.consume(dictionary.contains(ThesaurusDictionary.removeSynonymUse(definition), partOfSpeeches,
+						originalDefinition));
+			}
+		}
+	}
+
+	@Benchmark
+	public void containsSynonyms(final Blackhole blackhole){
+		for(int i = 0; i < QUERIES; i ++)
+			blackhole.consume(dictionary.contains(queryPartOfSpeeches[i], querySynonyms[i]));
+	}
+
+	@Benchmark
+	public void extractDuplicates(final Blackhole blackhole){
+		for(int i = 0; i < QUERIES; i ++)
+			blackhole.consume(dictionary.extractDuplicates(queryPartOfSpeeches[i], querySynonyms[i]));
+	}
+
+}
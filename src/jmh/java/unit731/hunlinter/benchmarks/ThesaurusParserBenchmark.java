@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.parsers.thesaurus.ThesaurusParser;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/** Reading a large synthetic thesaurus, and saving it after a single edit */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThesaurusParserBenchmark{
+
+	private static final int GROUPS = 10_000;
+	private static final String[] PART_OF_SPEECHES = {"noun", "adj", "verb", "adv"};
+
+
+	private File indexFile;
+	private File dataFile;
+	private ThesaurusParser theParser;
+
+
+	@Setup
+	public void setup() throws IOException{
+		final Random random = new Random(731l);
+		final String[] words = BenchmarkFixtures.words(GROUPS * 4);
+		theParser = new ThesaurusParser(BenchmarkFixtures.LANGUAGE);
+		for(int i = 0; i < GROUPS; i ++){
+			final String[] partOfSpeeches = {PART_OF_SPEECHES[random.nextInt(PART_OF_SPEECHES.length)]};
+			final String[] synonyms = new String[3 + random.nextInt(3)];
+			for(int j = 0; j < synonyms.length; j ++)
+				synonyms[j] = words[random.nextInt(words.length)];
+			theParser.getDictionary().add(partOfSpeeches, synonyms);
+		}
+
+		indexFile = FileHelper.createDeleteOnExitFile("th_" + BenchmarkFixtures.LANGUAGE, ".idx");
+		dataFile = FileHelper.createDeleteOnExitFile("th_" + BenchmarkFixtures.LANGUAGE, ".dat");
+		theParser.save(indexFile, dataFile);
+		theParser.parse(dataFile);
+	}
+
+	@Benchmark
+	public void parse(final Blackhole blackhole) throws IOException{
+		final ThesaurusParser parser = new ThesaurusParser(BenchmarkFixtures.LANGUAGE);
+		parser.parse(dataFile);
+		blackhole.consume(parser);
+	}
+
+	/** Adds two synonyms whose definitions are close in the file, saves, then removes them and saves again */
+	@Benchmark
+	public void saveCloseEdit() throws IOException{
+		saveEdit("mercà", "mercàdo");
+	}
+
+	/** Adds two synonyms whose definitions are at the two ends of the file, saves, then removes them and saves again */
+	@Benchmark
+	public void saveFarEdit() throws IOException{
+		saveEdit("aaa", "zzz");
+	}
+
+	private void saveEdit(final String definition, final String synonym) throws IOException{
+		theParser.insertSynonyms("(noun)|" + definition + "|" + synonym, duplicates -> true);
+		theParser.save(indexFile, dataFile);
+		theParser.deleteDefinitionAndSynonyms(definition, null);
+		theParser.save(indexFile, dataFile);
+	}
+
+}
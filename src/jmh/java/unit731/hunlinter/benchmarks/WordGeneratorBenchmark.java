@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.enums.AffixType;
+import unit731.hunlinter.parsers.vos.AffixEntry;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.parsers.vos.RuleEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/** Inflection and compound generation, and matching of the affix conditions */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordGeneratorBenchmark{
+
+	private static final int LINES = 2_000;
+	private static final int WORDS = 1_000;
+	private static final int SUFFIXED_WORDS = 1_000;
+	private static final int COMPOUND_INPUTS = 20;
+	private static final int COMPOUND_LIMIT = 500;
+	/** Generation of a few thousand compounds */
+	private static final int COMPOUND_LARGE_LIMIT = 5_000;
+	private static final int MAX_COMPOUNDS = 3;
+	private static final String[] RULE_FLAGS = {"A", "B", "C", "D", "P"};
+
+
+	private WordGenerator wordGenerator;
+	private String[] dictionaryLines;
+	private DictionaryEntry[] dictionaryEntries;
+	/** The entry with the highest number of inflections */
+	private DictionaryEntry heavilyFlaggedEntry;
+	private String[] compoundInputs;
+	private String[] words;
+	private RuleEntry[] rules;
+	private AffixEntry[] affixEntries;
+	/** Dictionary entries each paired with a suffix entry applicable to it */
+	private DictionaryEntry[] suffixedEntries;
+	private AffixEntry[] suffixEntries;
+
+
+	@Setup
+	public void setup() throws IOException{
+		final AffixData affixData = BenchmarkFixtures.loadAffixData();
+		wordGenerator = BenchmarkFixtures.createWordGenerator(affixData);
+
+		dictionaryLines = BenchmarkFixtures.dictionaryLines(LINES);
+		dictionaryEntries = Arrays.stream(dictionaryLines)
+			.map(wordGenerator::createFromDictionaryLine)
+			.toArray(DictionaryEntry[]::new);
+		heavilyFlaggedEntry = Arrays.stream(dictionaryEntries)
+			.max(Comparator.comparingInt(dicEntry -> wordGenerator.applyAffixRules(dicEntry).length))
+			.orElseThrow();
+		compoundInputs = Arrays.stream(BenchmarkFixtures.words(COMPOUND_INPUTS))
+			.map(word -> word + "/X")
+			.toArray(String[]::new);
+
+		//words the affix conditions are tested against are the inflections themselves
+		final List<Inflection> inflections = BenchmarkFixtures.inflections(wordGenerator,
+			BenchmarkFixtures.dictionaryLines(WORDS));
+		words = inflections.stream()
+			.limit(WORDS)
+			.map(Inflection::getWord)
+			.toArray(String[]::new);
+
+		rules = new RuleEntry[RULE_FLAGS.length];
+		final List<AffixEntry> entries = new ArrayList<>();
+		for(int i = 0; i < RULE_FLAGS.length; i ++){
+			rules[i] = affixData.getData(RULE_FLAGS[i]);
+			entries.addAll(Arrays.asList(rules[i].getEntries()));
+		}
+		affixEntries = entries.toArray(AffixEntry[]::new);
+
+		final List<DictionaryEntry> suffixed = new ArrayList<>();
+		final List<AffixEntry> suffixes = new ArrayList<>();
+		for(int i = 0; suffixed.size() < SUFFIXED_WORDS; i ++){
+			final DictionaryEntry dicEntry = dictionaryEntries[i];
+			for(final AffixEntry entry : affixEntries)
+				if(entry.getType() == AffixType.SUFFIX && entry.canApplyTo(dicEntry.getWord())){
+					suffixed.add(dicEntry);
+					suffixes.add(entry);
+					break;
+				}
+		}
+		suffixedEntries = suffixed.toArray(DictionaryEntry[]::new);
+		suffixEntries = suffixes.toArray(AffixEntry[]::new);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public void createFromDictionaryLine(final Blackhole blackhole){
+		for(final String line : dictionaryLines)
+			blackhole.consume(wordGenerator.createFromDictionaryLine(line));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public void applyAffixRules(final Blackhole blackhole){
+		for(final DictionaryEntry dicEntry : dictionaryEntries)
+			blackhole.consume(wordGenerator.applyAffixRules(dicEntry));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public void applyAffixRulesCompact(final Blackhole blackhole){
+		for(final DictionaryEntry dicEntry : dictionaryEntries)
+			blackhole.consume(wordGenerator.applyAffixRulesCompact(dicEntry));
+	}
+
+	@Benchmark
+	public Inflection[] applyAffixRulesHeavilyFlagged(){
+		return wordGenerator.applyAffixRules(heavilyFlaggedEntry);
+	}
+
+	/** Per-inflection cost of producing the word through a suffix rule */
+	@Benchmark
+	@OperationsPerInvocation(SUFFIXED_WORDS)
+	public void applySuffixRule(final Blackhole blackhole){
+		for(int i = 0; i < suffixEntries.length; i ++)
+			blackhole.consume(suffixEntries[i].applyRule(suffixedEntries[i].getWord(), true));
+	}
+
+	/** Per-inflection cost of producing the morphological fields through a suffix rule */
+	@Benchmark
+	@OperationsPerInvocation(SUFFIXED_WORDS)
+	public void combineMorphologicalFields(final Blackhole blackhole){
+		for(int i = 0; i < suffixEntries.length; i ++)
+			blackhole.consume(suffixEntries[i].combineMorphologicalFields(suffixedEntries[i]));
+	}
+
+	@Benchmark
+	public Inflection[] applyCompoundFlag(){
+		return wordGenerator.applyCompoundFlag(compoundInputs, COMPOUND_LIMIT, MAX_COMPOUNDS);
+	}
+
+	@Benchmark
+	public Inflection[] applyCompoundFlagLargeLimit(){
+		return wordGenerator.applyCompoundFlag(compoundInputs, COMPOUND_LARGE_LIMIT, MAX_COMPOUNDS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public int canApplyTo(){
+		int applicable = 0;
+		for(final String word : words)
+			for(final AffixEntry entry : affixEntries)
+				if(entry.canApplyTo(word))
+					applicable ++;
+		return applicable;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public int getApplicableEntries(){
+		int applicable = 0;
+		for(final String word : words)
+			for(final RuleEntry rule : rules)
+				applicable += rule.getApplicableEntries(word).length;
+		return applicable;
+	}
+
+}
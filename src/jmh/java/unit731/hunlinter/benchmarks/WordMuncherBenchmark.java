@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.dictionary.generators.WordMuncher;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/** Inference of the affix rules that produce a word */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordMuncherBenchmark{
+
+	private static final int LINES = 2_000;
+	private static final int WORDS = 1_000;
+
+
+	private AffixData affixData;
+	private DictionaryParser dicParser;
+	private WordGenerator wordGenerator;
+	private WordMuncher muncher;
+	private Inflection[] words;
+
+
+	@Setup
+	public void setup() throws IOException{
+		affixData = BenchmarkFixtures.loadAffixData();
+		final String[] lines = BenchmarkFixtures.dictionaryLines(LINES);
+		final String[] dicLines = new String[lines.length + 1];
+		dicLines[0] = Integer.toString(lines.length);
+		System.arraycopy(lines, 0, dicLines, 1, lines.length);
+		final File dicFile = FileHelper.createDeleteOnExitFile(BenchmarkFixtures.LANGUAGE, ".dic", dicLines);
+		dicParser = new DictionaryParser(dicFile, affixData.getLanguage(), affixData.getCharset());
+		wordGenerator = new WordGenerator(affixData, dicParser);
+		wordGenerator.getInclusionIndex()
+			.buildInBackground();
+
+		//the words to be munched are the inflections of the dictionary itself
+		words = BenchmarkFixtures.inflections(wordGenerator, lines).stream()
+			.limit(WORDS)
+			.toArray(Inflection[]::new);
+	}
+
+	/** Each invocation munches the words with a new muncher, so nothing learned by the previous one is reused */
+	@Setup(Level.Invocation)
+	public void setupMuncher(){
+		muncher = new WordMuncher(affixData, dicParser, wordGenerator);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public void inferAffixRules(final Blackhole blackhole){
+		for(final Inflection word : words)
+			blackhole.consume(muncher.inferAffixRules(word));
+	}
+
+}
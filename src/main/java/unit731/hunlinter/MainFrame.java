@@ -157,6 +157,11 @@ public class MainFrame extends JFrame implements ActionListener, PropertyChangeL
 	public static final Integer ACTION_COMMAND_PARSER_CLEAR_WORD_EXCEPTION = 28;
 	public static final Integer ACTION_COMMAND_PARSER_CLEAR_AUTO_TEXT = 29;
 	public static final Integer ACTION_COMMAND_PARSER_RELOAD_DICTIONARY = 30;
+	public static final Integer ACTION_COMMAND_PARSER_RELOAD_AID = 31;
+	public static final Integer ACTION_COMMAND_PARSER_RELOAD_THESAURUS = 32;
+	public static final Integer ACTION_COMMAND_PARSER_RELOAD_AUTO_CORRECT = 33;
+	public static final Integer ACTION_COMMAND_PARSER_RELOAD_SENTENCE_EXCEPTIONS = 34;
+	public static final Integer ACTION_COMMAND_PARSER_RELOAD_WORD_EXCEPTIONS = 35;
 
 	private static final String FONT_FAMILY_NAME_PREFIX = "font.familyName.";
 	private static final String FONT_SIZE_PREFIX = "font.size.";
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.datastructures;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * An exact set of strings that stores its elements as UTF-8 bytes in a single array, with an open-addressing table of
+ * offsets into it.
+ * <p>
+ * Each element costs its encoded length plus a few bytes, instead of the header, char array, and map entry of a
+ * {@link java.util.HashSet HashSet} element; elements cannot be removed.
+ * <p>
+ * NOTE: this class is not thread-safe.
+ */
+public class CompactStringSet{
+
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.6f;
+
+
+	/** Offset (plus one) of the element in {@link #data} for each slot, zero means empty */
+	private int[] offsets;
+	/** Hash of the element in each slot */
+	private int[] hashes;
+	/** Elements, each one as its length (variable-length encoded) followed by its bytes */
+	private byte[] data;
+	private int dataLimit;
+	private int size;
+
+
+	public CompactStringSet(){
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize	The expected number of elements.
+	 */
+	public CompactStringSet(final int expectedSize){
+		final int slots = Integer.highestOneBit(Math.max((int)(expectedSize / LOAD_FACTOR), DEFAULT_CAPACITY) - 1) << 1;
+		offsets = new int[slots];
+		hashes = new int[slots];
+		data = new byte[slots << 3];
+	}
+
+	/**
+	 * @param element	The element to be added.
+	 * @return	Whether the set did not already contain the element.
+	 */
+	public boolean add(final String element){
+		final byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+		final int hash = hash(bytes);
+		int slot = findSlot(bytes, hash);
+		if(offsets[slot] != 0)
+			return false;
+
+		if(size + 1 > offsets.length * LOAD_FACTOR){
+			rehash(offsets.length << 1);
+			slot = findSlot(bytes, hash);
+		}
+		offsets[slot] = append(bytes) + 1;
+		hashes[slot] = hash;
+		size ++;
+		return true;
+	}
+
+	public boolean contains(final String element){
+		final byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+		return (offsets[findSlot(bytes, hash(bytes))] != 0);
+	}
+
+	public int size(){
+		return size;
+	}
+
+	public boolean isEmpty(){
+		return (size == 0);
+	}
+
+	/** Releases the unused part of the storage, to be called once no more elements are going to be added. */
+	public void trimToSize(){
+		data = Arrays.copyOf(data, dataLimit);
+	}
+
+	private int findSlot(final byte[] bytes, final int hash){
+		final int mask = offsets.length - 1;
+		int slot = hash & mask;
+		while(offsets[slot] != 0 && (hashes[slot] != hash || !equalsAt(offsets[slot] - 1, bytes)))
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private boolean equalsAt(int offset, final byte[] bytes){
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do{
+			b = data[offset ++];
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		}while((b & 0x80) != 0);
+		return (length == bytes.length && Arrays.equals(data, offset, offset + length, bytes, 0, length));
+	}
+
+	private int append(final byte[] bytes){
+		final int offset = dataLimit;
+		if(dataLimit + bytes.length + 5 > data.length)
+			data = Arrays.copyOf(data, Math.max(data.length + (data.length >> 1), dataLimit + bytes.length + 5));
+
+		int length = bytes.length;
+		while((length & ~0x7F) != 0){
+			data[dataLimit ++] = (byte)((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		data[dataLimit ++] = (byte)length;
+		System.arraycopy(bytes, 0, data, dataLimit, bytes.length);
+		dataLimit += bytes.length;
+		return offset;
+	}
+
+	private void rehash(final int slots){
+		final int[] newOffsets = new int[slots];
+		final int[] newHashes = new int[slots];
+		final int mask = slots - 1;
+		for(int i = 0; i < offsets.length; i ++)
+			if(offsets[i] != 0){
+				int slot = hashes[i] & mask;
+				while(newOffsets[slot] != 0)
+					slot = (slot + 1) & mask;
+				newOffsets[slot] = offsets[i];
+				newHashes[slot] = hashes[i];
+			}
+		offsets = newOffsets;
+		hashes = newHashes;
+	}
+
+	private static int hash(final byte[] bytes){
+		final int hash = Arrays.hashCode(bytes);
+		//spread the high bits, as the table is indexed by the lowest ones
+		return hash ^ (hash >>> 16);
+	}
+
+}
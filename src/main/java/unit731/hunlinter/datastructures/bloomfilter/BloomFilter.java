@@ -38,6 +38,7 @@ import unit731.hunlinter.datastructures.bloomfilter.hash.Murmur3HashFunction;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -50,6 +51,8 @@ import java.util.Objects;
  * One may override the decomposer to be used, the hash function to be used as well as the implementation of the {@link BitArray} that
  * needs to be used.
  *
+ * Adding and querying are lock-free (as long as the underlying {@link BitArray} is), and bit positions are 64-bit wide.
+ *
  * @param <T> the type of objects to be stored in the filter
  *
  * @see <a href="https://github.com/sangupta/bloomfilter">Bloom Filter 0.9.0</a>
@@ -84,10 +87,10 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 	/** The maximum false positive probability rate that the bloom filter can give */
 	private final double falsePositiveProbability;
 	/** Number of bits required for the bloom filter */
-	private final int bitsRequired;
+	private final long bitsRequired;
 
 	/** Number of elements actually added to the Bloom filter */
-	private volatile int addedElements;
+	private final AtomicInteger addedElements = new AtomicInteger();
 
 
 	/**
@@ -153,8 +156,6 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 
 		this.decomposer = decomposer;
 		this.hasher = ObjectUtils.defaultIfNull(hasher, HASHER_DEFAULT);
-
-		addedElements = 0;
 	}
 
 	@Override
@@ -163,8 +164,8 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 	}
 
 	@Override
-	public synchronized int getAddedElements(){
-		return addedElements;
+	public int getAddedElements(){
+		return addedElements.get();
 	}
 
 	//Default bloom filter functions follow
@@ -175,8 +176,8 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 	 * @param falsePositiveProbability	The maximum false positive rate expected, or <code>p</code>
 	 * @return the optimal size in bits for the filter, or <code>m</code>
 	 */
-	public static int optimalBitSize(final double expectedNumberOfElements, final double falsePositiveProbability){
-		return (int)Math.round(-expectedNumberOfElements * Math.log(falsePositiveProbability) / LN2_SQUARE);
+	public static long optimalBitSize(final double expectedNumberOfElements, final double falsePositiveProbability){
+		return Math.round(-expectedNumberOfElements * Math.log(falsePositiveProbability) / LN2_SQUARE);
 	}
 
 	/**
@@ -196,73 +197,62 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 	 * @param bytes	The bytes to be added to bloom filter
 	 * @return <code>true</code> if any bit was modified when adding the value, <code>false</code> otherwise
 	 */
-	public synchronized boolean add(final byte[] bytes){
-		final boolean bitsChanged = calculateIndexes(bytes);
-		if(bitsChanged)
-			addedElements ++;
-		return bitsChanged;
-	}
-
-	/**
-	 * NOTE: use the trick mentioned in "Less hashing, same performance: building a better Bloom filter" by Kirsch et.al.
-	 *		From abstract 'only two hash functions are necessary to effectively implement a Bloom filter without any loss in the
-	 *		asymptotic false positive probability'.
-	 *		Lets split up 64-bit hashcode into two 32-bit hashcodes and employ the technique mentioned in the above paper
-	 */
-	private synchronized boolean calculateIndexes(final byte[] bytes){
+	public boolean add(final byte[] bytes){
 		boolean bitsChanged = false;
-		final long hash = getLongHash64(bytes);
-		final int lowHash = (int)hash;
-		final int highHash = (int)(hash >>> 32);
-		final int size = bitArray.size();
-		for(int i = 1; i <= hashFunctions; i ++){
-			int nextHash = lowHash + i * highHash;
-			//hashcode should be positive, flip all the bits if it's negative
-			if(nextHash < 0)
-				nextHash = ~nextHash;
-
-			final int index = nextHash % size;
-			bitsChanged |= bitArray.set(index);
+		final long[] hashes = getHashes(bytes);
+		final long size = bitArray.size();
+		long nextHash = hashes[0];
+		for(int i = 0; i < hashFunctions; i ++){
+			bitsChanged |= bitArray.set(index(nextHash, size));
+
+			nextHash += hashes[1];
 		}
+		if(bitsChanged)
+			addedElements.incrementAndGet();
 		return bitsChanged;
 	}
 
-	/*
-	 * NOTE: use the trick mentioned in "Less hashing, same performance: building a better Bloom filter" by Kirsch et.al.
-	 *		From abstract 'only two hash functions are necessary to effectively implement a Bloom filter without any loss in the
-	 *		asymptotic false positive probability'.
-	 *		Lets split up 64-bit hashcode into two 32-bit hashcodes and employ the technique mentioned in the above paper
-	 */
-	public synchronized boolean contains(final byte[] bytes){
-		final long hash = getLongHash64(bytes);
-		final int lowHash = (int)hash;
-		final int highHash = (int)(hash >>> 32);
-		final int size = bitArray.size();
-		for(int i = 1; i <= hashFunctions; i ++){
-			int nextHash = lowHash + i * highHash;
-			//hashcode should be positive, flip all the bits if it's negative
-			if(nextHash < 0)
-				nextHash = ~nextHash;
-
-			final int index = nextHash % size;
-			if(!bitArray.get(index))
+	public boolean contains(final byte[] bytes){
+		final long[] hashes = getHashes(bytes);
+		final long size = bitArray.size();
+		long nextHash = hashes[0];
+		for(int i = 0; i < hashFunctions; i ++){
+			if(!bitArray.get(index(nextHash, size)))
 				return false;
+
+			nextHash += hashes[1];
 		}
 		return true;
 	}
 
+	private static long index(final long hash, final long size){
+		//hashcode should be positive, flip all the bits if it's negative
+		return (hash < 0? ~hash: hash) % size;
+	}
+
 	//Helper functions for functionality within
 	/**
-	 * Compute one 64-bit hash from the given byte-array using the specified {@link HashFunction}.
+	 * Compute two 64-bit hashes from the given byte-array using the specified {@link HashFunction}.
+	 * <p>
+	 * NOTE: use the trick mentioned in "Less hashing, same performance: building a better Bloom filter" by Kirsch et.al.
+	 *		From abstract 'only two hash functions are necessary to effectively implement a Bloom filter without any loss in the
+	 *		asymptotic false positive probability'.
+	 *		The i-th index is then computed as <code>hash[0] + i * hash[1]</code>.
 	 *
 	 * @param bytes	The byte-array to use for hash computation
-	 * @return the 64-bit hash
+	 * @return the two 64-bit hashes
 	 * @throws NullPointerException	if the byte array is <code>null</code>
 	 */
-	private long getLongHash64(final byte[] bytes){
+	private long[] getHashes(final byte[] bytes){
 		Objects.requireNonNull(bytes, "Bytes to add to bloom filter cannot be null");
 
-		return (hasher.isSingleValued()? hasher.hash(bytes): hasher.hashMultiple(bytes)[0]);
+		if(hasher.isSingleValued()){
+			final long hash = hasher.hash(bytes);
+			return new long[]{hash, Long.rotateLeft(hash, 32)};
+		}
+
+		final long[] hashes = hasher.hashMultiple(bytes);
+		return (hashes.length > 1? hashes: new long[]{hashes[0], Long.rotateLeft(hashes[0], 32)});
 	}
 
 	/**
@@ -293,8 +283,8 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 	}
 
 	@Override
-	public synchronized boolean isFull(){
-		return (addedElements >= expectedElements);
+	public boolean isFull(){
+		return (addedElements.get() >= expectedElements);
 	}
 
 	@Override
@@ -303,8 +293,8 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 	}
 
 	@Override
-	public synchronized double getTrueFalsePositiveProbability(){
-		return getTrueFalsePositiveProbability(addedElements);
+	public double getTrueFalsePositiveProbability(){
+		return getTrueFalsePositiveProbability(addedElements.get());
 	}
 
 	@Override
@@ -315,9 +305,9 @@ public class BloomFilter<T> implements BloomFilterInterface<T>{
 
 	/** Sets all bits to false in the Bloom filter. */
 	@Override
-	public synchronized void clear(){
+	public void clear(){
 		bitArray.clearAll();
-		addedElements = 0;
+		addedElements.set(0);
 	}
 
 	@Override
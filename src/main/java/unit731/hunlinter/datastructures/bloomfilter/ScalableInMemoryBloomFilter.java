@@ -25,19 +25,16 @@
 package unit731.hunlinter.datastructures.bloomfilter;
 
 import java.nio.charset.Charset;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Objects;
 import java.util.stream.IntStream;
 
-import static unit731.hunlinter.services.system.LoopHelper.forEach;
-import static unit731.hunlinter.services.system.LoopHelper.match;
-
 
 /**
  * A scalable in-memory implementation of the bloom filter.
  * Not suitable for persistence.
  *
+ * Adding and querying are lock-free, only the creation of a new (bigger) filter when the current one is full is synchronized.
+ *
  * @see <a href="https://github.com/rupeshmane/scalable-bloom-filter">Scalable Bloom Filtre</a>
  * @see <a href="http://gsd.di.uminho.pt/members/cbm/ps/dbloom.pdf">DBloom</a>
  *
@@ -49,7 +46,8 @@ public class ScalableInMemoryBloomFilter<T> implements BloomFilterInterface<T>{
 	private final Charset charset;
 	private final BloomFilterParameters parameters;
 
-	private final Deque<BloomFilterInterface<T>> filters = new ArrayDeque<>();
+	/** The filters, the most recent (and biggest) first */
+	private volatile BloomFilterInterface<T>[] filters = newArray(0);
 
 
 	public ScalableInMemoryBloomFilter(final Charset charset, final BloomFilterParameters parameters){
@@ -62,8 +60,13 @@ public class ScalableInMemoryBloomFilter<T> implements BloomFilterInterface<T>{
 		this.parameters = parameters;
 	}
 
+	@SuppressWarnings("unchecked")
+	private static <T> BloomFilterInterface<T>[] newArray(final int size){
+		return (BloomFilterInterface<T>[])new BloomFilterInterface[size];
+	}
+
 	@Override
-	public synchronized boolean add(final T value){
+	public boolean add(final T value){
 		if(value == null)
 			return false;
 
@@ -72,27 +75,43 @@ public class ScalableInMemoryBloomFilter<T> implements BloomFilterInterface<T>{
 	}
 
 	private BloomFilterInterface<T> chooseCurrentFilter(final T value){
-		BloomFilterInterface<T> currentFilter = (!filters.isEmpty()? filters.peek(): null);
-		if(currentFilter == null || !currentFilter.contains(value) && currentFilter.isFull()){
-			currentFilter = fork(filters.size());
-
-			filters.push(currentFilter);
-		}
+		final BloomFilterInterface<T>[] snapshot = filters;
+		BloomFilterInterface<T> currentFilter = (snapshot.length > 0? snapshot[0]: null);
+		if(currentFilter == null || !currentFilter.contains(value) && currentFilter.isFull())
+			currentFilter = fork(currentFilter);
 		return currentFilter;
 	}
 
-	private BloomFilterInterface<T> fork(final int count){
-		return new BloomFilter<>(charset, (int)Math.ceil(parameters.getExpectedNumberOfElements() * Math.pow(parameters.getGrowRatioWhenFull(), count)),
-			parameters.getFalsePositiveProbability() * Math.pow(parameters.getTighteningRatio(), count), parameters.getBitArrayType(), null, null);
+	private synchronized BloomFilterInterface<T> fork(final BloomFilterInterface<T> fullFilter){
+		final BloomFilterInterface<T>[] snapshot = filters;
+		//another thread has already created a new filter
+		if(snapshot.length > 0 && snapshot[0] != fullFilter)
+			return snapshot[0];
+
+		final int count = snapshot.length;
+		final BloomFilterInterface<T> currentFilter = new BloomFilter<>(charset,
+			(int)Math.ceil(parameters.getExpectedNumberOfElements() * Math.pow(parameters.getGrowRatioWhenFull(), count)),
+			parameters.getFalsePositiveProbability() * Math.pow(parameters.getTighteningRatio(), count), parameters.getBitArrayType(),
+			null, null);
+
+		final BloomFilterInterface<T>[] newFilters = newArray(count + 1);
+		newFilters[0] = currentFilter;
+		System.arraycopy(snapshot, 0, newFilters, 1, count);
+		filters = newFilters;
+		return currentFilter;
 	}
 
 	@Override
-	public synchronized boolean contains(final T value){
-		return (value != null && match(filters, filter -> filter.contains(value)) != null);
+	public boolean contains(final T value){
+		if(value != null)
+			for(final BloomFilterInterface<T> filter : filters)
+				if(filter.contains(value))
+					return true;
+		return false;
 	}
 
 	@Override
-	public synchronized int getAddedElements(){
+	public int getAddedElements(){
 		int elements = 0;
 		for(final BloomFilterInterface<T> filter : filters)
 			elements += filter.getAddedElements();
@@ -100,8 +119,9 @@ public class ScalableInMemoryBloomFilter<T> implements BloomFilterInterface<T>{
 	}
 
 	@Override
-	public synchronized boolean isFull(){
-		final int addedElements = (!filters.isEmpty()? filters.peek().getAddedElements(): 0);
+	public boolean isFull(){
+		final BloomFilterInterface<T>[] snapshot = filters;
+		final int addedElements = (snapshot.length > 0? snapshot[0].getAddedElements(): 0);
 		return (addedElements >= parameters.getExpectedNumberOfElements() / 2);
 	}
 
@@ -122,9 +142,10 @@ public class ScalableInMemoryBloomFilter<T> implements BloomFilterInterface<T>{
 
 	//P = 1 - Prod(i = 0 to n - 1 of (1 - P0 * r^i)) <= P0 / (1 - r)
 	@Override
-	public synchronized double getTrueFalsePositiveProbability(){
-		final int size = filters.size();
-		final double p0 = filters.getLast().getFalsePositiveProbability();
+	public double getTrueFalsePositiveProbability(){
+		final BloomFilterInterface<T>[] snapshot = filters;
+		final int size = snapshot.length;
+		final double p0 = snapshot[size - 1].getFalsePositiveProbability();
 		final double probability = IntStream.range(0, size)
 			.mapToDouble(i -> 1. - p0 * Math.pow(parameters.getTighteningRatio(), i))
 			.reduce(1., (a, b) -> a * b);
@@ -135,12 +156,14 @@ public class ScalableInMemoryBloomFilter<T> implements BloomFilterInterface<T>{
 
 	@Override
 	public synchronized void clear(){
-		forEach(filters, BloomFilterInterface::clear);
+		for(final BloomFilterInterface<T> filter : filters)
+			filter.clear();
 	}
 
 	@Override
 	public synchronized void close(){
-		forEach(filters, BloomFilterInterface::close);
+		for(final BloomFilterInterface<T> filter : filters)
+			filter.close();
 	}
 
 }
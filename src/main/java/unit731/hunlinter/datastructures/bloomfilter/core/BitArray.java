@@ -30,6 +30,9 @@ import java.io.IOException;
 
 /**
  * A contract for all implementations of bit-arrays. This provides specific methods that will be needed for working with bloom filters.
+ * <p>
+ * Implementations must allow concurrent calls to {@link #get(long)}, {@link #set(long)} and {@link #clear(long)} without external
+ * synchronization.
  */
 public interface BitArray extends Closeable{
 
@@ -39,7 +42,7 @@ public interface BitArray extends Closeable{
 	 * @param index the index of the bit in the array
 	 * @return <code>true</code> if the but is set, <code>false</code> otherwise
 	 */
-	boolean get(final int index);
+	boolean get(final long index);
 
 	/**
 	 * Set the bit at index
@@ -48,14 +51,14 @@ public interface BitArray extends Closeable{
 	 * @return <code>true</code> if the bit was updated, <code>false</code> otherwise.
 	 *
 	 */
-	boolean set(final int index);
+	boolean set(final long index);
 
 	/**
 	 * Clear a given bit at the index.
 	 *
 	 * @param index the index of the bit in the array
 	 */
-	void clear(final int index);
+	void clear(final long index);
 
 	/**
 	 * Clear all bits in the array.
@@ -67,7 +70,7 @@ public interface BitArray extends Closeable{
 	 *
 	 * @return the number of bits being used
 	 */
-	int size();
+	long size();
 
 	@Override
 	default void close() throws IOException{}
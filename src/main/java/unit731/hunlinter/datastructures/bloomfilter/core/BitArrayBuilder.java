@@ -43,7 +43,7 @@ public final class BitArrayBuilder{
 
 	private BitArrayBuilder(){}
 
-	public static BitArray getBitArray(final Type type, final int bits){
+	public static BitArray getBitArray(final Type type, final long bits){
 		Objects.requireNonNull(type);
 
 		BitArray ba = null;
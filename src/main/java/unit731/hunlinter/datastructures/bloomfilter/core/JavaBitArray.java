@@ -24,17 +24,20 @@
  */
 package unit731.hunlinter.datastructures.bloomfilter.core;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+
 
 /**
- * A fast bit-set implementation that allows direct access to data property so that it can be easily serialized.
+ * A fast, lock-free bit-set implementation backed by an {@link AtomicLongArray}, bits are updated through compare-and-set.
  */
 public class JavaBitArray implements BitArray{
 
 	private static final String WRONG_NUMBER_OF_BITS = "Number of bits must be strictly positive";
+	private static final String TOO_MANY_BITS = "Number of bits too big to be held in memory";
 
 
 	/** The data-set */
-	private final long[] data;
+	private final AtomicLongArray data;
 
 
 	/**
@@ -45,36 +48,49 @@ public class JavaBitArray implements BitArray{
 	public JavaBitArray(final long bits){
 		if(bits <= 0)
 			throw new IllegalArgumentException(WRONG_NUMBER_OF_BITS);
+		final long words = (bits >>> 6) + 1;
+		if(words > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(TOO_MANY_BITS);
 
-		data = new long[(int)(bits >>> 6) + 1];
+		data = new AtomicLongArray((int)words);
 	}
 
 	@Override
-	public boolean get(final int index){
-		return ((data[index >> 6] & (1l << index)) != 0l);
+	public boolean get(final long index){
+		return ((data.get(wordIndex(index)) & (1l << index)) != 0l);
 	}
 
 	/** Returns true if the bit changed value. */
 	@Override
-	public boolean set(final int index){
-		if(!get(index)){
-			data[index >> 6] |= (1l << index);
-			return true;
-		}
-		return false;
+	public boolean set(final long index){
+		final int wordIndex = wordIndex(index);
+		final long mask = 1l << index;
+		long word;
+		do{
+			word = data.get(wordIndex);
+			if((word & mask) != 0l)
+				return false;
+		}while(!data.compareAndSet(wordIndex, word, word | mask));
+		return true;
 	}
 
 	@Override
-	public void clear(final int index){
-		if(get(index))
-			data[index >> 6] &= ~(1l << index);
+	public void clear(final long index){
+		final int wordIndex = wordIndex(index);
+		final long mask = 1l << index;
+		long word;
+		do{
+			word = data.get(wordIndex);
+			if((word & mask) == 0l)
+				return;
+		}while(!data.compareAndSet(wordIndex, word, word & ~mask));
 	}
 
 	@Override
 	public void clearAll(){
-		int size = data.length;
+		int size = data.length();
 		while(size > 0)
-			data[-- size] = 0l;
+			data.set(-- size, 0l);
 	}
 
 	/**
@@ -83,8 +99,12 @@ public class JavaBitArray implements BitArray{
 	 * @return total number of bits allocated
 	 */
 	@Override
-	public int size(){
-		return data.length * Long.SIZE;
+	public long size(){
+		return (long)data.length() * Long.SIZE;
+	}
+
+	private static int wordIndex(final long index){
+		return (int)(index >>> 6);
 	}
 
 }
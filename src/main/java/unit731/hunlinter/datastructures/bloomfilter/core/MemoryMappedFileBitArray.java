@@ -30,38 +30,46 @@ import java.io.RandomAccessFile;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
-import java.util.Arrays;
 
 
 /**
- * An implementation of {@link BitArray} that uses a memory-mapped file to persist all changes synchronously for the underlying
- * bit array. This is useful for stateful bit-arrays which are expensive to construct yet need the best overall performance.
- *
- * NOTE: for some reason this class doesn't work!!
+ * An implementation of {@link BitArray} that uses a memory-mapped file to persist all changes for the underlying bit array.
+ * This is useful for stateful bit-arrays which are expensive to construct yet need the best overall performance.
+ * <p>
+ * The file is mapped in segments of at most 1 GiB each (a single mapping cannot exceed 2 GiB), bits are grouped in 64-bit words
+ * that are updated through compare-and-set.
  */
 public class MemoryMappedFileBitArray implements BitArray{
 
 	private static final String EMPTY_BACKUP_FILE = "Backup file cannot be empty/null";
-	private static final String INVALID_BACKUP_FILE = "Backup file doesn''t represent a valid file";
+	private static final String INVALID_BACKUP_FILE = "Backup file doesn't represent a valid file";
 	private static final String INVALID_NUMBER_OF_BITS = "Number of bits must be strictly positive";
+	private static final String INDEX_OUT_OF_BOUNDS = "Index is outside the allowed range";
+
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_SIZE = 1l << SEGMENT_SHIFT;
+	private static final int SEGMENT_MASK = (int)(SEGMENT_SIZE - 1);
+
+	/** Allows atomic access to the (8-byte aligned) words of a direct buffer */
+	private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
 
 
 	/** Underlying file that represents the state of the {@link BitArray} */
 	private final RandomAccessFile backingFile;
-	/** The maximum number of elements this file will store */
-	private final int maxElements;
-	/** The number of bytes being used for this byte-array */
-	private final int numberOfBytes;
-	/** The memory-mapped byte-buffer */
-	private MappedByteBuffer buffer;
+	/** The number of bits that can be stored */
+	private final long size;
+	/** The memory-mapped segments of the file */
+	private final MappedByteBuffer[] segments;
 
 
-	public MemoryMappedFileBitArray(final File backingFile, final int bits) throws IOException{
+	public MemoryMappedFileBitArray(final File backingFile, final long bits) throws IOException{
 		if(backingFile == null)
 			throw new IllegalArgumentException(EMPTY_BACKUP_FILE);
 		if(backingFile.exists() && !backingFile.isFile())
@@ -69,83 +77,100 @@ public class MemoryMappedFileBitArray implements BitArray{
 		if(bits <= 0)
 			throw new IllegalArgumentException(INVALID_NUMBER_OF_BITS);
 
-		//we open in "rwd" mode, to save one i/o operation than in "rws" mode
-		this.backingFile = new RandomAccessFile(backingFile, "rwd");
+		this.backingFile = new RandomAccessFile(backingFile, "rw");
 
-		numberOfBytes = (bits >> 3) + 1;
-		extendFile(numberOfBytes);
+		final long words = (bits >>> 6) + 1;
+		size = words * Long.SIZE;
+		final long numberOfBytes = words * Long.BYTES;
+		//the file is extended with zeros (sparsely, where supported)
+		if(this.backingFile.length() < numberOfBytes)
+			this.backingFile.setLength(numberOfBytes);
 
-		//initialize the rest
-		maxElements = bits;
+		final int numberOfSegments = (int)((numberOfBytes + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+		segments = new MappedByteBuffer[numberOfSegments];
+		//NOTE: the mappings remain valid after the channel is closed
 		try(final FileChannel channel = this.backingFile.getChannel()){
-			buffer = channel.map(MapMode.READ_WRITE, 0, this.backingFile.length());
-		}
-	}
-
-	private void extendFile(final long newLength) throws IOException{
-		final long current = backingFile.length();
-		final int delta = (int)(newLength - current) + 1;
-		if(delta > 0){
-			backingFile.setLength(newLength);
-			backingFile.seek(current);
-			final byte[] bytes = new byte[delta];
-			Arrays.fill(bytes, (byte)0x00);
-			backingFile.write(bytes);
+			for(int i = 0; i < numberOfSegments; i ++){
+				final long position = (long)i << SEGMENT_SHIFT;
+				segments[i] = channel.map(MapMode.READ_WRITE, position, Math.min(SEGMENT_SIZE, numberOfBytes - position));
+			}
 		}
 	}
 
 	@Override
-	public boolean get(final int index){
-		if(index > maxElements)
-			throw new IndexOutOfBoundsException("Index is greater than max allowed elements");
-
-		final int pos = index >> 3;
-		final int bit = 1 << (index & 0x07);
-		final byte bite = buffer.get(pos);
-		return ((bite & bit) != 0);
+	public boolean get(final long index){
+		final long byteOffset = byteOffset(index);
+		final long word = (long)WORDS.getVolatile(segment(byteOffset), offset(byteOffset));
+		return ((word & (1l << index)) != 0l);
 	}
 
 	@Override
-	public boolean set(final int index){
-		if(!get(index)){
-			final int pos = index >> 3;
-			final int bit = 1 << (index & 0x07);
-			buffer.put(pos, (byte)(buffer.get(pos) | bit));
-			return true;
-		}
-		return false;
+	public boolean set(final long index){
+		final long byteOffset = byteOffset(index);
+		final ByteBuffer segment = segment(byteOffset);
+		final int offset = offset(byteOffset);
+		final long mask = 1l << index;
+		long word;
+		do{
+			word = (long)WORDS.getVolatile(segment, offset);
+			if((word & mask) != 0l)
+				return false;
+		}while(!WORDS.compareAndSet(segment, offset, word, word | mask));
+		return true;
 	}
 
 	@Override
-	public void clear(final int index){
-		if(index > maxElements)
-			throw new IndexOutOfBoundsException("Index is greater than max allowed elements");
-
-		final int pos = index >> 3;
-		final int bit = ~(1 << (index & 0x07));
-		buffer.put(pos, (byte)(buffer.get(pos) & bit));
+	public void clear(final long index){
+		final long byteOffset = byteOffset(index);
+		final ByteBuffer segment = segment(byteOffset);
+		final int offset = offset(byteOffset);
+		final long mask = 1l << index;
+		long word;
+		do{
+			word = (long)WORDS.getVolatile(segment, offset);
+			if((word & mask) == 0l)
+				return;
+		}while(!WORDS.compareAndSet(segment, offset, word, word & ~mask));
 	}
 
 	@Override
 	public void clearAll(){
-		if(buffer != null)
-			for(int index = 0; index < numberOfBytes; index ++)
-				buffer.put(index, (byte)0);
+		for(final MappedByteBuffer segment : segments)
+			for(int offset = 0; offset < segment.capacity(); offset += Long.BYTES)
+				WORDS.setVolatile(segment, offset, 0l);
 	}
 
 	@Override
-	public int size(){
-		return numberOfBytes * Byte.SIZE;
+	public long size(){
+		return size;
+	}
+
+	private long byteOffset(final long index){
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException(INDEX_OUT_OF_BOUNDS);
+
+		return (index >>> 6) << 3;
+	}
+
+	private ByteBuffer segment(final long byteOffset){
+		return segments[(int)(byteOffset >>> SEGMENT_SHIFT)];
+	}
+
+	private static int offset(final long byteOffset){
+		return (int)byteOffset & SEGMENT_MASK;
 	}
 
 	@Override
 	public void close() throws IOException{
 		try(backingFile){
-			closeDirectBuffer();
+			for(int i = 0; i < segments.length; i ++){
+				closeDirectBuffer(segments[i]);
+				segments[i] = null;
+			}
 		}
 	}
 
-	private void closeDirectBuffer(){
+	private static void closeDirectBuffer(final MappedByteBuffer buffer){
 		//helps unmap a memory-mapped file before being garbage-collected.
 		if(buffer != null && buffer.isDirect()){
 			//we could use this type cast and call functions without reflection code,
@@ -174,11 +199,9 @@ public class MemoryMappedFileBitArray implements BitArray{
 				f.setAccessible(true);
 				final Object theUnsafe = f.get(null);
 				unmapper.bindTo(theUnsafe)
-					.invokeExact(buffer);
+					.invokeExact((ByteBuffer)buffer);
 			}
 			catch(final Throwable ignored){ }
-
-			buffer = null;
 		}
 	}
 
@@ -24,39 +24,101 @@
  */
 package unit731.hunlinter.datastructures.fsa.lookup;
 
-import org.apache.commons.lang3.ArrayUtils;
-import unit731.hunlinter.datastructures.SimpleDynamicArray;
 import unit731.hunlinter.datastructures.fsa.FSA;
 import unit731.hunlinter.datastructures.fsa.stemming.Dictionary;
 import unit731.hunlinter.datastructures.fsa.stemming.DictionaryMetadata;
 import unit731.hunlinter.datastructures.fsa.stemming.SequenceEncoderInterface;
 
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * This class implements a dictionary lookup of an inflected word over a
  * dictionary previously compiled using the
  * <code>dict_compile</code> tool.
+ * <p>
+ * Instances are immutable and can be queried concurrently: each thread walks the automaton with its own cursor, whose
+ * buffers are reused between lookups.
  */
 public class DictionaryLookup implements Iterable<WordData>{
 
-	/** An FSA used for lookups */
-	private final FSATraversal matcher;
+	private static final int EXPECTED_MAX_FORMS = 16;
+	private static final int MAX_CACHED_REPLACEMENTS = 16;
+
+	/** The automata of the replacement maps passed to {@link #applyReplacements(String, Map)}, keyed by a copy of the map */
+	private static final Map<Map<String, String>, ReplacementAutomaton> REPLACEMENTS = new ConcurrentHashMap<>();
+
+
+	/** Per-thread lookup state */
+	private final class Cursor{
+
+		private final CharsetEncoder encoder = charset.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		/** An iterator for walking along the final states of the given FSA */
+		private final ByteSequenceIterator finalStatesIterator = new ByteSequenceIterator(dictionary.fsa,
+			dictionary.fsa.getRootNode());
+		private final FSAMatchResult match = new FSAMatchResult();
+		/** The encoded word */
+		private byte[] word = new byte[32];
+		private WordData[] forms = new WordData[EXPECTED_MAX_FORMS];
+
+
+		/**
+		 * Encode word characters into bytes in the same encoding as the FSA's.
+		 *
+		 * @return	The number of bytes of the encoded word.
+		 */
+		int encode(final String text){
+			final int maxLength = (int)Math.ceil(text.length() * (double)encoder.maxBytesPerChar());
+			if(word.length < maxLength)
+				word = new byte[maxLength];
+
+			final ByteBuffer bb = ByteBuffer.wrap(word);
+			encoder.reset();
+			encoder.encode(CharBuffer.wrap(text), bb, true);
+			encoder.flush(bb);
+			return bb.position();
+		}
+
+		void addForm(final int index, final WordData form){
+			if(index == forms.length)
+				forms = Arrays.copyOf(forms, index << 1);
+			forms[index] = form;
+		}
+
+		WordData[] extractForms(final int size){
+			final WordData[] result = Arrays.copyOf(forms, size);
+			Arrays.fill(forms, 0, size, null);
+			return result;
+		}
+
+	}
 
-	/** An iterator for walking along the final states of the given FSA */
-	private final ByteSequenceIterator finalStatesIterator;
 
-	/** Private internal array of reusable word data objects */
-	private final SimpleDynamicArray<WordData> forms = new SimpleDynamicArray<>(WordData.class);
+	/** An FSA used for lookups */
+	private final FSATraversal matcher;
 
 	/** The {@link Dictionary} this lookup is using */
 	private final Dictionary dictionary;
 
+	private final Charset charset;
+	private final byte separator;
 	private final SequenceEncoderInterface sequenceEncoder;
+	private final ReplacementAutomaton inputConversion;
+	private final ReplacementAutomaton outputConversion;
+
+	private final ThreadLocal<Cursor> cursors = ThreadLocal.withInitial(Cursor::new);
 
 
 	/**
@@ -75,9 +137,12 @@ public class DictionaryLookup implements Iterable<WordData>{
 
 		this.dictionary = dictionary;
 
+		charset = metadata.getCharset();
+		separator = metadata.getSeparator();
 		sequenceEncoder = metadata.getSequenceEncoderType().get();
+		inputConversion = new ReplacementAutomaton(metadata.getInputConversionPairs());
+		outputConversion = new ReplacementAutomaton(metadata.getOutputConversionPairs());
 		matcher = new FSATraversal(fsa);
-		finalStatesIterator = new ByteSequenceIterator(fsa, fsa.getRootNode());
 	}
 
 	/**
@@ -86,68 +151,64 @@ public class DictionaryLookup implements Iterable<WordData>{
 	 * implementation the {@link WordData} may carry the stem and additional
 	 * information (tag) or just the stem.
 	 * <p>
-	 * The returned list and any object it contains are not usable after a
-	 * subsequent call to this method. Any data that should be stored in between
-	 * must be copied by the caller.
+	 * The returned list and the objects it contains are owned by the caller, and this method can be called concurrently
+	 * from many threads.
 	 *
 	 * @param word	The word (typically inflected) to look up base forms for.
 	 * @return	A list of {@link WordData} entries (possibly empty).
 	 */
 	public WordData[] lookup(String word){
-		final byte separator = dictionary.metadata.getSeparator();
-
-		if(!dictionary.metadata.getInputConversionPairs().isEmpty())
-			word = applyReplacements(word, dictionary.metadata.getInputConversionPairs());
+		word = inputConversion.apply(word);
 
-		//encode word characters into bytes in the same encoding as the FSA's
-		final byte[] wordAsByteArray = word.getBytes(dictionary.metadata.getCharset());
-		if(ArrayUtils.indexOf(wordAsByteArray, separator) >= 0)
-			throw new IllegalArgumentException("No valid input can contain the separator: " + word);
-
-		forms.reset();
+		final Cursor cursor = cursors.get();
+		final int wordLength = cursor.encode(word);
+		final byte[] wordAsByteArray = cursor.word;
+		for(int i = 0; i < wordLength; i ++)
+			if(wordAsByteArray[i] == separator)
+				throw new IllegalArgumentException("No valid input can contain the separator: " + word);
 
 		//try to find a partial match in the dictionary
-		final FSAMatchResult match = matcher.match(wordAsByteArray, dictionary.fsa.getRootNode());
+		final FSA fsa = dictionary.fsa;
+		final FSAMatchResult match = matcher.match(cursor.match, wordAsByteArray, 0, wordLength, fsa.getRootNode());
 
+		int formsCount = 0;
 		if(match.kind == FSAMatchResult.PREFIX_MATCH){
 			//the entire sequence exists in the dictionary, a separator should be the next symbol
-			final int arc = dictionary.fsa.getArc(match.node, separator);
+			final int arc = fsa.getArc(match.node, separator);
 
 			//the situation when the arc points to a final node should NEVER happen,
 			//after all, we want the word to have SOME base form
-			if(arc != 0 && !dictionary.fsa.isArcFinal(arc)){
-				finalStatesIterator.restartFrom(dictionary.fsa.getEndNode(arc));
+			if(arc != 0 && !fsa.isArcFinal(arc)){
+				//all the forms share the same inflected word
+				final byte[] inflectedWord = (outputConversion.isEmpty()? Arrays.copyOf(wordAsByteArray, wordLength):
+					outputConversion.apply(word).getBytes(charset));
+
+				final ByteSequenceIterator finalStatesIterator = cursor.finalStatesIterator.restartFrom(fsa.getEndNode(arc));
 				//there is such a word in the dictionary, return its base forms
 				while(finalStatesIterator.hasNext()){
 					final ByteBuffer bb = finalStatesIterator.next();
+					final byte[] bbArray = bb.array();
+					final int limit = bb.remaining();
 
 					//find the separator byte's position splitting the inflection instructions from the tag
-					final byte[] bbArray = bb.array();
-					int separatorIndex = ArrayUtils.indexOf(bbArray, separator);
+					int separatorIndex = indexOf(bbArray, separator, limit);
 
 					//now, expand the prefix/ suffix 'compression' and store the base form
 					final WordData wordData = new WordData();
-					final Map<String, String> outputConversionPairs = dictionary.metadata.getOutputConversionPairs();
-					wordData.setWord((outputConversionPairs.isEmpty()? word: applyReplacements(word, outputConversionPairs))
-						.getBytes(dictionary.metadata.getCharset()));
+					wordData.setWord(inflectedWord);
 
 					//decode the stem into stem buffer
-					final byte[] copy = new byte[separatorIndex];
-					System.arraycopy(bbArray, 0, copy, 0, separatorIndex);
-					wordData.setStem(sequenceEncoder.decode(wordAsByteArray, copy));
+					wordData.setStem(sequenceEncoder.decode(wordAsByteArray, wordLength, bbArray, 0, separatorIndex));
 
 					//skip separator character
 					separatorIndex ++;
 
 					//decode the tag data
-					final int tagSize = bb.remaining() - separatorIndex;
-					if(tagSize > 0){
-						final byte[] tag = new byte[tagSize];
-						System.arraycopy(bbArray, separatorIndex, tag, 0, tagSize);
-						wordData.setTag(tag);
-					}
-
-					forms.add(wordData);
+					final int tagSize = limit - separatorIndex;
+					if(tagSize > 0)
+						wordData.setTag(Arrays.copyOfRange(bbArray, separatorIndex, limit));
+
+					cursor.addForm(formsCount ++, wordData);
 				}
 			}
 		}
@@ -156,31 +217,43 @@ public class DictionaryLookup implements Iterable<WordData>{
 			//I don't really know how to deal with it at the time being.
 			throw new IllegalArgumentException("what?!?!");
 		}
-		return forms.extractCopy();
+		return cursor.extractForms(formsCount);
+	}
+
+	private static int indexOf(final byte[] array, final byte value, final int limit){
+		for(int i = 0; i < limit; i ++)
+			if(array[i] == value)
+				return i;
+		return limit;
 	}
 
 	/**
 	 * Apply partial string replacements from a given map.
 	 * <p>
 	 * Useful if the word needs to be normalized somehow (i.e., ligatures, apostrophes and such).
+	 * <p>
+	 * Replacements are applied in a single pass, preferring the longest key at each position; the replaced text is not
+	 * scanned again, so replacements are not chained: with <code>a -&gt; b</code> and <code>b -&gt; c</code>,
+	 * <code>ab</code> becomes <code>bc</code> (whereas applying each replacement in turn to the whole word gave
+	 * <code>cc</code>, or <code>bc</code>, depending on the iteration order of the map).
+	 * <p>
+	 * The automaton of the last few maps is cached.
 	 *
 	 * @param word         The word to apply replacements to.
 	 * @param replacements A map of replacements (from-&gt;to).
 	 * @return new string with all replacements applied.
 	 */
 	public static String applyReplacements(final String word, final Map<String, String> replacements){
-		//quite horrible from performance point of view; this should really be a Finite State Transducer
-		//(like https://github.com/ChrisBlom/Effestee)
-		final StringBuilder sb = new StringBuilder(word);
-		for(final Map.Entry<String, String> e : replacements.entrySet()){
-			final String key = e.getKey();
-			int index = sb.indexOf(key);
-			while(index != - 1){
-				sb.replace(index, index + key.length(), e.getValue());
-				index = sb.indexOf(key, index + key.length());
-			}
+		ReplacementAutomaton automaton = REPLACEMENTS.get(replacements);
+		if(automaton == null){
+			if(REPLACEMENTS.size() >= MAX_CACHED_REPLACEMENTS)
+				REPLACEMENTS.clear();
+
+			automaton = new ReplacementAutomaton(replacements);
+			//the key is a copy, so that a later change to the given map is not reflected into the cache
+			REPLACEMENTS.putIfAbsent(new HashMap<>(replacements), automaton);
 		}
-		return sb.toString();
+		return automaton.apply(word);
 	}
 
 	/** Return an iterator over all {@link WordData} entries available in the embedded {@link Dictionary} */
@@ -147,30 +147,54 @@ public final class FSATraversal{
 	 * @param node	The node to start traversal from, typically the {@linkplain FSA#getRootNode() root node}.
 	 * @return	{@link FSAMatchResult} with updated match {@link FSAMatchResult#kind}.
 	 */
-	public FSAMatchResult match(final byte[] sequence, final int start, final int length, int node){
-		if(node == 0)
-			return new FSAMatchResult(FSAMatchResult.NO_MATCH, start, node);
+	public FSAMatchResult match(final byte[] sequence, final int start, final int length, final int node){
+		return match(new FSAMatchResult(), sequence, start, length, node);
+	}
+
+	/**
+	 * Same as {@link #match(byte[], int, int, int)}, but stores the outcome into the given (reusable) result.
+	 *
+	 * @param result	The result to be filled.
+	 * @param sequence	Input sequence to look for in the automaton.
+	 * @param start	Start index in the sequence array.
+	 * @param length	Length of the byte sequence, must be at least 1.
+	 * @param node	The node to start traversal from, typically the {@linkplain FSA#getRootNode() root node}.
+	 * @return	The given <code>result</code>, with updated match {@link FSAMatchResult#kind}.
+	 */
+	public FSAMatchResult match(final FSAMatchResult result, final byte[] sequence, final int start, final int length,
+			int node){
+		if(node == 0){
+			result.reset(FSAMatchResult.NO_MATCH, start, node);
+			return result;
+		}
 
 		final int end = start + length;
 		for(int i = start; i < end; i ++){
 			final int arc = fsa.getArc(node, sequence[i]);
-			if(arc == 0)
-				return new FSAMatchResult((i > start? FSAMatchResult.AUTOMATON_HAS_PREFIX: FSAMatchResult.NO_MATCH), i, node);
+			if(arc == 0){
+				result.reset((i > start? FSAMatchResult.AUTOMATON_HAS_PREFIX: FSAMatchResult.NO_MATCH), i, node);
+				return result;
+			}
 
-			if(i + 1 == end && fsa.isArcFinal(arc))
+			if(i + 1 == end && fsa.isArcFinal(arc)){
 				//the automaton has an exact match of the input sequence
-				return new FSAMatchResult(FSAMatchResult.EXACT_MATCH, i, node);
+				result.reset(FSAMatchResult.EXACT_MATCH, i, node);
+				return result;
+			}
 
-			if(fsa.isArcTerminal(arc))
+			if(fsa.isArcTerminal(arc)){
 				//the automaton contains a prefix of the input sequence
-				return new FSAMatchResult(FSAMatchResult.AUTOMATON_HAS_PREFIX, i + 1, node);
+				result.reset(FSAMatchResult.AUTOMATON_HAS_PREFIX, i + 1, node);
+				return result;
+			}
 
 			//make a transition along the arc
 			node = fsa.getEndNode(arc);
 		}
 
 		//the sequence is a prefix of at least one sequence in the automaton
-		return new FSAMatchResult(FSAMatchResult.PREFIX_MATCH, 0, node);
+		result.reset(FSAMatchResult.PREFIX_MATCH, 0, node);
+		return result;
 	}
 
 }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.datastructures.fsa.lookup;
+
+import unit731.hunlinter.datastructures.ahocorasicktrie.AhoCorasickTrie;
+import unit731.hunlinter.datastructures.ahocorasicktrie.AhoCorasickTrieBuilder;
+import unit731.hunlinter.datastructures.ahocorasicktrie.dtos.HitProcessor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Applies a set of string replacements in a single pass over the input.
+ * <p>
+ * All the keys are compiled into an Aho-Corasick automaton; at each position the longest matching key is replaced, and the
+ * scan resumes right after it, so the replaced text is never matched again.
+ * <p>
+ * Instances are immutable, and so can be shared between threads.
+ */
+final class ReplacementAutomaton{
+
+	/** The matches found in a word: for each starting position, the end of the longest key and its replacement */
+	private static final class Matches implements HitProcessor<String>{
+
+		private final int length;
+		private int[] ends;
+		private String[] values;
+
+
+		Matches(final int length){
+			this.length = length;
+		}
+
+		@Override
+		public boolean hit(final int begin, final int end, final String value){
+			if(ends == null){
+				ends = new int[length];
+				values = new String[length];
+			}
+			//hits come ordered by end position, so a later hit with the same beginning is a longer key
+			if(end > ends[begin]){
+				ends[begin] = end;
+				values[begin] = value;
+			}
+			return true;
+		}
+
+	}
+
+
+	private final AhoCorasickTrie<String> trie;
+
+
+	ReplacementAutomaton(final Map<String, String> replacements){
+		final Map<String, String> nonEmptyReplacements = new LinkedHashMap<>(replacements.size());
+		for(final Map.Entry<String, String> entry : replacements.entrySet())
+			if(!entry.getKey().isEmpty())
+				nonEmptyReplacements.put(entry.getKey(), entry.getValue());
+
+		trie = (!nonEmptyReplacements.isEmpty()? new AhoCorasickTrieBuilder<String>().build(nonEmptyReplacements): null);
+	}
+
+	boolean isEmpty(){
+		return (trie == null);
+	}
+
+	/**
+	 * @param word	The word to apply replacements to.
+	 * @return	The word with all the replacements applied (the very same instance if nothing matches).
+	 */
+	String apply(final String word){
+		if(trie == null)
+			return word;
+
+		final int length = word.length();
+		final Matches matches = new Matches(length);
+		trie.searchInText(word, matches);
+		if(matches.ends == null)
+			return word;
+
+		final StringBuilder sb = new StringBuilder(length + 16);
+		int i = 0;
+		while(i < length){
+			final int end = matches.ends[i];
+			if(end > 0){
+				sb.append(matches.values[i]);
+				i = end;
+			}
+			else
+				sb.append(word.charAt(i ++));
+		}
+		return sb.toString();
+	}
+
+}
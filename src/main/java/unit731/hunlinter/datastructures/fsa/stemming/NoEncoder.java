@@ -24,6 +24,8 @@
  */
 package unit731.hunlinter.datastructures.fsa.stemming;
 
+import java.util.Arrays;
+
 
 /**
  * No encoding (full target form is returned).
@@ -42,6 +44,12 @@ public class NoEncoder implements SequenceEncoderInterface{
 		return encoded;
 	}
 
+	@Override
+	public byte[] decode(final byte[] source, final int sourceLength, final byte[] encoded, final int encodedStart,
+			final int encodedLength){
+		return Arrays.copyOfRange(encoded, encodedStart, encodedStart + encodedLength);
+	}
+
 	@Override
 	public String toString(){
 		return getClass().getSimpleName();
@@ -60,7 +60,23 @@ public interface SequenceEncoderInterface{
 	 * @param encoded	The {@linkplain #encode previously encoded} byte sequence.
 	 * @return	The {@link ByteBuffer} with decoded <code>target</code>.
 	 */
-	byte[] decode(final byte[] source, final byte[] encoded);
+	default byte[] decode(final byte[] source, final byte[] encoded){
+		return decode(source, source.length, encoded, 0, encoded.length);
+	}
+
+	/**
+	 * Decodes a range of <code>encoded</code> relative to the first <code>sourceLength</code> bytes of <code>source</code>,
+	 * allowing both to be (reused) buffers larger than the actual data.
+	 *
+	 * @param source	The source byte sequence.
+	 * @param sourceLength	The number of valid bytes in <code>source</code>.
+	 * @param encoded	The array containing the {@linkplain #encode previously encoded} byte sequence.
+	 * @param encodedStart	The start of the encoded sequence inside <code>encoded</code>.
+	 * @param encodedLength	The length of the encoded sequence.
+	 * @return	The decoded <code>target</code>.
+	 */
+	byte[] decode(final byte[] source, final int sourceLength, final byte[] encoded, final int encodedStart,
+		final int encodedLength);
 
 
 	default byte encodeValue(final int value){
@@ -115,23 +115,24 @@ public class TrimInfixAndSuffixEncoder implements SequenceEncoderInterface{
 	}
 
 	@Override
-	public byte[] decode(final byte[] source, final byte[] encoded){
-		int infixIndex = decodeValue(encoded[0]);
-		int infixLength = decodeValue(encoded[1]);
-		int truncateSuffixBytes = decodeValue(encoded[2]);
+	public byte[] decode(final byte[] source, final int sourceLength, final byte[] encoded, final int encodedStart,
+			final int encodedLength){
+		int infixIndex = decodeValue(encoded[encodedStart]);
+		int infixLength = decodeValue(encoded[encodedStart + 1]);
+		int truncateSuffixBytes = decodeValue(encoded[encodedStart + 2]);
 
 		if(infixLength == REMOVE_EVERYTHING || truncateSuffixBytes == REMOVE_EVERYTHING){
 			infixIndex = 0;
-			infixLength = source.length;
+			infixLength = sourceLength;
 			truncateSuffixBytes = 0;
 		}
 
-		final int len1 = source.length - (infixIndex + infixLength + truncateSuffixBytes);
-		final int len2 = encoded.length - 3;
+		final int len1 = sourceLength - (infixIndex + infixLength + truncateSuffixBytes);
+		final int len2 = encodedLength - 3;
 		final byte[] decoded = new byte[infixIndex + len1 + len2];
 		System.arraycopy(source, 0, decoded, 0, infixIndex);
 		System.arraycopy(source, infixIndex + infixLength, decoded, infixIndex, len1);
-		System.arraycopy(encoded, 3, decoded, infixIndex + len1, len2);
+		System.arraycopy(encoded, encodedStart + 3, decoded, infixIndex + len1, len2);
 		return decoded;
 	}
 
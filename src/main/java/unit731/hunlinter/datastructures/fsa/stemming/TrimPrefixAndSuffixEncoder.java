@@ -92,19 +92,20 @@ public class TrimPrefixAndSuffixEncoder implements SequenceEncoderInterface{
 	}
 
 	@Override
-	public byte[] decode(final byte[] source, final byte[] encoded){
-		int truncatePrefixBytes = decodeValue(encoded[0]);
-		int truncateSuffixBytes = decodeValue(encoded[1]);
+	public byte[] decode(final byte[] source, final int sourceLength, final byte[] encoded, final int encodedStart,
+			final int encodedLength){
+		int truncatePrefixBytes = decodeValue(encoded[encodedStart]);
+		int truncateSuffixBytes = decodeValue(encoded[encodedStart + 1]);
 		if(truncatePrefixBytes == REMOVE_EVERYTHING || truncateSuffixBytes == REMOVE_EVERYTHING){
-			truncatePrefixBytes = source.length;
+			truncatePrefixBytes = sourceLength;
 			truncateSuffixBytes = 0;
 		}
 
-		final int len1 = source.length - (truncateSuffixBytes + truncatePrefixBytes);
-		final int len2 = encoded.length - 2;
+		final int len1 = sourceLength - (truncateSuffixBytes + truncatePrefixBytes);
+		final int len2 = encodedLength - 2;
 		final byte[] decoded = new byte[len1 + len2];
 		System.arraycopy(source, truncatePrefixBytes, decoded, 0, len1);
-		System.arraycopy(encoded, 2, decoded, len1, len2);
+		System.arraycopy(encoded, encodedStart + 2, decoded, len1, len2);
 		return decoded;
 	}
 
@@ -73,18 +73,19 @@ public class TrimSuffixEncoder implements SequenceEncoderInterface{
 	}
 
 	@Override
-	public byte[] decode(final byte[] source, final byte[] encoded){
-		final byte suffixTrimCode = encoded[0];
+	public byte[] decode(final byte[] source, final int sourceLength, final byte[] encoded, final int encodedStart,
+			final int encodedLength){
+		final byte suffixTrimCode = encoded[encodedStart];
 		int truncateBytes = decodeValue(suffixTrimCode);
 		if(truncateBytes == REMOVE_EVERYTHING)
-			truncateBytes = source.length;
+			truncateBytes = sourceLength;
 
-		final int len1 = source.length - truncateBytes;
-		final int len2 = encoded.length - 1;
+		final int len1 = sourceLength - truncateBytes;
+		final int len2 = encodedLength - 1;
 
 		final byte[] decoded = new byte[len1 + len2];
 		System.arraycopy(source, 0, decoded, 0, len1);
-		System.arraycopy(encoded, 1, decoded, len1, len2);
+		System.arraycopy(encoded, encodedStart + 1, decoded, len1, len2);
 		return decoded;
 	}
 
@@ -373,6 +373,16 @@ public class AutoCorrectLayeredPane extends JLayeredPane{
 		dm.setCorrections(null);
 	}
 
+	@EventHandler
+	public void reload(final Integer actionCommand){
+		if(actionCommand != MainFrame.ACTION_COMMAND_PARSER_RELOAD_AUTO_CORRECT)
+			return;
+
+		final AutoCorrectTableModel dm = (AutoCorrectTableModel)table.getModel();
+		dm.setCorrections(parserManager.getAcoParser().getCorrectionsDictionary());
+		updateAutoCorrectionsCounter();
+	}
+
 	private void removeSelectedRowsFromAutoCorrect(){
 		try{
 			final int selectedRow = table.convertRowIndexToModel(table.getSelectedRow());
@@ -407,6 +407,20 @@ public class CompoundsLayeredPane extends JLayeredPane implements ActionListener
 		ruleFlagsAidComboBox.setEnabled(false);
 	}
 
+	@EventHandler
+	public void reloadAid(final Integer actionCommand){
+		if(actionCommand != MainFrame.ACTION_COMMAND_PARSER_RELOAD_AID)
+			return;
+
+		final List<String> lines = parserManager.getAidParser().getLines();
+		ruleFlagsAidComboBox.removeAllItems();
+		forEach(lines, ruleFlagsAidComboBox::addItem);
+		//enable combo-box only if an AID file exists
+		final boolean aidLinesPresent = !lines.isEmpty();
+		ruleFlagsAidComboBox.setEnabled(aidLinesPresent);
+		openAidButton.setEnabled(aidLinesPresent);
+	}
+
 	private void clearOutputTable(final JTable table){
 		final HunLinterTableModelInterface<?> dm = (HunLinterTableModelInterface<?>)table.getModel();
 		dm.clear();
@@ -411,6 +411,20 @@ final int iconSize = 17;
 		ruleFlagsAidComboBox.setEnabled(false);
 	}
 
+	@EventHandler
+	public void reloadAid(final Integer actionCommand){
+		if(actionCommand != MainFrame.ACTION_COMMAND_PARSER_RELOAD_AID)
+			return;
+
+		final List<String> lines = parserManager.getAidParser().getLines();
+		ruleFlagsAidComboBox.removeAllItems();
+		forEach(lines, ruleFlagsAidComboBox::addItem);
+		//enable combo-box only if an AID file exists
+		final boolean aidLinesPresent = !lines.isEmpty();
+		ruleFlagsAidComboBox.setEnabled(aidLinesPresent);
+		openAidButton.setEnabled(aidLinesPresent);
+	}
+
 	private void inputTextFieldKeyReleased(java.awt.event.KeyEvent evt) {//GEN-FIRST:event_inputTextFieldKeyReleased
 		debouncer.call(this);
 	}//GEN-LAST:event_inputTextFieldKeyReleased
@@ -41,7 +41,7 @@ import unit731.hunlinter.services.eventbus.EventHandler;
 import unit731.hunlinter.services.system.Debouncer;
 
 import javax.swing.*;
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
@@ -99,9 +99,9 @@ public class SentenceExceptionsLayeredPane extends JLayeredPane{
          final ExceptionsParser sexParser = parserManager.getSexParser();
          sexParser.modify(changeType, tags);
          try{
-            sexParser.save(packager.getSentenceExceptionsFile());
+            parserManager.storeSentenceExceptionFile();
          }
-         catch(final TransformerException e){
+         catch(final IOException | XMLStreamException e){
             LOGGER.info(ParserManager.MARKER_APPLICATION, e.getMessage());
          }
       });
@@ -247,6 +247,17 @@ public class SentenceExceptionsLayeredPane extends JLayeredPane{
 		tagPanel.initializeTags(null);
 	}
 
+	@EventHandler
+	public void reload(final Integer actionCommand){
+		if(actionCommand != MainFrame.ACTION_COMMAND_PARSER_RELOAD_SENTENCE_EXCEPTIONS)
+			return;
+
+		updateSentenceExceptionsCounter();
+
+		final List<String> sentenceExceptions = parserManager.getSexParser().getExceptionsDictionary();
+		tagPanel.initializeTags(sentenceExceptions);
+	}
+
 	private void filterSentenceExceptions(){
 		final String unmodifiedException = textField.getText().trim();
 		if(formerFilterSentenceException != null && formerFilterSentenceException.equals(unmodifiedException))
@@ -340,6 +340,16 @@ final int iconSize = 17;
 		dm.setSynonyms(null);
 	}
 
+	@EventHandler
+	public void reload(final Integer actionCommand){
+		if(actionCommand != MainFrame.ACTION_COMMAND_PARSER_RELOAD_THESAURUS)
+			return;
+
+		final ThesaurusTableModel dm = (ThesaurusTableModel)table.getModel();
+		dm.setSynonyms(parserManager.getTheParser().getSynonymsDictionary());
+		updateSynonymsCounter();
+	}
+
 	private void filterThesaurus(){
 		final String unmodifiedSearchText = synonymsTextField.getText().trim();
 
@@ -42,7 +42,7 @@ import unit731.hunlinter.services.system.Debouncer;
 import unit731.hunlinter.services.text.StringHelper;
 
 import javax.swing.*;
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
@@ -100,9 +100,9 @@ public class WordExceptionsLayeredPane extends JLayeredPane{
          final ExceptionsParser wexParser = parserManager.getWexParser();
          wexParser.modify(changeType, tags);
          try{
-            wexParser.save(packager.getWordExceptionsFile());
+            parserManager.storeWordExceptionFile();
          }
-         catch(final TransformerException e){
+         catch(final IOException | XMLStreamException e){
             LOGGER.info(ParserManager.MARKER_APPLICATION, e.getMessage());
          }
       });
@@ -249,6 +249,16 @@ public class WordExceptionsLayeredPane extends JLayeredPane{
 		tagPanel.initializeTags(null);
 	}
 
+	@EventHandler
+	public void reload(final Integer actionCommand){
+		if(actionCommand != MainFrame.ACTION_COMMAND_PARSER_RELOAD_WORD_EXCEPTIONS)
+			return;
+
+		final List<String> wordExceptions = parserManager.getWexParser().getExceptionsDictionary();
+		tagPanel.initializeTags(wordExceptions);
+		updateWordExceptionsCounter();
+	}
+
 	private void filterWordExceptions(){
 		final String unmodifiedException = textField.getText().trim();
 		if(formerFilterWordException != null && formerFilterWordException.equals(unmodifiedException))
@@ -30,8 +30,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
-import org.xml.sax.SAXException;
 import unit731.hunlinter.MainFrame;
+import unit731.hunlinter.datastructures.bloomfilter.hash.HashFunction;
+import unit731.hunlinter.datastructures.bloomfilter.hash.Murmur3HashFunction;
 import unit731.hunlinter.gui.events.PreLoadProjectEvent;
 import unit731.hunlinter.languages.BaseBuilder;
 import unit731.hunlinter.languages.DictionaryCorrectnessChecker;
@@ -39,28 +40,44 @@ import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.affix.AffixParser;
 import unit731.hunlinter.parsers.aid.AidParser;
 import unit731.hunlinter.parsers.autocorrect.AutoCorrectParser;
+import unit731.hunlinter.parsers.dictionary.DictionaryInclusionIndex;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.dictionary.DictionarySnapshot;
+import unit731.hunlinter.parsers.dictionary.generators.InflectionCache;
 import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
 import unit731.hunlinter.parsers.exceptions.ExceptionsParser;
 import unit731.hunlinter.parsers.hyphenation.HyphenationParser;
 import unit731.hunlinter.parsers.hyphenation.Hyphenator;
 import unit731.hunlinter.parsers.hyphenation.HyphenatorInterface;
 import unit731.hunlinter.parsers.thesaurus.ThesaurusParser;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.Packager;
+import unit731.hunlinter.services.ParserHelper;
 import unit731.hunlinter.services.eventbus.EventBusService;
 import unit731.hunlinter.services.filelistener.FileChangeListener;
 import unit731.hunlinter.services.filelistener.FileListenerManager;
+import unit731.hunlinter.services.system.Debouncer;
+import unit731.hunlinter.services.system.JavaHelper;
 
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 
@@ -78,27 +95,54 @@ public class ParserManager implements FileChangeListener{
 	private static final String TAB = "\t";
 	private static final String TAB_SPACES = StringUtils.repeat(' ', 3);
 
+	/** Editors can write a file more than once when saving, reload it only when it settles down */
+	private static final int FILE_MODIFIED_DEBOUNCER_INTERVAL = 500;
+
+	private static final HashFunction HASHER = new Murmur3HashFunction();
+
 
 	private final AffixParser affParser;
-	private final AidParser aidParser;
+	private volatile AidParser aidParser;
 	private DictionaryParser dicParser;
-	private final ThesaurusParser theParser;
-	private HyphenationParser hypParser;
+	private volatile ThesaurusParser theParser;
+	private volatile HyphenationParser hypParser;
 
-	private HyphenatorInterface hyphenator;
-	private DictionaryCorrectnessChecker checker;
+	private volatile HyphenatorInterface hyphenator;
+	private volatile DictionaryCorrectnessChecker checker;
 	private WordGenerator wordGenerator;
 
-	private final AutoCorrectParser acoParser;
-	private final ExceptionsParser sexParser;
-	private final ExceptionsParser wexParser;
+	private volatile AutoCorrectParser acoParser;
+	private volatile ExceptionsParser sexParser;
+	private volatile ExceptionsParser wexParser;
 
 	private final FileListenerManager flm;
+	/**
+	 * The modified files are read on the thread of the debouncer, only the swap of the parsers read and modified by the panes
+	 * happens on the event dispatch thread
+	 */
+	private final Debouncer<Path> fileModifiedDebouncer = new Debouncer<>(this::reloadFile, FILE_MODIFIED_DEBOUNCER_INTERVAL);
+	/**
+	 * Size and content hash of the files written by the application itself, whose modification events are not to be
+	 * reloaded
+	 */
+	private final Map<Path, long[]> storedFilesFingerprint = new ConcurrentHashMap<>();
+	/** Hashes of the lines of the dictionary as they were last read, used to reload only the changed lines */
+	private volatile CompletableFuture<DictionarySnapshot> dicSnapshot;
 
 	private final Packager packager;
+	private final Path inflectionCacheDirectory;
 
 
 	public ParserManager(final Packager packager){
+		this(packager, null);
+	}
+
+	/**
+	 * @param packager	The packager of the project.
+	 * @param inflectionCacheDirectory	The directory of the inflection cache snapshots, if <code>null</code> a directory inside
+	 * 	the temporary one is used.
+	 */
+	public ParserManager(final Packager packager, final Path inflectionCacheDirectory){
 		Objects.requireNonNull(packager);
 
 		affParser = new AffixParser();
@@ -111,6 +155,7 @@ public class ParserManager implements FileChangeListener{
 		flm = new FileListenerManager();
 
 		this.packager = packager;
+		this.inflectionCacheDirectory = inflectionCacheDirectory;
 	}
 
 	public AffixParser getAffParser(){
@@ -172,10 +217,12 @@ public class ParserManager implements FileChangeListener{
 		final File dicFile = packager.getDictionaryFile();
 		final File hypFile = packager.getHyphenationFile();
 		final File aidFile = getAidFile();
+		final File theDataFile = packager.getThesaurusDataFile();
+		final File acoFile = packager.getAutoCorrectFile();
 		final File sexFile = packager.getSentenceExceptionsFile();
 		final File wexFile = packager.getWordExceptionsFile();
-		final File[] files = ArrayUtils.removeAllOccurrences(new File[]{affFile, dicFile, hypFile, aidFile, sexFile, wexFile},
-			null);
+		final File[] files = ArrayUtils.removeAllOccurrences(new File[]{affFile, dicFile, hypFile, aidFile, theDataFile, acoFile,
+			sexFile, wexFile}, null);
 		for(final File file : files)
 			flm.register(this, file.getAbsolutePath());
 	}
@@ -231,11 +278,44 @@ public class ParserManager implements FileChangeListener{
 			final String language = affixData.getLanguage();
 			final Charset charset = affixData.getCharset();
 			dicParser = new DictionaryParser(dicFile, language, charset);
+
+			dicSnapshot = CompletableFuture.supplyAsync(() -> {
+				try{
+					return DictionarySnapshot.of(dicFile, charset);
+				}
+				catch(final IOException e){
+					throw new UncheckedIOException(e);
+				}
+			});
 		}
-		else if(dicParser != null)
-			EventBusService.publish(MainFrame.ACTION_COMMAND_PARSER_CLEAR_DICTIONARY);
+		else{
+			dicSnapshot = null;
+
+			if(dicParser != null)
+				EventBusService.publish(MainFrame.ACTION_COMMAND_PARSER_CLEAR_DICTIONARY);
+		}
+
+		//persist the inflections generated with the previous rules (before the new cache reads them)
+		if(wordGenerator != null)
+			wordGenerator.closeInflectionCache();
+		final InflectionCache inflectionCache = (dicParser != null? createInflectionCache(affixData): null);
+		wordGenerator = new WordGenerator(affixData, dicParser, inflectionCache);
+
+		//the compound generation needs it right away
+		final DictionaryInclusionIndex inclusionIndex = wordGenerator.getInclusionIndex();
+		if(inclusionIndex != null && affixData.isCheckCompoundReplacement())
+			inclusionIndex.buildInBackground();
+	}
+
+	private InflectionCache createInflectionCache(final AffixData affixData){
+		try{
+			return new InflectionCache(affixData, packager.getAffixFile(), inflectionCacheDirectory);
+		}
+		catch(final IOException e){
+			LOGGER.warn("Cannot create inflection cache: {}", e.getMessage());
 
-		wordGenerator = new WordGenerator(affixData, dicParser);
+			return null;
+		}
 	}
 
 	public void openAidFile(final File aidFile) throws IOException{
@@ -262,7 +342,7 @@ public class ParserManager implements FileChangeListener{
 			EventBusService.publish(MainFrame.ACTION_COMMAND_PARSER_CLEAR_THESAURUS);
 	}
 
-	public void openAutoCorrectFile(final File acoFile) throws IOException, SAXException{
+	public void openAutoCorrectFile(final File acoFile) throws IOException, XMLStreamException{
 		if(acoFile != null && acoFile.exists()){
 			LOGGER.info(MARKER_APPLICATION, "Opening Auto-Correct file: {}", acoFile.getName());
 
@@ -274,7 +354,7 @@ public class ParserManager implements FileChangeListener{
 			EventBusService.publish(MainFrame.ACTION_COMMAND_PARSER_CLEAR_AUTO_CORRECT);
 	}
 
-	public void openSentenceExceptionsFile(final File sexFile) throws IOException, SAXException{
+	public void openSentenceExceptionsFile(final File sexFile) throws IOException, XMLStreamException{
 		if(sexFile != null && sexFile.exists()){
 			LOGGER.info(MARKER_APPLICATION, "Opening Sentence Exceptions file: {}", sexFile.getName());
 
@@ -287,7 +367,7 @@ public class ParserManager implements FileChangeListener{
 			EventBusService.publish(MainFrame.ACTION_COMMAND_PARSER_CLEAR_SENTENCE_EXCEPTION);
 	}
 
-	public void openWordExceptionsFile(final File wexFile) throws IOException, SAXException{
+	public void openWordExceptionsFile(final File wexFile) throws IOException, XMLStreamException{
 		if(wexFile != null && wexFile.exists()){
 			LOGGER.info(MARKER_APPLICATION, "Opening Word Exceptions file: {}", wexFile.getName());
 
@@ -304,27 +384,50 @@ public class ParserManager implements FileChangeListener{
 	public void storeHyphenationFile() throws IOException{
 		final File hypFile = packager.getHyphenationFile();
 		hypParser.save(hypFile);
+		markAsStored(hypFile);
 	}
 
 	public void storeThesaurusFiles() throws IOException{
 		final File theIndexFile = packager.getThesaurusIndexFile();
 		final File theDataFile = packager.getThesaurusDataFile();
 		theParser.save(theIndexFile, theDataFile);
+		markAsStored(theDataFile);
 	}
 
-	public void storeSentenceExceptionFile() throws TransformerException{
+	public void storeSentenceExceptionFile() throws IOException, XMLStreamException{
 		final File sexFile = packager.getSentenceExceptionsFile();
 		sexParser.save(sexFile);
+		markAsStored(sexFile);
 	}
 
-	public void storeWordExceptionFile() throws TransformerException{
+	public void storeWordExceptionFile() throws IOException, XMLStreamException{
 		final File wexFile = packager.getWordExceptionsFile();
 		wexParser.save(wexFile);
+		markAsStored(wexFile);
 	}
 
-	public void storeAutoCorrectFile() throws TransformerException{
+	public void storeAutoCorrectFile() throws IOException, XMLStreamException{
 		final File acoFile = packager.getAutoCorrectFile();
 		acoParser.save(acoFile);
+		markAsStored(acoFile);
+	}
+
+	private void markAsStored(final File file) throws IOException{
+		storedFilesFingerprint.put(file.toPath().toAbsolutePath(), fingerprint(file.toPath()));
+	}
+
+	/** Whether the file is still as the application itself wrote it (the in-memory data is already up to date) */
+	private boolean isAsStored(final Path path) throws IOException{
+		final long[] stored = storedFilesFingerprint.get(path.toAbsolutePath());
+		//compare the size first, to avoid reading a file that surely changed
+		return (stored != null && stored[0] == Files.size(path) && Arrays.equals(stored, fingerprint(path)));
+	}
+
+	/** @return	The size of the file followed by the hash of its content. */
+	private static long[] fingerprint(final Path path) throws IOException{
+		final byte[] content = Files.readAllBytes(path);
+		final long[] hash = HASHER.hashMultiple(content);
+		return new long[]{content.length, hash[0], hash[1]};
 	}
 
 
@@ -358,12 +461,182 @@ public class ParserManager implements FileChangeListener{
 
 	@Override
 	public void fileModified(final Path path){
-		if(path.toFile().toString().equals(packager.getDictionaryFile().toString()))
-			EventBusService.publish(MainFrame.ACTION_COMMAND_PARSER_RELOAD_DICTIONARY);
-		else{
+		fileModifiedDebouncer.call(path);
+	}
+
+	/**
+	 * Reads the modified file into new parsers on the calling thread, then swaps them in and refreshes the panes on the event
+	 * dispatch thread.
+	 */
+	void reloadFile(final Path path){
+		final File file = path.toFile();
+		try{
+			if(isAsStored(path)){
+				LOGGER.debug("File {} modified by the application itself, not reloading", path.getFileName());
+				return;
+			}
+
+			if(isSameFile(file, packager.getAffixFile())){
+				//everything else depends on the affix file
+				LOGGER.info(MARKER_APPLICATION, "File {} modified, reloading project", path.getFileName());
+
+				publishOnEventDispatchThread(() -> {}, new PreLoadProjectEvent(packager.getProjectPath()));
+				return;
+			}
+
 			LOGGER.info(MARKER_APPLICATION, "File {} modified, reloading", path.getFileName());
 
-			EventBusService.publish(new PreLoadProjectEvent(packager.getProjectPath()));
+			final String language = affParser.getLanguage();
+			if(isSameFile(file, packager.getDictionaryFile()))
+				reloadDictionaryChanges(file);
+			else if(isSameFile(file, packager.getHyphenationFile())){
+				final HyphenationParser parser = new HyphenationParser(BaseBuilder.getComparator(language));
+				parser.parse(file);
+				final Hyphenator newHyphenator = new Hyphenator(parser, HyphenationParser.BREAK_CHARACTER);
+				final DictionaryCorrectnessChecker newChecker = BaseBuilder.getCorrectnessChecker(affParser.getAffixData(),
+					newHyphenator);
+
+				JavaHelper.executeOnEventDispatchThread(() -> {
+					hypParser = parser;
+					hyphenator = newHyphenator;
+					checker = newChecker;
+				});
+			}
+			else if(isSameFile(file, getAidFile())){
+				final AidParser parser = new AidParser();
+				parser.parse(file);
+
+				publishOnEventDispatchThread(() -> aidParser = parser, MainFrame.ACTION_COMMAND_PARSER_RELOAD_AID);
+			}
+			else if(isSameFile(file, packager.getThesaurusDataFile())){
+				final ThesaurusParser parser = new ThesaurusParser(packager.getLanguage());
+				parser.parse(file);
+
+				publishOnEventDispatchThread(() -> theParser = parser, MainFrame.ACTION_COMMAND_PARSER_RELOAD_THESAURUS);
+			}
+			else if(isSameFile(file, packager.getAutoCorrectFile())){
+				final AutoCorrectParser parser = new AutoCorrectParser();
+				parser.parse(file);
+
+				publishOnEventDispatchThread(() -> acoParser = parser, MainFrame.ACTION_COMMAND_PARSER_RELOAD_AUTO_CORRECT);
+			}
+			else if(isSameFile(file, packager.getSentenceExceptionsFile())){
+				final ExceptionsParser parser = new ExceptionsParser(Packager.FILENAME_SENTENCE_EXCEPTIONS);
+				parser.parse(file, language);
+
+				publishOnEventDispatchThread(() -> sexParser = parser,
+					MainFrame.ACTION_COMMAND_PARSER_RELOAD_SENTENCE_EXCEPTIONS);
+			}
+			else if(isSameFile(file, packager.getWordExceptionsFile())){
+				final ExceptionsParser parser = new ExceptionsParser(Packager.FILENAME_WORD_EXCEPTIONS);
+				parser.parse(file, language);
+
+				publishOnEventDispatchThread(() -> wexParser = parser, MainFrame.ACTION_COMMAND_PARSER_RELOAD_WORD_EXCEPTIONS);
+			}
+		}
+		catch(final Exception e){
+			LOGGER.error(MARKER_APPLICATION, "Cannot reload file {}: {}", path.getFileName(), e.getMessage());
+		}
+	}
+
+	/**
+	 * @param swap	The replacement of the data read by the panes.
+	 * @param event	The event that refreshes the panes.
+	 */
+	private static void publishOnEventDispatchThread(final Runnable swap, final Object event){
+		JavaHelper.executeOnEventDispatchThread(() -> {
+			swap.run();
+
+			EventBusService.publish(event);
+		});
+	}
+
+	private static boolean isSameFile(final File file, final File other){
+		return (other != null && file.getAbsoluteFile().equals(other.getAbsoluteFile()));
+	}
+
+	/**
+	 * Lints only the lines changed since the dictionary was last read, and updates the inclusion index accordingly.
+	 */
+	private void reloadDictionaryChanges(final File dicFile) throws IOException{
+		if(dicParser == null){
+			//the dictionary was just created
+			prepareDictionaryFile(dicFile);
+
+			publishOnEventDispatchThread(() -> {}, MainFrame.ACTION_COMMAND_PARSER_RELOAD_DICTIONARY);
+			return;
+		}
+
+		final Charset charset = affParser.getAffixData().getCharset();
+		final DictionarySnapshot previous = getDictionarySnapshot();
+		final DictionarySnapshot current = DictionarySnapshot.of(dicFile, charset);
+		dicSnapshot = CompletableFuture.completedFuture(current);
+
+		final DictionaryInclusionIndex inclusionIndex = wordGenerator.getInclusionIndex();
+		if(previous == null){
+			//nothing to compare with
+			if(inclusionIndex != null)
+				inclusionIndex.invalidate();
+
+			publishOnEventDispatchThread(dicParser::clearBoundaries, MainFrame.ACTION_COMMAND_PARSER_RELOAD_DICTIONARY);
+			return;
+		}
+
+		final List<DictionarySnapshot.ChangedRange> ranges = previous.diff(current);
+		if(ranges.isEmpty())
+			return;
+
+		LOGGER.info(MARKER_APPLICATION, "Dictionary file changed in {} place(s), linting the changed lines", ranges.size());
+
+		final List<String> inflectedWords = new ArrayList<>();
+		DictionarySnapshot.forEachChangedLine(dicFile, charset, ranges,
+			(lineIndex, line) -> lintDictionaryLine(lineIndex, line, inflectedWords));
+
+		if(inclusionIndex != null){
+			final boolean removesLines = ranges.stream()
+				.anyMatch(DictionarySnapshot.ChangedRange::removesLines);
+			if(removesLines){
+				//the index cannot tell whether a removed word is still produced by some other line
+				inclusionIndex.invalidate();
+				if(affParser.getAffixData().isCheckCompoundReplacement())
+					inclusionIndex.buildInBackground();
+			}
+			else
+				inclusionIndex.addAll(inflectedWords);
+		}
+
+		publishOnEventDispatchThread(dicParser::clearBoundaries, MainFrame.ACTION_COMMAND_PARSER_RELOAD_DICTIONARY);
+	}
+
+	private DictionarySnapshot getDictionarySnapshot(){
+		try{
+			return (dicSnapshot != null? dicSnapshot.join(): null);
+		}
+		catch(final CompletionException e){
+			LOGGER.warn("Cannot read previous dictionary snapshot: {}", e.getCause().getMessage());
+
+			return null;
+		}
+	}
+
+	private void lintDictionaryLine(final int lineIndex, final String line, final Collection<String> inflectedWords){
+		if(lineIndex == 0 || ParserHelper.isComment(line, ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH))
+			return;
+
+		try{
+			final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+			if(checker != null)
+				checker.checkCircumfix(dicEntry);
+			final Inflection[] inflections = wordGenerator.applyAffixRules(dicEntry);
+			for(final Inflection inflection : inflections){
+				inflectedWords.add(inflection.getWord());
+
+				if(checker != null)
+					checker.checkInflection(inflection, lineIndex);
+			}
+		}
+		catch(final Exception e){
+			LOGGER.info(MARKER_APPLICATION, "{}, line {}: {}", e.getMessage(), lineIndex, line);
 		}
 	}
 
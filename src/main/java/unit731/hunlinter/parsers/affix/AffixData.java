@@ -27,9 +27,11 @@ package unit731.hunlinter.parsers.affix;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
 import unit731.hunlinter.parsers.affix.strategies.ParsingStrategyFactory;
 import unit731.hunlinter.parsers.enums.AffixOption;
 import unit731.hunlinter.parsers.vos.AffixEntry;
+import unit731.hunlinter.parsers.vos.MorphologicalFieldInterner;
 import unit731.hunlinter.parsers.vos.RuleEntry;
 import unit731.hunlinter.services.system.Memoizer;
 import unit731.hunlinter.workers.exceptions.LinterException;
@@ -75,6 +77,10 @@ public class AffixData{
 	private final Map<String, Object> data = new HashMap<>();
 	private final Collection<String> terminalAffixes = new HashSet<>();
 	private final Set<String> productableFlags = new HashSet<>();
+	private FlagRegistry flagRegistry = new FlagRegistry();
+	private MorphologicalFieldInterner morphologicalFieldInterner = new MorphologicalFieldInterner();
+	/** All the affix entries, in order of definition, so that an applied rule can be referenced by its index */
+	private final List<AffixEntry> affixEntries = new ArrayList<>();
 	private boolean closed;
 
 
@@ -101,6 +107,9 @@ public class AffixData{
 	void clear(){
 		data.clear();
 		terminalAffixes.clear();
+		flagRegistry = new FlagRegistry();
+		morphologicalFieldInterner = new MorphologicalFieldInterner();
+		affixEntries.clear();
 		closed = false;
 	}
 
@@ -167,6 +176,25 @@ public class AffixData{
 
 		if(value != null)
 			data.put(key, value);
+		if(value instanceof RuleEntry)
+			indexEntries((RuleEntry)value);
+	}
+
+	private void indexEntries(final RuleEntry rule){
+		final AffixEntry[] entries = rule.getEntries();
+		if(entries != null)
+			for(final AffixEntry entry : entries){
+				entry.setIndex(affixEntries.size());
+				affixEntries.add(entry);
+			}
+	}
+
+	/**
+	 * @param index	The {@link AffixEntry#getIndex() index} of the entry.
+	 * @return	The affix entry with the given index.
+	 */
+	public AffixEntry getAffixEntry(final int index){
+		return affixEntries.get(index);
 	}
 
 
@@ -183,6 +211,16 @@ public class AffixData{
 		return (flag != null? FLAG_PARSING_STRATEGY.apply(flag): ParsingStrategyFactory.createASCIIParsingStrategy());
 	}
 
+	/** @return	The registry of the ids of the flags of this affix file and of the dictionary read with it. */
+	public FlagRegistry getFlagRegistry(){
+		return flagRegistry;
+	}
+
+	/** @return	The interner of the morphological fields of this affix file and of the dictionary read with it. */
+	public MorphologicalFieldInterner getMorphologicalFieldInterner(){
+		return morphologicalFieldInterner;
+	}
+
 	public String getNeedAffixFlag(){
 		return getData(AffixOption.NEED_AFFIX_FLAG);
 	}
@@ -250,16 +288,8 @@ public class AffixData{
 		return productive;
 	}
 
-	public static AffixEntry[] extractListOfApplicableAffixes(final String word, final AffixEntry[] entries){
-		int limit = 0;
-		final int size = (entries != null? entries.length: 0);
-		final AffixEntry[] list = new AffixEntry[size];
-		for(int i = 0; i < size; i ++){
-			final AffixEntry entry = entries[i];
-			if(entry.canApplyTo(word))
-				list[limit ++] = entry;
-		}
-		return Arrays.copyOf(list, limit);
+	public static AffixEntry[] extractListOfApplicableAffixes(final String word, final RuleEntry rule){
+		return rule.getApplicableEntries(word);
 	}
 
 	public String getReplacementPairs(){
@@ -30,6 +30,7 @@ import unit731.hunlinter.datastructures.FixedArray;
 import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.affix.ParsingContext;
 import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
 import unit731.hunlinter.parsers.enums.AffixOption;
 import unit731.hunlinter.parsers.enums.AffixType;
 import unit731.hunlinter.parsers.vos.AffixEntry;
@@ -80,6 +81,7 @@ public class AffixHandler implements Handler{
 	private AffixEntry[] readEntries(final ParsingContext context, final RuleEntry parent, final AffixData affixData)
 			throws IOException{
 		final FlagParsingStrategy strategy = affixData.getFlagParsingStrategy();
+		final FlagRegistry flagRegistry = affixData.getFlagRegistry();
 
 		final int numEntries = Integer.parseInt(context.getThirdParameter());
 		if(numEntries <= 0)
@@ -88,6 +90,7 @@ public class AffixHandler implements Handler{
 		final Scanner scanner = context.getScanner();
 		final AffixType parentType = AffixType.createFromCode(context.getRuleType());
 		final String parentFlag = context.getFirstParameter();
+		flagRegistry.register(parentFlag);
 
 		//List<AffixEntry> prefixEntries = new ArrayList<>();
 		//List<AffixEntry> suffixEntries = new ArrayList<>();
@@ -99,8 +102,8 @@ public class AffixHandler implements Handler{
 			ParserHelper.assertNotEOF(scanner);
 
 			line = scanner.nextLine();
-			final AffixEntry entry = new AffixEntry(line, context.getIndex() + i, parentType, parentFlag, strategy, aliasesFlag,
-				aliasesMorphologicalField);
+			final AffixEntry entry = new AffixEntry(line, context.getIndex() + i, parentType, parentFlag, strategy, flagRegistry,
+				aliasesFlag, aliasesMorphologicalField, affixData.getMorphologicalFieldInterner());
 			entry.setParent(parent);
 //com.carrotsearch.sizeof.RamUsageEstimator.sizeOf(entry)
 
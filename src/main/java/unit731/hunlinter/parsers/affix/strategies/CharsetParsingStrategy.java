@@ -24,9 +24,9 @@
  */
 package unit731.hunlinter.parsers.affix.strategies;
 
-import org.apache.commons.lang3.StringUtils;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
@@ -65,14 +65,14 @@ final class CharsetParsingStrategy extends FlagParsingStrategy{
 	}
 
 	@Override
-	public String[] parseFlags(final String flags){
-		if(StringUtils.isBlank(flags))
+	public String[] parseFlags(final String text, final int start, final int end){
+		if(isBlank(text, start, end))
 			return null;
 
-		if(!canEncode(flags))
-			throw new LinterException(BAD_FORMAT.format(new Object[]{charset.displayName(), flags}));
+		if(!canEncode(CharBuffer.wrap(text, start, end)))
+			throw new LinterException(BAD_FORMAT.format(new Object[]{charset.displayName(), text.substring(start, end)}));
 
-		final String[] singleFlags = extractFlags(flags);
+		final String[] singleFlags = extractFlags(text, start, end);
 
 		checkForDuplicates(singleFlags);
 
@@ -80,10 +80,14 @@ final class CharsetParsingStrategy extends FlagParsingStrategy{
 	}
 
 	private String[] extractFlags(final CharSequence flags){
-		final int size = flags.length();
+		return extractFlags(flags, 0, flags.length());
+	}
+
+	private String[] extractFlags(final CharSequence flags, final int start, final int end){
+		final int size = end - start;
 		final String[] list = new String[size];
 		for(int i = 0; i < size; i ++)
-			list[i] = String.valueOf(flags.charAt(i));
+			list[i] = String.valueOf(flags.charAt(start + i));
 		return list;
 	}
 
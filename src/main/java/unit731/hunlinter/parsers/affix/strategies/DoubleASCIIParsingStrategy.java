@@ -24,10 +24,10 @@
  */
 package unit731.hunlinter.parsers.affix.strategies;
 
-import org.apache.commons.lang3.StringUtils;
 import unit731.hunlinter.services.RegexHelper;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
+import java.nio.CharBuffer;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
@@ -45,7 +45,6 @@ final class DoubleASCIIParsingStrategy extends FlagParsingStrategy{
 	private static final MessageFormat FLAG_MUST_BE_OF_LENGTH_TWO = new MessageFormat("Flag must be of length two: `{0}`");
 	private static final MessageFormat BAD_FORMAT_COMPOUND_RULE = new MessageFormat("Compound rule must be composed by double-characters flags in {0} encoding, or the optional operators '*' or '?: was `{1}`");
 
-	private static final Pattern PATTERN = RegexHelper.pattern("(?<=\\G.{2})");
 
 	private static final Pattern COMPOUND_RULE_SPLITTER = RegexHelper.pattern("\\((..)\\)|([?*])");
 
@@ -61,25 +60,29 @@ final class DoubleASCIIParsingStrategy extends FlagParsingStrategy{
 	private DoubleASCIIParsingStrategy(){}
 
 	@Override
-	public String[] parseFlags(final String flags){
-		if(StringUtils.isBlank(flags))
+	public String[] parseFlags(final String text, final int start, final int end){
+		if(isBlank(text, start, end))
 			return null;
 
-		if(flags.length() % 2 != 0)
-			throw new LinterException(FLAG_MUST_BE_EVEN_IN_LENGTH.format(new Object[]{flags}));
+		if((end - start) % 2 != 0)
+			throw new LinterException(FLAG_MUST_BE_EVEN_IN_LENGTH.format(new Object[]{text.substring(start, end)}));
 
-		if(!canEncode(flags))
-			throw new LinterException(BAD_FORMAT.format(new Object[]{StandardCharsets.US_ASCII.displayName(), flags}));
+		if(!canEncode(CharBuffer.wrap(text, start, end)))
+			throw new LinterException(BAD_FORMAT.format(new Object[]{StandardCharsets.US_ASCII.displayName(),
+				text.substring(start, end)}));
 
-		final String[] singleFlags = extractFlags(flags);
+		final String[] singleFlags = extractFlags(text, start, end);
 
 		checkForDuplicates(singleFlags);
 
 		return singleFlags;
 	}
 
-	private String[] extractFlags(final CharSequence flags){
-		return RegexHelper.split(flags, PATTERN);
+	private String[] extractFlags(final String text, final int start, final int end){
+		final String[] flags = new String[(end - start) >> 1];
+		for(int i = 0; i < flags.length; i ++)
+			flags[i] = text.substring(start + (i << 1), start + (i << 1) + 2);
+		return flags;
 	}
 
 	@Override
@@ -46,7 +46,26 @@ public abstract class FlagParsingStrategy{
 	 * @param flags	String to parse into flags
 	 * @return Parsed flags
 	 */
-	public abstract String[] parseFlags(final String flags);
+	public String[] parseFlags(final String flags){
+		return (flags != null? parseFlags(flags, 0, flags.length()): null);
+	}
+
+	/**
+	 * Parses the given range of a String into multiple flags, without extracting it
+	 *
+	 * @param text	String containing the flags
+	 * @param start	Index of the first character of the flags
+	 * @param end	Index past the last character of the flags
+	 * @return Parsed flags
+	 */
+	public abstract String[] parseFlags(final String text, final int start, final int end);
+
+	protected static boolean isBlank(final CharSequence text, final int start, final int end){
+		for(int i = start; i < end; i ++)
+			if(!Character.isWhitespace(text.charAt(i)))
+				return false;
+		return true;
+	}
 
 	protected void checkForDuplicates(final String[] flags){
 		final Set<String> notDuplicatedFlags = SetHelper.setOf(flags);
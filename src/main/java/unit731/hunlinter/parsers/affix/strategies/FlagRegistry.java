@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.affix.strategies;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Maps each flag of an affix file (and of the dictionaries read with it) to a dense integer id, so that sets of flags can
+ * be stored as arrays of ids, in declaration order, and membership becomes a scan over a handful of ints.
+ * <p>
+ * Ids are assigned in order of appearance and are never reassigned for the life of the registry, that is, of the
+ * {@link unit731.hunlinter.parsers.affix.AffixData affix data} owning it.
+ */
+public final class FlagRegistry{
+
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	/** Flag of each id */
+	private volatile String[] flags = new String[64];
+
+
+	/**
+	 * @param flag	The flag.
+	 * @return	The id of the flag, assigned if not already present.
+	 */
+	public int register(final String flag){
+		final Integer id = ids.get(flag);
+		return (id != null? id: assignId(flag));
+	}
+
+	private synchronized int assignId(final String flag){
+		Integer id = ids.get(flag);
+		if(id == null){
+			id = ids.size();
+			String[] currentFlags = flags;
+			if(id == currentFlags.length)
+				currentFlags = Arrays.copyOf(currentFlags, id << 1);
+			currentFlags[id] = flag;
+			flags = currentFlags;
+
+			ids.put(flag, id);
+		}
+		return id;
+	}
+
+	/**
+	 * @param flag	The flag.
+	 * @return	The id of the flag, or <code>-1</code> if the flag was never registered.
+	 */
+	public int getId(final String flag){
+		final Integer id = (flag != null? ids.get(flag): null);
+		return (id != null? id: -1);
+	}
+
+	public String getFlag(final int id){
+		return flags[id];
+	}
+
+	/**
+	 * @param flags	The flags, may be <code>null</code>.
+	 * @return	The distinct ids of the given flags in the same order (registering them if needed), <code>null</code> if there are none.
+	 */
+	public int[] toIds(final String[] flags){
+		if(flags == null || flags.length == 0)
+			return null;
+
+		final int[] flagIds = new int[flags.length];
+		int size = 0;
+		for(final String flag : flags){
+			final int id = register(flag);
+			if(indexOf(flagIds, size, id) < 0)
+				flagIds[size ++] = id;
+		}
+		return (size < flagIds.length? Arrays.copyOf(flagIds, size): flagIds);
+	}
+
+	/**
+	 * @param flagIds	The ids, may be <code>null</code>.
+	 * @return	The flags of the given ids, in the same order, <code>null</code> if there are none.
+	 */
+	public String[] toFlags(final int[] flagIds){
+		if(flagIds == null)
+			return null;
+
+		final String[] currentFlags = flags;
+		final String[] result = new String[flagIds.length];
+		for(int i = 0; i < flagIds.length; i ++)
+			result[i] = currentFlags[flagIds[i]];
+		return result;
+	}
+
+	private static int indexOf(final int[] flagIds, final int size, final int id){
+		for(int i = 0; i < size; i ++)
+			if(flagIds[i] == id)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * NOTE: an entry has a handful of flags, a linear scan is as fast as a binary search and keeps the declaration order.
+	 *
+	 * @param flagIds	The ids, may be <code>null</code>.
+	 * @param id	The id to search for.
+	 * @return	Whether the id is among the given ones.
+	 */
+	public static boolean contains(final int[] flagIds, final int id){
+		return (id >= 0 && flagIds != null && indexOf(flagIds, flagIds.length, id) >= 0);
+	}
+
+	/**
+	 * @param flagIds1	The first ids, may be <code>null</code>.
+	 * @param flagIds2	The second ids, may be <code>null</code>.
+	 * @return	The ids of the first array followed by the ones of the second not already present (one of the given arrays if it
+	 * 	already contains the other).
+	 */
+	public static int[] union(final int[] flagIds1, final int[] flagIds2){
+		if(flagIds1 == null)
+			return flagIds2;
+		if(flagIds2 == null)
+			return flagIds1;
+
+		final int[] result = Arrays.copyOf(flagIds1, flagIds1.length + flagIds2.length);
+		int size = flagIds1.length;
+		for(final int id : flagIds2)
+			if(indexOf(flagIds1, flagIds1.length, id) < 0)
+				result[size ++] = id;
+		return (size == flagIds1.length? flagIds1: Arrays.copyOf(result, size));
+	}
+
+	/**
+	 * @param flagIds	The ids, may be <code>null</code>.
+	 * @param id	The id to be removed.
+	 * @return	The ids without the given one (the given array if not present), <code>null</code> if none is left.
+	 */
+	public static int[] remove(final int[] flagIds, final int id){
+		final int index = (id >= 0 && flagIds != null? indexOf(flagIds, flagIds.length, id): -1);
+		if(index < 0)
+			return flagIds;
+		if(flagIds.length == 1)
+			return null;
+
+		final int[] result = new int[flagIds.length - 1];
+		System.arraycopy(flagIds, 0, result, 0, index);
+		System.arraycopy(flagIds, index + 1, result, index, result.length - index);
+		return result;
+	}
+
+}
@@ -24,7 +24,6 @@
  */
 package unit731.hunlinter.parsers.affix.strategies;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import unit731.hunlinter.services.RegexHelper;
 import unit731.hunlinter.workers.exceptions.LinterException;
@@ -49,6 +48,7 @@ final class NumericalParsingStrategy extends FlagParsingStrategy{
 	private static final int MAX_NUMERICAL_FLAG = 65_535;
 
 	private static final String COMMA = ",";
+	private static final char FLAG_SEPARATOR = ',';
 
 	private static final Pattern COMPOUND_RULE_SPLITTER = RegexHelper.pattern("\\((\\d+)\\)|([?*])");
 
@@ -64,11 +64,11 @@ final class NumericalParsingStrategy extends FlagParsingStrategy{
 	private NumericalParsingStrategy(){}
 
 	@Override
-	public String[] parseFlags(final String flags){
-		if(StringUtils.isBlank(flags))
+	public String[] parseFlags(final String text, final int start, final int end){
+		if(isBlank(text, start, end))
 			return null;
 
-		final String[] singleFlags = extractFlags(flags);
+		final String[] singleFlags = extractFlags(text, start, end);
 
 		checkForDuplicates(singleFlags);
 
@@ -77,8 +77,23 @@ final class NumericalParsingStrategy extends FlagParsingStrategy{
 		return singleFlags;
 	}
 
-	private String[] extractFlags(final String flags){
-		return StringUtils.split(flags, COMMA);
+	/** Splits the flags on commas, skipping the empty ones */
+	private String[] extractFlags(final String text, final int start, final int end){
+		int count = 0;
+		for(int i = start; i < end; i ++)
+			if(text.charAt(i) != FLAG_SEPARATOR && (i == start || text.charAt(i - 1) == FLAG_SEPARATOR))
+				count ++;
+
+		final String[] flags = new String[count];
+		int index = 0;
+		int flagStart = start;
+		for(int i = start; i <= end; i ++)
+			if(i == end || text.charAt(i) == FLAG_SEPARATOR){
+				if(i > flagStart)
+					flags[index ++] = text.substring(flagStart, i);
+				flagStart = i + 1;
+			}
+		return flags;
 	}
 
 	@Override
@@ -25,10 +25,6 @@
 package unit731.hunlinter.parsers.autocorrect;
 
 import org.apache.commons.lang3.tuple.Pair;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.xml.sax.SAXException;
 import unit731.hunlinter.parsers.hyphenation.HyphenationParser;
 import unit731.hunlinter.parsers.thesaurus.DuplicationResult;
 import unit731.hunlinter.services.XMLManager;
@@ -37,20 +33,27 @@ import unit731.hunlinter.workers.core.IndexDataPair;
 import unit731.hunlinter.workers.exceptions.LinterException;
 import unit731.hunlinter.workers.exceptions.LinterWarning;
 
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 
-import static unit731.hunlinter.services.system.LoopHelper.applyIf;
-import static unit731.hunlinter.services.system.LoopHelper.match;
-
 
 /** Manages pairs of mistyped words and their correct spelling */
 public class AutoCorrectParser{
@@ -59,6 +62,7 @@ public class AutoCorrectParser{
 
 	private static final MessageFormat BAD_QUOTE = new MessageFormat("{0} form cannot contain apostrophes or double quotes: `{1}`");
 	private static final MessageFormat DUPLICATED_ENTRY = new MessageFormat("Duplicated entry in auto-correct file: `{0}` -> `{1}`");
+	private static final MessageFormat CONFLICTING_ENTRY = new MessageFormat("Conflicting entry in auto-correct file: `{0}` -> `{1}`, already corrected into `{2}`");
 	private static final MessageFormat INVALID_ROOT = new MessageFormat("Invalid root element, expected `{0}`, was `{1}`");
 
 	private static final String AUTO_CORRECT_NAMESPACE = "block-list:";
@@ -69,6 +73,8 @@ public class AutoCorrectParser{
 
 
 	private final List<CorrectionEntry> dictionary = new ArrayList<>();
+	/** The entries of the dictionary by incorrect form (more than one only in case of duplicates or conflicts) */
+	private final Map<String, List<CorrectionEntry>> correctionsByIncorrectForm = new HashMap<>();
 
 
 	/**
@@ -76,41 +82,71 @@ public class AutoCorrectParser{
 	 *
 	 * @param acoFile	The reference to the auto-correct file
 	 * @throws IOException	If an I/O error occurs
-	 * @throws SAXException	If an parsing error occurs on the `xml` file
+	 * @throws XMLStreamException	If an parsing error occurs on the `xml` file
 	 */
-	public void parse(final File acoFile) throws IOException, SAXException{
+	public void parse(final File acoFile) throws IOException, XMLStreamException{
 		clear();
 
-		final Document doc = XMLManager.parseXMLDocument(acoFile);
-
-		final Element rootElement = doc.getDocumentElement();
-		if(!AUTO_CORRECT_ROOT_ELEMENT.equals(rootElement.getNodeName()))
-			throw new LinterException(INVALID_ROOT.format(new Object[]{AUTO_CORRECT_ROOT_ELEMENT, rootElement.getNodeName()}));
-
-		final List<Node> children = XMLManager.extractChildren(rootElement, node -> XMLManager.isElement(node, AUTO_CORRECT_BLOCK));
-		for(final Node child : children){
-			final Node mediaType = XMLManager.extractAttribute(child, AUTO_CORRECT_INCORRECT_FORM);
-			if(mediaType != null){
-				final CorrectionEntry correctionEntry = new CorrectionEntry(mediaType.getNodeValue(),
-					XMLManager.extractAttributeValue(child, AUTO_CORRECT_CORRECT_FORM));
-				dictionary.add(correctionEntry);
+		try(final InputStream is = new BufferedInputStream(Files.newInputStream(acoFile.toPath()))){
+			final XMLStreamReader reader = XMLManager.createXMLStreamReader(is);
+			try{
+				boolean rootElement = true;
+				while(reader.hasNext())
+					if(reader.next() == XMLStreamConstants.START_ELEMENT){
+						final String elementName = XMLManager.getName(reader);
+						if(rootElement){
+							if(!AUTO_CORRECT_ROOT_ELEMENT.equals(elementName))
+								throw new LinterException(INVALID_ROOT.format(new Object[]{AUTO_CORRECT_ROOT_ELEMENT, elementName}));
+
+							rootElement = false;
+						}
+						else if(AUTO_CORRECT_BLOCK.equals(elementName)){
+							final String incorrectForm = XMLManager.extractAttributeValue(reader, AUTO_CORRECT_INCORRECT_FORM);
+							if(incorrectForm != null){
+								final CorrectionEntry correctionEntry = new CorrectionEntry(incorrectForm,
+									XMLManager.extractAttributeValue(reader, AUTO_CORRECT_CORRECT_FORM));
+								validate(correctionEntry);
+
+								add(correctionEntry);
+							}
+						}
+					}
+			}
+			finally{
+				reader.close();
 			}
 		}
+	}
 
-		validate();
+	/* Check for duplications and conflicts against the entries already read */
+	private void validate(final CorrectionEntry correctionEntry){
+		final List<CorrectionEntry> corrections = correctionsByIncorrectForm.get(correctionEntry.getIncorrectForm());
+		if(corrections != null){
+			final IndexDataPair<Object> data = IndexDataPair.of(dictionary.size(), null);
+			if(corrections.contains(correctionEntry))
+				EventBusService.publish(new LinterWarning(DUPLICATED_ENTRY.format(new Object[]{correctionEntry.getIncorrectForm(),
+					correctionEntry.getCorrectForm()}), data));
+			else
+				EventBusService.publish(new LinterWarning(CONFLICTING_ENTRY.format(new Object[]{correctionEntry.getIncorrectForm(),
+					correctionEntry.getCorrectForm(), corrections.get(0).getCorrectForm()}), data));
+		}
 	}
 
-	private void validate(){
-		//check for duplications
-		int index = 0;
-		final Collection<String> map = new HashSet<>();
-		for(final CorrectionEntry s : dictionary){
-			if(!map.add(s.getIncorrectForm()))
-				EventBusService.publish(new LinterWarning(DUPLICATED_ENTRY.format(new Object[]{s.getIncorrectForm(), s.getCorrectForm()}),
-					IndexDataPair.of(index, null)));
+	private void add(final CorrectionEntry correctionEntry){
+		dictionary.add(correctionEntry);
+		index(correctionEntry);
+	}
 
-			index ++;
-		}
+	private void index(final CorrectionEntry correctionEntry){
+		correctionsByIncorrectForm.computeIfAbsent(correctionEntry.getIncorrectForm(), k -> new ArrayList<>(1))
+			.add(correctionEntry);
+	}
+
+	private void unindex(final CorrectionEntry correctionEntry){
+		final List<CorrectionEntry> corrections = correctionsByIncorrectForm.get(correctionEntry.getIncorrectForm());
+		corrections.remove(correctionEntry);
+		if(corrections.isEmpty())
+			correctionsByIncorrectForm.remove(correctionEntry.getIncorrectForm());
 	}
 
 	public List<CorrectionEntry> getCorrectionsDictionary(){
@@ -122,7 +158,9 @@ public class AutoCorrectParser{
 	}
 
 	public void setCorrection(final int index, final String incorrect, final String correct){
-		dictionary.set(index, new CorrectionEntry(incorrect, correct));
+		final CorrectionEntry correctionEntry = new CorrectionEntry(incorrect, correct);
+		unindex(dictionary.set(index, correctionEntry));
+		index(correctionEntry);
 	}
 
 	/**
@@ -142,30 +180,30 @@ public class AutoCorrectParser{
 		final List<CorrectionEntry> duplicates = extractDuplicates(incorrect, correct);
 		final boolean forceInsertion = (duplicates.isEmpty() || duplicatesDiscriminator.get());
 		if(forceInsertion)
-			dictionary.add(new CorrectionEntry(incorrect, correct));
+			add(new CorrectionEntry(incorrect, correct));
 
 		return new DuplicationResult<>(duplicates, forceInsertion);
 	}
 
 	public void deleteCorrection(final int selectedRowID){
-		dictionary.remove(selectedRowID);
+		unindex(dictionary.remove(selectedRowID));
 	}
 
 	/* Find if there is a duplicate with the same incorrect and correct forms */
 	private List<CorrectionEntry> extractDuplicates(final String incorrect, final String correct){
-		final ArrayList<CorrectionEntry> duplicates = new ArrayList<>(dictionary.size());
-		applyIf(dictionary,
-			correction -> correction.getIncorrectForm().equals(incorrect) && correction.getCorrectForm().equals(correct),
-			duplicates::add);
-		duplicates.trimToSize();
+		final List<CorrectionEntry> corrections = correctionsByIncorrectForm.getOrDefault(incorrect, Collections.emptyList());
+		final ArrayList<CorrectionEntry> duplicates = new ArrayList<>(corrections.size());
+		for(final CorrectionEntry correction : corrections)
+			if(correction.getCorrectForm().equals(correct))
+				duplicates.add(correction);
 		return duplicates;
 	}
 
 	/* Find if there is a duplicate with the same incorrect and correct forms */
 	public boolean contains(final String incorrect, final String correct){
-		return (match(dictionary,
-			elem -> !incorrect.isEmpty() && !correct.isEmpty()
-				&& elem.getIncorrectForm().equals(incorrect) && elem.getCorrectForm().equals(correct)) != null);
+		return (!incorrect.isEmpty() && !correct.isEmpty()
+			&& correctionsByIncorrectForm.getOrDefault(incorrect, Collections.emptyList())
+				.contains(new CorrectionEntry(incorrect, correct)));
 	}
 
 	public static Pair<String, String> extractComponentsForFilter(final String incorrect, final String correct){
@@ -186,27 +224,36 @@ public class AutoCorrectParser{
 		return Pair.of(incorrectFilter, correctFilter);
 	}
 
-	public void save(final File acoFile) throws TransformerException{
-		final Document doc = XMLManager.newXMLDocumentStandalone();
-
-		//root element
-		final Element root = doc.createElement(AUTO_CORRECT_ROOT_ELEMENT);
-		root.setAttribute(XMLManager.ROOT_ATTRIBUTE_NAME, XMLManager.ROOT_ATTRIBUTE_VALUE);
-		doc.appendChild(root);
-
-		for(final CorrectionEntry correction : dictionary){
-			//correction element
-			final Element elem = doc.createElement(AUTO_CORRECT_BLOCK);
-			elem.setAttribute(AUTO_CORRECT_INCORRECT_FORM, correction.getIncorrectForm());
-			elem.setAttribute(AUTO_CORRECT_CORRECT_FORM, correction.getCorrectForm());
-			root.appendChild(elem);
+	public void save(final File acoFile) throws IOException, XMLStreamException{
+		try(final OutputStream os = new BufferedOutputStream(Files.newOutputStream(acoFile.toPath()))){
+			final XMLStreamWriter writer = XMLManager.createXMLStreamWriter(os, StandardCharsets.US_ASCII);
+			try{
+				//root element
+				writer.writeStartElement(AUTO_CORRECT_ROOT_ELEMENT);
+				writer.writeAttribute(XMLManager.ROOT_ATTRIBUTE_NAME, XMLManager.ROOT_ATTRIBUTE_VALUE);
+
+				for(final CorrectionEntry correction : dictionary){
+					//correction element
+					XMLManager.writeIndentation(writer, 1);
+					writer.writeEmptyElement(AUTO_CORRECT_BLOCK);
+					writer.writeAttribute(AUTO_CORRECT_INCORRECT_FORM, correction.getIncorrectForm());
+					writer.writeAttribute(AUTO_CORRECT_CORRECT_FORM, correction.getCorrectForm());
+				}
+
+				XMLManager.writeIndentation(writer, 0);
+				writer.writeEndElement();
+				XMLManager.writeIndentation(writer, 0);
+				writer.writeEndDocument();
+			}
+			finally{
+				writer.close();
+			}
 		}
-
-		XMLManager.createXML(acoFile, doc, XMLManager.XML_PROPERTIES_US_ASCII);
 	}
 
 	public void clear(){
 		dictionary.clear();
+		correctionsByIncorrectForm.clear();
 	}
 
 }
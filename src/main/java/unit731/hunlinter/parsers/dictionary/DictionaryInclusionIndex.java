@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unit731.hunlinter.datastructures.CompactStringSet;
+import unit731.hunlinter.parsers.ParserManager;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.services.ParserHelper;
+import unit731.hunlinter.services.system.ChunkedLineReader;
+import unit731.hunlinter.workers.exceptions.LinterException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.MessageFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Exact index of all the inflections of the dictionary, used to test whether a word is produced by the dictionary.
+ * <p>
+ * The index is built once, on a background thread, the first time it is requested (or explicitly through
+ * {@link #buildInBackground()}), and kept until {@link #invalidate() invalidated}; the inflections are split into shards by
+ * hash, so the lines of the dictionary can be expanded in parallel.
+ * <p>
+ * The lines that cannot be expanded are skipped (and logged), as the linter does; a build that fails altogether (e.g. the
+ * file cannot be read) is kept as well, and reported to every request, until the index is invalidated.
+ */
+public class DictionaryInclusionIndex{
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DictionaryInclusionIndex.class);
+
+	private static final MessageFormat BUILD_FAILED = new MessageFormat("Cannot build the dictionary inclusion index: {0}");
+
+	private static final int SHARDS = 64;
+
+	private static final Executor BACKGROUND_EXECUTOR = runnable -> {
+		final Thread thread = new Thread(runnable, "dictionary-inclusion-index");
+		thread.setDaemon(true);
+		thread.start();
+	};
+
+
+	private final DictionaryParser dicParser;
+	private final WordGenerator wordGenerator;
+
+	private final AtomicReference<CompletableFuture<CompactStringSet[]>> index = new AtomicReference<>();
+
+
+	public DictionaryInclusionIndex(final DictionaryParser dicParser, final WordGenerator wordGenerator){
+		Objects.requireNonNull(dicParser, "Dictionary parser cannot be null");
+		Objects.requireNonNull(wordGenerator, "Word generator cannot be null");
+
+		this.dicParser = dicParser;
+		this.wordGenerator = wordGenerator;
+	}
+
+	/** Starts building the index, if not already built or being built. */
+	public void buildInBackground(){
+		getIndex();
+	}
+
+	/** Discards the index, the next request will build it again. */
+	public void invalidate(){
+		index.set(null);
+	}
+
+	/**
+	 * Adds the given inflections to the index if it is already built, otherwise discards it (a build in progress may have
+	 * read the file before the change).
+	 *
+	 * @param words	The inflections of the lines added to the dictionary.
+	 */
+	public void addAll(final Iterable<String> words){
+		final CompletableFuture<CompactStringSet[]> future = index.get();
+		if(future == null || !future.isDone() || future.isCompletedExceptionally()){
+			invalidate();
+			return;
+		}
+
+		final CompactStringSet[] shards = future.join();
+		for(final String word : words){
+			final CompactStringSet shard = shards[shardOf(word)];
+			synchronized(shard){
+				shard.add(word);
+			}
+		}
+	}
+
+	/**
+	 * Tests whether the given word is an inflection of the dictionary, waiting for the index to be built if needed.
+	 *
+	 * @param word	The word to be tested.
+	 * @return	Whether the word is an inflection of the dictionary.
+	 */
+	public boolean isInDictionary(final String word){
+		final CompactStringSet[] shards = join(getIndex());
+		final CompactStringSet shard = shards[shardOf(word)];
+		//lines added to the dictionary can grow the shard meanwhile
+		synchronized(shard){
+			return shard.contains(word);
+		}
+	}
+
+	private CompletableFuture<CompactStringSet[]> getIndex(){
+		while(true){
+			final CompletableFuture<CompactStringSet[]> future = index.get();
+			if(future != null)
+				return future;
+
+			//the index may be invalidated between a failed `compareAndSet` and the next read, so try again
+			final CompletableFuture<CompactStringSet[]> newFuture = new CompletableFuture<>();
+			if(index.compareAndSet(null, newFuture)){
+				BACKGROUND_EXECUTOR.execute(() -> {
+					try{
+						newFuture.complete(build());
+					}
+					catch(final Throwable t){
+						//the failed build is kept until invalidated, so the requests do not build it again over and over
+						newFuture.completeExceptionally(t);
+					}
+				});
+				return newFuture;
+			}
+		}
+	}
+
+	private CompactStringSet[] build(){
+		final CompactStringSet[] shards = new CompactStringSet[SHARDS];
+		for(int i = 0; i < SHARDS; i ++)
+			shards[i] = new CompactStringSet();
+
+		try{
+			ChunkedLineReader.forEachLine(dicParser.getDicFile().toPath(), dicParser.getCharset(),
+				(lineIndex, line) -> {
+					//skip the header with the number of lines, and comments
+					if(lineIndex == 0 || ParserHelper.isComment(line, ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH))
+						return;
+
+					final Inflection[] inflections;
+					try{
+						final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+						inflections = wordGenerator.applyAffixRules(dicEntry);
+					}
+					catch(final Exception e){
+						LOGGER.info(ParserManager.MARKER_APPLICATION, "{}, line {}: {}", e.getMessage(), lineIndex, line);
+						return;
+					}
+
+					for(final Inflection inflection : inflections){
+						final String word = inflection.getWord();
+						final CompactStringSet shard = shards[shardOf(word)];
+						synchronized(shard){
+							shard.add(word);
+						}
+					}
+				},
+				null);
+		}
+		catch(final IOException e){
+			throw new UncheckedIOException(e);
+		}
+
+		//all the lines are processed at this point
+		int totalUniqueInflections = 0;
+		for(final CompactStringSet shard : shards){
+			shard.trimToSize();
+			totalUniqueInflections += shard.size();
+		}
+		LOGGER.info(ParserManager.MARKER_APPLICATION, "Dictionary inclusion index built, total unique inflections: {}",
+			DictionaryParser.COUNTER_FORMATTER.format(totalUniqueInflections));
+		return shards;
+	}
+
+	private static CompactStringSet[] join(final CompletableFuture<CompactStringSet[]> future){
+		try{
+			return future.join();
+		}
+		catch(final CompletionException e){
+			final Throwable cause = e.getCause();
+			if(cause instanceof LinterException)
+				throw (LinterException)cause;
+
+			throw new LinterException(BUILD_FAILED.format(new Object[]{cause.getMessage()}), cause, null);
+		}
+	}
+
+	private static int shardOf(final String word){
+		final int hash = word.hashCode();
+		return (hash ^ (hash >>> 16)) & (SHARDS - 1);
+	}
+
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary;
+
+import unit731.hunlinter.services.system.BufferedLineReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+
+/**
+ * The hashes of the lines of a dictionary file, used to find the lines changed between two versions of the file without
+ * keeping the previous content in memory.
+ * <p>
+ * The first line (the number of entries) is ignored when comparing two snapshots.
+ */
+public final class DictionarySnapshot{
+
+	private static final long FNV_OFFSET_BASIS = 0xCBF2_9CE4_8422_2325l;
+	private static final long FNV_PRIME = 0x0000_0100_0000_01B3l;
+
+	/** Above this number of inserted and deleted lines the differing lines are reported as a single range */
+	private static final int MAX_EDITS = 512;
+
+
+	/** A range of lines of the previous version replaced by a range of lines of the current version */
+	public static final class ChangedRange{
+
+		public final int previousStart;
+		public final int previousEnd;
+		public final int currentStart;
+		public final int currentEnd;
+
+
+		ChangedRange(final int previousStart, final int previousEnd, final int currentStart, final int currentEnd){
+			this.previousStart = previousStart;
+			this.previousEnd = previousEnd;
+			this.currentStart = currentStart;
+			this.currentEnd = currentEnd;
+		}
+
+		/** @return	Whether lines of the previous version were removed (or modified). */
+		public boolean removesLines(){
+			return (previousEnd > previousStart);
+		}
+
+		@Override
+		public String toString(){
+			return "[" + previousStart + ", " + previousEnd + ") -> [" + currentStart + ", " + currentEnd + ")";
+		}
+
+	}
+
+
+	private final long[] hashes;
+
+
+	private DictionarySnapshot(final long[] hashes){
+		this.hashes = hashes;
+	}
+
+	public static DictionarySnapshot of(final File dicFile, final Charset charset) throws IOException{
+		long[] hashes = new long[1024];
+		int size = 0;
+		try(final BufferedLineReader reader = new BufferedLineReader(dicFile.toPath(), charset)){
+			String line;
+			while((line = reader.readLine()) != null){
+				if(size == hashes.length)
+					hashes = Arrays.copyOf(hashes, size + (size >> 1));
+				hashes[size ++] = hash(line);
+			}
+		}
+		return new DictionarySnapshot(Arrays.copyOf(hashes, size));
+	}
+
+	/** 64-bit FNV-1a, collisions are negligible for the size of a dictionary */
+	private static long hash(final String line){
+		long hash = FNV_OFFSET_BASIS;
+		for(int i = 0; i < line.length(); i ++){
+			hash ^= line.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/** @return	The number of lines of the file. */
+	public int size(){
+		return hashes.length;
+	}
+
+	/**
+	 * Reads the given file once, feeding the lines inside the current side of the given ranges to the consumer.
+	 *
+	 * @param dicFile	The dictionary file.
+	 * @param charset	The charset of the file.
+	 * @param ranges	The changed ranges, in order.
+	 * @param lineProcessor	The consumer of each changed line, called with the (0-based) index of the line inside the file.
+	 * @throws IOException	If an I/O error occurs.
+	 */
+	public static void forEachChangedLine(final File dicFile, final Charset charset, final List<ChangedRange> ranges,
+			final BiConsumer<Integer, String> lineProcessor) throws IOException{
+		if(ranges.isEmpty())
+			return;
+
+		try(final BufferedLineReader reader = new BufferedLineReader(dicFile.toPath(), charset)){
+			final Iterator<ChangedRange> itr = ranges.iterator();
+			ChangedRange range = itr.next();
+			int index = 0;
+			String line;
+			while(range != null && (line = reader.readLine()) != null){
+				while(range != null && index >= range.currentEnd)
+					range = (itr.hasNext()? itr.next(): null);
+				if(range != null && index >= range.currentStart)
+					lineProcessor.accept(index, line);
+				index ++;
+			}
+		}
+	}
+
+	/**
+	 * Finds the ranges of lines that differ between this (previous) snapshot and the given (current) one.
+	 * <p>
+	 * Common lines at the start and at the end are skipped, the remaining lines are aligned with the Myers' algorithm; if
+	 * they differ too much they are reported as a single range.
+	 *
+	 * @param current	The snapshot of the current version of the file.
+	 * @return	The changed ranges, in order, empty if the two versions are the same.
+	 */
+	public List<ChangedRange> diff(final DictionarySnapshot current){
+		final long[] previousHashes = hashes;
+		final long[] currentHashes = current.hashes;
+
+		//skip the first line (number of entries)
+		int start = Math.min(1, Math.min(previousHashes.length, currentHashes.length));
+		final int minLength = Math.min(previousHashes.length, currentHashes.length);
+		while(start < minLength && previousHashes[start] == currentHashes[start])
+			start ++;
+		int previousEnd = previousHashes.length;
+		int currentEnd = currentHashes.length;
+		while(previousEnd > start && currentEnd > start && previousHashes[previousEnd - 1] == currentHashes[currentEnd - 1]){
+			previousEnd --;
+			currentEnd --;
+		}
+		if(start == previousEnd && start == currentEnd)
+			return Collections.emptyList();
+
+		final boolean[] removed = new boolean[previousEnd - start];
+		final boolean[] inserted = new boolean[currentEnd - start];
+		if(!alignLines(previousHashes, currentHashes, start, previousEnd, currentEnd, removed, inserted))
+			return Collections.singletonList(new ChangedRange(start, previousEnd, start, currentEnd));
+
+		return collectRanges(removed, inserted, start);
+	}
+
+	/**
+	 * Myers' greedy algorithm on the lines in <code>[start, previousEnd)</code> and <code>[start, currentEnd)</code>.
+	 *
+	 * @return	Whether an alignment with at most {@link #MAX_EDITS} edits was found (the removed and inserted lines are marked).
+	 */
+	private static boolean alignLines(final long[] previous, final long[] current, final int start, final int previousEnd,
+			final int currentEnd, final boolean[] removed, final boolean[] inserted){
+		final int n = previousEnd - start;
+		final int m = currentEnd - start;
+		final int maxEdits = Math.min(n + m, MAX_EDITS);
+		final int offset = maxEdits + 1;
+		final int[] furthest = new int[2 * maxEdits + 3];
+		final List<int[]> trace = new ArrayList<>();
+		for(int d = 0; d <= maxEdits; d ++){
+			trace.add(furthest.clone());
+			for(int k = -d; k <= d; k += 2){
+				int x = (k == -d || k != d && furthest[offset + k - 1] < furthest[offset + k + 1]?
+					furthest[offset + k + 1]: furthest[offset + k - 1] + 1);
+				int y = x - k;
+				while(x < n && y < m && previous[start + x] == current[start + y]){
+					x ++;
+					y ++;
+				}
+				furthest[offset + k] = x;
+
+				if(x >= n && y >= m){
+					backtrack(trace, offset, d, n, m, removed, inserted);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void backtrack(final List<int[]> trace, final int offset, final int edits, int x, int y,
+			final boolean[] removed, final boolean[] inserted){
+		for(int d = edits; d > 0; d --){
+			final int[] furthest = trace.get(d);
+			final int k = x - y;
+			final int previousK = (k == -d || k != d && furthest[offset + k - 1] < furthest[offset + k + 1]? k + 1: k - 1);
+			final int previousX = furthest[offset + previousK];
+			final int previousY = previousX - previousK;
+			while(x > previousX && y > previousY){
+				x --;
+				y --;
+			}
+			if(x == previousX)
+				inserted[previousY] = true;
+			else
+				removed[previousX] = true;
+			x = previousX;
+			y = previousY;
+		}
+	}
+
+	private static List<ChangedRange> collectRanges(final boolean[] removed, final boolean[] inserted, final int start){
+		final List<ChangedRange> ranges = new ArrayList<>();
+		int i = 0;
+		int j = 0;
+		while(i < removed.length || j < inserted.length){
+			if(i < removed.length && j < inserted.length && !removed[i] && !inserted[j]){
+				//same line
+				i ++;
+				j ++;
+				continue;
+			}
+
+			final int previousStart = i;
+			final int currentStart = j;
+			while(i < removed.length && removed[i])
+				i ++;
+			while(j < inserted.length && inserted[j])
+				j ++;
+			ranges.add(new ChangedRange(start + previousStart, start + i, start + currentStart, start + j));
+		}
+		return ranges;
+	}
+
+}
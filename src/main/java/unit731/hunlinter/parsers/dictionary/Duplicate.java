@@ -26,29 +26,41 @@ package unit731.hunlinter.parsers.dictionary;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import unit731.hunlinter.parsers.vos.Inflection;
 
 import java.util.Objects;
 
 
 public class Duplicate{
 
-	private final Inflection inflection;
+	/** The duplicated inflection */
+	private final String inflectedWord;
+	private final String partOfSpeech;
+	/** The word of the dictionary line that generates the inflection */
 	private final String word;
 	private final int lineIndex;
+	private final String rulesSequence;
 
 
-	public Duplicate(final Inflection inflection, final String word, final int lineIndex){
-		Objects.requireNonNull(inflection, "Inflection cannot be null");
+	public Duplicate(final String inflectedWord, final String partOfSpeech, final String word, final int lineIndex,
+			final String rulesSequence){
+		Objects.requireNonNull(inflectedWord, "Inflected word cannot be null");
+		Objects.requireNonNull(partOfSpeech, "Part-of-Speech cannot be null");
 		Objects.requireNonNull(word, "Word cannot be null");
+		Objects.requireNonNull(rulesSequence, "Rules sequence cannot be null");
 
-		this.inflection = inflection;
+		this.inflectedWord = inflectedWord;
+		this.partOfSpeech = partOfSpeech;
 		this.word = word;
 		this.lineIndex = lineIndex;
+		this.rulesSequence = rulesSequence;
 	}
 
-	public Inflection getInflection(){
-		return inflection;
+	public String getInflectedWord(){
+		return inflectedWord;
+	}
+
+	public String getPartOfSpeech(){
+		return partOfSpeech;
 	}
 
 	public String getWord(){
@@ -59,6 +71,14 @@ public class Duplicate{
 		return lineIndex;
 	}
 
+	public String getRulesSequence(){
+		return rulesSequence;
+	}
+
+	public boolean hasInflectionRules(){
+		return !rulesSequence.isEmpty();
+	}
+
 	@Override
 	public boolean equals(final Object obj){
 		if(obj == this)
@@ -69,6 +89,7 @@ public class Duplicate{
 		final Duplicate rhs = (Duplicate)obj;
 		return new EqualsBuilder()
 			.append(lineIndex, rhs.lineIndex)
+			.append(rulesSequence, rhs.rulesSequence)
 			.isEquals();
 	}
 
@@ -76,6 +97,7 @@ public class Duplicate{
 	public int hashCode(){
 		return new HashCodeBuilder()
 			.append(lineIndex)
+			.append(rulesSequence)
 			.toHashCode();
 	}
 
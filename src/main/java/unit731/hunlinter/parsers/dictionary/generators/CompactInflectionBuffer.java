@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary.generators;
+
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.vos.CompactInflections;
+import unit731.hunlinter.parsers.vos.CompactInflectionsBuilder;
+import unit731.hunlinter.parsers.vos.Inflection;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+
+/**
+ * Inflections of the entry being expanded by the compact generation, reused by each thread across calls.
+ * <p>
+ * Each inflection is its word, whether it is combinable, its continuation flags (as flag ids), and its applied rules (as
+ * indices of affix entries); flags and rules of all the inflections are stored one after the other in two shared arrays.
+ */
+final class CompactInflectionBuffer{
+
+	private static final int INITIAL_CAPACITY = 64;
+	/** Buffers grown beyond this size are not kept for reuse, so a single huge stem does not pin memory forever */
+	private static final int MAX_RETAINED_CAPACITY = 16_384;
+
+	private static final ThreadLocal<CompactInflectionBuffer> BUFFERS = ThreadLocal.withInitial(CompactInflectionBuffer::new);
+
+
+	private String[] words = new String[INITIAL_CAPACITY];
+	private boolean[] combinable = new boolean[INITIAL_CAPACITY];
+	private boolean[] removed = new boolean[INITIAL_CAPACITY];
+	private int[] flagEnds = new int[INITIAL_CAPACITY];
+	private int[] ruleEnds = new int[INITIAL_CAPACITY];
+	private int[] flags = new int[INITIAL_CAPACITY << 2];
+	private int flagsLimit;
+	private short[] rules = new short[INITIAL_CAPACITY << 1];
+	private int rulesLimit;
+	/** scratch space for the affixes to be applied to, and the ones to be postponed by, the inflection being expanded */
+	private int[] appliedAffixes = new int[16];
+	private int[] postponedAffixes = new int[16];
+	/** number of inflections */
+	int limit;
+	private boolean inUse;
+
+
+	static CompactInflectionBuffer acquire(){
+		CompactInflectionBuffer buffer = BUFFERS.get();
+		//re-entrant call on the same thread: fall back to a private buffer
+		if(buffer.inUse)
+			buffer = new CompactInflectionBuffer();
+		buffer.inUse = true;
+		return buffer;
+	}
+
+	/**
+	 * Starts a new inflection; its flags and rules are to be appended before calling {@link #commit()}, or
+	 * {@link #rollback()} to discard it.
+	 */
+	void begin(final String word, final boolean combinable){
+		if(limit == words.length){
+			final int newCapacity = limit << 1;
+			words = Arrays.copyOf(words, newCapacity);
+			this.combinable = Arrays.copyOf(this.combinable, newCapacity);
+			removed = Arrays.copyOf(removed, newCapacity);
+			flagEnds = Arrays.copyOf(flagEnds, newCapacity);
+			ruleEnds = Arrays.copyOf(ruleEnds, newCapacity);
+		}
+		words[limit] = word;
+		this.combinable[limit] = combinable;
+		removed[limit] = false;
+	}
+
+	/** Appends the given flag to the inflection in progress, if not already present. */
+	void addFlag(final int flagId){
+		for(int i = flagsStart(limit); i < flagsLimit; i ++)
+			if(flags[i] == flagId)
+				return;
+
+		if(flagsLimit == flags.length)
+			flags = Arrays.copyOf(flags, flagsLimit << 1);
+		flags[flagsLimit ++] = flagId;
+	}
+
+	/** Appends the flags of the given array to the inflection in progress, skipping the ones already present. */
+	void addFlags(final int[] flagIds){
+		if(flagIds != null)
+			for(final int flagId : flagIds)
+				addFlag(flagId);
+	}
+
+	/** Appends the rules of the given inflection to the inflection in progress. */
+	void addRulesOf(final int index){
+		final int start = rulesStart(index);
+		final int count = ruleEnds[index] - start;
+		ensureRulesCapacity(count);
+		System.arraycopy(rules, start, rules, rulesLimit, count);
+		rulesLimit += count;
+	}
+
+	void addRule(final int ruleIndex){
+		ensureRulesCapacity(1);
+		rules[rulesLimit ++] = (short)ruleIndex;
+	}
+
+	private void ensureRulesCapacity(final int count){
+		if(rulesLimit + count > rules.length)
+			rules = Arrays.copyOf(rules, Math.max(rules.length << 1, rulesLimit + count));
+	}
+
+	void commit(){
+		flagEnds[limit] = flagsLimit;
+		ruleEnds[limit] = rulesLimit;
+		limit ++;
+	}
+
+	void rollback(){
+		flagsLimit = flagsStart(limit);
+		rulesLimit = rulesStart(limit);
+	}
+
+	String getWord(final int index){
+		return words[index];
+	}
+
+	boolean isCombinable(final int index){
+		return combinable[index];
+	}
+
+	int flagsStart(final int index){
+		return (index > 0? flagEnds[index - 1]: 0);
+	}
+
+	int flagsEnd(final int index){
+		return flagEnds[index];
+	}
+
+	int getFlag(final int position){
+		return flags[position];
+	}
+
+	boolean hasFlag(final int index, final int flagId){
+		for(int i = flagsStart(index); i < flagEnds[index]; i ++)
+			if(flags[i] == flagId)
+				return true;
+		return false;
+	}
+
+	int rulesStart(final int index){
+		return (index > 0? ruleEnds[index - 1]: 0);
+	}
+
+	int rulesEnd(final int index){
+		return ruleEnds[index];
+	}
+
+	/** @return	The index of the affix entry of the applied rule at the given position. */
+	int getRule(final int position){
+		return Short.toUnsignedInt(rules[position]);
+	}
+
+	int[] appliedAffixes(final int capacity){
+		if(appliedAffixes.length < capacity)
+			appliedAffixes = new int[capacity];
+		return appliedAffixes;
+	}
+
+	int[] postponedAffixes(final int capacity){
+		if(postponedAffixes.length < capacity)
+			postponedAffixes = new int[capacity];
+		return postponedAffixes;
+	}
+
+	void remove(final int index){
+		removed[index] = true;
+	}
+
+	boolean isRemoved(final int index){
+		return removed[index];
+	}
+
+	/**
+	 * @param affixData	The affix data whose entries are referred to by the applied rules.
+	 * @param materializer	The generator of the full inflections.
+	 * @return	The compact view of the inflections not removed, with the output conversion table applied to the words.
+	 */
+	CompactInflections extract(final AffixData affixData, final Supplier<Inflection[]> materializer){
+		int size = 0;
+		int surfaceFormsLength = 0;
+		int flagsCount = 0;
+		int rulesCount = 0;
+		for(int i = 0; i < limit; i ++)
+			if(!removed[i]){
+				words[i] = affixData.applyOutputConversionTable(words[i]);
+
+				size ++;
+				surfaceFormsLength += words[i].length();
+				flagsCount += flagEnds[i] - flagsStart(i);
+				rulesCount += ruleEnds[i] - rulesStart(i);
+			}
+
+		final CompactInflectionsBuilder builder = new CompactInflectionsBuilder(affixData, size, surfaceFormsLength, flagsCount,
+			rulesCount);
+		for(int i = 0; i < limit; i ++)
+			if(!removed[i])
+				builder.add(words[i], flags, flagsStart(i), flagEnds[i], rules, rulesStart(i), ruleEnds[i]);
+		return builder.build(materializer);
+	}
+
+	void release(){
+		if(words.length > MAX_RETAINED_CAPACITY){
+			words = new String[INITIAL_CAPACITY];
+			combinable = new boolean[INITIAL_CAPACITY];
+			removed = new boolean[INITIAL_CAPACITY];
+			flagEnds = new int[INITIAL_CAPACITY];
+			ruleEnds = new int[INITIAL_CAPACITY];
+		}
+		else
+			Arrays.fill(words, 0, limit, null);
+		if(flags.length > MAX_RETAINED_CAPACITY << 2)
+			flags = new int[INITIAL_CAPACITY << 2];
+		if(rules.length > MAX_RETAINED_CAPACITY << 1)
+			rules = new short[INITIAL_CAPACITY << 1];
+		limit = 0;
+		flagsLimit = 0;
+		rulesLimit = 0;
+		inUse = false;
+	}
+
+}
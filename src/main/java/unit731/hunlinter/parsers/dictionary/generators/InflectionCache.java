@@ -0,0 +1,809 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary.generators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unit731.hunlinter.datastructures.bloomfilter.hash.HashFunction;
+import unit731.hunlinter.datastructures.bloomfilter.hash.Murmur3HashFunction;
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
+import unit731.hunlinter.parsers.vos.AffixEntry;
+import unit731.hunlinter.parsers.vos.CompactInflections;
+import unit731.hunlinter.parsers.vos.CompactInflectionsBuilder;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.parsers.vos.RuleEntry;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+/**
+ * Persistent cache of the inflections generated from each dictionary entry.
+ * <p>
+ * The snapshot lives in a file named after the hash of the content of the affix file, so any change to the rules starts
+ * a new snapshot (the older generations are deleted, as are the snapshots of other affix files not used for
+ * {@value #MAX_UNUSED_DAYS} days); inside it each entry is keyed by the hash of the dictionary entry, so unchanged lines
+ * are reused and only edited lines are expanded again.
+ * <p>
+ * The snapshot is memory-mapped and decoded on demand; entries not used for {@value #MAX_UNUSED_GENERATIONS} saves are
+ * dropped. Newly generated entries (full or compact) are written right away to a journal that becomes the next snapshot
+ * on save, so only their position is kept in memory. The snapshot is saved when the cache is {@link #close() closed},
+ * or on exit.
+ */
+public class InflectionCache{
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InflectionCache.class);
+
+	private static final String CACHE_DIRECTORY = "hunlinter-cache";
+	private static final String FILENAME_PREFIX = "inflections-";
+	private static final String FILENAME_EXTENSION = ".dat";
+	private static final String JOURNAL_EXTENSION = ".journal";
+	private static final String GENERATION_SEPARATOR = "-";
+
+	private static final int MAGIC = 0x484C4943;
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = Integer.BYTES * 3;
+	private static final int RECORD_HEADER_SIZE = Long.BYTES * 2 + Integer.BYTES * 2;
+	private static final int RECORD_GENERATION_OFFSET = Long.BYTES * 2;
+	private static final int RECORD_LENGTH_OFFSET = Long.BYTES * 2 + Integer.BYTES;
+	private static final int MAX_UNUSED_GENERATIONS = 8;
+	private static final int MAX_UNUSED_DAYS = 30;
+	/** The record holds the full inflections */
+	private static final byte RECORD_FULL = 0;
+	/** The record holds the surface forms, continuation flags and applied rules of the inflections only */
+	private static final byte RECORD_COMPACT = 1;
+	/** A single mapping cannot exceed 2 GiB, the snapshot is mapped in segments of 1 GiB */
+	private static final int SEGMENT_SHIFT = 30;
+
+	private static final HashFunction HASHER = new Murmur3HashFunction();
+
+
+	private static final class Key{
+
+		private final long hash1;
+		private final long hash2;
+
+
+		Key(final long hash1, final long hash2){
+			this.hash1 = hash1;
+			this.hash2 = hash2;
+		}
+
+		@Override
+		public boolean equals(final Object obj){
+			if(obj == this)
+				return true;
+			if(obj == null || obj.getClass() != getClass())
+				return false;
+
+			final Key rhs = (Key)obj;
+			return (hash1 == rhs.hash1 && hash2 == rhs.hash2);
+		}
+
+		@Override
+		public int hashCode(){
+			return Long.hashCode(hash1);
+		}
+
+	}
+
+	/** A read-only file mapped in segments, addressed by <code>long</code> positions */
+	static final class MappedFile{
+
+		private final int segmentShift;
+		private final int segmentMask;
+		private final MappedByteBuffer[] segments;
+		private final long size;
+
+
+		MappedFile(final FileChannel channel, final int segmentShift) throws IOException{
+			this.segmentShift = segmentShift;
+			segmentMask = (1 << segmentShift) - 1;
+			size = channel.size();
+
+			final long segmentSize = 1l << segmentShift;
+			segments = new MappedByteBuffer[(int)((size + segmentSize - 1) >>> segmentShift)];
+			for(int i = 0; i < segments.length; i ++){
+				final long start = (long)i << segmentShift;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+			}
+		}
+
+		long size(){
+			return size;
+		}
+
+		int getInt(final long position){
+			final MappedByteBuffer segment = segments[(int)(position >>> segmentShift)];
+			final int offset = (int)position & segmentMask;
+			return (offset + Integer.BYTES <= segment.limit()? segment.getInt(offset): (int)readAcrossSegments(position, Integer.BYTES));
+		}
+
+		long getLong(final long position){
+			final MappedByteBuffer segment = segments[(int)(position >>> segmentShift)];
+			final int offset = (int)position & segmentMask;
+			return (offset + Long.BYTES <= segment.limit()? segment.getLong(offset): readAcrossSegments(position, Long.BYTES));
+		}
+
+		/** Reads a big-endian number that straddles two segments */
+		private long readAcrossSegments(final long position, final int bytes){
+			final byte[] data = new byte[bytes];
+			get(position, data);
+			long value = 0l;
+			for(final byte b : data)
+				value = (value << 8) | (b & 0xFF);
+			return value;
+		}
+
+		void get(long position, final byte[] data){
+			int copied = 0;
+			while(copied < data.length){
+				final MappedByteBuffer segment = segments[(int)(position >>> segmentShift)];
+				final int offset = (int)position & segmentMask;
+				final int length = Math.min(data.length - copied, segment.limit() - offset);
+				segment.get(offset, data, copied, length);
+				copied += length;
+				position += length;
+			}
+		}
+
+	}
+
+	private static final class Snapshot{
+
+		private final int generation;
+		private final MappedFile file;
+		/** Position of each record into the file */
+		private final Map<Key, Long> index;
+
+
+		Snapshot(final int generation, final MappedFile file, final Map<Key, Long> index){
+			this.generation = generation;
+			this.file = file;
+			this.index = index;
+		}
+
+		byte[] read(final Key key){
+			final Long position = index.get(key);
+			if(position == null)
+				return null;
+
+			final byte[] data = new byte[file.getInt(position + RECORD_LENGTH_OFFSET)];
+			file.get(position + RECORD_HEADER_SIZE, data);
+			return data;
+		}
+
+		/** @return	The generation the record at the given position was last used */
+		int readGeneration(final long position){
+			return file.getInt(position + RECORD_GENERATION_OFFSET);
+		}
+
+	}
+
+	private static final Snapshot EMPTY_SNAPSHOT = new Snapshot(0, null, new HashMap<>(0));
+
+
+	private final AffixData affixData;
+	private final Path directory;
+	private final String affixHash;
+
+	private volatile Snapshot snapshot = EMPTY_SNAPSHOT;
+	/** Position into the journal of each entry generated since the last save */
+	private final Map<Key, Long> added = new ConcurrentHashMap<>();
+	/** Entries used since the last save, swapped with an empty set on save */
+	private final AtomicReference<Set<Key>> used = new AtomicReference<>(ConcurrentHashMap.newKeySet());
+
+	/** Readers and writers of the journal share the lock, a save holds it exclusively */
+	private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+	private final Object journalCreation = new Object();
+	private volatile Path journalFile;
+	private volatile FileChannel journal;
+	private final AtomicLong journalSize = new AtomicLong();
+	/** Set if a write failed, the journal could contain a partial record and is discarded on save */
+	private volatile boolean journalCorrupted;
+
+	private final Thread shutdownHook = new Thread(this::save, "InflectionCache-save");
+
+
+	/**
+	 * @param affixData	The affix data used to generate the inflections.
+	 * @param affFile	The affix file the data was read from.
+	 * @param directory	The directory of the snapshots, if <code>null</code> a directory inside the temporary one is used.
+	 * @throws IOException	If the affix file cannot be read.
+	 */
+	public InflectionCache(final AffixData affixData, final File affFile, final Path directory) throws IOException{
+		this.affixData = affixData;
+		this.directory = (directory != null? directory: Path.of(System.getProperty("java.io.tmpdir"), CACHE_DIRECTORY));
+
+		final long[] hash = HASHER.hashMultiple(Files.readAllBytes(affFile.toPath()));
+		affixHash = Long.toHexString(hash[0]) + Long.toHexString(hash[1]);
+
+		final Path file = findLastSnapshot();
+		if(file != null){
+			snapshot = load(file);
+			//mark as recently used
+			if(!file.toFile().setLastModified(System.currentTimeMillis()))
+				LOGGER.warn("Cannot touch inflection cache {}", file);
+		}
+		deleteStaleSnapshots(file);
+
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	private Snapshot load(final Path file){
+		try(final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			final MappedFile mappedFile = new MappedFile(channel, SEGMENT_SHIFT);
+			final long size = mappedFile.size();
+			if(size < HEADER_SIZE || mappedFile.getInt(0) != MAGIC || mappedFile.getInt(Integer.BYTES) != VERSION)
+				return EMPTY_SNAPSHOT;
+
+			final int snapshotGeneration = mappedFile.getInt(Integer.BYTES * 2);
+			final Map<Key, Long> index = new HashMap<>();
+			long position = HEADER_SIZE;
+			while(position + RECORD_HEADER_SIZE <= size){
+				final Key key = new Key(mappedFile.getLong(position), mappedFile.getLong(position + Long.BYTES));
+				final int length = mappedFile.getInt(position + RECORD_LENGTH_OFFSET);
+				if(length < 0 || position + RECORD_HEADER_SIZE + length > size)
+					break;
+
+				index.put(key, position);
+				position += RECORD_HEADER_SIZE + length;
+			}
+
+			LOGGER.info("Inflection cache loaded, {} entries", index.size());
+
+			return new Snapshot(snapshotGeneration, mappedFile, index);
+		}
+		catch(final IOException | RuntimeException e){
+			LOGGER.warn("Cannot load inflection cache {}: {}", file, e.getMessage());
+
+			return EMPTY_SNAPSHOT;
+		}
+	}
+
+	private Path findLastSnapshot(){
+		Path lastFile = null;
+		int lastGeneration = -1;
+		final File[] files = directory.toFile()
+			.listFiles((dir, name) -> name.startsWith(FILENAME_PREFIX + affixHash + GENERATION_SEPARATOR));
+		if(files != null)
+			for(final File file : files){
+				final int fileGeneration = extractGeneration(file.getName());
+				if(fileGeneration > lastGeneration){
+					lastGeneration = fileGeneration;
+					lastFile = file.toPath();
+				}
+			}
+		return lastFile;
+	}
+
+	private int extractGeneration(final String filename){
+		try{
+			final int start = (FILENAME_PREFIX + affixHash + GENERATION_SEPARATOR).length();
+			return Integer.parseInt(filename.substring(start, filename.length() - FILENAME_EXTENSION.length()));
+		}
+		catch(final RuntimeException e){
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the inflections of the given dictionary entry from the cache, generating (and caching) them if not present.
+	 *
+	 * @param dicEntry	The dictionary entry.
+	 * @param generator	The function that generates the inflections.
+	 * @return	The inflections (new instances on each call).
+	 */
+	public Inflection[] applyAffixRules(final DictionaryEntry dicEntry,
+			final Function<DictionaryEntry, Inflection[]> generator){
+		//only plain dictionary entries can be rebuilt from the snapshot
+		if(dicEntry.getClass() != DictionaryEntry.class)
+			return generator.apply(dicEntry);
+
+		final long[] hash = HASHER.hashMultiple(dicEntry.toString().getBytes(StandardCharsets.UTF_8));
+		final Key key = new Key(hash[0], hash[1]);
+		final Set<Key> usedKeys = used.get();
+		usedKeys.add(key);
+
+		//a compact record is superseded by the full one
+		final byte[] data = read(key);
+		if(data != null && data[0] == RECORD_FULL)
+			return decode(data);
+
+		final Inflection[] inflections = generator.apply(dicEntry);
+		final byte[] encoded = encode(inflections);
+		if(encoded == null || !writeToJournal(key, encoded))
+			usedKeys.remove(key);
+		return inflections;
+	}
+
+	/**
+	 * Returns the compact inflections of the given dictionary entry from the cache, generating (and caching) them if not
+	 * present.
+	 *
+	 * @param dicEntry	The dictionary entry.
+	 * @param materializer	The supplier of the full inflections, called only if they are asked to the returned object.
+	 * @param generator	The function that generates the compact inflections.
+	 * @return	The compact inflections.
+	 */
+	public CompactInflections applyAffixRulesCompact(final DictionaryEntry dicEntry,
+			final Supplier<Inflection[]> materializer, final Function<DictionaryEntry, CompactInflections> generator){
+		//only plain dictionary entries can be rebuilt from the snapshot
+		if(dicEntry.getClass() != DictionaryEntry.class)
+			return generator.apply(dicEntry);
+
+		final long[] hash = HASHER.hashMultiple(dicEntry.toString().getBytes(StandardCharsets.UTF_8));
+		final Key key = new Key(hash[0], hash[1]);
+		final Set<Key> usedKeys = used.get();
+		usedKeys.add(key);
+
+		final byte[] data = read(key);
+		if(data != null){
+			final CompactInflections inflections = decodeCompact(data, materializer);
+			if(inflections != null)
+				return inflections;
+		}
+
+		final CompactInflections inflections = generator.apply(dicEntry);
+		if(data == null){
+			final Inflection[] fullInflections = inflections.peekInflections();
+			final byte[] encoded = (fullInflections != null? encode(fullInflections): encodeCompact(inflections));
+			if(encoded == null || !writeToJournal(key, encoded))
+				usedKeys.remove(key);
+		}
+		return inflections;
+	}
+
+	private byte[] read(final Key key){
+		final byte[] data = (added.containsKey(key)? readFromJournal(key): null);
+		return (data != null? data: snapshot.read(key));
+	}
+
+	private byte[] readFromJournal(final Key key){
+		final Lock lock = journalLock.readLock();
+		lock.lock();
+		try{
+			//the journal could have become the snapshot in the meantime
+			final Long position = added.get(key);
+			if(position == null)
+				return null;
+
+			final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+			readFully(length, position + RECORD_LENGTH_OFFSET);
+			final byte[] data = new byte[length.getInt(0)];
+			readFully(ByteBuffer.wrap(data), position + RECORD_HEADER_SIZE);
+			return data;
+		}
+		catch(final IOException e){
+			LOGGER.warn("Cannot read inflection cache journal: {}", e.getMessage());
+
+			return null;
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	private void readFully(final ByteBuffer buffer, long position) throws IOException{
+		while(buffer.hasRemaining()){
+			final int read = journal.read(buffer, position);
+			if(read < 0)
+				throw new EOFException("Unexpected end of journal");
+
+			position += read;
+		}
+	}
+
+	/** @return	Whether the entry was written */
+	private boolean writeToJournal(final Key key, final byte[] data){
+		if(journalCorrupted)
+			return false;
+
+		final Lock lock = journalLock.readLock();
+		lock.lock();
+		try{
+			final FileChannel channel = openJournal();
+
+			final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + data.length)
+				.putLong(key.hash1)
+				.putLong(key.hash2)
+				.putInt(snapshot.generation + 1)
+				.putInt(data.length)
+				.put(data)
+				.flip();
+			//reserve the space, so concurrent writers do not overlap
+			final long recordPosition = journalSize.getAndAdd(record.remaining());
+			long position = recordPosition;
+			while(record.hasRemaining())
+				position += channel.write(record, position);
+
+			added.put(key, recordPosition);
+			return true;
+		}
+		catch(final IOException e){
+			LOGGER.warn("Cannot write inflection cache journal: {}", e.getMessage());
+
+			journalCorrupted = true;
+			return false;
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	private FileChannel openJournal() throws IOException{
+		FileChannel channel = journal;
+		if(channel == null)
+			synchronized(journalCreation){
+				channel = journal;
+				if(channel == null){
+					Files.createDirectories(directory);
+
+					final Path file = Files.createTempFile(directory, FILENAME_PREFIX, JOURNAL_EXTENSION);
+					file.toFile().deleteOnExit();
+					channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+					final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+						.putInt(MAGIC)
+						.putInt(VERSION)
+						.putInt(snapshot.generation + 1)
+						.flip();
+					long size = 0l;
+					while(header.hasRemaining())
+						size += channel.write(header, size);
+					journalSize.set(size);
+
+					journalFile = file;
+					journal = channel;
+				}
+			}
+		return channel;
+	}
+
+	/**
+	 * Writes a new snapshot with the entries used so far (and the ones used in the last few saves), if new entries were
+	 * generated. The previous generations of the snapshot are deleted.
+	 * <p>
+	 * The entries are neither read nor generated while saving.
+	 */
+	public void save(){
+		final Lock lock = journalLock.writeLock();
+		lock.lock();
+		try{
+			if(journalCorrupted)
+				discardJournal();
+			if(added.isEmpty())
+				return;
+
+			final Set<Key> usedKeys = used.getAndSet(ConcurrentHashMap.newKeySet());
+			final Snapshot currentSnapshot = snapshot;
+			final int newGeneration = currentSnapshot.generation + 1;
+			final Path file = directory.resolve(FILENAME_PREFIX + affixHash + GENERATION_SEPARATOR + newGeneration
+				+ FILENAME_EXTENSION);
+			try{
+				//the new entries are already in the journal, append the ones of the current snapshot still in use
+				int records = added.size();
+				journal.position(journalSize.get());
+				try(final DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(journal)))){
+					for(final Map.Entry<Key, Long> entry : currentSnapshot.index.entrySet()){
+						final Key key = entry.getKey();
+						if(added.containsKey(key))
+							continue;
+
+						final int recordGeneration = (usedKeys.contains(key)? newGeneration:
+							currentSnapshot.readGeneration(entry.getValue()));
+						if(newGeneration - recordGeneration <= MAX_UNUSED_GENERATIONS){
+							writeRecord(os, key, recordGeneration, currentSnapshot.read(key));
+							records ++;
+						}
+					}
+				}
+				Files.move(journalFile, file);
+				journal = null;
+				journalFile = null;
+
+				LOGGER.info("Inflection cache saved, {} entries", records);
+			}
+			catch(final IOException e){
+				LOGGER.warn("Cannot save inflection cache: {}", e.getMessage());
+
+				discardJournal();
+				return;
+			}
+
+			snapshot = load(file);
+			added.clear();
+
+			//NOTE: a file still mapped cannot be deleted on some systems, it will be deleted on exit
+			deleteStaleSnapshots(file);
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	private void discardJournal(){
+		if(journal != null){
+			try{
+				journal.close();
+				Files.deleteIfExists(journalFile);
+			}
+			catch(final IOException ignored){}
+			journal = null;
+			journalFile = null;
+		}
+		added.clear();
+		journalCorrupted = false;
+	}
+
+	/** Saves the snapshot, to be called once the cache is no longer used (otherwise it is saved on exit). */
+	public void close(){
+		try{
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		}
+		//the shutdown is in progress, the hook saves concurrently (and harmlessly)
+		catch(final IllegalStateException ignored){}
+
+		save();
+	}
+
+	/**
+	 * Deletes the previous generations of the snapshot of the current affix file, and the snapshots (and journals left by
+	 * an abnormal exit) of any affix file not used for {@value #MAX_UNUSED_DAYS} days.
+	 *
+	 * @param snapshotFile	The snapshot in use, if any.
+	 */
+	private void deleteStaleSnapshots(final Path snapshotFile){
+		final String snapshotFilename = (snapshotFile != null? snapshotFile.getFileName().toString(): null);
+		final String generationPrefix = FILENAME_PREFIX + affixHash + GENERATION_SEPARATOR;
+		final long unusedSince = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(MAX_UNUSED_DAYS);
+		final File[] files = directory.toFile()
+			.listFiles((dir, name) -> name.startsWith(FILENAME_PREFIX)
+				&& (name.endsWith(FILENAME_EXTENSION) || name.endsWith(JOURNAL_EXTENSION)) && !name.equals(snapshotFilename));
+		if(files != null)
+			for(final File file : files){
+				final String filename = file.getName();
+				final boolean previousGeneration = (filename.startsWith(generationPrefix) && filename.endsWith(FILENAME_EXTENSION));
+				if((previousGeneration || file.lastModified() < unusedSince) && !file.delete())
+					file.deleteOnExit();
+			}
+	}
+
+	private static void writeRecord(final DataOutputStream os, final Key key, final int generation, final byte[] data)
+			throws IOException{
+		os.writeLong(key.hash1);
+		os.writeLong(key.hash2);
+		os.writeInt(generation);
+		os.writeInt(data.length);
+		os.write(data);
+	}
+
+	/** @return	The encoded inflections, or <code>null</code> if they cannot be rebuilt from the encoding */
+	private byte[] encode(final Inflection[] inflections){
+		try{
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream(inflections.length * 32);
+			final DataOutputStream os = new DataOutputStream(baos);
+			os.writeByte(RECORD_FULL);
+			os.writeInt(inflections.length);
+			for(final Inflection inflection : inflections){
+				if(inflection.isCompound())
+					return null;
+
+				os.writeUTF(inflection.getWord());
+				os.writeBoolean(inflection.isCombinable());
+				writeStrings(os, inflection.getContinuationFlags());
+				writeStrings(os, inflection.getMorphologicalFieldsAsArray());
+				if(!writeAppliedRules(os, inflection.getAppliedRules()))
+					return null;
+			}
+			return baos.toByteArray();
+		}
+		catch(final IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** @return	The encoded compact inflections, or <code>null</code> if they cannot be rebuilt from the encoding */
+	private byte[] encodeCompact(final CompactInflections inflections){
+		try{
+			final FlagRegistry flagRegistry = affixData.getFlagRegistry();
+			final int size = inflections.size();
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream(size * 16);
+			final DataOutputStream os = new DataOutputStream(baos);
+			os.writeByte(RECORD_COMPACT);
+			os.writeInt(size);
+			for(int i = 0; i < size; i ++){
+				os.writeUTF(inflections.getWord(i));
+				final int[] flagIds = inflections.getContinuationFlagIds(i);
+				writeStrings(os, (flagIds != null? flagRegistry.toFlags(flagIds): null));
+				if(!writeAppliedRules(os, inflections.getAppliedRules(i)))
+					return null;
+			}
+			return baos.toByteArray();
+		}
+		catch(final IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** @return	Whether the rules can be rebuilt from the encoding */
+	private boolean writeAppliedRules(final DataOutputStream os, final AffixEntry[] appliedRules) throws IOException{
+		os.writeInt(appliedRules != null? appliedRules.length: -1);
+		if(appliedRules != null)
+			for(final AffixEntry appliedRule : appliedRules){
+				final int index = indexOf(appliedRule);
+				if(appliedRule != null && index < 0)
+					return false;
+
+				os.writeUTF(appliedRule != null? appliedRule.getFlag(): "");
+				os.writeInt(index);
+			}
+		return true;
+	}
+
+	private int indexOf(final AffixEntry appliedRule){
+		if(appliedRule != null){
+			final Object data = affixData.getData(appliedRule.getFlag());
+			if(data instanceof RuleEntry){
+				final AffixEntry[] entries = ((RuleEntry)data).getEntries();
+				for(int i = 0; i < entries.length; i ++)
+					if(entries[i] == appliedRule)
+						return i;
+			}
+		}
+		return -1;
+	}
+
+	private Inflection[] decode(final byte[] data){
+		try{
+			final DataInputStream is = new DataInputStream(new ByteArrayInputStream(data));
+			//skip the kind of record
+			is.readByte();
+			final Inflection[] inflections = new Inflection[is.readInt()];
+			for(int i = 0; i < inflections.length; i ++){
+				final String word = is.readUTF();
+				final boolean combinable = is.readBoolean();
+				final String[] continuationFlags = readStrings(is);
+				final String[] morphologicalFields = readStrings(is);
+
+				final int appliedRulesCount = is.readInt();
+				AffixEntry[] appliedRules = null;
+				if(appliedRulesCount >= 0){
+					appliedRules = new AffixEntry[appliedRulesCount];
+					for(int j = 0; j < appliedRulesCount; j ++){
+						final String flag = is.readUTF();
+						final int index = is.readInt();
+						if(index >= 0)
+							appliedRules[j] = ((RuleEntry)affixData.getData(flag)).getEntries()[index];
+					}
+				}
+
+				inflections[i] = Inflection.createFromSnapshot(word, continuationFlags, affixData.getFlagRegistry(),
+					morphologicalFields, combinable, appliedRules);
+			}
+			return inflections;
+		}
+		catch(final IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeStrings(final DataOutputStream os, final String[] strings) throws IOException{
+		os.writeInt(strings != null? strings.length: -1);
+		if(strings != null)
+			for(final String string : strings)
+				os.writeUTF(string);
+	}
+
+	/** @return	The decoded inflections, or <code>null</code> if they cannot be represented compactly */
+	private CompactInflections decodeCompact(final byte[] data, final Supplier<Inflection[]> materializer){
+		try{
+			final FlagRegistry flagRegistry = affixData.getFlagRegistry();
+			final DataInputStream is = new DataInputStream(new ByteArrayInputStream(data));
+			final boolean fullRecord = (is.readByte() == RECORD_FULL);
+			final int size = is.readInt();
+			final CompactInflectionsBuilder builder = new CompactInflectionsBuilder(affixData, size);
+			int[] flagIds = new int[8];
+			short[] ruleIndices = new short[4];
+			for(int i = 0; i < size; i ++){
+				final String word = is.readUTF();
+				//skip combinable
+				if(fullRecord)
+					is.readBoolean();
+
+				final int flagsCount = is.readInt();
+				if(flagsCount > flagIds.length)
+					flagIds = new int[flagsCount];
+				for(int j = 0; j < flagsCount; j ++)
+					flagIds[j] = flagRegistry.register(is.readUTF());
+
+				//skip morphological fields
+				final int morphologicalFieldsCount = (fullRecord? is.readInt(): 0);
+				for(int j = 0; j < morphologicalFieldsCount; j ++)
+					is.skipBytes(is.readUnsignedShort());
+
+				final int appliedRulesCount = is.readInt();
+				if(appliedRulesCount > ruleIndices.length)
+					ruleIndices = new short[appliedRulesCount];
+				for(int j = 0; j < appliedRulesCount; j ++){
+					final String flag = is.readUTF();
+					final int index = is.readInt();
+					final int ruleIndex = (index >= 0? ((RuleEntry)affixData.getData(flag)).getEntries()[index].getIndex(): -1);
+					if(ruleIndex < 0 || ruleIndex >= CompactInflections.MAX_AFFIX_ENTRIES)
+						return null;
+
+					ruleIndices[j] = (short)ruleIndex;
+				}
+
+				builder.add(word, flagIds, 0, Math.max(flagsCount, 0), ruleIndices, 0, Math.max(appliedRulesCount, 0));
+			}
+			return builder.build(materializer);
+		}
+		catch(final IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String[] readStrings(final DataInputStream is) throws IOException{
+		final int size = is.readInt();
+		if(size < 0)
+			return null;
+
+		final String[] strings = new String[size];
+		for(int i = 0; i < size; i ++)
+			strings[i] = is.readUTF();
+		return strings;
+	}
+
+}
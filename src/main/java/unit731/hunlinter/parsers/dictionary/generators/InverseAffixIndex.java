@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary.generators;
+
+import unit731.hunlinter.parsers.enums.AffixType;
+import unit731.hunlinter.parsers.vos.AffixEntry;
+import unit731.hunlinter.parsers.vos.RuleEntry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Index of the affix entries keyed by the part they append, used to find the entries that could have produced a word.
+ * <p>
+ * The appending parts of the suffixes are stored reversed in a trie walked from the end of the word, those of the prefixes
+ * in a trie walked from the start of the word, so a lookup visits a number of nodes bounded by the length of the word
+ * instead of testing every entry.
+ */
+class InverseAffixIndex{
+
+	private static final int[] EMPTY_INDEXES = new int[0];
+
+
+	private static final class Node{
+
+		/** Sorted characters of the transitions */
+		private char[] chars = new char[0];
+		private Node[] children = new Node[0];
+		/** Indexes of the entries whose appending part ends in this node */
+		private int[] terminals = EMPTY_INDEXES;
+
+		private Map<Character, Node> buildingChildren = new TreeMap<>();
+
+
+		Node childFor(final char chr){
+			return buildingChildren.computeIfAbsent(chr, k -> new Node());
+		}
+
+		void addTerminal(final int index){
+			terminals = Arrays.copyOf(terminals, terminals.length + 1);
+			terminals[terminals.length - 1] = index;
+		}
+
+		void freeze(){
+			final int size = buildingChildren.size();
+			chars = new char[size];
+			children = new Node[size];
+			int i = 0;
+			for(final Map.Entry<Character, Node> child : buildingChildren.entrySet()){
+				chars[i] = child.getKey();
+				children[i] = child.getValue();
+				children[i ++].freeze();
+			}
+			buildingChildren = null;
+		}
+
+		Node child(final char chr){
+			final int index = Arrays.binarySearch(chars, chr);
+			return (index >= 0? children[index]: null);
+		}
+
+	}
+
+
+	private final AffixEntry[] entries;
+	private final RuleEntry[] rules;
+	private final Node suffixes = new Node();
+	private final Node prefixes = new Node();
+
+
+	/**
+	 * @param ruleEntries	The rules, the order of their entries is the order of the result of a lookup.
+	 */
+	InverseAffixIndex(final List<RuleEntry> ruleEntries){
+		int size = 0;
+		for(final RuleEntry ruleEntry : ruleEntries)
+			size += ruleEntry.getEntries().length;
+		entries = new AffixEntry[size];
+		rules = new RuleEntry[size];
+
+		int index = 0;
+		for(final RuleEntry ruleEntry : ruleEntries)
+			for(final AffixEntry entry : ruleEntry.getEntries()){
+				entries[index] = entry;
+				rules[index] = ruleEntry;
+				insert(entry, index ++);
+			}
+		suffixes.freeze();
+		prefixes.freeze();
+	}
+
+	private void insert(final AffixEntry entry, final int index){
+		final String appending = entry.getAppending();
+		final boolean suffix = (entry.getType() == AffixType.SUFFIX);
+		Node node = (suffix? suffixes: prefixes);
+		final int length = appending.length();
+		for(int i = 0; i < length; i ++)
+			node = node.childFor(appending.charAt(suffix? length - i - 1: i));
+		node.addTerminal(index);
+	}
+
+	/**
+	 * Extracts the entries whose appending part is a suffix (for suffixes) or a prefix (for prefixes) of the given word, that
+	 * is, the entries for which {@link AffixEntry#canInverseApplyTo(String)} is <code>true</code>.
+	 *
+	 * @param word	The word to be tested.
+	 * @return	The indexes of the matching entries, in the order the rules (and their entries) were given.
+	 */
+	int[] inverseApplicableEntries(final String word){
+		int[] indexes = collect(suffixes, word, true, EMPTY_INDEXES);
+		indexes = collect(prefixes, word, false, indexes);
+		Arrays.sort(indexes);
+		return indexes;
+	}
+
+	AffixEntry getEntry(final int index){
+		return entries[index];
+	}
+
+	RuleEntry getRule(final int index){
+		return rules[index];
+	}
+
+	private static int[] collect(Node node, final String word, final boolean suffix, int[] indexes){
+		final int length = word.length();
+		int depth = 0;
+		while(node != null){
+			if(node.terminals.length > 0){
+				final int size = indexes.length;
+				indexes = Arrays.copyOf(indexes, size + node.terminals.length);
+				System.arraycopy(node.terminals, 0, indexes, size, node.terminals.length);
+			}
+
+			node = (depth < length? node.child(word.charAt(suffix? length - depth - 1: depth)): null);
+			depth ++;
+		}
+		return indexes;
+	}
+
+}
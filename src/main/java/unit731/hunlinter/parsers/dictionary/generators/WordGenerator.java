@@ -25,11 +25,15 @@
 package unit731.hunlinter.parsers.dictionary.generators;
 
 import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.dictionary.DictionaryInclusionIndex;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.vos.CompactInflections;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.parsers.vos.RuleEntry;
 
+import java.util.function.Supplier;
+
 
 public class WordGenerator{
 
@@ -39,13 +43,26 @@ public class WordGenerator{
 	private final WordGeneratorCompoundRules wordGeneratorCompoundRules;
 	private final WordGeneratorCompoundFlag wordGeneratorCompoundFlag;
 	private final WordGeneratorCompoundBeginMiddleEnd wordGeneratorCompoundBeginMiddleEnd;
+	private final InflectionCache inflectionCache;
+	private final DictionaryInclusionIndex inclusionIndex;
 
 
 	public WordGenerator(final AffixData affixData, final DictionaryParser dicParser){
+		this(affixData, dicParser, null);
+	}
+
+	/**
+	 * @param affixData	The affix data.
+	 * @param dicParser	The dictionary parser.
+	 * @param inflectionCache	The cache of the inflections generated from the dictionary entries, optional.
+	 */
+	public WordGenerator(final AffixData affixData, final DictionaryParser dicParser, final InflectionCache inflectionCache){
+		this.inflectionCache = inflectionCache;
+		inclusionIndex = (dicParser != null? new DictionaryInclusionIndex(dicParser, this): null);
 		wordGeneratorAffixRules = new WordGeneratorAffixRules(affixData);
-		wordGeneratorCompoundRules = new WordGeneratorCompoundRules(affixData, dicParser, this);
-		wordGeneratorCompoundFlag = new WordGeneratorCompoundFlag(affixData, dicParser, this);
-		wordGeneratorCompoundBeginMiddleEnd = new WordGeneratorCompoundBeginMiddleEnd(affixData, dicParser, this);
+		wordGeneratorCompoundRules = new WordGeneratorCompoundRules(affixData, this);
+		wordGeneratorCompoundFlag = new WordGeneratorCompoundFlag(affixData, this);
+		wordGeneratorCompoundBeginMiddleEnd = new WordGeneratorCompoundBeginMiddleEnd(affixData, this);
 	}
 
 	public DictionaryEntry createFromDictionaryLine(final String line){
@@ -57,7 +74,36 @@ public class WordGenerator{
 	}
 
 	public Inflection[] applyAffixRules(final DictionaryEntry dicEntry){
-		return wordGeneratorAffixRules.applyAffixRules(dicEntry);
+		return (inflectionCache != null?
+			inflectionCache.applyAffixRules(dicEntry, wordGeneratorAffixRules::applyAffixRules):
+			wordGeneratorAffixRules.applyAffixRules(dicEntry));
+	}
+
+	/**
+	 * Generates the inflections of the given entry for consumers interested in the surface forms only.
+	 * <p>
+	 * The full inflections are generated only if asked to the returned object.
+	 *
+	 * @param dicEntry	The dictionary entry to be inflected.
+	 * @return	The compact representation of the inflections.
+	 */
+	public CompactInflections applyAffixRulesCompact(final DictionaryEntry dicEntry){
+		final Supplier<Inflection[]> materializer = () -> applyAffixRules(dicEntry);
+		return (inflectionCache != null?
+			inflectionCache.applyAffixRulesCompact(dicEntry, materializer,
+				entry -> wordGeneratorAffixRules.applyAffixRulesCompact(entry, materializer)):
+			wordGeneratorAffixRules.applyAffixRulesCompact(dicEntry, materializer));
+	}
+
+	/** @return	The index of all the inflections of the dictionary, or <code>null</code> if there is no dictionary. */
+	public DictionaryInclusionIndex getInclusionIndex(){
+		return inclusionIndex;
+	}
+
+	/** Persists the inflections generated so far and releases the cache, if one is in use. */
+	public void closeInflectionCache(){
+		if(inflectionCache != null)
+			inflectionCache.close();
 	}
 
 	public Inflection[] applyAffixRules(final DictionaryEntry dicEntry, final RuleEntry overriddenRule){
@@ -28,10 +28,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.vos.AffixEntry;
+import unit731.hunlinter.parsers.vos.CompactInflections;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.parsers.vos.RuleEntry;
 
+import java.util.function.Supplier;
+
 import static unit731.hunlinter.services.system.LoopHelper.forEach;
 import static unit731.hunlinter.services.system.LoopHelper.match;
 import static unit731.hunlinter.services.system.LoopHelper.removeIf;
@@ -65,6 +68,27 @@ class WordGeneratorAffixRules extends WordGeneratorBase{
 		return inflections;
 	}
 
+	/**
+	 * @param dicEntry	The dictionary entry to be inflected.
+	 * @param materializer	The supplier of the full inflections, called only if they are asked to the returned object.
+	 * @return	The compact representation of all the inflections of the given entry.
+	 */
+	CompactInflections applyAffixRulesCompact(final DictionaryEntry dicEntry, final Supplier<Inflection[]> materializer){
+		final CompactInflectionBuffer buffer = CompactInflectionBuffer.acquire();
+		try{
+			//the full generation reports the errors, if any
+			if(!generateCompactInflections(dicEntry, buffer))
+				return CompactInflections.of(applyAffixRules(dicEntry));
+
+			enforceOnlyInCompound(buffer);
+
+			return buffer.extract(affixData, materializer);
+		}
+		finally{
+			buffer.release();
+		}
+	}
+
 	/** Remove rules that invalidate the onlyInCompound rule */
 	private Inflection[] enforceOnlyInCompound(Inflection[] inflections){
 		final String onlyInCompoundFlag = affixData.getOnlyInCompoundFlag();
@@ -79,4 +103,25 @@ class WordGeneratorAffixRules extends WordGeneratorBase{
 		return inflections;
 	}
 
+	/** Remove rules that invalidate the onlyInCompound rule */
+	private void enforceOnlyInCompound(final CompactInflectionBuffer buffer){
+		final String onlyInCompoundFlag = affixData.getOnlyInCompoundFlag();
+		if(onlyInCompoundFlag != null){
+			final int onlyInCompoundFlagId = affixData.getFlagRegistry().getId(onlyInCompoundFlag);
+			for(int i = 0; i < buffer.limit; i ++)
+				if(!buffer.isRemoved(i) && hasOnlyInCompoundFlag(buffer, i, onlyInCompoundFlagId))
+					buffer.remove(i);
+		}
+	}
+
+	private boolean hasOnlyInCompoundFlag(final CompactInflectionBuffer buffer, final int index, final int onlyInCompoundFlagId){
+		if(buffer.hasFlag(index, onlyInCompoundFlagId))
+			return true;
+
+		for(int i = buffer.rulesStart(index); i < buffer.rulesEnd(index); i ++)
+			if(affixData.getAffixEntry(buffer.getRule(i)).hasContinuationFlag(onlyInCompoundFlagId))
+				return true;
+		return false;
+	}
+
 }
@@ -29,20 +29,20 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import unit731.hunlinter.datastructures.FixedArray;
-import unit731.hunlinter.datastructures.SimpleDynamicArray;
 import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
 import unit731.hunlinter.parsers.enums.AffixType;
 import unit731.hunlinter.parsers.vos.AffixEntry;
 import unit731.hunlinter.parsers.vos.Affixes;
+import unit731.hunlinter.parsers.vos.CompactInflections;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.parsers.vos.RuleEntry;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
 import java.text.MessageFormat;
-
-import static unit731.hunlinter.services.system.LoopHelper.forEach;
-import static unit731.hunlinter.services.system.LoopHelper.removeIf;
+import java.util.Arrays;
+import java.util.function.Predicate;
 
 
 class WordGeneratorBase{
@@ -52,6 +52,13 @@ class WordGeneratorBase{
 	private static final MessageFormat TWOFOLD_RULE_VIOLATED = new MessageFormat("Twofold rule violated for `{0} from {1}` ({2} still has rules {3})");
 	private static final MessageFormat NON_EXISTENT_RULE = new MessageFormat("Non-existent rule `{0}`{1}");
 
+	/** Kinds of continuation flags, as seen by the compact generation */
+	private static final int FLAG_NON_EXISTENT = -1;
+	private static final int FLAG_COMPOUND_RULE = 0;
+	private static final int FLAG_PREFIX = 1;
+	private static final int FLAG_SUFFIX = 2;
+	private static final int FLAG_TERMINAL = 3;
+
 
 	protected final AffixData affixData;
 
@@ -75,57 +82,49 @@ class WordGeneratorBase{
 		if(dicEntry.hasContinuationFlag(forbiddenWordFlag))
 			return new Inflection[0];
 
-		//extract base inflection
-		final Inflection baseInflection = getBaseInflection(dicEntry);
-		if(LOGGER.isDebugEnabled()){
-			LOGGER.debug("Base inflection:");
-			LOGGER.debug("   {}", baseInflection);
-		}
-
-		//extract suffixed inflections
-		final Inflection[] suffixedInflections = getOnefoldInflections(baseInflection, isCompound, !affixData.isComplexPrefixes(),
-			overriddenRule);
-		printInflections((affixData.isComplexPrefixes()? "Prefix inflections:": "Suffix inflections:"), suffixedInflections);
-
-		Inflection[] prefixedInflections = new Inflection[0];
-		if(!isCompound || affixData.allowTwofoldAffixesInCompound()){
-			//extract prefixed inflections
-			prefixedInflections = getTwofoldInflections(suffixedInflections, isCompound, !affixData.isComplexPrefixes(),
-				overriddenRule);
-			printInflections((affixData.isComplexPrefixes()? "Suffix inflections:": "Prefix inflections:"), prefixedInflections);
-		}
-
-		//extract lastfold inflections
-		Inflection[] twofoldInflections = collectInflections(baseInflection, suffixedInflections, prefixedInflections, null);
-		twofoldInflections = getTwofoldInflections(twofoldInflections, isCompound, affixData.isComplexPrefixes(), overriddenRule);
-		checkTwofoldCorrectness(twofoldInflections);
-		printInflections("Twofold inflections:", twofoldInflections);
+		final InflectionBuffer buffer = InflectionBuffer.acquire();
+		try{
+			//extract base inflection
+			final Inflection baseInflection = getBaseInflection(dicEntry);
+			if(LOGGER.isDebugEnabled()){
+				LOGGER.debug("Base inflection:");
+				LOGGER.debug("   {}", baseInflection);
+			}
+			buffer.add(baseInflection);
+
+			//extract suffixed inflections
+			addOnefoldInflections(baseInflection, isCompound, !affixData.isComplexPrefixes(), overriddenRule, buffer);
+			final int onefoldEnd = buffer.limit;
+			printInflections((affixData.isComplexPrefixes()? "Prefix inflections:": "Suffix inflections:"), buffer, 1, onefoldEnd);
+
+			if(!isCompound || affixData.allowTwofoldAffixesInCompound()){
+				//extract prefixed inflections
+				addTwofoldInflections(buffer, 1, onefoldEnd, isCompound, !affixData.isComplexPrefixes(), overriddenRule);
+				printInflections((affixData.isComplexPrefixes()? "Suffix inflections:": "Prefix inflections:"), buffer, onefoldEnd,
+					buffer.limit);
+			}
+			final int twofoldEnd = buffer.limit;
 
-		final Inflection[] inflections = collectInflections(baseInflection, suffixedInflections, prefixedInflections, twofoldInflections);
-		return filterInflections(inflections);
-	}
+			//extract lastfold inflections
+			addTwofoldInflections(buffer, 0, twofoldEnd, isCompound, affixData.isComplexPrefixes(), overriddenRule);
+			checkTwofoldCorrectness(buffer, twofoldEnd, buffer.limit);
+			printInflections("Twofold inflections:", buffer, twofoldEnd, buffer.limit);
 
-	private Inflection[] collectInflections(final Inflection baseInflection, final Inflection[] onefoldInflections,
-			final Inflection[] twofoldInflections, final Inflection[] lastfoldInflections){
-		final int size = 1 + onefoldInflections.length + twofoldInflections.length
-			+ (lastfoldInflections != null? lastfoldInflections.length: 0);
-		final Inflection[] inflections = new Inflection[size];
-		inflections[0] = baseInflection;
-		System.arraycopy(onefoldInflections, 0, inflections, 1, onefoldInflections.length);
-		System.arraycopy(twofoldInflections, 0, inflections, 1 + onefoldInflections.length, twofoldInflections.length);
-		if(lastfoldInflections != null)
-			System.arraycopy(lastfoldInflections, 0, inflections, 1 + onefoldInflections.length + twofoldInflections.length,
-				lastfoldInflections.length);
-		return inflections;
+			filterInflections(buffer);
+			return buffer.extract();
+		}
+		finally{
+			buffer.release();
+		}
 	}
 
 
-	private void printInflections(final String title, final Inflection[] inflections){
-		if(LOGGER.isDebugEnabled() && inflections.length > 0){
+	private void printInflections(final String title, final InflectionBuffer buffer, final int start, final int end){
+		if(LOGGER.isDebugEnabled() && start < end){
 			LOGGER.debug(title);
-			forEach(inflections,
-				inflection -> LOGGER.debug("   {} from {}", inflection.toString(affixData.getFlagParsingStrategy()),
-				inflection.getRulesSequence()));
+			for(int i = start; i < end; i ++)
+				LOGGER.debug("   {} from {}", buffer.data[i].toString(affixData.getFlagParsingStrategy()),
+					buffer.data[i].getRulesSequence());
 		}
 	}
 
@@ -135,33 +134,34 @@ class WordGeneratorBase{
 	}
 
 	@SuppressWarnings("unchecked")
-	protected Inflection[] getOnefoldInflections(final DictionaryEntry dicEntry, final boolean isCompound, final boolean reverse,
-			final RuleEntry overriddenRule) throws NoApplicableRuleException{
+	private void addOnefoldInflections(final DictionaryEntry dicEntry, final boolean isCompound, final boolean reverse,
+			final RuleEntry overriddenRule, final InflectionBuffer buffer) throws NoApplicableRuleException{
 		@SuppressWarnings("rawtypes")
 		final FixedArray[] allAffixes = dicEntry.extractAllAffixes(affixData, reverse);
-		return applyAffixRules(dicEntry, allAffixes, isCompound, overriddenRule);
+		applyAffixRules(dicEntry, allAffixes, isCompound, overriddenRule, buffer);
 	}
 
-	private Inflection[] getTwofoldInflections(final Inflection[] onefoldInflections, final boolean isCompound,
+	/** Expands each combinable inflection in <code>[start, end)</code>, appending the results at the end of the buffer */
+	private void addTwofoldInflections(final InflectionBuffer buffer, final int start, final int end, final boolean isCompound,
 			final boolean reverse, final RuleEntry overriddenRule) throws NoApplicableRuleException{
-		Inflection[] twofoldInflections = new Inflection[0];
-		for(final Inflection inflection : onefoldInflections)
+		for(int i = start; i < end; i ++){
+			final Inflection inflection = buffer.data[i];
 			if(inflection.isCombinable()){
-				final Inflection[] prods = getOnefoldInflections(inflection, isCompound, reverse, overriddenRule);
+				final int prodsStart = buffer.limit;
+				addOnefoldInflections(inflection, isCompound, reverse, overriddenRule, buffer);
 
 				final AffixEntry[] appliedRules = inflection.getAppliedRules();
 				//add parent derivations
-				for(final Inflection prod : prods)
-					prod.prependAppliedRules(appliedRules);
-
-				twofoldInflections = ArrayUtils.addAll(twofoldInflections, prods);
+				for(int j = prodsStart; j < buffer.limit; j ++)
+					buffer.data[j].prependAppliedRules(appliedRules);
 			}
-		return twofoldInflections;
+		}
 	}
 
-	private void checkTwofoldCorrectness(final Inflection[] twofoldInflections){
+	private void checkTwofoldCorrectness(final InflectionBuffer buffer, final int start, final int end){
 		final boolean complexPrefixes = affixData.isComplexPrefixes();
-		for(final Inflection prod : twofoldInflections){
+		for(int i = start; i < end; i ++){
+			final Inflection prod = buffer.data[i];
 			@SuppressWarnings("rawtypes")
 			final FixedArray[] affixes = prod.extractAllAffixes(affixData, false);
 			@SuppressWarnings("unchecked")
@@ -174,10 +174,10 @@ class WordGeneratorBase{
 		}
 	}
 
-	private Inflection[] filterInflections(Inflection[] inflections){
-		inflections = enforceCircumfix(inflections);
+	private void filterInflections(final InflectionBuffer buffer){
+		enforceCircumfix(buffer);
 
-		return enforceNeedAffixFlag(inflections);
+		enforceNeedAffixFlag(buffer);
 	}
 
 	/**
@@ -198,20 +198,17 @@ class WordGeneratorBase{
 	 *    discard inflection
 	 * </pre></code>
 	 */
-	private Inflection[] enforceCircumfix(Inflection[] inflections){
+	private void enforceCircumfix(final InflectionBuffer buffer){
 		final String circumfixFlag = affixData.getCircumfixFlag();
 		if(circumfixFlag != null)
-			inflections = removeIf(inflections,
-				inflection -> inflection.hasContinuationFlag(circumfixFlag) && !inflection.isTwofolded(circumfixFlag));
-		return inflections;
+			buffer.removeIf(inflection -> inflection.hasContinuationFlag(circumfixFlag) && !inflection.isTwofolded(circumfixFlag));
 	}
 
 	/** Remove rules that invalidate the affix rule */
-	private Inflection[] enforceNeedAffixFlag(Inflection[] inflections){
+	private void enforceNeedAffixFlag(final InflectionBuffer buffer){
 		final String needAffixFlag = affixData.getNeedAffixFlag();
 		if(needAffixFlag != null)
-			inflections = removeIf(inflections, inflection -> hasNeedAffixFlag(inflection, needAffixFlag));
-		return inflections;
+			buffer.removeIf(inflection -> hasNeedAffixFlag(inflection, needAffixFlag));
 	}
 
 	private boolean hasNeedAffixFlag(final Inflection inflection, final String needAffixFlag){
@@ -245,8 +242,8 @@ class WordGeneratorBase{
 		return (hasNeedAffixFlag || inflection.hasContinuationFlag(needAffixFlag));
 	}
 
-	private Inflection[] applyAffixRules(final DictionaryEntry dicEntry, final FixedArray<String>[] allAffixes,
-			final boolean isCompound, final RuleEntry overriddenRule) throws NoApplicableRuleException{
+	private void applyAffixRules(final DictionaryEntry dicEntry, final FixedArray<String>[] allAffixes,
+			final boolean isCompound, final RuleEntry overriddenRule, final InflectionBuffer buffer) throws NoApplicableRuleException{
 		final String circumfixFlag = affixData.getCircumfixFlag();
 		final String forbiddenWordFlag = affixData.getForbiddenWordFlag();
 
@@ -255,7 +252,6 @@ class WordGeneratorBase{
 		if(circumfixFlag != null && ArrayUtils.contains(allAffixes[Affixes.INDEX_TERMINALS].data, circumfixFlag))
 			postponedAffixes.add(circumfixFlag);
 
-		Inflection[] inflections = new Inflection[0];
 		if(hasToBeExpanded(dicEntry, appliedAffixes, forbiddenWordFlag))
 			for(int i = 0; i < appliedAffixes.limit; i ++){
 				final String affix = appliedAffixes.data[i];
@@ -269,14 +265,13 @@ class WordGeneratorBase{
 				if(dicEntry.getLastAppliedRule() != null
 						&& dicEntry.getLastAppliedRule().getType() == AffixType.SUFFIX ^ rule.getType() == AffixType.SUFFIX)
 					currentPostponedAffixes = ArrayUtils.removeElement(currentPostponedAffixes, circumfixFlag);
-				final Inflection[] prods = applyAffixRule(dicEntry, affix, currentPostponedAffixes, isCompound, overriddenRule);
-				inflections = ArrayUtils.addAll(inflections, prods);
+				applyAffixRule(dicEntry, affix, currentPostponedAffixes, isCompound, overriddenRule, buffer);
 			}
-		return inflections;
 	}
 
-	private Inflection[] applyAffixRule(final DictionaryEntry dicEntry, final String affix, final String[] postponedAffixes,
-			final boolean isCompound, final RuleEntry overriddenRule) throws NoApplicableRuleException{
+	private void applyAffixRule(final DictionaryEntry dicEntry, final String affix, final String[] postponedAffixes,
+			final boolean isCompound, final RuleEntry overriddenRule, final InflectionBuffer buffer)
+			throws NoApplicableRuleException{
 		final AffixEntry[] appliedRules = dicEntry.getAppliedRules();
 
 		RuleEntry rule = affixData.getData(affix);
@@ -285,54 +280,56 @@ class WordGeneratorBase{
 			rule = overriddenRule;
 		if(rule == null){
 			if(affixData.isManagedByCompoundRule(affix))
-				return new Inflection[0];
+				return;
 
 			final String parentFlag = (appliedRules.length > 0? appliedRules[0].getFlag(): null);
 			throw new LinterException(NON_EXISTENT_RULE.format(new Object[]{affix,
 				(parentFlag != null? " via " + parentFlag: StringUtils.EMPTY)}));
 		}
 
-		final String forbidCompoundFlag = affixData.getForbidCompoundFlag();
-		final String permitCompoundFlag = affixData.getPermitCompoundFlag();
-		final String forbiddenWordFlag = affixData.getForbiddenWordFlag();
+		//flags are resolved to their ids once, membership tests in the loop are scans over a few ints
+		final FlagRegistry flagRegistry = affixData.getFlagRegistry();
+		final int forbidCompoundFlagId = flagRegistry.getId(affixData.getForbidCompoundFlag());
+		final int permitCompoundFlagId = flagRegistry.getId(affixData.getPermitCompoundFlag());
+		final int forbiddenWordFlagId = flagRegistry.getId(affixData.getForbiddenWordFlag());
 		final String circumfixFlag = affixData.getCircumfixFlag();
+		final int circumfixFlagId = flagRegistry.getId(circumfixFlag);
+		final int[] postponedAffixIds = flagRegistry.toIds(postponedAffixes);
 
 		final String word = dicEntry.getWord();
-		final AffixEntry[] applicableAffixes = AffixData.extractListOfApplicableAffixes(word, rule.getEntries());
+		final AffixEntry[] applicableAffixes = AffixData.extractListOfApplicableAffixes(word, rule);
 		if(applicableAffixes.length == 0)
 			throw new NoApplicableRuleException("No applicable rules found for flag `" + affix + "` via `"
 				+ (dicEntry.getAppliedRules() != null && dicEntry.getAppliedRules().length > 0? dicEntry.toString(): word) + "`");
 
-		final SimpleDynamicArray<Inflection> inflections = new SimpleDynamicArray<>(Inflection.class, applicableAffixes.length);
 		for(final AffixEntry entry : applicableAffixes){
-			if(shouldApplyEntry(entry, forbidCompoundFlag, permitCompoundFlag, isCompound)){
+			if(shouldApplyEntry(entry, forbidCompoundFlagId, permitCompoundFlagId, isCompound)){
 				//if entry has circumfix constraint and inflection has the same contraint then remove it from postponedAffixes
 				boolean removeCircumfixFlag = false;
 				if(circumfixFlag != null && appliedRules != null){
-					final boolean entryContainsCircumfix = entry.hasContinuationFlag(circumfixFlag);
-					final boolean appliedRuleContainsCircumfix = match(appliedRules, entry, circumfixFlag);
+					final boolean entryContainsCircumfix = entry.hasContinuationFlag(circumfixFlagId);
+					final boolean appliedRuleContainsCircumfix = match(appliedRules, entry, circumfixFlagId);
 					removeCircumfixFlag = (entryContainsCircumfix && (entry.getType() == AffixType.SUFFIX ^ appliedRuleContainsCircumfix));
 				}
 
 				//produce the new word
 				final String newWord = entry.applyRule(word, affixData.isFullstrip());
-				final Inflection inflection = Inflection.createFromInflection(newWord, entry, dicEntry, postponedAffixes,
+				final Inflection inflection = Inflection.createFromInflection(newWord, entry, dicEntry, postponedAffixIds,
 					rule.isCombinable());
 				if(removeCircumfixFlag)
 					inflection.removeContinuationFlag(circumfixFlag);
-				if(!inflection.hasContinuationFlag(forbiddenWordFlag))
-					inflections.add(inflection);
+				if(!inflection.hasContinuationFlag(forbiddenWordFlagId))
+					buffer.add(inflection);
 			}
 		}
-		return inflections.extractCopy();
 	}
 
-	private static boolean match(final AffixEntry[] appliedRules, final AffixEntry entry, final String circumfixFlag){
+	private static boolean match(final AffixEntry[] appliedRules, final AffixEntry entry, final int circumfixFlagId){
 		final AffixType entryType = entry.getType();
 		final int size = (appliedRules != null? appliedRules.length: 0);
 		for(int i = 0; i < size; i ++){
 			final AffixEntry appliedRule = appliedRules[i];
-			if((entryType == AffixType.SUFFIX ^ appliedRule.getType() == AffixType.SUFFIX) && appliedRule.hasContinuationFlag(circumfixFlag))
+			if((entryType == AffixType.SUFFIX ^ appliedRule.getType() == AffixType.SUFFIX) && appliedRule.hasContinuationFlag(circumfixFlagId))
 				return true;
 		}
 		return false;
@@ -343,16 +340,324 @@ class WordGeneratorBase{
 		return (!appliedAffixes.isEmpty() && !dicEntry.hasContinuationFlag(forbiddenWordFlag));
 	}
 
-	private boolean shouldApplyEntry(final AffixEntry entry, final String forbidCompoundFlag, final String permitCompoundFlag,
+	private boolean shouldApplyEntry(final AffixEntry entry, final int forbidCompoundFlagId, final int permitCompoundFlagId,
 			final boolean isCompound){
 		boolean shouldApply = true;
 		if(isCompound){
-			final boolean hasForbidFlag = entry.hasContinuationFlag(forbidCompoundFlag);
-			final boolean hasPermitFlag = entry.hasContinuationFlag(permitCompoundFlag);
+			final boolean hasForbidFlag = entry.hasContinuationFlag(forbidCompoundFlagId);
+			final boolean hasPermitFlag = entry.hasContinuationFlag(permitCompoundFlagId);
 			if(hasForbidFlag || !hasPermitFlag)
 				shouldApply = false;
 		}
 		return shouldApply;
 	}
 
+
+	/**
+	 * Generates the inflections of the provided word as {@link #applyAffixRules(DictionaryEntry, boolean, RuleEntry)} does for
+	 * a word not in a compound and without overridden rules, keeping only the word, the continuation flags, and the applied
+	 * rules of each inflection.
+	 *
+	 * @param dicEntry	{@link DictionaryEntry dictionary entry} used to generate the inflections for
+	 * @param buffer	The buffer receiving the inflections (the filtered out ones are marked as removed)
+	 * @return	Whether the inflections were generated, <code>false</code> if they have to be generated by
+	 * 	{@link #applyAffixRules(DictionaryEntry, boolean, RuleEntry)} (that reports the errors)
+	 */
+	protected boolean generateCompactInflections(final DictionaryEntry dicEntry, final CompactInflectionBuffer buffer){
+		final int forbiddenWordFlagId = affixData.getFlagRegistry().getId(affixData.getForbiddenWordFlag());
+		if(dicEntry.hasContinuationFlag(forbiddenWordFlagId))
+			return true;
+
+		//extract base inflection
+		buffer.begin(dicEntry.getWord(), dicEntry.isCombinable());
+		buffer.addFlags(dicEntry.getContinuationFlagIds());
+		buffer.commit();
+
+		//extract suffixed inflections
+		final boolean complexPrefixes = affixData.isComplexPrefixes();
+		if(!addOnefoldInflections(buffer, 0, !complexPrefixes))
+			return false;
+		final int onefoldEnd = buffer.limit;
+
+		//extract prefixed inflections
+		if(!addTwofoldInflections(buffer, 1, onefoldEnd, !complexPrefixes))
+			return false;
+		final int twofoldEnd = buffer.limit;
+
+		//extract lastfold inflections
+		if(!addTwofoldInflections(buffer, 0, twofoldEnd, complexPrefixes) || !isTwofoldCorrect(buffer, twofoldEnd, buffer.limit))
+			return false;
+
+		enforceCircumfix(buffer);
+		enforceNeedAffixFlag(buffer);
+		return true;
+	}
+
+	private boolean addTwofoldInflections(final CompactInflectionBuffer buffer, final int start, final int end,
+			final boolean reverse){
+		for(int i = start; i < end; i ++)
+			if(buffer.isCombinable(i) && !addOnefoldInflections(buffer, i, reverse))
+				return false;
+		return true;
+	}
+
+	private boolean addOnefoldInflections(final CompactInflectionBuffer buffer, final int parent, final boolean reverse){
+		final FlagRegistry flagRegistry = affixData.getFlagRegistry();
+		final int circumfixFlagId = flagRegistry.getId(affixData.getCircumfixFlag());
+		final int forbiddenWordFlagId = flagRegistry.getId(affixData.getForbiddenWordFlag());
+
+		//separate the affixes to be applied from the ones to be postponed
+		final int flagsStart = buffer.flagsStart(parent);
+		final int flagsEnd = buffer.flagsEnd(parent);
+		final int[] appliedAffixes = buffer.appliedAffixes(flagsEnd - flagsStart);
+		final int[] postponedAffixes = buffer.postponedAffixes(flagsEnd - flagsStart + 1);
+		final int appliedKind = (reverse? FLAG_SUFFIX: FLAG_PREFIX);
+		int appliedCount = 0;
+		int postponedCount = 0;
+		boolean hasCircumfixFlag = false;
+		for(int i = flagsStart; i < flagsEnd; i ++){
+			final int flagId = buffer.getFlag(i);
+			final int kind = kindOf(flagRegistry.getFlag(flagId));
+			if(kind == FLAG_NON_EXISTENT)
+				return false;
+
+			if(kind == appliedKind)
+				appliedAffixes[appliedCount ++] = flagId;
+			else if(kind == FLAG_TERMINAL)
+				hasCircumfixFlag |= (flagId == circumfixFlagId);
+			else if(kind != FLAG_COMPOUND_RULE)
+				postponedAffixes[postponedCount ++] = flagId;
+		}
+		if(hasCircumfixFlag)
+			postponedAffixes[postponedCount ++] = circumfixFlagId;
+
+		if(appliedCount > 0 && !buffer.hasFlag(parent, forbiddenWordFlagId)){
+			final int rulesEnd = buffer.rulesEnd(parent);
+			final AffixEntry lastAppliedRule = (rulesEnd > buffer.rulesStart(parent)?
+				affixData.getAffixEntry(buffer.getRule(rulesEnd - 1)): null);
+			for(int i = 0; i < appliedCount; i ++){
+				final RuleEntry rule = affixData.getData(flagRegistry.getFlag(appliedAffixes[i]));
+				final int excludedFlagId = (lastAppliedRule != null
+					&& lastAppliedRule.getType() == AffixType.SUFFIX ^ rule.getType() == AffixType.SUFFIX? circumfixFlagId: -1);
+				if(!applyAffixRule(buffer, parent, rule, postponedAffixes, postponedCount, excludedFlagId))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private int kindOf(final String flag){
+		if(affixData.isTerminalAffix(flag))
+			return FLAG_TERMINAL;
+
+		final Object rule = affixData.getData(flag);
+		if(rule == null)
+			return (affixData.isManagedByCompoundRule(flag)? FLAG_COMPOUND_RULE: FLAG_NON_EXISTENT);
+		if(rule instanceof RuleEntry)
+			return (((RuleEntry)rule).getType() == AffixType.SUFFIX? FLAG_SUFFIX: FLAG_PREFIX);
+		return FLAG_TERMINAL;
+	}
+
+	private boolean applyAffixRule(final CompactInflectionBuffer buffer, final int parent, final RuleEntry rule,
+			final int[] postponedAffixes, final int postponedCount, final int excludedFlagId){
+		final String word = buffer.getWord(parent);
+		final AffixEntry[] applicableAffixes = AffixData.extractListOfApplicableAffixes(word, rule);
+		if(applicableAffixes.length == 0)
+			return false;
+
+		final FlagRegistry flagRegistry = affixData.getFlagRegistry();
+		final int forbiddenWordFlagId = flagRegistry.getId(affixData.getForbiddenWordFlag());
+		final int circumfixFlagId = flagRegistry.getId(affixData.getCircumfixFlag());
+		final boolean hasAppliedRules = (buffer.rulesEnd(parent) > buffer.rulesStart(parent));
+		for(final AffixEntry entry : applicableAffixes){
+			final int entryIndex = entry.getIndex();
+			if(entryIndex < 0 || entryIndex >= CompactInflections.MAX_AFFIX_ENTRIES)
+				return false;
+
+			//if entry has circumfix constraint and inflection has the same contraint then remove it from the flags
+			boolean removeCircumfixFlag = false;
+			if(circumfixFlagId >= 0 && hasAppliedRules){
+				final boolean entryContainsCircumfix = entry.hasContinuationFlag(circumfixFlagId);
+				final boolean appliedRuleContainsCircumfix = match(buffer, parent, entry, circumfixFlagId);
+				removeCircumfixFlag = (entryContainsCircumfix && (entry.getType() == AffixType.SUFFIX ^ appliedRuleContainsCircumfix));
+			}
+			final int removedFlagId = (removeCircumfixFlag? circumfixFlagId: -1);
+
+			//produce the new word
+			buffer.begin(entry.applyRule(word, affixData.isFullstrip()), rule.isCombinable());
+			boolean forbidden = false;
+			for(int i = 0; i < postponedCount; i ++){
+				final int flagId = postponedAffixes[i];
+				if(flagId != excludedFlagId && flagId != removedFlagId){
+					buffer.addFlag(flagId);
+					forbidden |= (flagId == forbiddenWordFlagId);
+				}
+			}
+			final int[] entryFlags = entry.getContinuationFlagIds();
+			if(entryFlags != null)
+				for(final int flagId : entryFlags)
+					if(flagId != removedFlagId){
+						buffer.addFlag(flagId);
+						forbidden |= (flagId == forbiddenWordFlagId);
+					}
+			buffer.addRulesOf(parent);
+			buffer.addRule(entryIndex);
+
+			if(forbidden)
+				buffer.rollback();
+			else
+				buffer.commit();
+		}
+		return true;
+	}
+
+	private boolean match(final CompactInflectionBuffer buffer, final int index, final AffixEntry entry,
+			final int circumfixFlagId){
+		final AffixType entryType = entry.getType();
+		for(int i = buffer.rulesStart(index); i < buffer.rulesEnd(index); i ++){
+			final AffixEntry appliedRule = affixData.getAffixEntry(buffer.getRule(i));
+			if((entryType == AffixType.SUFFIX ^ appliedRule.getType() == AffixType.SUFFIX) && appliedRule.hasContinuationFlag(circumfixFlagId))
+				return true;
+		}
+		return false;
+	}
+
+	private boolean isTwofoldCorrect(final CompactInflectionBuffer buffer, final int start, final int end){
+		final FlagRegistry flagRegistry = affixData.getFlagRegistry();
+		final int overabundantKind = (affixData.isComplexPrefixes()? FLAG_SUFFIX: FLAG_PREFIX);
+		for(int i = start; i < end; i ++)
+			for(int j = buffer.flagsStart(i); j < buffer.flagsEnd(i); j ++){
+				final int kind = kindOf(flagRegistry.getFlag(buffer.getFlag(j)));
+				if(kind == FLAG_NON_EXISTENT || kind == overabundantKind)
+					return false;
+			}
+		return true;
+	}
+
+	private void enforceCircumfix(final CompactInflectionBuffer buffer){
+		final int circumfixFlagId = affixData.getFlagRegistry().getId(affixData.getCircumfixFlag());
+		if(circumfixFlagId >= 0)
+			for(int i = 0; i < buffer.limit; i ++)
+				if(buffer.hasFlag(i, circumfixFlagId) && !isTwofolded(buffer, i, circumfixFlagId))
+					buffer.remove(i);
+	}
+
+	private boolean isTwofolded(final CompactInflectionBuffer buffer, final int index, final int circumfixFlagId){
+		final int rulesStart = buffer.rulesStart(index);
+		final int rulesEnd = buffer.rulesEnd(index);
+		if(rulesStart == rulesEnd)
+			return false;
+
+		//find last applied rule with circumfix flag
+		int startIndex = rulesEnd - 1;
+		while(startIndex >= rulesStart)
+			if(affixData.getAffixEntry(buffer.getRule(startIndex --)).hasContinuationFlag(circumfixFlagId))
+				break;
+
+		final int[] suffixesAffixesCount = new int[2];
+		for(int i = startIndex + 1; i < rulesEnd; i ++)
+			suffixesAffixesCount[affixData.getAffixEntry(buffer.getRule(i)).getType() == AffixType.SUFFIX? 1: 0] ++;
+		return (suffixesAffixesCount[0] > 0 && suffixesAffixesCount[1] > 0);
+	}
+
+	private void enforceNeedAffixFlag(final CompactInflectionBuffer buffer){
+		if(affixData.getNeedAffixFlag() != null){
+			final int needAffixFlagId = affixData.getFlagRegistry().getId(affixData.getNeedAffixFlag());
+			for(int i = 0; i < buffer.limit; i ++)
+				if(!buffer.isRemoved(i) && hasNeedAffixFlag(buffer, i, needAffixFlagId))
+					buffer.remove(i);
+		}
+	}
+
+	private boolean hasNeedAffixFlag(final CompactInflectionBuffer buffer, final int index, final int needAffixFlagId){
+		boolean hasNeedAffixFlag = false;
+		final int rulesStart = buffer.rulesStart(index);
+		final int rulesEnd = buffer.rulesEnd(index);
+		if(rulesStart < rulesEnd){
+			//check that last suffix and last prefix don't have the needaffix flag
+			boolean lastSuffix = false;
+			boolean lastPrefix = false;
+			boolean lastSuffixNeedAffix = false;
+			boolean lastPrefixNeedAffix = false;
+			for(int i = rulesEnd - 1; (!lastSuffix || !lastPrefix) && i >= rulesStart; i --){
+				final AffixEntry appliedRule = affixData.getAffixEntry(buffer.getRule(i));
+				switch(appliedRule.getType()){
+					case SUFFIX -> {
+						if(!lastSuffix){
+							lastSuffix = true;
+							lastSuffixNeedAffix = appliedRule.hasContinuationFlag(needAffixFlagId);
+						}
+					}
+					case PREFIX -> {
+						if(!lastPrefix){
+							lastPrefix = true;
+							lastPrefixNeedAffix = appliedRule.hasContinuationFlag(needAffixFlagId);
+						}
+					}
+				}
+			}
+			hasNeedAffixFlag = (!lastSuffix || lastSuffixNeedAffix) && (!lastPrefix || lastPrefixNeedAffix);
+		}
+		return (hasNeedAffixFlag || buffer.hasFlag(index, needAffixFlagId));
+	}
+
+
+	/**
+	 * Growable array of inflections, reused by each thread across calls so that expanding a stem appends in amortized
+	 * constant time instead of copying the whole partial result at each step.
+	 */
+	private static final class InflectionBuffer{
+
+		private static final int INITIAL_CAPACITY = 64;
+		/** Buffers grown beyond this size are not kept for reuse, so a single huge stem does not pin memory forever */
+		private static final int MAX_RETAINED_CAPACITY = 16_384;
+
+		private static final ThreadLocal<InflectionBuffer> BUFFERS = ThreadLocal.withInitial(InflectionBuffer::new);
+
+
+		private Inflection[] data = new Inflection[INITIAL_CAPACITY];
+		private int limit;
+		private boolean inUse;
+
+
+		static InflectionBuffer acquire(){
+			InflectionBuffer buffer = BUFFERS.get();
+			//re-entrant call on the same thread: fall back to a private buffer
+			if(buffer.inUse)
+				buffer = new InflectionBuffer();
+			buffer.inUse = true;
+			return buffer;
+		}
+
+		void add(final Inflection inflection){
+			if(limit == data.length)
+				data = Arrays.copyOf(data, data.length << 1);
+			data[limit ++] = inflection;
+		}
+
+		/** Removes, in place and keeping the order, all the inflections that satisfy the given predicate */
+		void removeIf(final Predicate<Inflection> filter){
+			int newLimit = 0;
+			for(int i = 0; i < limit; i ++)
+				if(!filter.test(data[i]))
+					data[newLimit ++] = data[i];
+			Arrays.fill(data, newLimit, limit, null);
+			limit = newLimit;
+		}
+
+		Inflection[] extract(){
+			return Arrays.copyOf(data, limit);
+		}
+
+		void release(){
+			if(data.length > MAX_RETAINED_CAPACITY)
+				data = new Inflection[INITIAL_CAPACITY];
+			else
+				Arrays.fill(data, 0, limit, null);
+			limit = 0;
+			inUse = false;
+		}
+
+	}
+
 }
@@ -28,23 +28,23 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import unit731.hunlinter.datastructures.ArraySet;
 import unit731.hunlinter.datastructures.FixedArray;
 import unit731.hunlinter.datastructures.SetHelper;
 import unit731.hunlinter.datastructures.SimpleDynamicArray;
 import unit731.hunlinter.parsers.affix.AffixData;
-import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.dictionary.DictionaryInclusionIndex;
 import unit731.hunlinter.parsers.vos.Affixes;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.text.StringHelper;
-import unit731.hunlinter.workers.dictionary.DictionaryInclusionTestWorker;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -73,17 +73,154 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 	}
 
 
-	private final DictionaryParser dicParser;
 	private final WordGenerator wordGenerator;
 
-	private DictionaryInclusionTestWorker dicInclusionTestWorker;
+	private DictionaryInclusionIndex dicInclusionIndex;
 	private final Collection<String> compoundAsReplacement = new HashSet<>();
 
 
-	WordGeneratorCompound(final AffixData affixData, final DictionaryParser dicParser, final WordGenerator wordGenerator){
+	/** An inflection that can be part of a compound, along with the data needed to compose it, computed at most once */
+	private final class CompoundComponent{
+
+		private final Inflection inflection;
+		private final String word;
+		private final boolean forbidden;
+		private StringHelper.Casing casing;
+		private FixedArray<String>[] affixes;
+
+
+		CompoundComponent(final Inflection inflection, final String forbiddenWordFlag){
+			this.inflection = inflection;
+			word = inflection.getWord();
+			forbidden = inflection.hasContinuationFlag(forbiddenWordFlag);
+		}
+
+		StringHelper.Casing getCasing(){
+			if(casing == null)
+				casing = StringHelper.classifyCasing(word);
+			return casing;
+		}
+
+		@SuppressWarnings("unchecked")
+		FixedArray<String>[] getAffixes(){
+			if(affixes == null)
+				affixes = inflection.extractAllAffixes(affixData, false);
+			return affixes;
+		}
+
+	}
+
+	/**
+	 * Composes the compounds of a tuple of components, in lexicographic order of the indexes of the components.
+	 * <p>
+	 * The compound is built one component at a time, so the checks on the boundary between two components (forbidden words,
+	 * CHECKCOMPOUNDTRIPLE, SIMPLIFIEDTRIPLE, and CHECKCOMPOUNDCASE) are done once for all the compounds sharing the same
+	 * leading components, and a violation discards all of them at once.
+	 */
+	private final class CompoundComposer{
+
+		private final int limit;
+		private final String compoundFlag;
+		private final String forbiddenWordFlag;
+		private final boolean checkCompoundReplacement;
+		private final boolean forbidDifferentCasesInCompound;
+		private final boolean forbidTriples;
+		private final boolean simplifyTriples;
+
+		private final StringBuilder sb = new StringBuilder();
+		private final Set<Inflection> inflections = new LinkedHashSet<>();
+		private CompoundComponent[][] tuple;
+		private CompoundComponent[] chosen;
+
+
+		CompoundComposer(final int limit){
+			this.limit = limit;
+			compoundFlag = affixData.getCompoundFlag();
+			forbiddenWordFlag = affixData.getForbiddenWordFlag();
+			checkCompoundReplacement = affixData.isCheckCompoundReplacement();
+			forbidDifferentCasesInCompound = affixData.isForbidDifferentCasesInCompound();
+			forbidTriples = affixData.isForbidTriplesInCompound();
+			simplifyTriples = affixData.isSimplifyTriplesInCompound();
+		}
+
+		/** @return	Whether the limit has been reached */
+		boolean compose(final CompoundComponent[][] tuple){
+			this.tuple = tuple;
+			chosen = new CompoundComponent[tuple.length];
+			sb.setLength(0);
+			return compose(0, null);
+		}
+
+		private boolean compose(final int depth, final StringHelper.Casing lastWordCasing){
+			if(depth == tuple.length)
+				return accept();
+
+			final int length = sb.length();
+			for(final CompoundComponent component : tuple[depth]){
+				//skip forbidden words
+				if(component.forbidden)
+					continue;
+
+				String nextCompound = component.word;
+				StringHelper.Casing nextWordCasing = null;
+				final boolean containsTriple = containsTriple(sb, nextCompound);
+				//enforce simplification of triples if SIMPLIFIEDTRIPLE is set
+				if(containsTriple && simplifyTriples)
+					nextCompound = nextCompound.substring(1);
+				//enforce not containment of a triple if CHECKCOMPOUNDTRIPLE is set
+				else if(containsTriple && forbidTriples)
+					continue;
+				//enforce forbidden case if CHECKCOMPOUNDCASE is set
+				StringHelper.Casing casing = lastWordCasing;
+				if(length > 0 && forbidDifferentCasesInCompound){
+					if(casing == null)
+						casing = StringHelper.classifyCasing(sb.toString());
+					nextWordCasing = (nextCompound == component.word? component.getCasing():
+						StringHelper.classifyCasing(nextCompound));
+
+					final char lastChar = sb.charAt(length - 1);
+					//FIXME if nextCompound is changed, then check for duplicates
+					nextCompound = enforceNextCompoundCase(lastChar, nextCompound, casing, nextWordCasing);
+				}
+
+				chosen[depth] = component;
+				sb.append(nextCompound);
+				final boolean completed = compose(depth + 1, (nextWordCasing != null? nextWordCasing: casing));
+				sb.setLength(length);
+				if(completed)
+					return true;
+			}
+			return false;
+		}
+
+		private boolean accept(){
+			if(sb.length() > 0 && (!checkCompoundReplacement || !existsCompoundAsReplacement(sb.toString()))){
+				@SuppressWarnings("rawtypes")
+				final FixedArray[] continuationFlags = extractCompoundFlagsByComponent(chosen[0], chosen[chosen.length - 1],
+					compoundFlag);
+				if(forbiddenWordFlag == null
+						|| !continuationFlags[Affixes.INDEX_PREFIXES].contains(forbiddenWordFlag)
+						&& !continuationFlags[Affixes.INDEX_SUFFIXES].contains(forbiddenWordFlag)
+						&& !continuationFlags[Affixes.INDEX_TERMINALS].contains(forbiddenWordFlag)){
+					final DictionaryEntry[] compoundEntries = new DictionaryEntry[chosen.length];
+					for(int i = 0; i < chosen.length; i ++)
+						compoundEntries[i] = chosen[i].inflection;
+					@SuppressWarnings("unchecked")
+					final Inflection[] newInflections = generateInflections(sb.toString(), compoundEntries, continuationFlags);
+					final int size = Math.min(limit - inflections.size(), newInflections.length);
+					for(int i = 0; i < size; i ++)
+						inflections.add(newInflections[i]);
+				}
+			}
+			return (inflections.size() == limit);
+		}
+
+	}
+
+
+	WordGeneratorCompound(final AffixData affixData, final WordGenerator wordGenerator){
 		super(affixData);
 
-		this.dicParser = dicParser;
 		this.wordGenerator = wordGenerator;
 	}
 
@@ -97,14 +234,12 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 			final List<Inflection[]> expandedPermutationEntries = new ArrayList<>();
 			for(final String flag : permutation){
 				if(!dicEntries.containsKey(flag)){
-					Inflection[] dicEntriesPerFlag = new Inflection[0];
+					final SimpleDynamicArray<Inflection> dicEntriesPerFlag = new SimpleDynamicArray<>(Inflection.class);
 					for(final DictionaryEntry entry : inputs.get(flag)){
 						final Inflection[] inflections = applyAffixRules(entry, true, null);
-						final Inflection[] collect = collectIf(inflections,
-							inflection -> inflection.hasContinuationFlag(flag));
-						dicEntriesPerFlag = ArrayUtils.addAll(dicEntriesPerFlag, collect);
+						dicEntriesPerFlag.addAll(collectIf(inflections, inflection -> inflection.hasContinuationFlag(flag)));
 					}
-					dicEntries.put(flag, dicEntriesPerFlag);
+					dicEntries.put(flag, dicEntriesPerFlag.extractCopy());
 				}
 
 				final Inflection[] dicEntriesPerFlag = dicEntries.get(flag);
@@ -122,45 +257,24 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 		return entries;
 	}
 
-	@SuppressWarnings("unchecked")
 	protected Inflection[] applyCompound(final Iterable<List<Inflection[]>> entries, final int limit){
-		final String compoundFlag = affixData.getCompoundFlag();
-		final String forbiddenWordFlag = affixData.getForbiddenWordFlag();
 		final String forceCompoundUppercaseFlag = affixData.getForceCompoundUppercaseFlag();
-		final boolean checkCompoundReplacement = affixData.isCheckCompoundReplacement();
 
 		compoundAsReplacement.clear();
 
-		final StringBuffer sb = new StringBuffer();
-		final ArraySet<Inflection> inflections = new ArraySet<>();
+		//the same array of inflections is shared between many permutations, its components are prepared only once
+		final Map<Inflection[], CompoundComponent[]> components = new IdentityHashMap<>();
+		final CompoundComposer composer = new CompoundComposer(limit);
 		//generate compounds:
 		for(final List<Inflection[]> entry : entries){
-			//compose compound:
-			boolean completed = false;
-			final int[] indexes = new int[entry.size()];
-			while(!completed){
-				final DictionaryEntry[] compoundEntries = composeCompound(indexes, entry, sb);
-
-				if(sb.length() > 0 && (!checkCompoundReplacement || !existsCompoundAsReplacement(sb.toString()))){
-					@SuppressWarnings("rawtypes")
-					final FixedArray[] continuationFlags = extractCompoundFlagsByComponent(compoundEntries, compoundFlag);
-					if(forbiddenWordFlag == null
-							|| !continuationFlags[Affixes.INDEX_PREFIXES].contains(forbiddenWordFlag)
-							&& !continuationFlags[Affixes.INDEX_SUFFIXES].contains(forbiddenWordFlag)
-							&& !continuationFlags[Affixes.INDEX_TERMINALS].contains(forbiddenWordFlag)){
-						final String compoundWord = sb.toString();
-						@SuppressWarnings("unchecked")
-						final Inflection[] newInflections = generateInflections(compoundWord, compoundEntries, continuationFlags);
-						final Inflection[] subInflections = ArrayUtils.subarray(newInflections,
-							0, Math.min(limit - inflections.size(), newInflections.length));
-						inflections.addAll(subInflections);
-					}
-				}
+			final CompoundComponent[][] tuple = new CompoundComponent[entry.size()][];
+			for(int i = 0; i < tuple.length; i ++)
+				tuple[i] = components.computeIfAbsent(entry.get(i), this::createComponents);
 
-
-				completed = (inflections.size() == limit || getNextTuple(indexes, entry));
-			}
+			if(composer.compose(tuple))
+				break;
 		}
+		final Set<Inflection> inflections = composer.inflections;
 
 		compoundAsReplacement.clear();
 
@@ -172,6 +286,14 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 		return limitResponse(inflections, limit);
 	}
 
+	private CompoundComponent[] createComponents(final Inflection[] inflections){
+		final String forbiddenWordFlag = affixData.getForbiddenWordFlag();
+		final CompoundComponent[] components = new CompoundComponent[inflections.length];
+		for(int i = 0; i < inflections.length; i ++)
+			components[i] = new CompoundComponent(inflections[i], forbiddenWordFlag);
+		return components;
+	}
+
 	private void applyOutputConversions(final Iterable<Inflection> inflections, final String forceCompoundUppercaseFlag){
 		final Function<String, String> applyOutputConversionTable = affixData::applyOutputConversionTable;
 		//convert using output table
@@ -211,66 +333,17 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 		return inflections;
 	}
 
-	private DictionaryEntry[] composeCompound(final int[] indexes, final List<Inflection[]> entry, final StringBuffer sb){
-		final String forbiddenWordFlag = affixData.getForbiddenWordFlag();
-		final boolean forbidDifferentCasesInCompound = affixData.isForbidDifferentCasesInCompound();
-		final boolean forbidTriples = affixData.isForbidTriplesInCompound();
-		final boolean simplifyTriples = affixData.isSimplifyTriplesInCompound();
-
-		DictionaryEntry[] compoundEntries = new DictionaryEntry[0];
-
-		sb.setLength(0);
-		StringHelper.Casing lastWordCasing = null;
-		for(int i = 0; i < indexes.length; i ++){
-			final Inflection next = entry.get(i)[indexes[i]];
-
-			//skip forbidden words
-			if(next.hasContinuationFlag(forbiddenWordFlag)){
-				sb.setLength(0);
-				break;
-			}
-
-			compoundEntries = ArrayUtils.add(compoundEntries, next);
-
-			String nextCompound = next.getWord();
-			final boolean containsTriple = containsTriple(sb, nextCompound);
-			//enforce simplification of triples if SIMPLIFIEDTRIPLE is set
-			if(containsTriple && simplifyTriples)
-				nextCompound = nextCompound.substring(1);
-			//enforce not containment of a triple if CHECKCOMPOUNDTRIPLE is set
-			else if(containsTriple && forbidTriples){
-				sb.setLength(0);
-				break;
-			}
-			//enforce forbidden case if CHECKCOMPOUNDCASE is set
-			if(sb.length() > 0 && forbidDifferentCasesInCompound){
-				if(lastWordCasing == null)
-					lastWordCasing = StringHelper.classifyCasing(sb.toString());
-				final StringHelper.Casing nextWordCasing = StringHelper.classifyCasing(nextCompound);
-
-				final char lastChar = sb.charAt(sb.length() - 1);
-				//FIXME if nextCompound is changed, then check for duplicates
-				nextCompound = enforceNextCompoundCase(lastChar, nextCompound, lastWordCasing, nextWordCasing);
-
-				lastWordCasing = nextWordCasing;
-			}
-
-			sb.append(nextCompound);
-		}
-		return compoundEntries;
-	}
-
-	private boolean containsTriple(final StringBuffer sb, final String compound){
+	private static boolean containsTriple(final CharSequence sb, final String compound){
 		boolean repeated = false;
 		final int size = sb.length() - 1;
-		if(size > 1){
-			final String interCompounds = sb.substring(Math.max(size - 1, 0), size + 1) + compound.substring(0, Math.min(compound.length(), 2));
-			final int len = interCompounds.length();
-			if(len == 3 || len == 4){
-				repeated = (interCompounds.charAt(0) == interCompounds.charAt(1) && interCompounds.charAt(0) == interCompounds.charAt(2));
-				if(len == 4)
-					repeated |= (interCompounds.charAt(1) == interCompounds.charAt(2) && interCompounds.charAt(1) == interCompounds.charAt(3));
-			}
+		if(size > 1 && !compound.isEmpty()){
+			//last two characters of the compound so far, followed by the first two of the next component
+			final char first = sb.charAt(size - 1);
+			final char second = sb.charAt(size);
+			final char third = compound.charAt(0);
+			repeated = (first == second && first == third);
+			if(compound.length() > 1)
+				repeated |= (second == third && second == compound.charAt(1));
 		}
 		return repeated;
 	}
@@ -290,14 +363,10 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 
 	/** @return	A list of prefixes from first entry, suffixes from last entry, and terminals from both */
 	@SuppressWarnings("rawtypes")
-	private FixedArray[] extractCompoundFlagsByComponent(final DictionaryEntry[] compoundEntries,
+	private FixedArray[] extractCompoundFlagsByComponent(final CompoundComponent first, final CompoundComponent last,
 			final String compoundFlag){
-		@SuppressWarnings("unchecked")
-		final FixedArray<String>[] prefixes = compoundEntries[0]
-			.extractAllAffixes(affixData, false);
-		@SuppressWarnings("unchecked")
-		final FixedArray<String>[] suffixes = compoundEntries[compoundEntries.length - 1]
-			.extractAllAffixes(affixData, false);
+		final FixedArray<String>[] prefixes = first.getAffixes();
+		final FixedArray<String>[] suffixes = last.getAffixes();
 		final FixedArray<String> terminals = new FixedArray<>(String.class, prefixes.length + suffixes.length);
 		terminals.addAll(prefixes[Affixes.INDEX_TERMINALS]);
 		terminals.addAllUnique(suffixes[Affixes.INDEX_TERMINALS]);
@@ -319,7 +388,7 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 		if(!exists && word.length() >= 2){
 			final List<String> conversions = affixData.applyReplacementTable(word);
 			for(final String candidate : conversions)
-				if(dicInclusionTestWorker.isInDictionary(candidate)){
+				if(dicInclusionIndex.isInDictionary(candidate)){
 					compoundAsReplacement.add(word);
 
 					exists = true;
@@ -329,19 +398,6 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 		return exists;
 	}
 
-	private boolean getNextTuple(final int[] indexes, final List<Inflection[]> entry){
-		//obtain next tuple
-		int i = indexes.length - 1;
-		while(i >= 0){
-			indexes[i] ++;
-			if(indexes[i] < entry.get(i).length)
-				break;
-
-			indexes[i --] = 0;
-		}
-		return (i == -1);
-	}
-
 	/** Merge the distribution with the others */
 	protected Map<String, DictionaryEntry[]> mergeDistributions(final Map<String, DictionaryEntry[]> compoundRules,
 			final Map<String, DictionaryEntry[]> distribution, final int compoundMinimumLength, final String forbiddenWordFlag){
@@ -366,10 +422,11 @@ abstract class WordGeneratorCompound extends WordGeneratorBase{
 	}
 
 	protected void loadDictionaryForInclusionTest(){
-		if(dicInclusionTestWorker == null && affixData.isCheckCompoundReplacement()){
-			dicInclusionTestWorker = new DictionaryInclusionTestWorker(affixData.getLanguage(), dicParser, wordGenerator);
+		if(dicInclusionIndex == null && affixData.isCheckCompoundReplacement()){
+			dicInclusionIndex = wordGenerator.getInclusionIndex();
 
-			dicInclusionTestWorker.executeSynchronously();
+			if(dicInclusionIndex != null)
+				dicInclusionIndex.buildInBackground();
 		}
 	}
 
@@ -25,7 +25,6 @@
 package unit731.hunlinter.parsers.dictionary.generators;
 
 import unit731.hunlinter.parsers.affix.AffixData;
-import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.regexgenerator.HunSpellRegexWordGenerator;
@@ -44,8 +43,8 @@ class WordGeneratorCompoundBeginMiddleEnd extends WordGeneratorCompound{
 	private static final MessageFormat MISSING_WORD = new MessageFormat("Missing word(s) for rule `{0}` in compound begin-middle-end");
 
 
-	WordGeneratorCompoundBeginMiddleEnd(final AffixData affixData, final DictionaryParser dicParser, final WordGenerator wordGenerator){
-		super(affixData, dicParser, wordGenerator);
+	WordGeneratorCompoundBeginMiddleEnd(final AffixData affixData, final WordGenerator wordGenerator){
+		super(affixData, wordGenerator);
 	}
 
 	/**
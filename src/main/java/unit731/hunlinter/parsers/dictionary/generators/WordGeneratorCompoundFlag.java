@@ -26,7 +26,6 @@ package unit731.hunlinter.parsers.dictionary.generators;
 
 import unit731.hunlinter.datastructures.SimpleDynamicArray;
 import unit731.hunlinter.parsers.affix.AffixData;
-import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.text.PermutationsWithRepetitions;
@@ -47,8 +46,8 @@ class WordGeneratorCompoundFlag extends WordGeneratorCompound{
 	private static final MessageFormat NON_POSITIVE_MAX_COMPOUNDS = new MessageFormat("Max compounds cannot be non-positive: was {0}");
 
 
-	WordGeneratorCompoundFlag(final AffixData affixData, final DictionaryParser dicParser, final WordGenerator wordGenerator){
-		super(affixData, dicParser, wordGenerator);
+	WordGeneratorCompoundFlag(final AffixData affixData, final WordGenerator wordGenerator){
+		super(affixData, wordGenerator);
 	}
 
 	/**
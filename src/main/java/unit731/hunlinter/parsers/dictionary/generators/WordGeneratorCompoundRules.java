@@ -27,7 +27,6 @@ package unit731.hunlinter.parsers.dictionary.generators;
 import org.apache.commons.lang3.StringUtils;
 import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
-import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.regexgenerator.HunSpellRegexWordGenerator;
@@ -38,6 +37,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 class WordGeneratorCompoundRules extends WordGeneratorCompound{
@@ -46,8 +46,12 @@ class WordGeneratorCompoundRules extends WordGeneratorCompound{
 	private static final MessageFormat MISSING_WORD = new MessageFormat("Missing word(s) for rule {0} in compound rule {1}");
 
 
-	WordGeneratorCompoundRules(final AffixData affixData, final DictionaryParser dicParser, final WordGenerator wordGenerator){
-		super(affixData, dicParser, wordGenerator);
+	/** Compound rules compiled into automata, keyed by rule */
+	private final Map<String, HunSpellRegexWordGenerator> compiledRules = new ConcurrentHashMap<>();
+
+
+	WordGeneratorCompoundRules(final AffixData affixData, final WordGenerator wordGenerator){
+		super(affixData, wordGenerator);
 	}
 
 	/**
@@ -76,7 +80,8 @@ class WordGeneratorCompoundRules extends WordGeneratorCompound{
 
 		checkCompoundRuleInputCorrectness(inputs, compoundRuleComponents);
 
-		final HunSpellRegexWordGenerator regexWordGenerator = new HunSpellRegexWordGenerator(compoundRuleComponents);
+		final HunSpellRegexWordGenerator regexWordGenerator = compiledRules.computeIfAbsent(compoundRule,
+			k -> new HunSpellRegexWordGenerator(compoundRuleComponents));
 		//generate all the words that matches the given regex
 		final List<List<String>> permutations = regexWordGenerator.generateAll(2, limit);
 
@@ -29,12 +29,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import unit731.hunlinter.datastructures.SetHelper;
 import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.dictionary.DictionaryInclusionIndex;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.parsers.vos.AffixEntry;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.parsers.vos.RuleEntry;
-import unit731.hunlinter.workers.dictionary.DictionaryInclusionTestWorker;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -42,6 +42,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static unit731.hunlinter.services.system.LoopHelper.forEach;
 
@@ -59,7 +60,25 @@ public class WordMuncher{
 //	private final DictionaryParser dicParser;
 	private final WordGenerator wordGenerator;
 
-	private DictionaryInclusionTestWorker dicInclusionTestWorker;
+	private final DictionaryInclusionIndex dicInclusionIndex;
+	private final InverseAffixIndex inverseAffixIndex;
+	/** Candidate originating entries (as dictionary line) already expanded, along with the outcome of the expansion */
+	private final Map<String, Originator> confirmedOriginators = new ConcurrentHashMap<>();
+
+
+	private static final class Originator{
+
+		private final DictionaryEntry entry;
+		/** The part-of-speech of the only inflection produced by the rule, <code>null</code> if the rule produces none or many */
+		private final String[] partOfSpeech;
+
+
+		Originator(final DictionaryEntry entry, final String[] partOfSpeech){
+			this.entry = entry;
+			this.partOfSpeech = partOfSpeech;
+		}
+
+	}
 
 
 	public WordMuncher(final AffixData affixData, final DictionaryParser dicParser, final WordGenerator wordGenerator){
@@ -70,22 +89,18 @@ public class WordMuncher{
 //		this.dicParser = dicParser;
 		this.wordGenerator = wordGenerator;
 
-		loadDictionaryForInclusionTest(dicParser);
-	}
-
-	private void loadDictionaryForInclusionTest(final DictionaryParser dicParser){
-		if(dicInclusionTestWorker == null){
-			dicInclusionTestWorker = new DictionaryInclusionTestWorker(affixData.getLanguage(), dicParser, wordGenerator);
-
-			dicInclusionTestWorker.executeSynchronously();
-		}
+		//reuse the index of the project, if any
+		final DictionaryInclusionIndex projectIndex = wordGenerator.getInclusionIndex();
+		dicInclusionIndex = (projectIndex != null? projectIndex: new DictionaryInclusionIndex(dicParser, wordGenerator));
+		dicInclusionIndex.buildInBackground();
+		inverseAffixIndex = new InverseAffixIndex(affixData.getRuleEntries());
 	}
 
 	public List<DictionaryEntry> inferAffixRules(final DictionaryEntry dicEntry){
 		final List<DictionaryEntry> originators = extractAllAffixes(dicEntry);
 		originators.add(0, dicEntry);
 
-		originators.removeIf(originator -> !dicInclusionTestWorker.isInDictionary(originator.getWord()));
+		originators.removeIf(originator -> !dicInclusionIndex.isInDictionary(originator.getWord()));
 
 		//TODO
 
@@ -99,32 +114,32 @@ public class WordMuncher{
 		final String[] partOfSpeech = dicEntry.getMorphologicalFieldPartOfSpeech();
 
 		final List<DictionaryEntry> originators = new ArrayList<>();
-		final List<RuleEntry> ruleEntries = affixData.getRuleEntries();
-		//for each rule
-		for(final RuleEntry ruleEntry : ruleEntries)
-			//for each affix entry in rule
-			for(final AffixEntry affixEntry : ruleEntry.getEntries())
-				if(affixEntry.canInverseApplyTo(word)){
-					final String originatingWord = affixEntry.undoRule(word);
-					if(originatingWord != null){
-						final DictionaryEntry originatorEntry = wordGenerator.createFromDictionaryLineNoStemTag(originatingWord + SLASH + affixEntry.getFlag());
-
-						Inflection[] inflections = wordGenerator.applyAffixRules(originatorEntry, ruleEntry);
-						//remove base inflection
-						inflections = ArrayUtils.remove(inflections, WordGenerator.BASE_INFLECTION_INDEX);
+		//for each affix entry (in each rule) that could have produced the word
+		for(final int index : inverseAffixIndex.inverseApplicableEntries(word)){
+			final AffixEntry affixEntry = inverseAffixIndex.getEntry(index);
+			final String originatingWord = affixEntry.undoRule(word);
+			if(originatingWord != null){
+				final Originator originator = confirmedOriginators.computeIfAbsent(originatingWord + SLASH + affixEntry.getFlag(),
+					line -> confirmOriginator(line, inverseAffixIndex.getRule(index)));
+
+				final String[] baseInflectionPartOfSpeech = originator.partOfSpeech;
+				if(baseInflectionPartOfSpeech != null && (baseInflectionPartOfSpeech.length == 0 && partOfSpeech.length == 0
+						|| Arrays.equals(baseInflectionPartOfSpeech, partOfSpeech)))
+					originators.add(originator.entry);
+			}
+		}
+		return originators;
+	}
 
-						//FIXME consider also the cases where a word can be attached to multiple derivations from an originating word
-						if(inflections.length != 1)
-							continue;
+	private Originator confirmOriginator(final String line, final RuleEntry ruleEntry){
+		final DictionaryEntry originatorEntry = wordGenerator.createFromDictionaryLineNoStemTag(line);
 
-						final String[] baseInflectionPartOfSpeech = inflections[0].getMorphologicalFieldPartOfSpeech();
-						if(baseInflectionPartOfSpeech != null && (baseInflectionPartOfSpeech.length == 0 && partOfSpeech.length == 0
-								|| Arrays.equals(baseInflectionPartOfSpeech, partOfSpeech)))
-							originators.add(originatorEntry);
-					}
-				}
+		Inflection[] inflections = wordGenerator.applyAffixRules(originatorEntry, ruleEntry);
+		//remove base inflection
+		inflections = ArrayUtils.remove(inflections, WordGenerator.BASE_INFLECTION_INDEX);
 
-		return originators;
+		//FIXME consider also the cases where a word can be attached to multiple derivations from an originating word
+		return new Originator(originatorEntry, (inflections.length == 1? inflections[0].getMorphologicalFieldPartOfSpeech(): null));
 	}
 
 	private List<Inflection> extractAllAffixes(final String word, final String partOfSpeech){
@@ -24,10 +24,6 @@
  */
 package unit731.hunlinter.parsers.exceptions;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.xml.sax.SAXException;
 import unit731.hunlinter.languages.BaseBuilder;
 import unit731.hunlinter.services.XMLManager;
 import unit731.hunlinter.services.eventbus.EventBusService;
@@ -35,15 +31,26 @@ import unit731.hunlinter.workers.core.IndexDataPair;
 import unit731.hunlinter.workers.exceptions.LinterException;
 import unit731.hunlinter.workers.exceptions.LinterWarning;
 
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -66,6 +73,8 @@ public class ExceptionsParser{
 
 	private final String configurationFilename;
 	private final List<String> dictionary = new ArrayList<>();
+	/** The entries of the dictionary, for constant-time lookups */
+	private final Set<String> exceptions = new HashSet<>();
 	private Comparator<String> comparator;
 
 
@@ -79,24 +88,37 @@ public class ExceptionsParser{
 	 * @param wexFile	The reference to the word exceptions file
 	 * @param language	The language (used to sort)
 	 * @throws IOException	If an I/O error occurs
-	 * @throws SAXException	If an parsing error occurs on the `xml` file
+	 * @throws XMLStreamException	If an parsing error occurs on the `xml` file
 	 */
-	public void parse(final File wexFile, final String language) throws IOException, SAXException{
+	public void parse(final File wexFile, final String language) throws IOException, XMLStreamException{
 		comparator = BaseBuilder.getComparator(language);
 
 		clear();
 
-		final Document doc = XMLManager.parseXMLDocument(wexFile);
-
-		final Element rootElement = doc.getDocumentElement();
-		if(!WORD_EXCEPTIONS_ROOT_ELEMENT.equals(rootElement.getNodeName()))
-			throw new LinterException(INVALID_ROOT.format(new Object[]{configurationFilename, WORD_EXCEPTIONS_ROOT_ELEMENT, rootElement.getNodeName()}));
-
-		final List<Node> children = XMLManager.extractChildren(rootElement, node -> XMLManager.isElement(node, AUTO_CORRECT_BLOCK));
-		for(final Node child : children){
-			final Node mediaType = XMLManager.extractAttribute(child, WORD_EXCEPTIONS_WORD);
-			if(mediaType != null)
-				dictionary.add(mediaType.getNodeValue());
+		try(final InputStream is = new BufferedInputStream(Files.newInputStream(wexFile.toPath()))){
+			final XMLStreamReader reader = XMLManager.createXMLStreamReader(is);
+			try{
+				boolean rootElement = true;
+				while(reader.hasNext())
+					if(reader.next() == XMLStreamConstants.START_ELEMENT){
+						final String elementName = XMLManager.getName(reader);
+						if(rootElement){
+							if(!WORD_EXCEPTIONS_ROOT_ELEMENT.equals(elementName))
+								throw new LinterException(INVALID_ROOT.format(new Object[]{configurationFilename,
+									WORD_EXCEPTIONS_ROOT_ELEMENT, elementName}));
+
+							rootElement = false;
+						}
+						else if(AUTO_CORRECT_BLOCK.equals(elementName)){
+							final String exception = XMLManager.extractAttributeValue(reader, WORD_EXCEPTIONS_WORD);
+							if(exception != null)
+								dictionary.add(exception);
+						}
+					}
+			}
+			finally{
+				reader.close();
+			}
 		}
 		dictionary.sort(comparator);
 
@@ -106,9 +128,8 @@ public class ExceptionsParser{
 	private void validate(){
 		//check for duplications
 		int index = 0;
-		final Collection<String> map = new HashSet<>();
 		for(final String s : dictionary){
-			if(!map.add(s))
+			if(!exceptions.add(s))
 				EventBusService.publish(new LinterWarning(DUPLICATED_ENTRY.format(new Object[]{configurationFilename, s}), IndexDataPair.of(index, null)));
 
 			index ++;
@@ -126,41 +147,60 @@ public class ExceptionsParser{
 	public void modify(final TagChangeType changeType, final Collection<String> tags){
 		switch(changeType){
 			case ADD -> {
-				dictionary.addAll(tags);
-				dictionary.sort(comparator);
+				//keep the dictionary sorted with a binary search per tag instead of sorting it all over again
+				for(final String tag : tags){
+					final int index = Collections.binarySearch(dictionary, tag, comparator);
+					dictionary.add(index < 0? -index - 1: index, tag);
+				}
+				exceptions.addAll(tags);
+			}
+			case REMOVE -> {
+				final Set<String> removals = new HashSet<>(tags);
+				dictionary.removeIf(removals::contains);
+				exceptions.removeAll(removals);
 			}
-			case REMOVE -> dictionary.removeAll(tags);
 			case SET -> {
 				dictionary.clear();
 				dictionary.addAll(tags);
+				exceptions.clear();
+				exceptions.addAll(tags);
 			}
 		}
 	}
 
 	public boolean contains(final String exception){
-		return dictionary.contains(exception);
+		return exceptions.contains(exception);
 	}
 
-	public void save(final File excFile) throws TransformerException{
-		final Document doc = XMLManager.newXMLDocumentStandalone();
-
-		//root element
-		final Element root = doc.createElement(WORD_EXCEPTIONS_ROOT_ELEMENT);
-		root.setAttribute(XMLManager.ROOT_ATTRIBUTE_NAME, XMLManager.ROOT_ATTRIBUTE_VALUE);
-		doc.appendChild(root);
-
-		for(final String exception : dictionary){
-			//correction element
-			final Element elem = doc.createElement(AUTO_CORRECT_BLOCK);
-			elem.setAttribute(WORD_EXCEPTIONS_WORD, exception);
-			root.appendChild(elem);
+	public void save(final File excFile) throws IOException, XMLStreamException{
+		try(final OutputStream os = new BufferedOutputStream(Files.newOutputStream(excFile.toPath()))){
+			final XMLStreamWriter writer = XMLManager.createXMLStreamWriter(os, StandardCharsets.UTF_8);
+			try{
+				//root element
+				writer.writeStartElement(WORD_EXCEPTIONS_ROOT_ELEMENT);
+				writer.writeAttribute(XMLManager.ROOT_ATTRIBUTE_NAME, XMLManager.ROOT_ATTRIBUTE_VALUE);
+
+				for(final String exception : dictionary){
+					//correction element
+					XMLManager.writeIndentation(writer, 1);
+					writer.writeEmptyElement(AUTO_CORRECT_BLOCK);
+					writer.writeAttribute(WORD_EXCEPTIONS_WORD, exception);
+				}
+
+				XMLManager.writeIndentation(writer, 0);
+				writer.writeEndElement();
+				XMLManager.writeIndentation(writer, 0);
+				writer.writeEndDocument();
+			}
+			finally{
+				writer.close();
+			}
 		}
-
-		XMLManager.createXML(excFile, doc, XMLManager.XML_PROPERTIES_UTF_8);
 	}
 
 	public void clear(){
 		dictionary.clear();
+		exceptions.clear();
 	}
 
 }
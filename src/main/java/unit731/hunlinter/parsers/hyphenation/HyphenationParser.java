@@ -148,8 +148,9 @@ public class HyphenationParser{
 	private boolean secondLevelPresent;
 	private Pattern patternNoHyphen;
 	private final Map<Level, Map<String, String>> rules = new EnumMap<>(Level.class);
-	private final Map<Level, AhoCorasickTrie<String>> patterns = new EnumMap<>(Level.class);
 	private final Map<Level, Map<String, String>> customHyphenations = new EnumMap<>(Level.class);
+	/** Immutable snapshot of the rules (and custom hyphenations) used by the hyphenator, replaced on each change */
+	private volatile HyphenationPatterns patterns;
 	private HyphenationOptionsParser options;
 
 
@@ -163,6 +164,7 @@ public class HyphenationParser{
 			customHyphenations.put(level, new HashMap<>());
 		}
 		options = new HyphenationOptionsParser();
+		patterns = new HyphenationPatterns(null, customHyphenations);
 	}
 
 	HyphenationParser(final Comparator<String> comparator, final Map<Level, AhoCorasickTrie<String>> patterns,
@@ -173,13 +175,14 @@ public class HyphenationParser{
 		this.comparator = comparator;
 
 		secondLevelPresent = patterns.containsKey(Level.COMPOUND);
-		forEach(Level.values(), level -> this.patterns.put(level, patterns.get(level)));
 		customHyphenations = Optional.ofNullable(customHyphenations).orElse(new EnumMap<>(Level.class));
 		for(final Level level : Level.values()){
+			rules.put(level, new HashMap<>());
 			final Map<String, String> ch = customHyphenations.getOrDefault(level, new HashMap<>(0));
 			this.customHyphenations.put(level, ch);
 		}
 		this.options = (options != null? options: new HyphenationOptionsParser());
+		this.patterns = new HyphenationPatterns(patterns, this.customHyphenations);
 	}
 
 	public boolean isSecondLevelPresent(){
@@ -190,7 +193,7 @@ public class HyphenationParser{
 		return patternNoHyphen;
 	}
 
-	public Map<Level, AhoCorasickTrie<String>> getPatterns(){
+	public HyphenationPatterns getPatterns(){
 		return patterns;
 	}
 
@@ -259,7 +262,7 @@ public class HyphenationParser{
 		}
 
 		//build tries
-		forEach(Level.values(), lev -> buildTrie(lev, rules.get(lev)));
+		buildPatterns();
 
 		secondLevelPresent = (level == Level.COMPOUND);
 //System.out.println(com.carrotsearch.sizeof.RamUsageEstimator.sizeOfAll(hypParser.patterns));
@@ -338,7 +341,7 @@ public class HyphenationParser{
 		secondLevelPresent = false;
 		patternNoHyphen = null;
 		forEach(Level.values(), lev -> rules.get(lev).clear());
-		patterns.clear();
+		patterns = new HyphenationPatterns(null, null);
 		forEach(Level.values(), lev -> REDUCED_PATTERNS.get(lev).clear());
 		forEach(customHyphenations.values(), Map::clear);
 		options.clear();
@@ -351,7 +354,7 @@ public class HyphenationParser{
 	 * @param level   Level to add the rule to
 	 * @return The value of a rule if already in place, <code>null</code> if the insertion has completed successfully
 	 */
-	public String addRule(final String rule, final Level level){
+	public synchronized String addRule(final String rule, final Level level){
 		validateRule(rule, level);
 
 		final String oldRule;
@@ -362,14 +365,11 @@ public class HyphenationParser{
 		}
 		else{
 			final String key = getKeyFromData(rule);
-			final Map<String, String> rulesByLevel = rules.get(level);
-			oldRule = rulesByLevel.get(key);
-			if(oldRule == null){
-				rulesByLevel.put(key, rule);
-
-				buildTrie(level, rulesByLevel);
-			}
+			oldRule = rules.get(level)
+				.putIfAbsent(key, rule);
 		}
+		if(oldRule == null)
+			patterns = patterns.withRule(level, rule);
 		return oldRule;
 	}
 
@@ -380,28 +380,33 @@ public class HyphenationParser{
 	 * @param level	Level to remove the rule from
 	 * @return <code>true</code> if the removal has completed successfully
 	 */
-	public boolean removeRule(final String rule, final Level level){
+	public synchronized boolean removeRule(final String rule, final Level level){
 		final String oldRule;
 		if(isCustomRule(rule)){
 			final String key = StringHelper.removeAll(rule, EQUALS_SIGN);
-			oldRule = customHyphenations.get(level).get(key);
-			if(oldRule != null)
-				customHyphenations.get(level).remove(key);
+			oldRule = customHyphenations.get(level).remove(key);
 		}
 		else{
 			final String key = getKeyFromData(rule);
-			final Map<String, String> rulesByLevel = rules.get(level);
-			oldRule = rulesByLevel.get(key);
-			if(oldRule != null)
-				buildTrie(level, rulesByLevel);
+			oldRule = rules.get(level).remove(key);
+		}
+		if(oldRule != null){
+			final HyphenationPatterns newPatterns = patterns.withoutRule(level, oldRule);
+			//a rule read from the file was removed, the main trie has to be rebuilt
+			if(newPatterns == null)
+				buildPatterns();
+			else
+				patterns = newPatterns;
 		}
 		return (oldRule != null);
 	}
 
-	private void buildTrie(final Level level, final Map<String, String> rulesByLevel){
-		final AhoCorasickTrie<String> trie = new AhoCorasickTrieBuilder<String>()
-			.build(rulesByLevel);
-		patterns.put(level, trie);
+	private void buildPatterns(){
+		final Map<Level, AhoCorasickTrie<String>> tries = new EnumMap<>(Level.class);
+		for(final Level level : Level.values())
+			tries.put(level, new AhoCorasickTrieBuilder<String>()
+				.build(rules.get(level)));
+		patterns = new HyphenationPatterns(tries, customHyphenations);
 	}
 
 	/**
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.hyphenation;
+
+import unit731.hunlinter.datastructures.ahocorasicktrie.AhoCorasickTrie;
+import unit731.hunlinter.datastructures.ahocorasicktrie.AhoCorasickTrieBuilder;
+import unit731.hunlinter.datastructures.ahocorasicktrie.dtos.HitProcessor;
+import unit731.hunlinter.datastructures.ahocorasicktrie.dtos.SearchResult;
+import unit731.hunlinter.services.text.StringHelper;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Immutable set of hyphenation patterns and custom hyphenations, safe to be shared between threads.
+ * <p>
+ * The patterns read from the file are kept in a trie that is never rebuilt when a rule is added: added rules go into a
+ * small overlay trie that is searched alongside the main one.
+ */
+public final class HyphenationPatterns{
+
+	private final Map<HyphenationParser.Level, AhoCorasickTrie<String>> patterns;
+	private final Map<HyphenationParser.Level, Map<String, String>> addedRules;
+	private final Map<HyphenationParser.Level, AhoCorasickTrie<String>> addedPatterns;
+	private final Map<HyphenationParser.Level, Map<String, String>> customHyphenations;
+
+
+	HyphenationPatterns(final Map<HyphenationParser.Level, AhoCorasickTrie<String>> patterns,
+			final Map<HyphenationParser.Level, Map<String, String>> customHyphenations){
+		this(copy(patterns), new EnumMap<>(HyphenationParser.Level.class), new EnumMap<>(HyphenationParser.Level.class),
+			copyCustomHyphenations(customHyphenations));
+	}
+
+	private HyphenationPatterns(final Map<HyphenationParser.Level, AhoCorasickTrie<String>> patterns,
+			final Map<HyphenationParser.Level, Map<String, String>> addedRules,
+			final Map<HyphenationParser.Level, AhoCorasickTrie<String>> addedPatterns,
+			final Map<HyphenationParser.Level, Map<String, String>> customHyphenations){
+		this.patterns = patterns;
+		this.addedRules = addedRules;
+		this.addedPatterns = addedPatterns;
+		this.customHyphenations = customHyphenations;
+	}
+
+	private static Map<HyphenationParser.Level, AhoCorasickTrie<String>> copy(
+			final Map<HyphenationParser.Level, AhoCorasickTrie<String>> patterns){
+		final Map<HyphenationParser.Level, AhoCorasickTrie<String>> copy = new EnumMap<>(HyphenationParser.Level.class);
+		if(patterns != null)
+			for(final Map.Entry<HyphenationParser.Level, AhoCorasickTrie<String>> entry : patterns.entrySet())
+				if(entry.getValue() != null)
+					copy.put(entry.getKey(), entry.getValue());
+		return copy;
+	}
+
+	private static Map<HyphenationParser.Level, Map<String, String>> copyCustomHyphenations(
+			final Map<HyphenationParser.Level, Map<String, String>> customHyphenations){
+		final Map<HyphenationParser.Level, Map<String, String>> copy = new EnumMap<>(HyphenationParser.Level.class);
+		if(customHyphenations != null)
+			for(final Map.Entry<HyphenationParser.Level, Map<String, String>> entry : customHyphenations.entrySet())
+				copy.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(entry.getValue())));
+		return copy;
+	}
+
+	/**
+	 * @param level	The level.
+	 * @return	The trie of the patterns read from the file (that is, without the added ones), or <code>null</code> if none.
+	 */
+	public AhoCorasickTrie<String> getPatterns(final HyphenationParser.Level level){
+		return patterns.get(level);
+	}
+
+	public String getCustomHyphenation(final HyphenationParser.Level level, final String word){
+		final Map<String, String> customHyphenationsByLevel = customHyphenations.get(level);
+		return (customHyphenationsByLevel != null? customHyphenationsByLevel.get(word): null);
+	}
+
+	public boolean hasPatterns(final HyphenationParser.Level level){
+		return (patterns.containsKey(level) || addedPatterns.containsKey(level));
+	}
+
+	/**
+	 * Calls the processor for each pattern contained into the given text, ordered by ending position (where a pattern
+	 * of the main trie comes before an added one).
+	 *
+	 * @param level	The level.
+	 * @param text	The text.
+	 * @param processor	The processor of each hit.
+	 */
+	public void searchInText(final HyphenationParser.Level level, final String text, final HitProcessor<String> processor){
+		final AhoCorasickTrie<String> trie = patterns.get(level);
+		final AhoCorasickTrie<String> overlay = addedPatterns.get(level);
+		if(overlay == null){
+			if(trie != null)
+				trie.searchInText(text, processor);
+		}
+		else{
+			final List<SearchResult<String>> addedHits = overlay.searchInText(text);
+			final int[] nextAddedHit = new int[1];
+			if(trie != null)
+				trie.searchInText(text, (begin, end, value) -> {
+					//flush the added hits that end before this one
+					while(nextAddedHit[0] < addedHits.size() && addedHits.get(nextAddedHit[0]).getIndexEnd() < end){
+						final SearchResult<String> hit = addedHits.get(nextAddedHit[0] ++);
+						processor.hit(hit.getIndexBegin(), hit.getIndexEnd(), hit.getValue());
+					}
+					return processor.hit(begin, end, value);
+				});
+			for(int i = nextAddedHit[0]; i < addedHits.size(); i ++){
+				final SearchResult<String> hit = addedHits.get(i);
+				processor.hit(hit.getIndexBegin(), hit.getIndexEnd(), hit.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Returns the set of patterns with the given rule added, or this same set if a rule with the same key is already present.
+	 * <p>
+	 * NOTE: only the (small) trie of the added rules is rebuilt.
+	 *
+	 * @param level	The level to add the rule to.
+	 * @param rule	The rule to add.
+	 * @return	The set of patterns containing the given rule.
+	 */
+	public HyphenationPatterns withRule(final HyphenationParser.Level level, final String rule){
+		HyphenationPatterns result = this;
+		if(HyphenationParser.isCustomRule(rule)){
+			final String key = StringHelper.removeAll(rule, HyphenationParser.EQUALS_SIGN);
+			if(getCustomHyphenation(level, key) == null){
+				final Map<HyphenationParser.Level, Map<String, String>> newCustomHyphenations = new EnumMap<>(customHyphenations);
+				final Map<String, String> customHyphenationsByLevel = new HashMap<>(customHyphenations.getOrDefault(level,
+					Collections.emptyMap()));
+				customHyphenationsByLevel.put(key, rule);
+				newCustomHyphenations.put(level, Collections.unmodifiableMap(customHyphenationsByLevel));
+				result = new HyphenationPatterns(patterns, addedRules, addedPatterns, newCustomHyphenations);
+			}
+		}
+		else{
+			final String key = HyphenationParser.getKeyFromData(rule);
+			if(!hasRule(level, key)){
+				final Map<String, String> addedRulesByLevel = new HashMap<>(addedRules.getOrDefault(level, Collections.emptyMap()));
+				addedRulesByLevel.put(key, rule);
+				result = withAddedRules(level, addedRulesByLevel);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the set of patterns without the given rule.
+	 *
+	 * @param level	The level to remove the rule from.
+	 * @param rule	The rule to remove.
+	 * @return	The set of patterns without the given rule, or <code>null</code> if the rule belongs to the main trie (that
+	 * 	should then be rebuilt).
+	 */
+	public HyphenationPatterns withoutRule(final HyphenationParser.Level level, final String rule){
+		HyphenationPatterns result = this;
+		if(HyphenationParser.isCustomRule(rule)){
+			final String key = StringHelper.removeAll(rule, HyphenationParser.EQUALS_SIGN);
+			if(getCustomHyphenation(level, key) != null){
+				final Map<HyphenationParser.Level, Map<String, String>> newCustomHyphenations = new EnumMap<>(customHyphenations);
+				final Map<String, String> customHyphenationsByLevel = new HashMap<>(customHyphenations.get(level));
+				customHyphenationsByLevel.remove(key);
+				newCustomHyphenations.put(level, Collections.unmodifiableMap(customHyphenationsByLevel));
+				result = new HyphenationPatterns(patterns, addedRules, addedPatterns, newCustomHyphenations);
+			}
+		}
+		else{
+			final String key = HyphenationParser.getKeyFromData(rule);
+			final Map<String, String> addedRulesByLevel = addedRules.get(level);
+			if(addedRulesByLevel != null && addedRulesByLevel.containsKey(key)){
+				final Map<String, String> newAddedRulesByLevel = new HashMap<>(addedRulesByLevel);
+				newAddedRulesByLevel.remove(key);
+				result = withAddedRules(level, newAddedRulesByLevel);
+			}
+			else if(patterns.containsKey(level) && patterns.get(level).hasKey(key))
+				result = null;
+		}
+		return result;
+	}
+
+	private boolean hasRule(final HyphenationParser.Level level, final String key){
+		final AhoCorasickTrie<String> trie = patterns.get(level);
+		final Map<String, String> addedRulesByLevel = addedRules.get(level);
+		return (trie != null && trie.hasKey(key) || addedRulesByLevel != null && addedRulesByLevel.containsKey(key));
+	}
+
+	private HyphenationPatterns withAddedRules(final HyphenationParser.Level level, final Map<String, String> addedRulesByLevel){
+		final Map<HyphenationParser.Level, Map<String, String>> newAddedRules = new EnumMap<>(HyphenationParser.Level.class);
+		newAddedRules.putAll(addedRules);
+		final Map<HyphenationParser.Level, AhoCorasickTrie<String>> newAddedPatterns = new EnumMap<>(HyphenationParser.Level.class);
+		newAddedPatterns.putAll(addedPatterns);
+		if(addedRulesByLevel.isEmpty()){
+			newAddedRules.remove(level);
+			newAddedPatterns.remove(level);
+		}
+		else{
+			newAddedRules.put(level, Collections.unmodifiableMap(addedRulesByLevel));
+			newAddedPatterns.put(level, new AhoCorasickTrieBuilder<String>().build(addedRulesByLevel));
+		}
+		return new HyphenationPatterns(patterns, newAddedRules, newAddedPatterns, customHyphenations);
+	}
+
+}
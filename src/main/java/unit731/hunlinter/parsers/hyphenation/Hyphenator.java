@@ -27,21 +27,24 @@ package unit731.hunlinter.parsers.hyphenation;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
-import unit731.hunlinter.datastructures.ahocorasicktrie.AhoCorasickTrie;
-import unit731.hunlinter.datastructures.ahocorasicktrie.dtos.SearchResult;
 import unit731.hunlinter.services.RegexHelper;
 import unit731.hunlinter.services.system.LoopHelper;
 
 import java.text.Normalizer;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.regex.Matcher;
 
 
+/**
+ * Hyphenates words using the patterns of a {@link HyphenationParser}.
+ * <p>
+ * The hyphenator holds no state of its own and works on an immutable snapshot of the patterns, so it can be used
+ * concurrently (even while testing an additional rule).
+ */
 public class Hyphenator implements HyphenatorInterface{
 
 	private final HyphenationParser hypParser;
@@ -68,17 +71,12 @@ public class Hyphenator implements HyphenatorInterface{
 	@Override
 	public Hyphenation hyphenate(final String word, final String additionalRule, final HyphenationParser.Level level){
 		//FIXME return the rule that matches additionalRule removed by the breakpoints
-		final String oldRule = hypParser.addRule(additionalRule, level);
-
-		final Hyphenation hyph = hyphenate(word);
-		hypParser.removeRule(additionalRule, level);
+		HyphenationParser.validateRule(additionalRule, level);
 
-		//if there is an already present rule, say, `stu3a` and we overwrite it with, say, `stu4a`,
-		//the old `stu3a` is lost and it's necessary to re-add it
-		if(oldRule != null)
-			hypParser.addRule(oldRule, level);
-
-		return hyph;
+		//if there is an already present rule, say, `stu3a`, the additional rule, say, `stu4a`, is ignored
+		final HyphenationPatterns patterns = hypParser.getPatterns()
+			.withRule(level, additionalRule);
+		return hyphenate(word, patterns);
 	}
 
 	/**
@@ -90,8 +88,11 @@ public class Hyphenator implements HyphenatorInterface{
 	 */
 	@Override
 	public Hyphenation hyphenate(final String word){
+		return hyphenate(word, hypParser.getPatterns());
+	}
+
+	private Hyphenation hyphenate(final String word, final HyphenationPatterns patterns){
 		//apply first level hyphenation
-		final Map<HyphenationParser.Level, AhoCorasickTrie<String>> patterns = hypParser.getPatterns();
 		HyphenationOptions options = hypParser.getOptions().getNonCompoundOptions();
 		final HyphenationBreak hyphBreak = hyphenate(word, patterns, HyphenationParser.Level.NON_COMPOUND, options);
 
@@ -131,18 +132,18 @@ public class Hyphenator implements HyphenatorInterface{
 	 * Performs hyphenation
 	 *
 	 * @param word	String to hyphenate
-	 * @param patterns	The radix tree containing the patterns
+	 * @param patterns	The patterns
 	 * @param level	Level at which to hyphenate
 	 * @param options	The hyphenation options
 	 * @return the hyphenation breakpoints object
 	 */
-	private HyphenationBreak hyphenate(String word, final Map<HyphenationParser.Level, AhoCorasickTrie<String>> patterns,
+	private HyphenationBreak hyphenate(String word, final HyphenationPatterns patterns,
 			final HyphenationParser.Level level, final HyphenationOptions options){
 		//clear already present word boundaries' characters
 		word = RegexHelper.clear(word, HyphenationParser.PATTERN_WORD_BOUNDARIES);
 		final int wordSize = word.length();
 
-		final String customHyphenation = hypParser.getCustomHyphenations().get(level).get(word);
+		final String customHyphenation = patterns.getCustomHyphenation(level, word);
 		final HyphenationBreak hyphBreak;
 		if(customHyphenation != null){
 			//hyphenation is custom, extract break point positions:
@@ -161,28 +162,25 @@ public class Hyphenator implements HyphenatorInterface{
 			//ignore short words (early out):
 			hyphBreak = new HyphenationBreak(Collections.emptyMap());
 		else
-			hyphBreak = calculateBreakpoints(word, patterns.get(level), options);
+			hyphBreak = calculateBreakpoints(word, patterns, level, options);
 
 		return hyphBreak;
 	}
 
-	private HyphenationBreak calculateBreakpoints(final String word, final AhoCorasickTrie<String> patterns,
-			final HyphenationOptions options){
+	private HyphenationBreak calculateBreakpoints(final String word, final HyphenationPatterns patterns,
+			final HyphenationParser.Level level, final HyphenationOptions options){
 		final int wordSize = word.length();
 		final Map<Integer, Pair<Integer, String>> indexesAndRules = new HashMap<>(wordSize);
-		if(patterns != null){
+		if(patterns.hasPatterns(level)){
 			final String w = HyphenationParser.WORD_BOUNDARY + word.toLowerCase(Locale.ROOT) + HyphenationParser.WORD_BOUNDARY;
 			final int leftMin = options.getLeftMin();
 			final int rightMin = options.getRightMin();
 
 			final int normalizedWordSize = getNormalizedLength(word);
-			final List<SearchResult<String>> itr = patterns.searchInText(w);
-			for(final SearchResult<String> r : itr){
-				final String rule = r.getValue();
-
+			patterns.searchInText(level, w, (begin, end, rule) -> {
 				//number of non-letter characters
 				final int delta = HyphenationParser.getKeyFromData(rule).length() - HyphenationParser.getKeyFromData(rule).length();
-				final int startingIndex = r.getIndexBegin() - delta;
+				final int startingIndex = begin - delta;
 
 				//cycle the pattern's characters searching for numbers
 				//start from -1 since the initial dot has to be skipped
@@ -203,7 +201,8 @@ public class Hyphenator implements HyphenatorInterface{
 						}
 					}
 				}
-			}
+				return true;
+			});
 		}
 
 		return new HyphenationBreak(indexesAndRules);
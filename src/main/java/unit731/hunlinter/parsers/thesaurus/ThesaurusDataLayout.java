@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.thesaurus;
+
+import java.io.File;
+import java.util.Arrays;
+
+
+/**
+ * Position in the data file and offset written in the index file of each entry of a saved thesaurus, in (natural) order
+ * of definition.
+ * <p>
+ * Used to rewrite only the region of the data file holding the entries modified since the last save, shifting the
+ * following ones.
+ */
+final class ThesaurusDataLayout{
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+
+	private String[] definitions = new String[INITIAL_CAPACITY];
+	/** Position of each entry, plus the end of the last one */
+	private long[] positions = new long[INITIAL_CAPACITY + 1];
+	/** Offset of each entry as written into the index file, plus the one following the last entry */
+	private long[] offsets = new long[INITIAL_CAPACITY + 1];
+	private int size;
+
+	private File dataFile;
+	private long dataFileLastModified;
+
+
+	/**
+	 * @param headerLength	Length of the header of the data file, that is, position of the first entry.
+	 */
+	ThesaurusDataLayout(final long headerLength){
+		positions[0] = headerLength;
+		offsets[0] = headerLength;
+	}
+
+	void add(final String definition, final long length, final long offsetIncrement){
+		if(size == definitions.length){
+			final int capacity = size + (size >> 1);
+			definitions = Arrays.copyOf(definitions, capacity);
+			positions = Arrays.copyOf(positions, capacity + 1);
+			offsets = Arrays.copyOf(offsets, capacity + 1);
+		}
+
+		definitions[size] = definition;
+		positions[size + 1] = positions[size] + length;
+		offsets[size + 1] = offsets[size] + offsetIncrement;
+		size ++;
+	}
+
+	int size(){
+		return size;
+	}
+
+	String getDefinition(final int index){
+		return definitions[index];
+	}
+
+	long getPosition(final int index){
+		return positions[index];
+	}
+
+	long getOffset(final int index){
+		return offsets[index];
+	}
+
+	/** @return	The index of the first entry whose definition is not lower than the given one. */
+	int lowerBound(final String definition){
+		int low = 0;
+		int high = size;
+		while(low < high){
+			final int middle = (low + high) >>> 1;
+			if(definitions[middle].compareTo(definition) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/** @return	The index of the first entry whose definition is greater than the given one. */
+	int upperBound(final String definition){
+		int low = 0;
+		int high = size;
+		while(low < high){
+			final int middle = (low + high) >>> 1;
+			if(definitions[middle].compareTo(definition) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * @param from	Index of the first entry to be replaced, inclusive.
+	 * @param to	Index of the last entry to be replaced, exclusive.
+	 * @param replacement	The layout of the replacing entries, starting from position and offset zero.
+	 * @return	The layout with the entries in <code>[from, to)</code> replaced, and the following ones shifted.
+	 */
+	ThesaurusDataLayout replace(final int from, final int to, final ThesaurusDataLayout replacement){
+		final ThesaurusDataLayout layout = new ThesaurusDataLayout(positions[0]);
+		for(int i = 0; i < from; i ++)
+			layout.add(definitions[i], positions[i + 1] - positions[i], offsets[i + 1] - offsets[i]);
+		for(int i = 0; i < replacement.size; i ++)
+			layout.add(replacement.definitions[i], replacement.positions[i + 1] - replacement.positions[i],
+				replacement.offsets[i + 1] - replacement.offsets[i]);
+		for(int i = to; i < size; i ++)
+			layout.add(definitions[i], positions[i + 1] - positions[i], offsets[i + 1] - offsets[i]);
+		return layout;
+	}
+
+	/** Records the state of the data file this layout describes, to detect changes made by others. */
+	void stamp(final File dataFile){
+		this.dataFile = dataFile.getAbsoluteFile();
+		dataFileLastModified = dataFile.lastModified();
+	}
+
+	boolean describes(final File dataFile){
+		return (this.dataFile != null && this.dataFile.equals(dataFile.getAbsoluteFile())
+			&& dataFile.length() == positions[size] && dataFile.lastModified() == dataFileLastModified);
+	}
+
+}
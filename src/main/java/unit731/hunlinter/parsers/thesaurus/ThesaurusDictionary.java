@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -39,11 +40,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 import static unit731.hunlinter.services.system.LoopHelper.applyIf;
 import static unit731.hunlinter.services.system.LoopHelper.forEach;
-import static unit731.hunlinter.services.system.LoopHelper.match;
 
 
 public class ThesaurusDictionary{
@@ -53,9 +54,19 @@ public class ThesaurusDictionary{
 	private static final String LIST_SEPARATOR = ", ";
 	private static final String PART_OF_SPEECH_START = "(";
 	private static final String PART_OF_SPEECH_END = ")";
+	private static final char SYNONYM_USE_START = '(';
+	private static final char KEY_SEPARATOR = '\0';
 
 
-	private final Map<String, ThesaurusEntry> dictionary;
+	private final TreeMap<String, ThesaurusEntry> dictionary;
+	/** Same entries as {@link #dictionary}, for exact lookups that don't pay for the (language-specific) comparator */
+	private final Map<String, ThesaurusEntry> entriesByDefinition = new HashMap<>();
+	/** Definitions of the entries having a given synonym */
+	private final Map<String, Set<String>> definitionsBySynonym = new HashMap<>();
+	/** Keys made of definition, (sorted) Part-of-Speech, and synonym (without use) of each synonyms entry */
+	private final Set<String> partOfSpeechSynonyms = new HashSet<>();
+	/** Definitions added, modified, or removed since the last call to {@link #clearModifiedDefinitions()} */
+	private final Set<String> modifiedDefinitions = new HashSet<>();
 
 
 	public ThesaurusDictionary(final String language){
@@ -65,7 +76,16 @@ public class ThesaurusDictionary{
 	}
 
 	public boolean add(final ThesaurusEntry entry){
-		return (dictionary.put(entry.getDefinition(), entry) == null);
+		final ThesaurusEntry previousEntry = dictionary.put(entry.getDefinition(), entry);
+		if(previousEntry != null){
+			entriesByDefinition.remove(previousEntry.getDefinition());
+			unindex(previousEntry);
+		}
+		entriesByDefinition.put(entry.getDefinition(), entry);
+		modifiedDefinitions.add(entry.getDefinition());
+		for(final SynonymsEntry synonymsEntry : entry.getSynonyms())
+			index(entry.getDefinition(), synonymsEntry);
+		return (previousEntry == null);
 	}
 
 	public boolean add(final String[] partOfSpeeches, final String[] synonyms){
@@ -86,14 +106,20 @@ public class ThesaurusDictionary{
 				currentDefinition);
 
 			currentDefinition = removeSynonymUse(currentDefinition);
-			final ThesaurusEntry foundDefinition = dictionary.get(currentDefinition);
-			if(foundDefinition != null)
+			final ThesaurusEntry foundDefinition = getEntry(currentDefinition);
+			if(foundDefinition != null){
 				//add definition and synonyms if definition does exists
 				foundDefinition.addSynonym(synonymsEntry);
+				index(foundDefinition.getDefinition(), synonymsEntry);
+				modifiedDefinitions.add(foundDefinition.getDefinition());
+			}
 			else{
 				//add to list if definition doesn't exists
 				final ThesaurusEntry entry = ThesaurusEntry.createFromDefinitionAndSynonyms(currentDefinition, synonymsEntry);
 				dictionary.put(currentDefinition, entry);
+				entriesByDefinition.put(entry.getDefinition(), entry);
+				index(entry.getDefinition(), synonymsEntry);
+				modifiedDefinitions.add(entry.getDefinition());
 
 				result = true;
 			}
@@ -112,29 +138,79 @@ public class ThesaurusDictionary{
 		return new SynonymsEntry(sj.toString());
 	}
 
+	private ThesaurusEntry getEntry(final String definition){
+		final ThesaurusEntry entry = entriesByDefinition.get(definition);
+		//the comparator can consider equal two different strings
+		return (entry != null? entry: dictionary.get(definition));
+	}
+
+	private void index(final String definition, final SynonymsEntry synonymsEntry){
+		final String partOfSpeechKey = partOfSpeechKey(synonymsEntry.getPartOfSpeeches());
+		for(final String synonym : synonymsEntry.getSynonyms()){
+			definitionsBySynonym.computeIfAbsent(synonym, k -> new HashSet<>(1))
+				.add(definition);
+			partOfSpeechSynonyms.add(composeKey(definition, partOfSpeechKey, removeSynonymUse(synonym)));
+		}
+	}
+
+	private void unindex(final ThesaurusEntry entry){
+		final String definition = entry.getDefinition();
+		for(final SynonymsEntry synonymsEntry : entry.getSynonyms()){
+			final String partOfSpeechKey = partOfSpeechKey(synonymsEntry.getPartOfSpeeches());
+			for(final String synonym : synonymsEntry.getSynonyms()){
+				final Set<String> definitions = definitionsBySynonym.get(synonym);
+				if(definitions != null && definitions.remove(definition) && definitions.isEmpty())
+					definitionsBySynonym.remove(synonym);
+				partOfSpeechSynonyms.remove(composeKey(definition, partOfSpeechKey, removeSynonymUse(synonym)));
+			}
+		}
+	}
+
+	/** The Part-of-Speech are compared as sets, so the key is made of the sorted unique ones */
+	private static String partOfSpeechKey(final String[] partOfSpeeches){
+		return String.join(LIST_SEPARATOR, new TreeSet<>(Arrays.asList(partOfSpeeches)));
+	}
+
+	private static String composeKey(final String definition, final String partOfSpeechKey, final String synonym){
+		return definition + KEY_SEPARATOR + partOfSpeechKey + KEY_SEPARATOR + synonym;
+	}
+
 	/* Find if there is a duplicate with the same definition and same Part-of-Speech */
 	public boolean contains(final String definition, final String[] partOfSpeeches, final String synonym){
-		final ThesaurusEntry def = dictionary.get(definition);
-		return (def != null && def.containsPartOfSpeechesAndSynonym(partOfSpeeches, synonym));
+		final ThesaurusEntry def = getEntry(definition);
+		return (def != null
+			&& partOfSpeechSynonyms.contains(composeKey(def.getDefinition(), partOfSpeechKey(partOfSpeeches), synonym)));
 	}
 
 	/* Find if there is a duplicate with the same Part-of-Speech and same synonyms */
 	public boolean contains(final String[] partOfSpeeches, final String[] synonyms){
 		final List<String> pos = (partOfSpeeches != null? Arrays.asList(partOfSpeeches): null);
 		final List<String> syns = Arrays.asList(synonyms);
-		return (match(dictionary.values(), entry -> entry.contains(pos, syns)) != null);
+		//an entry contains the synonyms only if its definition is one of them
+		for(final String synonym : synonyms){
+			final ThesaurusEntry entry = getEntry(synonym);
+			if(entry != null && entry.contains(pos, syns))
+				return true;
+		}
+		return false;
 	}
 
 	//FIXME? remove only one entry?
 	public void deleteDefinition(final String definition, final String synonyms){
 		//recover all words (definition and synonyms) from given definition
-		final ThesaurusEntry entryToBeDeleted = dictionary.get(definition);
+		final ThesaurusEntry entryToBeDeleted = getEntry(definition);
 		final Set<String> definitions = entryToBeDeleted.getSynonymsSet();
 		definitions.add(definition);
 
 		//remove all
-		dictionary.entrySet()
-			.removeIf(entry -> definitions.contains(entry.getKey()));
+		for(final String def : definitions){
+			final ThesaurusEntry entry = entriesByDefinition.remove(def);
+			if(entry != null){
+				dictionary.remove(def);
+				unindex(entry);
+				modifiedDefinitions.add(def);
+			}
+		}
 
 //		//recover definition and synonyms pairs (to be deleted)
 //		final String[] synonymsByDefinition = StringUtils.splitByWholeSeparator(synonyms, ThesaurusTableModel.TAG_NEW_LINE);
@@ -165,8 +241,34 @@ public class ThesaurusDictionary{
 		return synonyms;
 	}
 
+	/**
+	 * @param fromDefinition	The lowest definition, inclusive.
+	 * @param toDefinition	The highest definition, inclusive.
+	 * @return	The entries whose definition is in the given range, in natural order.
+	 */
+	List<ThesaurusEntry> getSortedSynonyms(final String fromDefinition, final String toDefinition){
+		final List<ThesaurusEntry> synonyms = new ArrayList<>();
+		applyIf(entriesByDefinition.values(),
+			entry -> entry.getDefinition().compareTo(fromDefinition) >= 0 && entry.getDefinition().compareTo(toDefinition) <= 0,
+			synonyms::add);
+		synonyms.sort(Comparator.comparing(ThesaurusEntry::getDefinition));
+		return synonyms;
+	}
+
+	Set<String> getModifiedDefinitions(){
+		return modifiedDefinitions;
+	}
+
+	void clearModifiedDefinitions(){
+		modifiedDefinitions.clear();
+	}
+
 	public void clear(){
 		dictionary.clear();
+		entriesByDefinition.clear();
+		definitionsBySynonym.clear();
+		partOfSpeechSynonyms.clear();
+		modifiedDefinitions.clear();
 	}
 
 	public int size(){
@@ -177,15 +279,26 @@ public class ThesaurusDictionary{
 	public List<ThesaurusEntry> extractDuplicates(final String[] partOfSpeeches, final String[] synonyms){
 		final List<String> pos = Arrays.asList(partOfSpeeches);
 		final List<String> syns = Arrays.asList(synonyms);
-		final List<ThesaurusEntry> list = new ArrayList<>(dictionary.size());
-		applyIf(dictionary.values(),
+		//only the entries whose definition or synonyms are among the given synonyms can intersect them
+		final Map<String, ThesaurusEntry> candidates = new TreeMap<>(dictionary.comparator());
+		for(final String synonym : synonyms){
+			final ThesaurusEntry entry = getEntry(synonym);
+			if(entry != null)
+				candidates.put(entry.getDefinition(), entry);
+			forEach(definitionsBySynonym.get(synonym), definition -> candidates.put(definition, entriesByDefinition.get(definition)));
+		}
+
+		final List<ThesaurusEntry> list = new ArrayList<>(candidates.size());
+		applyIf(candidates.values(),
 			entry -> entry.intersects(pos, syns),
 			list::add);
 		return list;
 	}
 
-	public static String removeSynonymUse(final CharSequence synonym){
-		return RegexHelper.replaceAll(synonym, PATTERN_SYNONYM_USE, StringUtils.EMPTY);
+	public static String removeSynonymUse(final String synonym){
+		return (synonym.indexOf(SYNONYM_USE_START) >= 0?
+			RegexHelper.replaceAll(synonym, PATTERN_SYNONYM_USE, StringUtils.EMPTY):
+			synonym);
 	}
 
 }
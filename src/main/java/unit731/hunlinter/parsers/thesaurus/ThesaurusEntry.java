@@ -39,7 +39,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.function.Consumer;
@@ -57,6 +56,12 @@ public class ThesaurusEntry implements Comparable<ThesaurusEntry>{
 	private static final char[] NEW_LINE = {'\n'};
 
 
+	@FunctionalInterface
+	public interface LineReader{
+		String readLine() throws IOException;
+	}
+
+
 	private final String definition;
 	private final List<SynonymsEntry> synonyms;
 
@@ -75,9 +80,9 @@ public class ThesaurusEntry implements Comparable<ThesaurusEntry>{
 		this.synonyms = synonyms;
 	}
 
-	public ThesaurusEntry(final String line, final Scanner scanner) throws IOException{
+	public ThesaurusEntry(final String line, final LineReader reader) throws IOException{
 		Objects.requireNonNull(line);
-		Objects.requireNonNull(scanner);
+		Objects.requireNonNull(reader);
 
 		//all entries should be in lowercase
 		final String[] components = StringUtils.split(line.toLowerCase(Locale.ROOT), PART_OF_SPEECH_SEPARATOR);
@@ -86,9 +91,9 @@ public class ThesaurusEntry implements Comparable<ThesaurusEntry>{
 		final int numEntries = Integer.parseInt(components[1]);
 		synonyms = new ArrayList<>(numEntries);
 		for(int i = 0; i < numEntries; i ++){
-			ParserHelper.assertNotEOF(scanner);
+			final String definitionAndSynonyms = reader.readLine();
+			ParserHelper.assertNotEOF(definitionAndSynonyms);
 
-			final String definitionAndSynonyms = scanner.nextLine();
 			synonyms.add(new SynonymsEntry(definitionAndSynonyms));
 		}
 	}
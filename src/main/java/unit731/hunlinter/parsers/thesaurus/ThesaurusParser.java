@@ -26,23 +26,31 @@ package unit731.hunlinter.parsers.thesaurus;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import unit731.hunlinter.services.ParserHelper;
 import unit731.hunlinter.services.RegexHelper;
+import unit731.hunlinter.services.system.BufferedLineReader;
 import unit731.hunlinter.services.system.FileHelper;
 import unit731.hunlinter.services.text.StringHelper;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.Scanner;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -77,7 +85,49 @@ public class ThesaurusParser{
 
 	private static final char[] NEW_LINE = {'\n'};
 
+	private static final Charset SAVE_CHARSET = StandardCharsets.UTF_8;
+
+
+	/** Serializes an entry as it is written into the data file */
+	private static final class EntrySerializer{
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(bytes, SAVE_CHARSET));
+		private long offsetIncrement;
+
+
+		void serialize(final ThesaurusEntry entry) throws IOException{
+			bytes.reset();
+			final int synonymsLength = entry.saveToData(writer, SAVE_CHARSET);
+			writer.flush();
+
+			offsetIncrement = entry.getDefinition().getBytes(SAVE_CHARSET).length + synonymsLength + 2;
+		}
+
+		int length(){
+			return bytes.size();
+		}
+
+		/** @return	The amount the offset written into the index file grows by for this entry. */
+		long offsetIncrement(){
+			return offsetIncrement;
+		}
+
+		void writeTo(final OutputStream os) throws IOException{
+			bytes.writeTo(os);
+		}
+
+		@Override
+		public String toString(){
+			return bytes.toString(SAVE_CHARSET);
+		}
+
+	}
+
+
 	private final ThesaurusDictionary dictionary;
+	/** Layout of the data file as last read or saved, <code>null</code> if unknown */
+	private ThesaurusDataLayout dataLayout;
 
 
 	public ThesaurusParser(final String language){
@@ -99,20 +149,63 @@ public class ThesaurusParser{
 
 		final Path path = theFile.toPath();
 		final Charset charset = FileHelper.determineCharset(path);
-		try(final Scanner scanner = FileHelper.createScanner(path, charset)){
-			String line = scanner.nextLine();
+		final EntrySerializer serializer = new EntrySerializer();
+		final List<String> entryLines = new ArrayList<>();
+		try(final BufferedLineReader reader = new BufferedLineReader(path, charset)){
+			final ThesaurusEntry.LineReader entryLineReader = () -> {
+				final String line = reader.readLine();
+				entryLines.add(line);
+				return line;
+			};
+
+			String line = reader.readLine();
+			ParserHelper.assertNotEOF(line);
 			FileHelper.readCharset(line);
 
-			while(scanner.hasNextLine()){
-				line = scanner.nextLine();
-				if(line.isEmpty())
-					continue;
-
-				final boolean added = dictionary.add(new ThesaurusEntry(line, scanner));
-				if(!added)
-					throw new IllegalArgumentException("Duplicated synonym in thesaurus: " + line);
+			//the layout is kept only if the file is exactly as it would be saved
+			ThesaurusDataLayout layout = (charset.equals(SAVE_CHARSET) && line.equals(SAVE_CHARSET.name())
+				&& reader.position() == line.length() + NEW_LINE.length? new ThesaurusDataLayout(reader.position()): null);
+			long entryStart = reader.position();
+			while((line = reader.readLine()) != null){
+				if(!line.isEmpty()){
+					entryLines.clear();
+					entryLines.add(line);
+					final ThesaurusEntry entry = new ThesaurusEntry(line, entryLineReader);
+					final boolean added = dictionary.add(entry);
+					if(!added)
+						throw new IllegalArgumentException("Duplicated synonym in thesaurus: " + line);
+
+					if(layout != null && !recordEntry(layout, entry, entryLines, reader.position() - entryStart, serializer))
+						layout = null;
+				}
+				else
+					layout = null;
+
+				entryStart = reader.position();
 			}
+
+			if(layout != null)
+				layout.stamp(theFile);
+			dataLayout = layout;
 		}
+
+		dictionary.clearModifiedDefinitions();
+	}
+
+	/** Adds the entry to the layout, if it was read exactly as it would be written (and in order) */
+	private static boolean recordEntry(final ThesaurusDataLayout layout, final ThesaurusEntry entry, final List<String> entryLines,
+			final long entryLength, final EntrySerializer serializer) throws IOException{
+		final String definition = entry.getDefinition();
+		if(layout.size() > 0 && layout.getDefinition(layout.size() - 1).compareTo(definition) >= 0)
+			return false;
+
+		serializer.serialize(entry);
+		if(serializer.length() != entryLength
+				|| !serializer.toString().equals(String.join(StringUtils.LF, entryLines) + StringUtils.LF))
+			return false;
+
+		layout.add(definition, entryLength, serializer.offsetIncrement());
+		return true;
 	}
 
 	public int getSynonymsCount(){
@@ -253,33 +346,107 @@ public class ThesaurusParser{
 
 	public void clear(){
 		dictionary.clear();
+		dataLayout = null;
 	}
 
+	/**
+	 * Saves the index and data files.
+	 * <p>
+	 * If the data file is unchanged since it was last read or saved, only the region holding the entries modified in the
+	 * meantime is rewritten (along with the following bytes, if the length of the region changes), and the offsets of the
+	 * index file are shifted accordingly; otherwise both files are written from scratch.
+	 *
+	 * @param theIndexFile	The index file
+	 * @param theDataFile	The data file
+	 * @throws IOException	If an I/O error occurs
+	 */
 	public void save(final File theIndexFile, final File theDataFile) throws IOException{
-		//save index and data files
-		final Charset charset = StandardCharsets.UTF_8;
-		try(
-				final BufferedWriter indexWriter = Files.newBufferedWriter(theIndexFile.toPath(), charset);
-				final BufferedWriter dataWriter = Files.newBufferedWriter(theDataFile.toPath(), charset);
-				){
-			//save charset
-			indexWriter.write(charset.name());
-			indexWriter.write(NEW_LINE);
-			//save counter
-			indexWriter.write(Integer.toString(dictionary.size()));
-			indexWriter.write(NEW_LINE);
+		final ThesaurusDataLayout layout = (dataLayout != null && dataLayout.describes(theDataFile)?
+			saveModifiedEntries(theDataFile, dataLayout):
+			saveAllEntries(theDataFile));
+		saveIndex(theIndexFile, layout);
+
+		layout.stamp(theDataFile);
+		dataLayout = layout;
+		dictionary.clearModifiedDefinitions();
+	}
+
+	private ThesaurusDataLayout saveAllEntries(final File theDataFile) throws IOException{
+		final EntrySerializer serializer = new EntrySerializer();
+		final byte[] header = (SAVE_CHARSET.name() + StringUtils.LF).getBytes(SAVE_CHARSET);
+		final ThesaurusDataLayout layout = new ThesaurusDataLayout(header.length);
+		try(final OutputStream os = new BufferedOutputStream(Files.newOutputStream(theDataFile.toPath()))){
 			//save charset
-			dataWriter.write(charset.name());
-			dataWriter.write(NEW_LINE);
+			os.write(header);
 			//save data
-			int idx = charset.name().length() + 1;
 			final List<ThesaurusEntry> synonyms = dictionary.getSortedSynonyms();
 			for(final ThesaurusEntry synonym : synonyms){
-				synonym.saveToIndex(indexWriter, idx);
+				serializer.serialize(synonym);
+				serializer.writeTo(os);
+
+				layout.add(synonym.getDefinition(), serializer.length(), serializer.offsetIncrement());
+			}
+		}
+		return layout;
+	}
+
+	private ThesaurusDataLayout saveModifiedEntries(final File theDataFile, final ThesaurusDataLayout layout) throws IOException{
+		final Set<String> modifiedDefinitions = dictionary.getModifiedDefinitions();
+		if(modifiedDefinitions.isEmpty())
+			return layout;
+
+		//all the entries between the first and the last modified are rewritten
+		final String firstDefinition = Collections.min(modifiedDefinitions);
+		final String lastDefinition = Collections.max(modifiedDefinitions);
+		final int from = layout.lowerBound(firstDefinition);
+		final int to = layout.upperBound(lastDefinition);
+
+		final EntrySerializer serializer = new EntrySerializer();
+		final ByteArrayOutputStream region = new ByteArrayOutputStream();
+		final ThesaurusDataLayout regionLayout = new ThesaurusDataLayout(0l);
+		for(final ThesaurusEntry synonym : dictionary.getSortedSynonyms(firstDefinition, lastDefinition)){
+			serializer.serialize(synonym);
+			serializer.writeTo(region);
+
+			regionLayout.add(synonym.getDefinition(), serializer.length(), serializer.offsetIncrement());
+		}
 
-				final int synonymsLength = synonym.saveToData(dataWriter, charset);
+		final long regionStart = layout.getPosition(from);
+		final long regionEnd = layout.getPosition(to);
+		try(final RandomAccessFile raf = new RandomAccessFile(theDataFile, "rw")){
+			//the following entries have to be shifted if the region changes length
+			byte[] tail = null;
+			if(region.size() != regionEnd - regionStart){
+				tail = new byte[(int)(raf.length() - regionEnd)];
+				raf.seek(regionEnd);
+				raf.readFully(tail);
+			}
+
+			raf.seek(regionStart);
+			raf.write(region.toByteArray());
+			if(tail != null){
+				raf.write(tail);
+				raf.setLength(raf.getFilePointer());
+			}
+		}
 
-				idx += synonym.getDefinition().getBytes(charset).length + synonymsLength + 2;
+		return layout.replace(from, to, regionLayout);
+	}
+
+	private static void saveIndex(final File theIndexFile, final ThesaurusDataLayout layout) throws IOException{
+		try(final BufferedWriter indexWriter = Files.newBufferedWriter(theIndexFile.toPath(), SAVE_CHARSET)){
+			//save charset
+			indexWriter.write(SAVE_CHARSET.name());
+			indexWriter.write(NEW_LINE);
+			//save counter
+			indexWriter.write(Integer.toString(layout.size()));
+			indexWriter.write(NEW_LINE);
+			//save offsets
+			for(int i = 0; i < layout.size(); i ++){
+				indexWriter.write(layout.getDefinition(i));
+				indexWriter.write(ThesaurusEntry.PIPE);
+				indexWriter.write(Long.toString(layout.getOffset(i)));
+				indexWriter.write(NEW_LINE);
 			}
 		}
 	}
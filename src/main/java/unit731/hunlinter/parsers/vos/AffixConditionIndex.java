@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.vos;
+
+import unit731.hunlinter.parsers.enums.AffixType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Precompiled index of the conditions of all the entries of a {@link RuleEntry rule}.
+ * <p>
+ * Conditions are stored in a trie that is walked from the end of the word for suffixes and from the start of the word for
+ * prefixes; character groups (<code>[...]</code> and <code>[^...]</code>) are compiled into bitsets.
+ * The lookup visits a number of nodes proportional to the length of the word, and returns the applicable entries in the
+ * same order they are defined in the rule.
+ */
+class AffixConditionIndex{
+
+	private static final char DOT = '.';
+	private static final char GROUP_START = '[';
+	private static final char GROUP_END = ']';
+	private static final char GROUP_NEGATION = '^';
+
+	private static final int[] EMPTY_INDEXES = new int[0];
+
+	private static final ThreadLocal<int[]> BUFFER = ThreadLocal.withInitial(() -> new int[256]);
+
+
+	/** A (possibly negated) set of characters, stored as a bitset starting from the lowest character */
+	private static final class CharGroup{
+
+		private final boolean negated;
+		private final char offset;
+		private final long[] bits;
+		private final String key;
+
+
+		CharGroup(final String chars, final boolean negated){
+			char min = Character.MAX_VALUE;
+			char max = Character.MIN_VALUE;
+			for(int i = 0; i < chars.length(); i ++){
+				final char chr = chars.charAt(i);
+				if(chr < min)
+					min = chr;
+				if(chr > max)
+					max = chr;
+			}
+
+			this.negated = negated;
+			offset = min;
+			bits = new long[((max - min) >> 6) + 1];
+			for(int i = 0; i < chars.length(); i ++){
+				final int delta = chars.charAt(i) - offset;
+				bits[delta >> 6] |= 1l << delta;
+			}
+			key = (negated? GROUP_NEGATION + chars: chars);
+		}
+
+		boolean matches(final char chr){
+			final int delta = chr - offset;
+			final boolean in = (delta >= 0 && (delta >> 6) < bits.length && (bits[delta >> 6] & (1l << delta)) != 0);
+			return (in != negated);
+		}
+
+	}
+
+	private static final class Node{
+
+		/** Sorted characters of the literal transitions */
+		private char[] chars = new char[0];
+		private Node[] children = new Node[0];
+		private CharGroup[] groups = new CharGroup[0];
+		private Node[] groupChildren = new Node[0];
+		/** Indexes of the entries whose condition ends in this node */
+		private int[] terminals = EMPTY_INDEXES;
+
+		private Map<Character, Node> buildingChildren = new LinkedHashMap<>();
+		private Map<String, Node> buildingGroupChildren = new LinkedHashMap<>();
+		private Map<String, CharGroup> buildingGroups = new LinkedHashMap<>();
+
+
+		Node childFor(final char chr){
+			return buildingChildren.computeIfAbsent(chr, k -> new Node());
+		}
+
+		Node childFor(final CharGroup group){
+			buildingGroups.putIfAbsent(group.key, group);
+			return buildingGroupChildren.computeIfAbsent(group.key, k -> new Node());
+		}
+
+		void addTerminal(final int index){
+			terminals = Arrays.copyOf(terminals, terminals.length + 1);
+			terminals[terminals.length - 1] = index;
+		}
+
+		void freeze(){
+			final int size = buildingChildren.size();
+			chars = new char[size];
+			children = new Node[size];
+			final Character[] keys = buildingChildren.keySet().toArray(Character[]::new);
+			Arrays.sort(keys);
+			for(int i = 0; i < size; i ++){
+				chars[i] = keys[i];
+				children[i] = buildingChildren.get(keys[i]);
+				children[i].freeze();
+			}
+
+			groups = buildingGroups.values().toArray(CharGroup[]::new);
+			groupChildren = new Node[groups.length];
+			for(int i = 0; i < groups.length; i ++){
+				groupChildren[i] = buildingGroupChildren.get(groups[i].key);
+				groupChildren[i].freeze();
+			}
+
+			buildingChildren = null;
+			buildingGroupChildren = null;
+			buildingGroups = null;
+		}
+
+		Node literalChild(final char chr){
+			final int index = Arrays.binarySearch(chars, chr);
+			return (index >= 0? children[index]: null);
+		}
+
+	}
+
+
+	private final AffixEntry[] entries;
+	private final boolean suffix;
+	private final Node root = new Node();
+	/** Indexes of the entries that can always be applied (condition is a single dot) */
+	private final int[] unconditioned;
+	/** Indexes of the entries whose condition cannot be compiled, these are checked one by one */
+	private final int[] uncompiled;
+
+
+	AffixConditionIndex(final AffixType type, final AffixEntry[] entries){
+		this.entries = (entries != null? entries: new AffixEntry[0]);
+		suffix = (type == AffixType.SUFFIX);
+
+		final List<Integer> alwaysApplicable = new ArrayList<>(0);
+		final List<Integer> notCompilable = new ArrayList<>(0);
+		for(int i = 0; i < this.entries.length; i ++){
+			final String condition = this.entries[i].condition;
+			if(condition.length() == 1 && condition.charAt(0) == DOT)
+				alwaysApplicable.add(i);
+			else{
+				final List<Object> steps = compile(condition);
+				if(steps == null)
+					notCompilable.add(i);
+				else
+					insert(steps, i);
+			}
+		}
+		root.freeze();
+
+		unconditioned = alwaysApplicable.stream().mapToInt(Integer::intValue).toArray();
+		uncompiled = notCompilable.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Splits a condition into a sequence of {@link Character} and {@link CharGroup}.
+	 *
+	 * @param condition	The condition to be compiled
+	 * @return	The sequence of steps, or <code>null</code> if the condition is malformed
+	 */
+	private static List<Object> compile(final String condition){
+		final List<Object> steps = new ArrayList<>(condition.length());
+		final int length = condition.length();
+		int i = 0;
+		while(i < length){
+			final char chr = condition.charAt(i);
+			if(chr == GROUP_START){
+				final int end = condition.indexOf(GROUP_END, i + 1);
+				if(end < 0)
+					return null;
+
+				final boolean negated = (condition.charAt(i + 1) == GROUP_NEGATION);
+				final String chars = condition.substring(i + (negated? 2: 1), end);
+				if(chars.isEmpty() || chars.indexOf(GROUP_START) >= 0)
+					return null;
+
+				steps.add(new CharGroup(chars, negated));
+				i = end + 1;
+			}
+			else if(chr == GROUP_END)
+				return null;
+			else{
+				steps.add(chr);
+				i ++;
+			}
+		}
+		return steps;
+	}
+
+	private void insert(final List<Object> steps, final int index){
+		Node node = root;
+		final int size = steps.size();
+		for(int i = 0; i < size; i ++){
+			final Object step = steps.get(suffix? size - i - 1: i);
+			node = (step instanceof Character? node.childFor((Character)step): node.childFor((CharGroup)step));
+		}
+		node.addTerminal(index);
+	}
+
+	/**
+	 * Extracts the entries whose condition matches the given word.
+	 *
+	 * @param word	The word to be tested
+	 * @return	The applicable entries, in the order they are defined in the rule
+	 */
+	AffixEntry[] applicableEntries(final String word){
+		int[] buffer = BUFFER.get();
+		if(buffer.length < entries.length){
+			buffer = new int[entries.length];
+			BUFFER.set(buffer);
+		}
+
+		int count = 0;
+		for(final int index : unconditioned)
+			buffer[count ++] = index;
+		for(final int index : uncompiled)
+			if(entries[index].canApplyTo(word))
+				buffer[count ++] = index;
+		count = collect(root, word, 0, buffer, count);
+
+		Arrays.sort(buffer, 0, count);
+		final AffixEntry[] applicable = new AffixEntry[count];
+		for(int i = 0; i < count; i ++)
+			applicable[i] = entries[buffer[i]];
+		return applicable;
+	}
+
+	boolean hasApplicableEntries(final String word){
+		if(unconditioned.length > 0)
+			return true;
+		for(final int index : uncompiled)
+			if(entries[index].canApplyTo(word))
+				return true;
+		return matchesAny(root, word, 0);
+	}
+
+	private int collect(final Node node, final String word, final int depth, final int[] buffer, int count){
+		for(final int index : node.terminals)
+			buffer[count ++] = index;
+
+		if(depth < word.length()){
+			final char chr = word.charAt(suffix? word.length() - depth - 1: depth);
+			final Node child = node.literalChild(chr);
+			if(child != null)
+				count = collect(child, word, depth + 1, buffer, count);
+			for(int i = 0; i < node.groups.length; i ++)
+				if(node.groups[i].matches(chr))
+					count = collect(node.groupChildren[i], word, depth + 1, buffer, count);
+		}
+		return count;
+	}
+
+	private boolean matchesAny(final Node node, final String word, final int depth){
+		if(node.terminals.length > 0)
+			return true;
+
+		if(depth < word.length()){
+			final char chr = word.charAt(suffix? word.length() - depth - 1: depth);
+			final Node child = node.literalChild(chr);
+			if(child != null && matchesAny(child, word, depth + 1))
+				return true;
+			for(int i = 0; i < node.groups.length; i ++)
+				if(node.groups[i].matches(chr) && matchesAny(node.groupChildren[i], word, depth + 1))
+					return true;
+		}
+		return false;
+	}
+
+}
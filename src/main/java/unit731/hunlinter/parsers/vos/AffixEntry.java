@@ -24,14 +24,13 @@
  */
 package unit731.hunlinter.parsers.vos;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.math.NumberUtils;
-import unit731.hunlinter.datastructures.FixedArray;
 import unit731.hunlinter.datastructures.SimpleDynamicArray;
 import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
 import unit731.hunlinter.parsers.enums.AffixType;
 import unit731.hunlinter.parsers.enums.MorphologicalTag;
 import unit731.hunlinter.services.ParserHelper;
@@ -77,23 +76,44 @@ public class AffixEntry{
 	private static final String DOT = ".";
 	private static final String ZERO = "0";
 
+	private static final String[] EMPTY_FIELDS = new String[0];
+
+	private static final ThreadLocal<char[]> WORD_BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
 
 	private RuleEntry parent;
+	/** index of this entry among all the entries of the affix data, <code>-1</code> if not part of it */
+	private int index = -1;
 
 	/** string to strip */
 	private final String removing;
 	/** string to append */
 	private final String appending;
-	final String[] continuationFlags;
+	/** continuation flags as {@link FlagRegistry flag ids}, in declaration order */
+	final int[] continuationFlags;
+	/** continuation flags looked up by {@link #hasContinuationFlag(int)} */
+	private final int[] searchableContinuationFlags;
+	final FlagRegistry flagRegistry;
 	/** condition that must be met before the affix can be applied */
-	private final String condition;
+	final String condition;
 	final String[] morphologicalFields;
+	/** Whether the application of this entry removes the inflectional fields of the word */
+	private final boolean removesInflectionalFields;
+	/** Whether the application of this entry removes the terminal fields of the word */
+	private final boolean removesTerminalFields;
+	/** the appending part, and the length of the removing part, used to build the new word without intermediate strings */
+	private final char[] appendingChars;
+	private final int removingLength;
 
 
 	public AffixEntry(final String line, final int index, final AffixType parentType, final String parentFlag, final FlagParsingStrategy strategy,
-			final List<String> aliasesFlag, final List<String> aliasesMorphologicalField){
+			final FlagRegistry flagRegistry, final List<String> aliasesFlag, final List<String> aliasesMorphologicalField,
+			final MorphologicalFieldInterner morphologicalFieldInterner){
 		Objects.requireNonNull(line, "Line cannot be null");
 		Objects.requireNonNull(strategy, "Strategy cannot be null");
+		Objects.requireNonNull(flagRegistry, "Flag registry cannot be null");
+
+		this.flagRegistry = flagRegistry;
 
 		//remove comments at the end of the line
 		final int commentIndex = line.indexOf(ParserHelper.COMMENT_MARK_SHARP);
@@ -112,22 +132,51 @@ public class AffixEntry{
 		final String addition = StringUtils.replace(m.group(PARAM_CONDITION), SLASH_ESCAPED, SLASH);
 		final String continuationClasses = m.group(PARAM_CONTINUATION_CLASSES);
 		condition = (lineParts.length > 4? StringUtils.replace(lineParts[4], SLASH_ESCAPED, SLASH): DOT);
-		morphologicalFields = (lineParts.length > 5? StringUtils.split(expandAliases(lineParts[5], aliasesMorphologicalField)): null);
+		final String[] fields = (lineParts.length > 5?
+			StringUtils.split(expandAliases(lineParts[5], aliasesMorphologicalField)): null);
+		morphologicalFields = (morphologicalFieldInterner != null? morphologicalFieldInterner.intern(fields): fields);
+		//NOTE: Part-of-Speech is NOT overwritten, both in simple application of an affix rule and of a compound rule
+		final String[] ruleMorphFields = (morphologicalFields != null? morphologicalFields: EMPTY_FIELDS);
+		removesInflectionalFields = containsAffixes(ruleMorphFields, MorphologicalTag.INFLECTIONAL_SUFFIX,
+			MorphologicalTag.INFLECTIONAL_PREFIX);
+		removesTerminalFields = containsAffixes(ruleMorphFields, MorphologicalTag.DERIVATIONAL_SUFFIX,
+			MorphologicalTag.DERIVATIONAL_PREFIX);
 
 		final String[] classes = strategy.parseFlags((continuationClasses != null? expandAliases(continuationClasses, aliasesFlag): null));
-		continuationFlags = (classes != null && classes.length > 0? classes: null);
+		continuationFlags = flagRegistry.toIds(classes);
+		final int[] searchableFlags = flagRegistry.toIds(searchableFlags(classes));
+		searchableContinuationFlags = (Arrays.equals(searchableFlags, continuationFlags)? continuationFlags: searchableFlags);
 		removing = (!ZERO.equals(removal)? removal: StringUtils.EMPTY);
 		appending = (!ZERO.equals(addition)? addition: StringUtils.EMPTY);
+		appendingChars = appending.toCharArray();
+		removingLength = removing.length();
 
 		checkValidity(parentType, type, parentFlag, flag, removal, line, index);
 	}
 
+	/**
+	 * NOTE: continuation flags are kept in declaration order and were looked up with a binary search, so a flag out of order
+	 * was never found; the generation of circumfixes is tuned on this behaviour (see the `circumfix` generator tests), hence
+	 * only the flags such a search would find are looked up.
+	 */
+	private static String[] searchableFlags(final String[] flags){
+		return (flags != null? removeIf(flags.clone(), flag -> Arrays.binarySearch(flags, flag) < 0): null);
+	}
+
 	public void setParent(final RuleEntry parent){
 		Objects.requireNonNull(parent, "Parent cannot be null");
 
 		this.parent = parent;
 	}
 
+	public void setIndex(final int index){
+		this.index = index;
+	}
+
+	public int getIndex(){
+		return index;
+	}
+
 	private void checkValidity(final AffixType parentType, final AffixType type, final String parentFlag, final String flag,
 			final String removal, final String line, final int index){
 		if(parentType != type)
@@ -161,22 +210,40 @@ public class AffixEntry{
 	}
 
 	public boolean hasContinuationFlags(){
-		return (continuationFlags != null && continuationFlags.length > 0);
+		return (continuationFlags != null);
 	}
 
 	public boolean hasContinuationFlag(final String flag){
-		return (hasContinuationFlags() && flag != null && Arrays.binarySearch(continuationFlags, flag) >= 0);
+		return hasContinuationFlag(flagRegistry.getId(flag));
+	}
+
+	/**
+	 * @param flagId	The {@link FlagRegistry id} of the flag.
+	 * @return	Whether this entry has the given continuation flag.
+	 */
+	public boolean hasContinuationFlag(final int flagId){
+		return FlagRegistry.contains(searchableContinuationFlags, flagId);
+	}
+
+	public String[] getContinuationFlags(){
+		return flagRegistry.toFlags(continuationFlags);
+	}
+
+	/** @return	The {@link FlagRegistry ids} of the continuation flags (NOT to be modified), <code>null</code> if there are none. */
+	public int[] getContinuationFlagIds(){
+		return continuationFlags;
 	}
 
 	public String[] combineContinuationFlags(final String[] otherContinuationFlags){
-		final int size = (otherContinuationFlags != null? otherContinuationFlags.length: 0)
-			+ (continuationFlags != null? continuationFlags.length: 0);
-		final FixedArray<String> flags = new FixedArray<>(String.class, size);
-		if(otherContinuationFlags != null && otherContinuationFlags.length > 0)
-			flags.addAll(otherContinuationFlags);
-		if(continuationFlags != null)
-			flags.addAllUnique(continuationFlags);
-		return flags.extractCopyOrNull();
+		return flagRegistry.toFlags(combineContinuationFlags(flagRegistry.toIds(otherContinuationFlags)));
+	}
+
+	/**
+	 * @param otherContinuationFlags	The {@link FlagRegistry flag ids} to combine with.
+	 * @return	The ids of the given flags followed by the continuation flags of this entry not already present.
+	 */
+	int[] combineContinuationFlags(final int[] otherContinuationFlags){
+		return FlagRegistry.union(otherContinuationFlags, continuationFlags);
 	}
 
 	//FIXME is this documentation updated/true?
@@ -193,29 +260,43 @@ public class AffixEntry{
 	 * @return	The list of new morphological fields
 	 */
 	public String[] combineMorphologicalFields(final DictionaryEntry dicEntry){
-		String[] baseMorphFields = (dicEntry.morphologicalFields != null? dicEntry.morphologicalFields: new String[0]);
-		final String[] ruleMorphFields = (morphologicalFields != null? morphologicalFields: new String[0]);
+		final String[] baseMorphFields = dicEntry.morphologicalFields;
+		final int baseSize = (baseMorphFields != null? baseMorphFields.length: 0);
+		final int ruleSize = (morphologicalFields != null? morphologicalFields.length: 0);
 
-		//NOTE: Part-of-Speech is NOT overwritten, both in simple application of an affix rule and of a compound rule
-		final boolean containsInflectionalAffix = containsAffixes(ruleMorphFields, MorphologicalTag.INFLECTIONAL_SUFFIX,
-			MorphologicalTag.INFLECTIONAL_PREFIX);
-//		final boolean containsTerminalAffixes = containsAffixes(ruleMorphFields, MorphologicalTag.TERMINAL_SUFFIX,
-//			MorphologicalTag.TERMINAL_PREFIX);
-		final boolean containsDerivationalAffixes = containsAffixes(ruleMorphFields, MorphologicalTag.DERIVATIONAL_SUFFIX,
-			MorphologicalTag.DERIVATIONAL_PREFIX);
 		//remove inflectional and terminal suffixes
-//		baseMorphFields = removeIf(baseMorphFields, field ->
-//			containsInflectionalAffix && (MorphologicalTag.INFLECTIONAL_SUFFIX.isSupertypeOf(field) || MorphologicalTag.INFLECTIONAL_PREFIX.isSupertypeOf(field))
-//			|| !containsTerminalAffixes && (MorphologicalTag.TERMINAL_SUFFIX.isSupertypeOf(field) || MorphologicalTag.TERMINAL_PREFIX.isSupertypeOf(field)));
-		baseMorphFields = removeIf(baseMorphFields, field ->
-			containsInflectionalAffix && (MorphologicalTag.INFLECTIONAL_SUFFIX.isSupertypeOf(field) || MorphologicalTag.INFLECTIONAL_PREFIX.isSupertypeOf(field))
-			|| containsDerivationalAffixes && (MorphologicalTag.TERMINAL_SUFFIX.isSupertypeOf(field) || MorphologicalTag.TERMINAL_PREFIX.isSupertypeOf(field)));
+		int keptSize = baseSize;
+		if(removesInflectionalFields || removesTerminalFields)
+			for(int i = 0; i < baseSize; i ++)
+				if(isRemovedField(baseMorphFields[i]))
+					keptSize --;
+
+		//nothing to merge: share the existing array
+		if(ruleSize == 0 && keptSize == baseSize)
+			return (baseMorphFields != null? baseMorphFields: EMPTY_FIELDS);
+		if(keptSize == 0)
+			return (morphologicalFields != null? morphologicalFields: EMPTY_FIELDS);
 
 		//add morphological fields from the applied affix
-		return (parent.getType() == AffixType.SUFFIX? ArrayUtils.addAll(baseMorphFields, ruleMorphFields): ArrayUtils.addAll(ruleMorphFields, baseMorphFields));
+		final String[] fields = new String[keptSize + ruleSize];
+		final boolean suffix = (parent.getType() == AffixType.SUFFIX);
+		int offset = (suffix? 0: ruleSize);
+		for(int i = 0; i < baseSize; i ++)
+			if(keptSize == baseSize || !isRemovedField(baseMorphFields[i]))
+				fields[offset ++] = baseMorphFields[i];
+		if(ruleSize > 0)
+			System.arraycopy(morphologicalFields, 0, fields, (suffix? keptSize: 0), ruleSize);
+		return fields;
+	}
+
+	private boolean isRemovedField(final String field){
+		return (removesInflectionalFields
+				&& (MorphologicalTag.INFLECTIONAL_SUFFIX.isSupertypeOf(field) || MorphologicalTag.INFLECTIONAL_PREFIX.isSupertypeOf(field))
+			|| removesTerminalFields
+				&& (MorphologicalTag.TERMINAL_SUFFIX.isSupertypeOf(field) || MorphologicalTag.TERMINAL_PREFIX.isSupertypeOf(field)));
 	}
 
-	private boolean containsAffixes(final String[] amf, final MorphologicalTag... tags){
+	private static boolean containsAffixes(final String[] amf, final MorphologicalTag... tags){
 		return (match(tags, tag -> match(amf, tag::isSupertypeOf) != null) != null);
 	}
 
@@ -333,12 +414,26 @@ public class AffixEntry{
 	}
 
 	public String applyRule(final String word, final boolean isFullstrip){
-		if(!isFullstrip && word.length() == removing.length())
+		final int wordLength = word.length();
+		if(!isFullstrip && wordLength == removingLength)
 			throw new LinterException(CANNOT_FULL_STRIP.format(new Object[]{word}));
 
-		return (parent.getType() == AffixType.SUFFIX?
-			word.substring(0, word.length() - removing.length()) + appending:
-			appending + word.substring(removing.length()));
+		final int keptLength = wordLength - removingLength;
+		final int length = keptLength + appendingChars.length;
+		char[] buffer = WORD_BUFFER.get();
+		if(buffer.length < length){
+			buffer = new char[length << 1];
+			WORD_BUFFER.set(buffer);
+		}
+		if(parent.getType() == AffixType.SUFFIX){
+			word.getChars(0, keptLength, buffer, 0);
+			System.arraycopy(appendingChars, 0, buffer, keptLength, appendingChars.length);
+		}
+		else{
+			System.arraycopy(appendingChars, 0, buffer, 0, appendingChars.length);
+			word.getChars(removingLength, wordLength, buffer, appendingChars.length);
+		}
+		return new String(buffer, 0, length);
 	}
 
 	//NOTE: {#canInverseApplyTo} should be called to verify applicability
@@ -352,9 +447,9 @@ public class AffixEntry{
 		Objects.requireNonNull(strategy, "Strategy cannot be null");
 
 		final StringBuilder sb = new StringBuilder();
-		if(continuationFlags != null && continuationFlags.length > 0){
+		if(continuationFlags != null){
 			sb.append(SLASH);
-			sb.append(strategy.joinFlags(continuationFlags));
+			sb.append(strategy.joinFlags(getContinuationFlags()));
 		}
 		if(morphologicalFields != null && morphologicalFields.length > 0)
 			sb.append(TAB).append(StringUtils.join(morphologicalFields, StringUtils.SPACE));
@@ -368,7 +463,7 @@ public class AffixEntry{
 			.add(parent.getFlag())
 			.add(removing.isEmpty()? ZERO: removing)
 			.add((appending.isEmpty()? ZERO: appending)
-				+ (continuationFlags != null && continuationFlags.length > 0? SLASH + String.join(StringUtils.EMPTY, continuationFlags): StringUtils.EMPTY))
+				+ (continuationFlags != null? SLASH + String.join(StringUtils.EMPTY, getContinuationFlags()): StringUtils.EMPTY))
 			.add(condition);
 		if(morphologicalFields != null && morphologicalFields.length > 0)
 			sj.add(String.join(StringUtils.SPACE, morphologicalFields));
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.vos;
+
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * Compact view of the inflections of a dictionary entry, meant for bulk consumers interested in the surface forms only.
+ * <p>
+ * The surface forms of all the inflections share a single character array, the continuation flags are stored as
+ * {@link FlagRegistry flag ids}, and the applied rules as 16-bit {@link AffixEntry#getIndex() indices} of the entries of the
+ * {@link AffixData affix data}. The full {@link Inflection inflections} (morphological fields included) are generated the
+ * first time they are asked for.
+ * <p>
+ * NOTE: this class is not thread-safe.
+ *
+ * @see CompactInflectionsBuilder
+ */
+public final class CompactInflections{
+
+	/** Maximum number of entries of the affix data an applied rule can be referred to */
+	public static final int MAX_AFFIX_ENTRIES = 1 << Short.SIZE;
+
+
+	private final AffixData affixData;
+	private final int size;
+	private final char[] surfaceForms;
+	private final int[] surfaceFormEnds;
+	private final int[] continuationFlags;
+	private final int[] continuationFlagEnds;
+	/** <code>null</code> if the applied rules are to be read from the full inflections */
+	private final short[] appliedRules;
+	private final int[] appliedRuleEnds;
+	private Supplier<Inflection[]> materializer;
+	private Inflection[] inflections;
+
+
+	/**
+	 * @param inflections	The full inflections.
+	 * @return	The compact view of the given inflections, backed by them.
+	 */
+	public static CompactInflections of(final Inflection[] inflections){
+		Objects.requireNonNull(inflections, "Inflections cannot be null");
+
+		final CompactInflectionsBuilder builder = new CompactInflectionsBuilder(null, inflections.length);
+		for(final Inflection inflection : inflections){
+			final int[] flagIds = inflection.getContinuationFlagIds();
+			builder.add(inflection.getWord(), flagIds, 0, (flagIds != null? flagIds.length: 0), null, 0, 0);
+		}
+		final CompactInflections compact = builder.build(null);
+		compact.inflections = inflections;
+		return compact;
+	}
+
+	CompactInflections(final AffixData affixData, final int size, final char[] surfaceForms, final int[] surfaceFormEnds,
+			final int[] continuationFlags, final int[] continuationFlagEnds, final short[] appliedRules,
+			final int[] appliedRuleEnds, final Supplier<Inflection[]> materializer){
+		this.affixData = affixData;
+		this.size = size;
+		this.surfaceForms = surfaceForms;
+		this.surfaceFormEnds = surfaceFormEnds;
+		this.continuationFlags = continuationFlags;
+		this.continuationFlagEnds = continuationFlagEnds;
+		this.appliedRules = (affixData != null? appliedRules: null);
+		this.appliedRuleEnds = appliedRuleEnds;
+		this.materializer = materializer;
+	}
+
+	public int size(){
+		return size;
+	}
+
+	public String getWord(final int index){
+		final int start = start(surfaceFormEnds, index);
+		return new String(surfaceForms, start, surfaceFormEnds[index] - start);
+	}
+
+	public void forEachWord(final Consumer<String> fun){
+		for(int i = 0; i < size; i ++)
+			fun.accept(getWord(i));
+	}
+
+	/**
+	 * @param index	The index of the inflection.
+	 * @param flagId	The {@link FlagRegistry id} of the flag.
+	 * @return	Whether the inflection has the given continuation flag.
+	 */
+	public boolean hasContinuationFlag(final int index, final int flagId){
+		for(int i = start(continuationFlagEnds, index); i < continuationFlagEnds[index]; i ++)
+			if(continuationFlags[i] == flagId)
+				return true;
+		return false;
+	}
+
+	/**
+	 * @param index	The index of the inflection.
+	 * @return	The {@link FlagRegistry ids} of the continuation flags of the inflection, <code>null</code> if none.
+	 */
+	public int[] getContinuationFlagIds(final int index){
+		final int start = start(continuationFlagEnds, index);
+		return (continuationFlagEnds[index] > start? Arrays.copyOfRange(continuationFlags, start, continuationFlagEnds[index]): null);
+	}
+
+	/**
+	 * @param index	The index of the inflection.
+	 * @return	The rules applied to produce the inflection, <code>null</code> for the base inflection.
+	 */
+	public AffixEntry[] getAppliedRules(final int index){
+		if(appliedRules == null)
+			return getInflections()[index].getAppliedRules();
+
+		final int start = start(appliedRuleEnds, index);
+		final int count = appliedRuleEnds[index] - start;
+		if(count == 0)
+			return null;
+
+		final AffixEntry[] rules = new AffixEntry[count];
+		for(int i = 0; i < count; i ++)
+			rules[i] = affixData.getAffixEntry(Short.toUnsignedInt(appliedRules[start + i]));
+		return rules;
+	}
+
+	private static int start(final int[] ends, final int index){
+		return (index > 0? ends[index - 1]: 0);
+	}
+
+	/** @return	The full inflections if already generated (or if this view is backed by them), <code>null</code> otherwise. */
+	public Inflection[] peekInflections(){
+		return inflections;
+	}
+
+	/** @return	The full inflections, generated on the first call. */
+	public Inflection[] getInflections(){
+		if(inflections == null){
+			inflections = materializer.get();
+			materializer = null;
+		}
+		return inflections;
+	}
+
+}
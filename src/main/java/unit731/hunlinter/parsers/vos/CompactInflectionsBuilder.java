@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.vos;
+
+import unit731.hunlinter.parsers.affix.AffixData;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+
+/**
+ * Appends inflections to the shared arrays of a {@link CompactInflections}.
+ */
+public final class CompactInflectionsBuilder{
+
+	private static final int AVERAGE_WORD_LENGTH = 12;
+	private static final int AVERAGE_FLAGS = 4;
+	private static final int AVERAGE_APPLIED_RULES = 2;
+
+
+	private final AffixData affixData;
+	private int size;
+	private char[] surfaceForms;
+	private int surfaceFormsLimit;
+	private int[] surfaceFormEnds;
+	private int[] continuationFlags;
+	private int continuationFlagsLimit;
+	private int[] continuationFlagEnds;
+	private short[] appliedRules;
+	private int appliedRulesLimit;
+	private int[] appliedRuleEnds;
+
+
+	/**
+	 * @param affixData	The affix data whose entries are referred to by the applied rules, <code>null</code> if the applied
+	 * 	rules are not to be kept.
+	 * @param capacity	The expected number of inflections.
+	 */
+	public CompactInflectionsBuilder(final AffixData affixData, final int capacity){
+		this(affixData, capacity, capacity * AVERAGE_WORD_LENGTH, capacity * AVERAGE_FLAGS,
+			(affixData != null? capacity * AVERAGE_APPLIED_RULES: 0));
+	}
+
+	/**
+	 * @param affixData	The affix data whose entries are referred to by the applied rules, <code>null</code> if the applied
+	 * 	rules are not to be kept.
+	 * @param capacity	The expected number of inflections.
+	 * @param surfaceFormsCapacity	The expected total length of the surface forms.
+	 * @param flagsCapacity	The expected total number of continuation flags.
+	 * @param rulesCapacity	The expected total number of applied rules.
+	 */
+	public CompactInflectionsBuilder(final AffixData affixData, final int capacity, final int surfaceFormsCapacity,
+			final int flagsCapacity, final int rulesCapacity){
+		this.affixData = affixData;
+		final int initialCapacity = Math.max(capacity, 1);
+		surfaceForms = new char[surfaceFormsCapacity];
+		surfaceFormEnds = new int[initialCapacity];
+		continuationFlags = new int[flagsCapacity];
+		continuationFlagEnds = new int[initialCapacity];
+		appliedRules = new short[rulesCapacity];
+		appliedRuleEnds = new int[initialCapacity];
+	}
+
+	/**
+	 * @param word	The surface form of the inflection.
+	 * @param flagIds	The array holding the {@link unit731.hunlinter.parsers.affix.strategies.FlagRegistry ids} of the
+	 * 	continuation flags, may be <code>null</code> if there are none.
+	 * @param flagIdsFrom	The first index of the ids (inclusive).
+	 * @param flagIdsTo	The last index of the ids (exclusive).
+	 * @param ruleIndices	The array holding the {@link AffixEntry#getIndex() indices} of the applied rules, may be
+	 * 	<code>null</code> if there are none.
+	 * @param ruleIndicesFrom	The first index of the rule indices (inclusive).
+	 * @param ruleIndicesTo	The last index of the rule indices (exclusive).
+	 * @return	This builder.
+	 */
+	public CompactInflectionsBuilder add(final String word, final int[] flagIds, final int flagIdsFrom, final int flagIdsTo,
+			final short[] ruleIndices, final int ruleIndicesFrom, final int ruleIndicesTo){
+		if(size == surfaceFormEnds.length){
+			final int newCapacity = Math.max(size << 1, 4);
+			surfaceFormEnds = Arrays.copyOf(surfaceFormEnds, newCapacity);
+			continuationFlagEnds = Arrays.copyOf(continuationFlagEnds, newCapacity);
+			appliedRuleEnds = Arrays.copyOf(appliedRuleEnds, newCapacity);
+		}
+
+		final int wordLength = word.length();
+		if(surfaceFormsLimit + wordLength > surfaceForms.length)
+			surfaceForms = Arrays.copyOf(surfaceForms, Math.max(surfaceForms.length << 1, surfaceFormsLimit + wordLength));
+		word.getChars(0, wordLength, surfaceForms, surfaceFormsLimit);
+		surfaceFormsLimit += wordLength;
+		surfaceFormEnds[size] = surfaceFormsLimit;
+
+		final int flagsCount = flagIdsTo - flagIdsFrom;
+		if(continuationFlagsLimit + flagsCount > continuationFlags.length)
+			continuationFlags = Arrays.copyOf(continuationFlags,
+				Math.max(continuationFlags.length << 1, continuationFlagsLimit + flagsCount));
+		if(flagsCount > 0)
+			System.arraycopy(flagIds, flagIdsFrom, continuationFlags, continuationFlagsLimit, flagsCount);
+		continuationFlagsLimit += flagsCount;
+		continuationFlagEnds[size] = continuationFlagsLimit;
+
+		final int rulesCount = (affixData != null? ruleIndicesTo - ruleIndicesFrom: 0);
+		if(appliedRulesLimit + rulesCount > appliedRules.length)
+			appliedRules = Arrays.copyOf(appliedRules, Math.max(appliedRules.length << 1, appliedRulesLimit + rulesCount));
+		if(rulesCount > 0)
+			System.arraycopy(ruleIndices, ruleIndicesFrom, appliedRules, appliedRulesLimit, rulesCount);
+		appliedRulesLimit += rulesCount;
+		appliedRuleEnds[size] = appliedRulesLimit;
+
+		size ++;
+		return this;
+	}
+
+	/**
+	 * @param materializer	The generator of the full inflections (in the same order as the added ones), called at most once.
+	 * @return	The compact view of the inflections added so far.
+	 */
+	public CompactInflections build(final Supplier<Inflection[]> materializer){
+		return new CompactInflections(affixData, size,
+			(surfaceForms.length == surfaceFormsLimit? surfaceForms: Arrays.copyOf(surfaceForms, surfaceFormsLimit)),
+			trim(surfaceFormEnds, size),
+			trim(continuationFlags, continuationFlagsLimit), trim(continuationFlagEnds, size),
+			(appliedRules.length == appliedRulesLimit? appliedRules: Arrays.copyOf(appliedRules, appliedRulesLimit)),
+			trim(appliedRuleEnds, size),
+			materializer);
+	}
+
+	private static int[] trim(final int[] array, final int limit){
+		return (array.length == limit? array: Arrays.copyOf(array, limit));
+	}
+
+}
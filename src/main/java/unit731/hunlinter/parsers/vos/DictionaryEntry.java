@@ -30,14 +30,13 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.math.NumberUtils;
 import unit731.hunlinter.datastructures.FixedArray;
-import unit731.hunlinter.datastructures.SetHelper;
 import unit731.hunlinter.datastructures.SimpleDynamicArray;
 import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
 import unit731.hunlinter.parsers.enums.AffixOption;
 import unit731.hunlinter.parsers.enums.AffixType;
 import unit731.hunlinter.parsers.enums.MorphologicalTag;
-import unit731.hunlinter.services.RegexHelper;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
 import java.text.MessageFormat;
@@ -45,11 +44,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static unit731.hunlinter.services.system.LoopHelper.forEach;
 import static unit731.hunlinter.services.system.LoopHelper.match;
@@ -60,19 +56,16 @@ public class DictionaryEntry{
 	private static final MessageFormat WRONG_FORMAT = new MessageFormat("Cannot parse dictionary line `{0}`");
 	private static final MessageFormat NON_EXISTENT_RULE = new MessageFormat("Non-existent rule `{0}`{1}");
 
-	private static final int PARAM_WORD = 1;
-	private static final int PARAM_FLAGS = 2;
-	private static final int PARAM_MORPHOLOGICAL_FIELDS = 3;
-	private static final Pattern PATTERN_ENTRY = RegexHelper.pattern("^(?<word>[^\\s]+?)(?:(?<!\\\\)\\/(?<flags>[^\\s]+))?(?:[\\s]+(?<morphologicalFields>.+))?$");
-
 	private static final String SLASH = "/";
-	private static final String SLASH_ESCAPED = "\\/";
 	private static final String TAB = "\t";
 	private static final String COMMA = ",";
 
 
+
 	protected String word;
-	protected String[] continuationFlags;
+	/** continuation flags as {@link FlagRegistry flag ids}, in declaration order */
+	protected int[] continuationFlags;
+	protected final FlagRegistry flagRegistry;
 	protected final String[] morphologicalFields;
 	private final boolean combinable;
 
@@ -94,19 +87,24 @@ public class DictionaryEntry{
 		Objects.requireNonNull(line, "Line cannot be null");
 		Objects.requireNonNull(strategy, "Strategy cannot be null");
 
-		final Matcher m = RegexHelper.matcher(line, PATTERN_ENTRY);
-		if(!m.find())
+		final DictionaryLineTokenizer tokens = DictionaryLineTokenizer.tokenize(line);
+		if(tokens == null)
 			throw new LinterException(WRONG_FORMAT.format(new Object[]{line}));
 
-		final String word = StringUtils.replace(m.group(PARAM_WORD), SLASH_ESCAPED, SLASH);
-		final String[] continuationFlags = strategy.parseFlags(expandAliases(m.group(PARAM_FLAGS), aliasesFlag));
-		final String dicMorphologicalFields = m.group(PARAM_MORPHOLOGICAL_FIELDS);
-		final String[] mfs = StringUtils.split(expandAliases(dicMorphologicalFields, aliasesMorphologicalField));
+		final String word = tokens.word(line);
+		final String[] continuationFlags = (aliasesFlag == null || aliasesFlag.isEmpty()?
+			(tokens.flagsStart >= 0? strategy.parseFlags(line, tokens.flagsStart, tokens.flagsEnd): null):
+			strategy.parseFlags(expandAliases(tokens.flags(line), aliasesFlag)));
+		final String[] mfs = affixData.getMorphologicalFieldInterner().intern(aliasesMorphologicalField == null || aliasesMorphologicalField.isEmpty()?
+			tokens.splitMorphologicalFields(line):
+			StringUtils.split(expandAliases(tokens.morphologicalFields(line), aliasesMorphologicalField)));
 		final String[] morphologicalFields = (!addStemTag || containsStem(mfs)? mfs:
 			ArrayUtils.addAll(new String[]{MorphologicalTag.STEM.attachValue(word)}, mfs));
 		final boolean combinable = true;
 		final String convertedWord = affixData.applyInputConversionTable(word);
-		return new DictionaryEntry(convertedWord, continuationFlags, morphologicalFields, combinable);
+		final FlagRegistry flagRegistry = affixData.getFlagRegistry();
+		return new DictionaryEntry(convertedWord, flagRegistry.toIds(continuationFlags), flagRegistry, morphologicalFields,
+			combinable);
 	}
 
 	DictionaryEntry(final DictionaryEntry dicEntry){
@@ -114,15 +112,19 @@ public class DictionaryEntry{
 
 		word = dicEntry.word;
 		continuationFlags = dicEntry.continuationFlags;
+		flagRegistry = dicEntry.flagRegistry;
 		morphologicalFields = dicEntry.morphologicalFields;
 		combinable = dicEntry.combinable;
 	}
 
-	DictionaryEntry(final String word, final String[] continuationFlags, final String[] morphologicalFields, final boolean combinable){
+	DictionaryEntry(final String word, final int[] continuationFlags, final FlagRegistry flagRegistry,
+			final String[] morphologicalFields, final boolean combinable){
 		Objects.requireNonNull(word, "Word cannot be null");
+		Objects.requireNonNull(flagRegistry, "Flag registry cannot be null");
 
 		this.word = word;
 		this.continuationFlags = continuationFlags;
+		this.flagRegistry = flagRegistry;
 		this.morphologicalFields = morphologicalFields;
 		this.combinable = combinable;
 	}
@@ -136,16 +138,6 @@ public class DictionaryEntry{
 		return (match(mfs, mf -> mf.startsWith(MorphologicalTag.STEM.getCode())) != null);
 	}
 
-//	public static String extractWord(final String line){
-//		Objects.requireNonNull(line, "Line cannot be null");
-//
-//		final Matcher m = RegexHelper.matcher(line, PATTERN_ENTRY);
-//		if(!m.find())
-//			throw new HunLintException("Cannot parse dictionary line `" + line + "`");
-//
-//		return StringUtils.replace(m.group(PARAM_WORD), SLASH_ESCAPED, SLASH);
-//	}
-
 	public String getWord(){
 		return word;
 	}
@@ -155,16 +147,9 @@ public class DictionaryEntry{
 	}
 
 	public boolean removeContinuationFlag(final String continuationFlagToRemove){
-		boolean removed = false;
-		if(continuationFlagToRemove != null && continuationFlags != null){
-			final int previousSize = continuationFlags.length;
-			continuationFlags = ArrayUtils.removeElement(ArrayUtils.clone(continuationFlags), continuationFlagToRemove);
-
-			removed = (continuationFlags.length != previousSize);
-
-			if(continuationFlags.length == 0)
-				continuationFlags = null;
-		}
+		final int[] remainingFlags = FlagRegistry.remove(continuationFlags, flagRegistry.getId(continuationFlagToRemove));
+		final boolean removed = (remainingFlags != continuationFlags);
+		continuationFlags = remainingFlags;
 		return removed;
 	}
 
@@ -173,10 +158,19 @@ public class DictionaryEntry{
 	 * @return	Whether there are continuation flags that are not terminal affixes
 	 */
 	public boolean hasNonTerminalContinuationFlags(final Predicate<String> isTerminalAffix){
-		return (match(continuationFlags, Predicate.not(isTerminalAffix)) != null);
+		if(continuationFlags != null)
+			for(final int flagId : continuationFlags)
+				if(!isTerminalAffix.test(flagRegistry.getFlag(flagId)))
+					return true;
+		return false;
 	}
 
 	public String[] getContinuationFlags(){
+		return flagRegistry.toFlags(continuationFlags);
+	}
+
+	/** @return	The {@link FlagRegistry ids} of the continuation flags (NOT to be modified), <code>null</code> if there are none. */
+	public int[] getContinuationFlagIds(){
 		return continuationFlags;
 	}
 
@@ -185,14 +179,22 @@ public class DictionaryEntry{
 	}
 
 	public boolean hasContinuationFlag(final String flag){
-		return (continuationFlags != null && ArrayUtils.contains(continuationFlags, flag));
+		return hasContinuationFlag(flagRegistry.getId(flag));
+	}
+
+	/**
+	 * @param flagId	The {@link FlagRegistry id} of the flag.
+	 * @return	Whether this entry has the given continuation flag.
+	 */
+	public boolean hasContinuationFlag(final int flagId){
+		return FlagRegistry.contains(continuationFlags, flagId);
 	}
 
 	public boolean hasContinuationFlags(final String[] flags){
-		if(continuationFlags != null && flags != null){
-			final Set<String> list = SetHelper.setOf(continuationFlags);
-			return (match(flags, Predicate.not(list::add)) != null);
-		}
+		if(flags != null)
+			for(final String flag : flags)
+				if(hasContinuationFlag(flag))
+					return true;
 		return false;
 	}
 
@@ -224,7 +226,7 @@ public class DictionaryEntry{
 		final int size = (continuationFlags != null? continuationFlags.length: 0);
 		final SimpleDynamicArray<DictionaryEntry> vv = new SimpleDynamicArray<>(DictionaryEntry.class);
 		for(int i = 0; i < size; i ++){
-			final String cf = continuationFlags[i];
+			final String cf = flagRegistry.getFlag(continuationFlags[i]);
 			if(affixData.isManagedByCompoundRule(cf)){
 				vv.reset();
 				final DictionaryEntry[] v = result.get(cf);
@@ -243,7 +245,7 @@ public class DictionaryEntry{
 		distribution.put(compoundBeginFlag, new DictionaryEntry[0]);
 		distribution.put(compoundMiddleFlag, new DictionaryEntry[0]);
 		distribution.put(compoundEndFlag, new DictionaryEntry[0]);
-		forEach(continuationFlags, flag -> {
+		forEach(getContinuationFlags(), flag -> {
 			final DictionaryEntry[] entries = distribution.get(flag);
 			if(entries != null)
 				distribution.put(flag, ArrayUtils.add(entries, this));
@@ -317,7 +319,8 @@ public class DictionaryEntry{
 		final FixedArray<String> prefixes = new FixedArray<>(String.class, maxSize);
 		final FixedArray<String> suffixes = new FixedArray<>(String.class, maxSize);
 		if(continuationFlags != null){
-			for(final String affix : continuationFlags){
+			for(final int flagId : continuationFlags){
+				final String affix = flagRegistry.getFlag(flagId);
 				if(affixData.isTerminalAffix(affix)){
 					terminals.add(affix);
 					continue;
@@ -359,9 +362,10 @@ public class DictionaryEntry{
 
 	public String toString(final FlagParsingStrategy strategy){
 		final StringBuilder sb = new StringBuilder(word);
-		if(continuationFlags != null && continuationFlags.length > 0){
+		if(continuationFlags != null){
+			final String[] flags = getContinuationFlags();
 			sb.append(SLASH);
-			sb.append(strategy != null? strategy.joinFlags(continuationFlags): StringUtils.join(continuationFlags, COMMA));
+			sb.append(strategy != null? strategy.joinFlags(flags): StringUtils.join(flags, COMMA));
 		}
 		if(morphologicalFields != null && morphologicalFields.length > 0)
 			sb.append(TAB).append(StringUtils.join(morphologicalFields, StringUtils.SPACE));
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.vos;
+
+
+/**
+ * Single-pass tokenizer of a line of the dictionary file, in the form <code>word[/flags][&lt;whitespaces&gt;fields]</code>.
+ * <p>
+ * The word ends at the first slash that is not preceded by a backslash and is followed by at least one character (any other
+ * slash is part of the word), the flags go up to the first whitespace, everything after the whitespaces are the
+ * morphological fields.
+ * Only the boundaries of the parts are computed, substrings are extracted on request.
+ */
+final class DictionaryLineTokenizer{
+
+	private static final char SLASH = '/';
+	private static final char BACKSLASH = '\\';
+
+
+	final int wordEnd;
+	/** Start of the flags, <code>-1</code> if not present */
+	final int flagsStart;
+	final int flagsEnd;
+	/** Start of the morphological fields, <code>-1</code> if not present */
+	final int morphologicalFieldsStart;
+
+
+	/**
+	 * @param line	The line to be tokenized (without line terminators).
+	 * @return	The tokens of the line, or <code>null</code> if the line is malformed.
+	 */
+	static DictionaryLineTokenizer tokenize(final String line){
+		final int length = line.length();
+		int tokenEnd = 0;
+		while(tokenEnd < length && !isSeparator(line.charAt(tokenEnd)))
+			tokenEnd ++;
+		if(tokenEnd == 0)
+			return null;
+
+		int wordEnd = tokenEnd;
+		int flagsStart = -1;
+		for(int i = 1; i < tokenEnd - 1; i ++)
+			if(line.charAt(i) == SLASH && line.charAt(i - 1) != BACKSLASH){
+				wordEnd = i;
+				flagsStart = i + 1;
+				break;
+			}
+
+		int morphologicalFieldsStart = -1;
+		if(tokenEnd < length){
+			//at least one separator followed by one character
+			if(length - tokenEnd < 2)
+				return null;
+
+			morphologicalFieldsStart = tokenEnd + 1;
+			while(morphologicalFieldsStart < length - 1 && isSeparator(line.charAt(morphologicalFieldsStart)))
+				morphologicalFieldsStart ++;
+		}
+		return new DictionaryLineTokenizer(wordEnd, flagsStart, (flagsStart >= 0? tokenEnd: -1), morphologicalFieldsStart);
+	}
+
+	/** Same characters as the regex class <code>\s</code> */
+	private static boolean isSeparator(final char chr){
+		return (chr == ' ' || chr == '\t' || chr == '\n' || chr == '\u000B' || chr == '\f' || chr == '\r');
+	}
+
+	private DictionaryLineTokenizer(final int wordEnd, final int flagsStart, final int flagsEnd,
+			final int morphologicalFieldsStart){
+		this.wordEnd = wordEnd;
+		this.flagsStart = flagsStart;
+		this.flagsEnd = flagsEnd;
+		this.morphologicalFieldsStart = morphologicalFieldsStart;
+	}
+
+	/** @return	The word, with the escaped slashes unescaped. */
+	String word(final String line){
+		int backslash = line.indexOf(BACKSLASH);
+		if(backslash < 0 || backslash >= wordEnd)
+			return line.substring(0, wordEnd);
+
+		final StringBuilder sb = new StringBuilder(wordEnd);
+		int start = 0;
+		while(backslash >= 0 && backslash < wordEnd - 1){
+			if(line.charAt(backslash + 1) == SLASH){
+				sb.append(line, start, backslash);
+				start = backslash + 1;
+			}
+			backslash = line.indexOf(BACKSLASH, backslash + 1);
+		}
+		return sb.append(line, start, wordEnd)
+			.toString();
+	}
+
+	String flags(final String line){
+		return (flagsStart >= 0? line.substring(flagsStart, flagsEnd): null);
+	}
+
+	String morphologicalFields(final String line){
+		return (morphologicalFieldsStart >= 0? line.substring(morphologicalFieldsStart): null);
+	}
+
+	/**
+	 * @return	The morphological fields split on whitespaces (as {@link org.apache.commons.lang3.StringUtils#split(String)}
+	 * 	does), or <code>null</code> if not present.
+	 */
+	String[] splitMorphologicalFields(final String line){
+		if(morphologicalFieldsStart < 0)
+			return null;
+
+		final int length = line.length();
+		int count = 0;
+		for(int i = morphologicalFieldsStart; i < length; i ++)
+			if(!Character.isWhitespace(line.charAt(i)) && (i == morphologicalFieldsStart || Character.isWhitespace(line.charAt(i - 1))))
+				count ++;
+
+		final String[] fields = new String[count];
+		int index = 0;
+		int fieldStart = -1;
+		for(int i = morphologicalFieldsStart; i <= length; i ++){
+			final boolean separator = (i == length || Character.isWhitespace(line.charAt(i)));
+			if(!separator && fieldStart < 0)
+				fieldStart = i;
+			else if(separator && fieldStart >= 0){
+				fields[index ++] = line.substring(fieldStart, i);
+				fieldStart = -1;
+			}
+		}
+		return fields;
+	}
+
+}
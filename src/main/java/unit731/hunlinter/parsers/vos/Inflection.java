@@ -27,6 +27,7 @@ package unit731.hunlinter.parsers.vos;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
 import unit731.hunlinter.parsers.enums.AffixType;
 
 import java.util.Arrays;
@@ -56,21 +57,31 @@ public class Inflection extends DictionaryEntry{
 	public static Inflection createFromCompound(final String word, final String[] continuationFlags,
 			final DictionaryEntry[] compoundEntries){
 		final String[] morphologicalFields = AffixEntry.extractMorphologicalFields(compoundEntries);
-		return new Inflection(word, continuationFlags, morphologicalFields, true, null, compoundEntries);
+		final FlagRegistry flagRegistry = compoundEntries[0].flagRegistry;
+		return new Inflection(word, flagRegistry.toIds(continuationFlags), flagRegistry, morphologicalFields, true, null,
+			compoundEntries);
 	}
 
 	public static Inflection createFromInflection(final String word, final AffixEntry appliedEntry, final boolean combinable){
-		return new Inflection(word, appliedEntry.continuationFlags, appliedEntry.morphologicalFields, combinable,
-			new AffixEntry[]{appliedEntry}, null);
+		return new Inflection(word, appliedEntry.continuationFlags, appliedEntry.flagRegistry, appliedEntry.morphologicalFields,
+			combinable, new AffixEntry[]{appliedEntry}, null);
 	}
 
 	public static Inflection createFromInflection(final String word, final AffixEntry appliedEntry,
-			final DictionaryEntry dicEntry, final String[] remainingContinuationFlags, final boolean combinable){
-		final String[] continuationFlags = appliedEntry.combineContinuationFlags(remainingContinuationFlags);
+			final DictionaryEntry dicEntry, final int[] remainingContinuationFlags, final boolean combinable){
+		final int[] continuationFlags = appliedEntry.combineContinuationFlags(remainingContinuationFlags);
 		final String[] morphologicalFields = appliedEntry.combineMorphologicalFields(dicEntry);
 		final AffixEntry[] appliedRules = {appliedEntry};
 		final DictionaryEntry[] compoundEntries = extractCompoundEntries(dicEntry);
-		return new Inflection(word, continuationFlags, morphologicalFields, combinable, appliedRules, compoundEntries);
+		return new Inflection(word, continuationFlags, appliedEntry.flagRegistry, morphologicalFields, combinable, appliedRules,
+			compoundEntries);
+	}
+
+	public static Inflection createFromSnapshot(final String word, final String[] continuationFlags,
+			final FlagRegistry flagRegistry, final String[] morphologicalFields, final boolean combinable,
+			final AffixEntry[] appliedRules){
+		return new Inflection(word, flagRegistry.toIds(continuationFlags), flagRegistry, morphologicalFields, combinable,
+			appliedRules, null);
 	}
 
 	public static Inflection createFromDictionaryEntry(final DictionaryEntry dicEntry){
@@ -83,9 +94,10 @@ public class Inflection extends DictionaryEntry{
 		compoundEntries = extractCompoundEntries(dicEntry);
 	}
 
-	private Inflection(final String word, final String[] continuationFlags, final String[] morphologicalFields,
-			final boolean combinable, final AffixEntry[] appliedRules, final DictionaryEntry[] compoundEntries){
-		super(word, continuationFlags, morphologicalFields, combinable);
+	private Inflection(final String word, final int[] continuationFlags, final FlagRegistry flagRegistry,
+			final String[] morphologicalFields, final boolean combinable, final AffixEntry[] appliedRules,
+			final DictionaryEntry[] compoundEntries){
+		super(word, continuationFlags, flagRegistry, morphologicalFields, combinable);
 
 		this.appliedRules = appliedRules;
 		this.compoundEntries = compoundEntries;
@@ -93,8 +105,8 @@ public class Inflection extends DictionaryEntry{
 
 	/* NOTE: used for testing purposes */
 	public Inflection(final String word, final String continuationFlags, final String morphologicalFields,
-			final DictionaryEntry[] compoundEntries, final FlagParsingStrategy strategy){
-		super(word, (strategy != null? strategy.parseFlags(continuationFlags): null),
+			final DictionaryEntry[] compoundEntries, final FlagParsingStrategy strategy, final FlagRegistry flagRegistry){
+		super(word, (strategy != null? flagRegistry.toIds(strategy.parseFlags(continuationFlags)): null), flagRegistry,
 			(morphologicalFields != null? StringUtils.split(morphologicalFields): null), true);
 
 		this.compoundEntries = compoundEntries;
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.vos;
+
+import unit731.hunlinter.parsers.enums.MorphologicalTag;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+
+/**
+ * Shares a single instance of each morphological field whose value comes from a small vocabulary (part-of-speech and affix
+ * fields), so that the many entries and inflections carrying the same field reference the same string.
+ * <p>
+ * The instances are kept for the life of the interner, that is, of the
+ * {@link unit731.hunlinter.parsers.affix.AffixData affix data} owning it.
+ */
+public final class MorphologicalFieldInterner{
+
+	private static final Set<MorphologicalTag> INTERNABLE_TAGS = EnumSet.of(MorphologicalTag.PART_OF_SPEECH,
+		MorphologicalTag.DERIVATIONAL_PREFIX, MorphologicalTag.INFLECTIONAL_PREFIX, MorphologicalTag.TERMINAL_PREFIX,
+		MorphologicalTag.DERIVATIONAL_SUFFIX, MorphologicalTag.INFLECTIONAL_SUFFIX, MorphologicalTag.TERMINAL_SUFFIX);
+
+
+	private final Map<String, String> interned = new ConcurrentHashMap<>();
+
+
+	/**
+	 * @param fields	The fields to be interned, in place.
+	 * @return	The given array.
+	 */
+	public String[] intern(final String[] fields){
+		if(fields != null)
+			for(int i = 0; i < fields.length; i ++){
+				final MorphologicalTag tag = (fields[i].length() >= 3? MorphologicalTag.createFromCode(fields[i]): null);
+				if(tag != null && INTERNABLE_TAGS.contains(tag))
+					fields[i] = interned.computeIfAbsent(fields[i], Function.identity());
+			}
+		return fields;
+	}
+
+}
@@ -44,6 +44,7 @@ public class RuleEntry{
 	//cross product flag
 	private final boolean combinable;
 	private AffixEntry[] entries;
+	private AffixConditionIndex conditionIndex;
 //private final List<AffixEntry> prefixEntries;
 //private final List<AffixEntry> suffixEntries;
 
@@ -60,6 +61,7 @@ public class RuleEntry{
 	public void setEntries(final AffixEntry... entries){
 		this.entries = entries;
 		LoopHelper.forEach(entries, entry -> entry.setParent(this));
+		conditionIndex = new AffixConditionIndex(type, entries);
 	}
 
 //public RuleEntry(boolean isSuffix, char combinable, List<AffixEntry> entries, List<AffixEntry> prefixEntries, List<AffixEntry> suffixEntries){
@@ -95,7 +97,17 @@ public class RuleEntry{
 	}
 
 	public boolean isProductiveFor(final String word){
-		return (LoopHelper.match(entries, entry -> entry.canApplyTo(word)) != null);
+		return (conditionIndex != null && conditionIndex.hasApplicableEntries(word));
+	}
+
+	/**
+	 * Extracts the entries whose condition matches the given word.
+	 *
+	 * @param word	The word to be tested
+	 * @return	The applicable entries, in the order they are defined
+	 */
+	public AffixEntry[] getApplicableEntries(final String word){
+		return (conditionIndex != null? conditionIndex.applicableEntries(word): new AffixEntry[0]);
 	}
 
 
@@ -26,7 +26,7 @@ package unit731.hunlinter.services;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
-import unit731.hunlinter.services.system.FileHelper;
+import unit731.hunlinter.services.system.BufferedLineReader;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
 import java.io.EOFException;
@@ -60,23 +60,44 @@ public final class ParserHelper{
 			throw new EOFException("Unexpected EOF while reading file");
 	}
 
+	public static void assertNotEOF(final String line) throws EOFException{
+		if(line == null)
+			throw new EOFException("Unexpected EOF while reading file");
+	}
+
+	/**
+	 * Reads the given file once, feeding each non-comment line (but the first, that must be a number) to the given function.
+	 *
+	 * @param file	The file to be read (possibly gzipped).
+	 * @param charset	The charset of the file.
+	 * @param fun	The consumer of each line, called with the (0-based) index of the line, not counting the first one.
+	 * @param progressCallback	Called with the progress percentage (based on the bytes read), optional.
+	 * @param comment	The characters that start a comment line.
+	 */
 	public static void forEachLine(final File file, final Charset charset, final BiConsumer<Integer, String> fun,
 			final Consumer<Integer> progressCallback, final char... comment){
-		final int totalLines = FileHelper.getLinesCount(file, charset);
-		int progress = 0;
-		int progressIndex = 0;
-		final int progressStep = (int)Math.ceil(totalLines / 100.f);
-		try(final Scanner scanner = FileHelper.createScanner(file.toPath(), charset)){
-			assertLinesCount(scanner);
-
-			while(scanner.hasNextLine()){
-				final String line = scanner.nextLine();
-
+		try(final BufferedLineReader reader = new BufferedLineReader(file.toPath(), charset)){
+			final String header = reader.readLine();
+			if(header == null)
+				throw new EOFException("Unexpected EOF while reading file");
+			assertLinesCount(header);
+
+			final long size = Math.max(reader.size(), 1l);
+			int lineIndex = 0;
+			int progress = 0;
+			String line;
+			while((line = reader.readLine()) != null){
 				if(!isComment(line, comment))
-					fun.accept(progress, line);
-
-				if(progressCallback != null && ++ progress % progressStep == 0)
-					progressCallback.accept(++ progressIndex);
+					fun.accept(lineIndex, line);
+				lineIndex ++;
+
+				if(progressCallback != null){
+					final int newProgress = (int)Math.min(reader.position() * 100 / size, 100l);
+					if(newProgress > progress){
+						progress = newProgress;
+						progressCallback.accept(progress);
+					}
+				}
 			}
 
 			if(progressCallback != null)
@@ -97,10 +118,13 @@ public final class ParserHelper{
 
 	public static String assertLinesCount(final Scanner scanner){
 		final String line = scanner.nextLine();
+		assertLinesCount(line);
+		return line;
+	}
+
+	private static void assertLinesCount(final String line){
 		if(!NumberUtils.isCreatable(line))
 			throw new LinterException(WRONG_FILE_FORMAT.format(new Object[]{line}));
-
-		return line;
 	}
 
 }
@@ -38,6 +38,11 @@ import unit731.hunlinter.services.system.LoopHelper;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -48,6 +53,8 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -67,6 +74,8 @@ public final class XMLManager{
 	public static final String ROOT_ATTRIBUTE_NAME = "xmlns:block-list";
 	public static final String ROOT_ATTRIBUTE_VALUE = "http://openoffice.org/2001/block-list";
 
+	private static final int INDENT_AMOUNT = 3;
+
 
 	private static DocumentBuilder DOCUMENT_BUILDER;
 	static{
@@ -81,6 +90,16 @@ public final class XMLManager{
 		}
 	}
 
+	private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+	static{
+		//element and attribute names are matched as they appear in the file (see `getName`)
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		//the DTD, if any, is skipped, as is done by the entity resolver of the DOM parser
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+	}
+	private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
 
 	private XMLManager(){}
 
@@ -109,6 +128,75 @@ public final class XMLManager{
 		transformer.transform(domSource, streamResult);
 	}
 
+	/**
+	 * Creates a pull parser, so that a file can be read without building its DOM tree.
+	 *
+	 * @param is	The stream to read from.
+	 * @return	The reader.
+	 * @throws XMLStreamException	If the reader cannot be created.
+	 */
+	public static XMLStreamReader createXMLStreamReader(final InputStream is) throws XMLStreamException{
+		synchronized(XML_INPUT_FACTORY){
+			return XML_INPUT_FACTORY.createXMLStreamReader(is);
+		}
+	}
+
+	/**
+	 * Creates a streaming writer, and writes the XML declaration.
+	 * <p>
+	 * Characters that cannot be represented in the given charset are written as character references.
+	 *
+	 * @param os	The stream to write to.
+	 * @param charset	The charset of the document.
+	 * @return	The writer.
+	 * @throws XMLStreamException	If the writer cannot be created.
+	 */
+	public static XMLStreamWriter createXMLStreamWriter(final OutputStream os, final Charset charset)
+			throws XMLStreamException{
+		final XMLStreamWriter writer;
+		synchronized(XML_OUTPUT_FACTORY){
+			writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(os, charset.name());
+		}
+		writer.writeStartDocument(charset.name(), "1.0");
+		return writer;
+	}
+
+	/**
+	 * @param reader	The reader, positioned on a start element.
+	 * @return	The name of the element, including its prefix.
+	 */
+	public static String getName(final XMLStreamReader reader){
+		return getName(reader.getPrefix(), reader.getLocalName());
+	}
+
+	/**
+	 * @param reader	The reader, positioned on a start element.
+	 * @param name	The name of the attribute, including its prefix.
+	 * @return	The value of the attribute, or <code>null</code> if the element has no such attribute.
+	 */
+	public static String extractAttributeValue(final XMLStreamReader reader, final String name){
+		for(int i = 0; i < reader.getAttributeCount(); i ++)
+			if(name.equals(getName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i))))
+				return reader.getAttributeValue(i);
+		return null;
+	}
+
+	/* A non namespace-aware parser may or may not split the prefix from the local name */
+	private static String getName(final String prefix, final String localName){
+		return (prefix == null || prefix.isEmpty()? localName: prefix + ":" + localName);
+	}
+
+	/**
+	 * Writes a line break followed by the indentation used by {@link #createXML(File, Document, Pair[])}.
+	 *
+	 * @param writer	The writer.
+	 * @param level	The nesting level.
+	 * @throws XMLStreamException	If an error occurs while writing.
+	 */
+	public static void writeIndentation(final XMLStreamWriter writer, final int level) throws XMLStreamException{
+		writer.writeCharacters(StringUtils.LF + StringUtils.repeat(' ', level * INDENT_AMOUNT));
+	}
+
 	public static boolean isElement(final Node entry, final String elementName){
 		return (entry.getNodeType() == Node.ELEMENT_NODE && elementName.equals(entry.getNodeName()));
 	}
@@ -137,7 +225,7 @@ public final class XMLManager{
 			Pair.of(OutputKeys.VERSION, "1.0"),
 			Pair.of(OutputKeys.ENCODING, charset.name()),
 			Pair.of(OutputKeys.INDENT, "yes"),
-			Pair.of("{http://xml.apache.org/xslt}indent-amount", "3")
+			Pair.of("{http://xml.apache.org/xslt}indent-amount", Integer.toString(INDENT_AMOUNT))
 		};
 	}
 
@@ -25,109 +25,92 @@
 package unit731.hunlinter.services.regexgenerator;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.tuple.Pair;
 import unit731.hunlinter.services.log.ShortPrefixNotNullToStringStyle;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 
 /**
- * The {@code NFA} class provides a data type for creating a <em>Non-deterministic Finite state Automaton</em> (NFA) from a regular
- * expression and testing whether a given string is matched by that regular expression.
+ * Generates the words (sequences of flags) accepted by a Hunspell compound rule.
+ * <p>
+ * A compound rule is a chain of flags each optionally followed by <code>*</code> or <code>?</code>, so the rule is compiled
+ * into a chain of states, one for each flag: from each state the flag can be consumed (looping back to the same state in
+ * case of <code>*</code>), or skipped (in case of <code>*</code> and <code>?</code>). Flags are referenced by a dense id.
+ * <p>
+ * The words are generated lazily by a depth-first visit of the automaton that uses an explicit stack, ordered first by the
+ * number of repetitions of the starred flags, then by the choices made in each state (skip before consume for <code>?</code>,
+ * consume before skip for <code>*</code>); a word that can be generated in more than one way is returned only once.
+ * Memory is proportional to the length of the longest word and to the number of words generated so far.
  *
  * @see <a href="https://algs4.cs.princeton.edu/54regexp/NFA.java.html">NFA.java</a>
  * @see <a href="https://algs4.cs.princeton.edu/lectures/54RegularExpressions.pdf">Algorithms - Robert Sedgewick, Kevin Wayne</a>
- * @see <a href="https://www.dennis-grinch.co.uk/tutorial/enfa">ε-NFA in Java</a>
- * @see <a href="https://pdfs.semanticscholar.org/presentation/e14c/b69f0feb2856734a5e5e85b6ae1a210ab936.pdf">Automata &amp; Languages</a>
  * @see <a href="http://www.dfki.de/compling/pdfs/SS06-fsa-presentation.pdf">Finite-State Automata and Algorithms</a>
  */
 public class HunSpellRegexWordGenerator{
 
-	private static class GeneratedElement{
-		private final List<String> word;
-		private final int stateIndex;
+	private static final char ZERO_OR_MORE = '*';
+	private static final char ZERO_OR_ONE = '?';
+	private static final char ONE = 0;
 
-		GeneratedElement(final List<String> word, final int stateIndex){
-			this.word = word;
-			this.stateIndex = stateIndex;
-		}
-
-		@Override
-		public boolean equals(final Object obj){
-			if(obj == this)
-				return true;
-			if(obj == null || obj.getClass() != getClass())
-				return false;
-
-			final GeneratedElement rhs = (GeneratedElement)obj;
-			return new EqualsBuilder()
-				.append(word, rhs.word)
-				.append(stateIndex, rhs.stateIndex)
-				.isEquals();
-		}
-
-		@Override
-		public int hashCode(){
-			return new HashCodeBuilder()
-				.append(word)
-				.append(stateIndex)
-				.toHashCode();
-		}
-
-	}
+	/** Default expected depth of the stack, buffers expand by the same value if exceeded */
+	private static final int EXPECTED_MAX_STATES = 8;
 
 
-	private final Digraph<String> graph = new Digraph<>();
-	private final int finalStateIndex;
+	/** The distinct flags of the rule, indexed by id */
+	private final String[] flags;
+	/** For each state, the id of the flag consumed */
+	private final int[] flagIds;
+	/** For each state, the operator applied to its flag */
+	private final char[] operators;
+	/** For each state, whether this state, or a following one, can loop */
+	private final boolean[] canLoopFrom;
 
 
 	/**
-	 * Initializes the NFA from the specified regular expression.
+	 * Compiles the automaton from the specified regular expression.
 	 * <p>
 	 * NOTE: each element should be enclosed in parentheses (eg. <code>(as)(ert)?(b)*</code>), the managed operations are <code>*</code> and <code>?</code>
 	 *
 	 * @param regexpParts	The regular expression already subdivided into input and modifiers (eg. ["ag", "ert", "?", "b", "*"])
 	 */
 	public HunSpellRegexWordGenerator(final String[] regexpParts){
-		int offset = 0;
+		final Map<String, Integer> ids = new LinkedHashMap<>();
 		final int size = regexpParts.length;
-		for(int i = 0; i + offset < size; i ++){
-			final int operatorIndex = i + offset + 1;
+		final int[] stateFlagIds = new int[size];
+		final char[] stateOperators = new char[size];
+		int states = 0;
+		for(int i = 0; i < size; i ++){
+			final int operatorIndex = i + 1;
 			final char next = (operatorIndex < size && regexpParts[operatorIndex].length() == 1?
-				regexpParts[operatorIndex].charAt(0): 0);
-			//zero or more
-			//skip operator
-			//zero or one
-			//skip operator
-			//one
-			switch(next){
-				case '*' -> {
-					graph.addEdge(i, i + 1);
-					graph.addEdge(i, i, regexpParts[operatorIndex - 1]);
-					offset ++;
-				}
-				case '?' -> {
-					graph.addEdge(i, i + 1, regexpParts[operatorIndex - 1]);
-					graph.addEdge(i, i + 1);
-					offset ++;
-				}
-				default -> graph.addEdge(i, i + 1, regexpParts[operatorIndex - 1]);
+				regexpParts[operatorIndex].charAt(0): ONE);
+			stateFlagIds[states] = ids.computeIfAbsent(regexpParts[i], k -> ids.size());
+			if(next == ZERO_OR_MORE || next == ZERO_OR_ONE){
+				stateOperators[states] = next;
+				//skip operator
+				i ++;
 			}
+			states ++;
 		}
 
-		finalStateIndex = size - offset;
+		flags = ids.keySet().toArray(String[]::new);
+		flagIds = Arrays.copyOf(stateFlagIds, states);
+		operators = Arrays.copyOf(stateOperators, states);
+		canLoopFrom = new boolean[states + 1];
+		for(int state = states - 1; state >= 0; state --)
+			canLoopFrom[state] = (operators[state] == ZERO_OR_MORE || canLoopFrom[state + 1]);
 	}
 
 	/**
 	 * Generate a subList with a maximum size of <code>limit</code> of words that matches the given regex.
-	 * <p>
-	 * The Strings are ordered in lexicographical order.
 	 *
 	 * @param minimumSubwords	The minimum number of compounds that forms the generated word
 	 * @param limit	The maximum size of the list
@@ -135,48 +118,172 @@ public class HunSpellRegexWordGenerator{
 	 */
 	public List<List<String>> generateAll(final int minimumSubwords, final int limit){
 		final List<List<String>> matchedWords = new ArrayList<>(limit);
+		final Iterator<List<String>> itr = iterator(minimumSubwords);
+		while(matchedWords.size() < limit && itr.hasNext())
+			matchedWords.add(itr.next());
+		return matchedWords;
+	}
+
+	/**
+	 * @param minimumSubwords	The minimum number of compounds that forms the generated word
+	 * @return	A lazy iterator over the (possibly infinite) words that matches the given regex
+	 */
+	public Iterator<List<String>> iterator(final int minimumSubwords){
+		return new WordIterator(minimumSubwords);
+	}
+
+	@Override
+	public String toString(){
+		final StringBuilder sb = new StringBuilder();
+		for(int state = 0; state < flagIds.length; state ++){
+			sb.append(flags[flagIds[state]]);
+			if(operators[state] != ONE)
+				sb.append(operators[state]);
+		}
+		return new ToStringBuilder(this, ShortPrefixNotNullToStringStyle.SHORT_PREFIX_NOT_NULL_STYLE)
+			.append("rule", (sb.length() > 0? sb.toString(): StringUtils.EMPTY))
+			.toString();
+	}
+
+
+	private final class WordIterator implements Iterator<List<String>>{
+
+		private final int minimumSubwords;
+		/** The words already returned */
+		private final Set<List<String>> generated = new HashSet<>();
+
+		/** Number of repetitions of the starred flags of the words of the current pass */
+		private int repetitions;
+		/** An internal cache for the next word */
+		private List<String> nextElement;
+
+		/** The ids of the flags of the current word */
+		private int[] word = new int[EXPECTED_MAX_STATES];
+		/** The stack of the visit: state, repetitions still to be done, next choice, and size of the word, for each level */
+		private int[] stackStates = new int[EXPECTED_MAX_STATES];
+		private int[] stackRepetitions = new int[EXPECTED_MAX_STATES];
+		private int[] stackChoices = new int[EXPECTED_MAX_STATES];
+		private int[] stackWordSizes = new int[EXPECTED_MAX_STATES];
+		private int stackLimit;
+		private boolean exhausted;
+
 
-		final Queue<GeneratedElement> queue = new LinkedList<>();
-		queue.add(new GeneratedElement(new ArrayList<>(0), 0));
-		while(!queue.isEmpty()){
-			final GeneratedElement elem = queue.remove();
-			final List<String> subword = elem.word;
-			final int stateIndex = elem.stateIndex;
-
-			//final state not reached, add transitions
-			if(stateIndex < finalStateIndex){
-				final Iterable<Pair<Integer, String>> transitions = graph.adjacentVertices(stateIndex);
-				for(final Pair<Integer, String> transition : transitions){
-					final int key = transition.getKey();
-					final String value = transition.getValue();
-
-					List<String> nextWord = subword;
-					if(StringUtils.isNotBlank(value)){
-						nextWord = new ArrayList<>(subword);
-						nextWord.add(value);
+		WordIterator(final int minimumSubwords){
+			this.minimumSubwords = minimumSubwords;
+
+			push(0, 0, 0);
+		}
+
+		@Override
+		public boolean hasNext(){
+			if(nextElement == null)
+				nextElement = advance();
+
+			return (nextElement != null);
+		}
+
+		@Override
+		public List<String> next(){
+			if(!hasNext())
+				throw new NoSuchElementException();
+
+			final List<String> cache = nextElement;
+			nextElement = null;
+			return cache;
+		}
+
+		/** Advances to the next word not yet generated */
+		private List<String> advance(){
+			while(!exhausted){
+				if(stackLimit == 0){
+					//pass completed: start another one with one more repetition, if the automaton can loop at all
+					if(!canLoopFrom[0]){
+						exhausted = true;
+						break;
 					}
 
-					queue.add(new GeneratedElement(nextWord, key));
+					push(0, ++ repetitions, 0);
+				}
+
+				final int top = stackLimit - 1;
+				final int state = stackStates[top];
+				final int remainingRepetitions = stackRepetitions[top];
+				final int wordSize = stackWordSizes[top];
+				if(state == flagIds.length){
+					stackLimit --;
+
+					if(remainingRepetitions == 0 && wordSize >= minimumSubwords){
+						final List<String> subwords = new ArrayList<>(wordSize);
+						for(int i = 0; i < wordSize; i ++)
+							subwords.add(flags[word[i]]);
+						if(generated.add(subwords))
+							return subwords;
+					}
 				}
+				else if(remainingRepetitions > 0 && !canLoopFrom[state])
+					//the repetitions cannot be spent anymore
+					stackLimit --;
+				else
+					visit(top, state, remainingRepetitions, wordSize);
 			}
-			//if this is the accepting state add the generated word (skip empty generated word)
-			else if(subword.size() >= minimumSubwords){
-				matchedWords.add(subword);
+			return null;
+		}
 
-				if(matchedWords.size() == limit)
-					break;
+		private void visit(final int top, final int state, final int remainingRepetitions, final int wordSize){
+			final int choice = stackChoices[top] ++;
+			switch(operators[state]){
+				case ZERO_OR_MORE -> {
+					//consume (and loop), then skip
+					if(choice == 0 && remainingRepetitions > 0)
+						pushConsuming(state, state, remainingRepetitions - 1, wordSize);
+					else if(choice <= 1){
+						stackChoices[top] = 2;
+						push(state + 1, remainingRepetitions, wordSize);
+					}
+					else
+						stackLimit --;
+				}
+				case ZERO_OR_ONE -> {
+					//skip, then consume
+					if(choice == 0)
+						push(state + 1, remainingRepetitions, wordSize);
+					else if(choice == 1)
+						pushConsuming(state, state + 1, remainingRepetitions, wordSize);
+					else
+						stackLimit --;
+				}
+				default -> {
+					if(choice == 0)
+						pushConsuming(state, state + 1, remainingRepetitions, wordSize);
+					else
+						stackLimit --;
+				}
 			}
 		}
 
-		return matchedWords;
-	}
+		private void pushConsuming(final int state, final int nextState, final int remainingRepetitions, final int wordSize){
+			if(wordSize == word.length)
+				word = Arrays.copyOf(word, word.length + EXPECTED_MAX_STATES);
+			word[wordSize] = flagIds[state];
+
+			push(nextState, remainingRepetitions, wordSize + 1);
+		}
+
+		private void push(final int state, final int remainingRepetitions, final int wordSize){
+			if(stackLimit == stackStates.length){
+				final int newSize = stackStates.length + EXPECTED_MAX_STATES;
+				stackStates = Arrays.copyOf(stackStates, newSize);
+				stackRepetitions = Arrays.copyOf(stackRepetitions, newSize);
+				stackChoices = Arrays.copyOf(stackChoices, newSize);
+				stackWordSizes = Arrays.copyOf(stackWordSizes, newSize);
+			}
+			stackStates[stackLimit] = state;
+			stackRepetitions[stackLimit] = remainingRepetitions;
+			stackChoices[stackLimit] = 0;
+			stackWordSizes[stackLimit] = wordSize;
+			stackLimit ++;
+		}
 
-	@Override
-	public String toString(){
-		return new ToStringBuilder(this, ShortPrefixNotNullToStringStyle.SHORT_PREFIX_NOT_NULL_STYLE)
-			.append("graph", graph)
-			.append("finalStateIndex", finalStateIndex)
-			.toString();
 	}
 
 }
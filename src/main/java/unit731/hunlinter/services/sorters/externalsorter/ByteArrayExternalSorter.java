@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.services.sorters.externalsorter;
+
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+
+/**
+ * Collects byte sequences (possibly from many threads), sorts them in parallel, and returns them sorted and without duplicates.
+ * <p>
+ * Whenever the (estimated) memory occupied by the collected sequences exceeds the given budget, they are sorted, deduplicated,
+ * and spilled to a temporary file (a <i>run</i>); the runs are then merged (together with the sequences still in memory) with
+ * a k-way merge directly into the consumer.
+ */
+public class ByteArrayExternalSorter implements Closeable{
+
+	private static final int INITIAL_CAPACITY = 1024;
+	/** Estimated overhead of an array (header and length), plus the reference to it */
+	private static final int ARRAY_OVERHEAD = 24;
+	private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+
+	private final long memoryBudget;
+	private final Comparator<byte[]> comparator;
+
+	private byte[][] buffer = new byte[INITIAL_CAPACITY][];
+	private int limit;
+	/** Whether the sequences in memory are already sorted, and without duplicates */
+	private boolean sorted;
+	private long bufferMemory;
+	private long total;
+
+	private final List<File> runs = new ArrayList<>(0);
+
+
+	private static final class Run implements Closeable{
+
+		private final DataInputStream is;
+		private byte[] current;
+
+
+		Run(final File file) throws IOException{
+			is = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), IO_BUFFER_SIZE));
+			advance();
+		}
+
+		void advance() throws IOException{
+			try{
+				final int length = readVInt(is);
+				current = new byte[length];
+				is.readFully(current);
+			}
+			catch(final EOFException e){
+				current = null;
+			}
+		}
+
+		@Override
+		public void close() throws IOException{
+			is.close();
+		}
+
+	}
+
+
+	/**
+	 * @param memoryBudget	Amount of memory (in bytes) the collected sequences can occupy before being spilled to disk.
+	 * @param comparator	The comparator used to sort the sequences.
+	 */
+	public ByteArrayExternalSorter(final long memoryBudget, final Comparator<byte[]> comparator){
+		this.memoryBudget = memoryBudget;
+		this.comparator = comparator;
+	}
+
+	public void add(final byte[] sequence){
+		addAll(new byte[][]{sequence}, 1);
+	}
+
+	public void addAll(final byte[][] sequences){
+		addAll(sequences, sequences.length);
+	}
+
+	/**
+	 * Adds the given sequences, spilling a sorted run to disk if the memory budget is exceeded.
+	 *
+	 * @param sequences	The sequences to be added.
+	 * @param size	The number of sequences to be added.
+	 */
+	public void addAll(final byte[][] sequences, final int size){
+		byte[][] spill = null;
+		int spillSize = 0;
+		synchronized(this){
+			if(limit + size > buffer.length)
+				buffer = Arrays.copyOf(buffer, Math.max(limit + size, buffer.length + (buffer.length >> 1)));
+			System.arraycopy(sequences, 0, buffer, limit, size);
+			limit += size;
+			sorted = false;
+			total += size;
+			for(int i = 0; i < size; i ++)
+				bufferMemory += estimatedSizeOf(sequences[i]);
+
+			if(bufferMemory >= memoryBudget){
+				spill = buffer;
+				spillSize = limit;
+				buffer = new byte[INITIAL_CAPACITY][];
+				limit = 0;
+				bufferMemory = 0l;
+			}
+		}
+
+		//sort and write outside the lock, so other threads can keep adding
+		if(spill != null)
+			spill(spill, spillSize);
+	}
+
+	private static long estimatedSizeOf(final byte[] sequence){
+		return ARRAY_OVERHEAD + ((sequence.length + 7) & ~7);
+	}
+
+	private void spill(final byte[][] sequences, final int size){
+		try{
+			final int uniqueSize = sortUnique(sequences, size);
+
+			final File run = FileHelper.createDeleteOnExitFile("hunlinter-sort-run", ".dat");
+			try(final DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run.toPath()),
+					IO_BUFFER_SIZE))){
+				for(int i = 0; i < uniqueSize; i ++){
+					writeVInt(os, sequences[i].length);
+					os.write(sequences[i]);
+					//release memory
+					sequences[i] = null;
+				}
+			}
+
+			synchronized(runs){
+				runs.add(run);
+			}
+		}
+		catch(final IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Sorts the given sequences in parallel, moving the unique ones at the beginning of the array.
+	 *
+	 * @return	The number of unique sequences.
+	 */
+	private int sortUnique(final byte[][] sequences, final int size){
+		Arrays.parallelSort(sequences, 0, size, comparator);
+
+		int uniqueSize = 0;
+		for(int i = 0; i < size; i ++)
+			if(uniqueSize == 0 || comparator.compare(sequences[uniqueSize - 1], sequences[i]) != 0)
+				sequences[uniqueSize ++] = sequences[i];
+		Arrays.fill(sequences, uniqueSize, size, null);
+		return uniqueSize;
+	}
+
+	/**
+	 * @return	The number of sequences added so far (duplicates included).
+	 */
+	public synchronized long size(){
+		return total;
+	}
+
+	/** Sorts the sequences still in memory (if not already sorted). */
+	public synchronized void sort(){
+		if(!sorted){
+			limit = sortUnique(buffer, limit);
+			sorted = true;
+		}
+	}
+
+	/**
+	 * Feeds each unique sequence, in sorted order, to the given consumer (memory of the sequences held in memory is released
+	 * along the way).
+	 *
+	 * @param consumer	The consumer of the sorted sequences.
+	 * @param progressCallback	Called with the progress percentage, optional.
+	 * @throws IOException	If a run cannot be read.
+	 */
+	public synchronized void forEachSorted(final Consumer<byte[]> consumer, final Consumer<Integer> progressCallback)
+			throws IOException{
+		sort();
+
+		final PriorityQueue<Run> queue = new PriorityQueue<>(runs.size() + 1,
+			(run1, run2) -> comparator.compare(run1.current, run2.current));
+		try{
+			for(final File run : runs){
+				final Run r = new Run(run);
+				if(r.current != null)
+					queue.add(r);
+				else
+					r.close();
+			}
+
+			int progress = 0;
+			int progressIndex = 0;
+			final long progressStep = Math.max((long)Math.ceil(total / 100.), 1l);
+			int index = 0;
+			byte[] previous = null;
+			while(index < limit || !queue.isEmpty()){
+				final byte[] sequence;
+				final Run run = queue.peek();
+				if(run != null && (index == limit || comparator.compare(run.current, buffer[index]) < 0)){
+					sequence = run.current;
+
+					queue.poll();
+					run.advance();
+					if(run.current != null)
+						queue.add(run);
+					else
+						run.close();
+				}
+				else{
+					sequence = buffer[index];
+					//release memory
+					buffer[index ++] = null;
+				}
+
+				if(previous == null || comparator.compare(previous, sequence) != 0)
+					consumer.accept(sequence);
+				previous = sequence;
+
+				if(progressCallback != null && ++ progress % progressStep == 0)
+					progressCallback.accept(Math.min(++ progressIndex, 100));
+			}
+		}
+		finally{
+			for(final Run run : queue)
+				run.close();
+		}
+
+		limit = 0;
+	}
+
+	@Override
+	public synchronized void close(){
+		buffer = new byte[0][];
+		limit = 0;
+		for(final File run : runs)
+			run.delete();
+		runs.clear();
+	}
+
+
+	private static void writeVInt(final DataOutputStream os, int value) throws IOException{
+		while((value & ~0x7F) != 0){
+			os.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		os.writeByte(value);
+	}
+
+	private static int readVInt(final DataInputStream is) throws IOException{
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do{
+			b = is.readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		}while((b & 0x80) != 0);
+		return value;
+	}
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.services.system;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * Sequential line reader that reads the file (possibly gzipped) exactly once through a large byte buffer, decoding only the
+ * bytes of each line.
+ * <p>
+ * Lines are terminated by <code>\n</code>, <code>\r\n</code>, or <code>\r</code> (as {@link java.util.Scanner} does); a
+ * leading UTF-8 BOM is skipped.
+ * The {@link #position() position} (in bytes) of the reader can be compared with the {@link #size() size} of the content to
+ * report progress.
+ * <p>
+ * NOTE: the charset must encode the line feed and the carriage return as the single bytes <code>0x0A</code> and
+ * <code>0x0D</code> (as all the charsets admitted by Hunspell do).
+ */
+public final class BufferedLineReader implements Closeable{
+
+	private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final byte[] UTF8_BOM = {(byte)0xEF, (byte)0xBB, (byte)0xBF};
+
+
+	private final InputStream is;
+	private final Charset charset;
+	private final long size;
+
+	private byte[] buffer;
+	private int start;
+	private int limit;
+	private boolean eof;
+	private long position;
+
+
+	public BufferedLineReader(final Path path, final Charset charset) throws IOException{
+		this(path, charset, DEFAULT_BUFFER_SIZE);
+	}
+
+	public BufferedLineReader(final Path path, final Charset charset, final int bufferSize) throws IOException{
+		this.charset = charset;
+
+		final boolean gzipped = FileHelper.isGZipped(path.toFile());
+		size = FileHelper.getFileSize(path.toFile());
+		final InputStream stream = Files.newInputStream(path);
+		is = (gzipped? new GZIPInputStream(stream, GZIP_BUFFER_SIZE): stream);
+
+		buffer = new byte[Math.max(bufferSize, UTF8_BOM.length)];
+		fill();
+		if(startsWithBOM()){
+			start = UTF8_BOM.length;
+			position = UTF8_BOM.length;
+		}
+	}
+
+	private boolean startsWithBOM(){
+		if(limit < UTF8_BOM.length)
+			return false;
+
+		for(int i = 0; i < UTF8_BOM.length; i ++)
+			if(buffer[i] != UTF8_BOM[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return	The next line (without the line terminator), or <code>null</code> if the end of the content has been reached.
+	 * @throws IOException	If an I/O error occurs.
+	 */
+	public String readLine() throws IOException{
+		int searchFrom = start;
+		while(true){
+			final int end = indexOfLineTerminator(buffer, searchFrom, limit);
+			if(end >= 0 && buffer[end] == LINE_FEED)
+				return consumeLine(end, end + 1);
+			if(end >= 0 && end + 1 < limit)
+				return consumeLine(end, (buffer[end + 1] == LINE_FEED? end + 2: end + 1));
+			if(eof)
+				return (end >= 0? consumeLine(end, end + 1): (start < limit? consumeLine(limit, limit): null));
+
+			//the byte following a carriage return is not yet read
+			searchFrom = (end >= 0? end: limit) - start;
+			fill();
+		}
+	}
+
+	private String consumeLine(final int end, final int next){
+		final String line = new String(buffer, start, end - start, charset);
+		position += next - start;
+		start = next;
+		return line;
+	}
+
+	/** Moves the partial line at the beginning of the buffer (growing it if the line fills it entirely), then refills it */
+	private void fill() throws IOException{
+		if(start > 0){
+			System.arraycopy(buffer, start, buffer, 0, limit - start);
+			limit -= start;
+			start = 0;
+		}
+		else if(limit == buffer.length)
+			buffer = Arrays.copyOf(buffer, buffer.length << 1);
+
+		limit += is.readNBytes(buffer, limit, buffer.length - limit);
+		eof = (limit < buffer.length);
+	}
+
+	private static int indexOfLineTerminator(final byte[] array, final int from, final int limit){
+		for(int i = from; i < limit; i ++)
+			if(array[i] == LINE_FEED || array[i] == CARRIAGE_RETURN)
+				return i;
+		return -1;
+	}
+
+	/** @return	The number of bytes of the content consumed so far. */
+	public long position(){
+		return position;
+	}
+
+	/** @return	The size in bytes of the (uncompressed) content. */
+	public long size(){
+		return size;
+	}
+
+	@Override
+	public void close() throws IOException{
+		is.close();
+	}
+
+}
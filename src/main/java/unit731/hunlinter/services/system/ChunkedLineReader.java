@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.services.system;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * Reads a file in chunks of bytes aligned on line boundaries, decoding and processing each chunk on a worker thread.
+ * <p>
+ * Only a bounded number of chunks is kept in memory at any time, so the peak memory does not depend on the size of the file.
+ * <p>
+ * Lines are terminated by <code>\n</code>, <code>\r\n</code>, or <code>\r</code>, as in {@link BufferedLineReader}.
+ * <p>
+ * NOTE: the charset must encode the line feed and the carriage return as the single bytes <code>0x0A</code> and
+ * <code>0x0D</code> (as all the charsets admitted by Hunspell do).
+ */
+public final class ChunkedLineReader{
+
+	private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final byte[] UTF8_BOM = {(byte)0xEF, (byte)0xBB, (byte)0xBF};
+
+
+	private ChunkedLineReader(){}
+
+	/**
+	 * Process each line of the given file in parallel.
+	 * <p>
+	 * If the calling thread is interrupted the chunks not yet processed are skipped, and the method returns (throwing an
+	 * {@link IOException} caused by an {@link InterruptedException}) only after the chunks already in progress are completed.
+	 *
+	 * @param path	The file to be read (possibly gzipped).
+	 * @param charset	The charset of the file.
+	 * @param lineProcessor	The consumer of each line, called with the (0-based) index of the line inside the file.
+	 * @param progressCallback	Called with the percentage of the (uncompressed) file processed so far each time it increases,
+	 * 	optional.
+	 * @throws IOException	If an I/O error occurs, or a chunk cannot be decoded.
+	 */
+	public static void forEachLine(final Path path, final Charset charset, final BiConsumer<Integer, String> lineProcessor,
+			final IntConsumer progressCallback) throws IOException{
+		forEachLine(path, charset, DEFAULT_CHUNK_SIZE, lineProcessor, progressCallback);
+	}
+
+	public static void forEachLine(final Path path, final Charset charset, final int chunkSize,
+			final BiConsumer<Integer, String> lineProcessor, final IntConsumer progressCallback) throws IOException{
+		final ExecutorService executor = ForkJoinPool.commonPool();
+		final int maxChunksInFlight = Math.max(ForkJoinPool.getCommonPoolParallelism(), 1) << 1;
+		final Semaphore chunksInFlight = new Semaphore(maxChunksInFlight);
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		final AtomicLong bytesProcessed = new AtomicLong();
+		final AtomicInteger progress = new AtomicInteger();
+		//the size of the uncompressed content, against which the progress is computed
+		final long fileSize = Math.max(FileHelper.getFileSize(path.toFile()), 1l);
+
+		try(final InputStream is = openStream(path)){
+			byte[] buffer = new byte[chunkSize];
+			int filled = 0;
+			int lineIndex = 0;
+			boolean firstChunk = true;
+			boolean eof = false;
+			while(!eof && failure.get() == null){
+				if(Thread.currentThread().isInterrupted())
+					throw new InterruptedException();
+
+				final int read = is.readNBytes(buffer, filled, buffer.length - filled);
+				filled += read;
+				eof = (filled < buffer.length);
+				if(filled == 0)
+					break;
+
+				final int end = (eof? filled: lastIndexOf(buffer, LINE_FEED, filled) + 1);
+				if(end == 0){
+					//a single line does not fit into the buffer
+					final byte[] grown = new byte[buffer.length << 1];
+					System.arraycopy(buffer, 0, grown, 0, filled);
+					buffer = grown;
+					continue;
+				}
+
+				final byte[] chunk = buffer;
+				final int chunkStart = (firstChunk && StandardCharsets.UTF_8.equals(charset) && startsWith(chunk, end, UTF8_BOM)?
+					UTF8_BOM.length: 0);
+				final int chunkFirstLineIndex = lineIndex;
+				lineIndex += countLineTerminators(chunk, end);
+				firstChunk = false;
+
+				//carry the partial last line into the next buffer
+				buffer = new byte[buffer.length];
+				System.arraycopy(chunk, end, buffer, 0, filled - end);
+				filled -= end;
+
+				chunksInFlight.acquire();
+				executor.execute(() -> {
+					try{
+						if(failure.get() == null && !cancelled.get())
+							processChunk(chunk, chunkStart, end, chunkFirstLineIndex, charset, lineProcessor, cancelled);
+					}
+					catch(final Throwable t){
+						failure.compareAndSet(null, t);
+					}
+					finally{
+						final long processed = bytesProcessed.addAndGet(end);
+						chunksInFlight.release();
+
+						//the size read from a gzip trailer is modulo 2^32
+						final int percent = (int)Math.min(processed * 100 / fileSize, 100l);
+						if(progressCallback != null && progress.getAndAccumulate(percent, Math::max) < percent)
+							progressCallback.accept(percent);
+					}
+				});
+			}
+		}
+		catch(final InterruptedException e){
+			cancelled.set(true);
+			Thread.currentThread().interrupt();
+			failure.compareAndSet(null, new IOException(e));
+		}
+		catch(final ClosedByInterruptException e){
+			cancelled.set(true);
+			final InterruptedException ie = new InterruptedException();
+			ie.initCause(e);
+			failure.compareAndSet(null, new IOException(ie));
+		}
+		catch(final IOException | RuntimeException e){
+			cancelled.set(true);
+			failure.compareAndSet(null, e);
+		}
+		finally{
+			//wait for the chunks in progress to be completed, so that no line is processed after returning
+			chunksInFlight.acquireUninterruptibly(maxChunksInFlight);
+		}
+
+		rethrow(failure.get());
+	}
+
+	private static InputStream openStream(final Path path) throws IOException{
+		final InputStream is = Files.newInputStream(path);
+		return (FileHelper.isGZipped(path.toFile())? new GZIPInputStream(is): is);
+	}
+
+	private static void processChunk(final byte[] chunk, final int start, final int end, int lineIndex, final Charset charset,
+			final BiConsumer<Integer, String> lineProcessor, final AtomicBoolean cancelled) throws IOException{
+		final CharBuffer chars = charset.newDecoder()
+			.decode(ByteBuffer.wrap(chunk, start, end - start));
+
+		final int length = chars.limit();
+		int lineStart = 0;
+		for(int i = 0; i < length && !cancelled.get(); i ++){
+			final char chr = chars.get(i);
+			if(chr == LINE_FEED || chr == CARRIAGE_RETURN){
+				lineProcessor.accept(lineIndex ++, chars.subSequence(lineStart, i).toString());
+				if(chr == CARRIAGE_RETURN && i + 1 < length && chars.get(i + 1) == LINE_FEED)
+					i ++;
+				lineStart = i + 1;
+			}
+		}
+		if(lineStart < length && !cancelled.get())
+			lineProcessor.accept(lineIndex, chars.subSequence(lineStart, length).toString());
+	}
+
+	private static int lastIndexOf(final byte[] array, final byte value, final int limit){
+		for(int i = limit - 1; i >= 0; i --)
+			if(array[i] == value)
+				return i;
+		return -1;
+	}
+
+	/** Counts <code>\n</code>, <code>\r\n</code> (once), and <code>\r</code> */
+	private static int countLineTerminators(final byte[] array, final int limit){
+		int count = 0;
+		for(int i = 0; i < limit; i ++)
+			if(array[i] == LINE_FEED || array[i] == CARRIAGE_RETURN && (i + 1 == limit || array[i + 1] != LINE_FEED))
+				count ++;
+		return count;
+	}
+
+	private static boolean startsWith(final byte[] array, final int limit, final byte[] prefix){
+		if(limit < prefix.length)
+			return false;
+
+		for(int i = 0; i < prefix.length; i ++)
+			if(array[i] != prefix[i])
+				return false;
+		return true;
+	}
+
+	private static void rethrow(final Throwable t) throws IOException{
+		if(t instanceof IOException)
+			throw (IOException)t;
+		if(t instanceof RuntimeException)
+			throw (RuntimeException)t;
+		if(t instanceof Error)
+			throw (Error)t;
+		if(t != null)
+			throw new RuntimeException(t);
+	}
+
+}
@@ -32,6 +32,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 public class Debouncer<T>{
@@ -39,13 +40,24 @@ public class Debouncer<T>{
 	private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(1);
 	private final ConcurrentHashMap<T, TimerTask> delayedMap = new ConcurrentHashMap<>();
 
-	private final Runnable callback;
+	private final Consumer<T> callback;
 	private final int interval;
 
 
 	public Debouncer(final Runnable callback, final int interval){
 		Objects.requireNonNull(callback);
 
+		this.callback = key -> callback.run();
+		this.interval = interval;
+	}
+
+	/**
+	 * @param callback	Called with the key once no other call with the same key happened for the given interval.
+	 * @param interval	The quiet interval, in milliseconds.
+	 */
+	public Debouncer(final Consumer<T> callback, final int interval){
+		Objects.requireNonNull(callback);
+
 		this.callback = callback;
 		this.interval = interval;
 	}
@@ -102,7 +114,7 @@ public class Debouncer<T>{
 				else{
 					dueTime = -1;
 					try{
-						callback.run();
+						callback.accept(key);
 					}
 					finally{
 						delayedMap.remove(key);
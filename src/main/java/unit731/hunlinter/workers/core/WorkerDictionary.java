@@ -26,6 +26,7 @@ package unit731.hunlinter.workers.core;
 
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.services.ParserHelper;
+import unit731.hunlinter.services.system.ChunkedLineReader;
 import unit731.hunlinter.services.system.FileHelper;
 import unit731.hunlinter.services.system.JavaHelper;
 import unit731.hunlinter.services.text.StringHelper;
@@ -35,10 +36,7 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
@@ -58,13 +56,8 @@ public class WorkerDictionary extends WorkerAbstract<WorkerDataParser<Dictionary
 		Objects.requireNonNull(dataProcessor, "Data processor cannot be null");
 
 		try{
-			if(workerData.isParallelProcessing()){
-				//load dictionary
-				final List<IndexDataPair<String>> entries = loadFile(path, charset);
-
-				//process dictionary
-				processLinesParallel(entries, dataProcessor);
-			}
+			if(workerData.isParallelProcessing())
+				processLinesParallel(path, charset, dataProcessor);
 			else
 				processLinesSequential(path, charset, dataProcessor);
 		}
@@ -77,28 +70,28 @@ public class WorkerDictionary extends WorkerAbstract<WorkerDataParser<Dictionary
 	}
 
 
-	private List<IndexDataPair<String>> loadFile(final Path path, final Charset charset) throws IOException{
-		//read entire file in memory
-		final List<String> lines = Files.readAllLines(path, charset);
-		if(!workerData.isNoHeader())
-			ParserHelper.assertLinesCount(lines);
-
-		final List<IndexDataPair<String>> entries = new ArrayList<>(lines.size());
-		for(int lineIndex = (workerData.isNoHeader()? 0: 1); lineIndex < lines.size(); lineIndex ++){
-			final String line = lines.get(lineIndex);
-			if(ParserHelper.isComment(line, ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH))
-				continue;
-
-			entries.add(IndexDataPair.of(lineIndex, line));
-		}
-		return entries;
+	private void processLinesParallel(final Path path, final Charset charset,
+			final Consumer<IndexDataPair<String>> dataProcessor) throws IOException{
+		final boolean hasHeader = !workerData.isNoHeader();
+		if(hasHeader)
+			assertLinesCount(path, charset);
+
+		final Consumer<IndexDataPair<String>> innerProcessor = createInnerProcessor(dataProcessor);
+		//stream the file in chunks aligned on line boundaries, each chunk is decoded and processed on a worker thread
+		ChunkedLineReader.forEachLine(path, charset,
+			(lineIndex, line) -> {
+				if((lineIndex > 0 || !hasHeader)
+						&& !ParserHelper.isComment(line, ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH))
+					innerProcessor.accept(IndexDataPair.of(lineIndex, line));
+			},
+			this::setProgress);
 	}
 
-	private void processLinesParallel(final Collection<IndexDataPair<String>> entries,
-			final Consumer<IndexDataPair<String>> dataProcessor){
-		final Consumer<IndexDataPair<String>> innerProcessor = createInnerProcessorByLines(dataProcessor, entries.size());
-		entries.parallelStream()
-			.forEach(innerProcessor);
+	private void assertLinesCount(final Path path, final Charset charset) throws IOException{
+		try(final Scanner scanner = FileHelper.createScanner(path, charset)){
+			ParserHelper.assertNotEOF(scanner);
+			ParserHelper.assertLinesCount(scanner);
+		}
 	}
 
 	private void processLinesSequential(final Path path, final Charset charset,
@@ -155,6 +148,23 @@ public class WorkerDictionary extends WorkerAbstract<WorkerDataParser<Dictionary
 		}
 	}
 
+	private Consumer<IndexDataPair<String>> createInnerProcessor(final Consumer<IndexDataPair<String>> dataProcessor){
+		return data -> {
+			try{
+				dataProcessor.accept(data);
+
+				sleepOnPause();
+			}
+			catch(final Exception e){
+				final LinterException le = new LinterException(e.getMessage(), e.getCause(), data);
+				manageException(le);
+
+				if(workerData.isCancelOnException())
+					throw le;
+			}
+		};
+	}
+
 	private Consumer<IndexDataPair<String>> createInnerProcessorByLines(final Consumer<IndexDataPair<String>> dataProcessor,
 			final long totalEntries){
 		final AtomicInteger progress = new AtomicInteger(1);
@@ -26,29 +26,48 @@ package unit731.hunlinter.workers.core;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.SAXException;
 import unit731.hunlinter.parsers.ParserManager;
 import unit731.hunlinter.services.Packager;
 import unit731.hunlinter.services.log.ExceptionHelper;
 import unit731.hunlinter.services.system.JavaHelper;
+import unit731.hunlinter.services.system.TimeWatch;
 import unit731.hunlinter.workers.exceptions.ProjectNotFoundException;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
+/**
+ * Loads all the files of a project.
+ * <p>
+ * The loading is modelled as a graph of stages: each stage runs as soon as the stages it depends on are completed, so
+ * independent files are parsed concurrently (only the affix file is a prerequisite for most of the others).
+ */
 public class WorkerProject extends WorkerAbstract<WorkerDataProject>{
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(WorkerProject.class);
 
+	private static final int STAGES = 9;
+	/** the most stages that can run at the same time (all but the affix file and the correctness checker) */
+	private static final int MAX_CONCURRENT_STAGES = STAGES - 2;
+
 	@FunctionalInterface
 	interface StageFunction{
-		void execute() throws IOException, SAXException;
+		void execute() throws IOException, XMLStreamException;
 	}
 
 
+	private final AtomicInteger completedStages = new AtomicInteger();
+
+
 	protected WorkerProject(final WorkerDataProject workerData){
 		super(workerData);
 	}
@@ -58,23 +77,31 @@ public class WorkerProject extends WorkerAbstract<WorkerDataProject>{
 		prepareProcessing("Opening project");
 
 		final Packager packager = workerData.getPackager();
+		final ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_STAGES);
 		try{
 			final ParserManager parserManager = workerData.getParserManager();
-			final List<StageFunction> stages = Arrays.asList(
-				() -> parserManager.openAffixFile(packager.getAffixFile()),
-				() -> parserManager.openHyphenationFile(packager.getHyphenationFile()),
-				parserManager::getCorrectnessChecker,
-				() -> parserManager.prepareDictionaryFile(packager.getDictionaryFile()),
-				() -> parserManager.openAidFile(parserManager.getAidFile()),
-				() -> parserManager.openThesaurusFile(packager.getThesaurusDataFile()),
-				() -> parserManager.openAutoCorrectFile(packager.getAutoCorrectFile()),
-				() -> parserManager.openSentenceExceptionsFile(packager.getSentenceExceptionsFile()),
-				() -> parserManager.openWordExceptionsFile(packager.getWordExceptionsFile()));
-			for(int index = 0; index < stages.size(); index ++){
-				stages.get(index).execute();
-				setProgress(Math.min((int)Math.ceil((index + 1) * 100 / stages.size()), 100));
-
-				sleepOnPause();
+			final CompletableFuture<Void> affix = stage("affix", () -> parserManager.openAffixFile(packager.getAffixFile()),
+				executor);
+			final CompletableFuture<Void> hyphenation = stage("hyphenation",
+				() -> parserManager.openHyphenationFile(packager.getHyphenationFile()), executor, affix);
+			final CompletableFuture<Void> loading = CompletableFuture.allOf(
+				affix,
+				hyphenation,
+				stage("correctness checker", parserManager::getCorrectnessChecker, executor, hyphenation),
+				stage("dictionary", () -> parserManager.prepareDictionaryFile(packager.getDictionaryFile()), executor, affix),
+				stage("aid", () -> parserManager.openAidFile(parserManager.getAidFile()), executor, affix),
+				stage("thesaurus", () -> parserManager.openThesaurusFile(packager.getThesaurusDataFile()), executor),
+				stage("auto-correct", () -> parserManager.openAutoCorrectFile(packager.getAutoCorrectFile()), executor),
+				stage("sentence exceptions",
+					() -> parserManager.openSentenceExceptionsFile(packager.getSentenceExceptionsFile()), executor, affix),
+				stage("word exceptions", () -> parserManager.openWordExceptionsFile(packager.getWordExceptionsFile()),
+					executor, affix));
+			try{
+				loading.get();
+			}
+			catch(final ExecutionException e){
+				final Throwable cause = (e.getCause() instanceof CompletionException? e.getCause().getCause(): e.getCause());
+				throw (cause instanceof Exception? (Exception)cause: e);
 			}
 
 			finalizeProcessing("Project loaded successfully");
@@ -87,8 +114,39 @@ public class WorkerProject extends WorkerAbstract<WorkerDataProject>{
 
 			cancel(e instanceof FileNotFoundException? new ProjectNotFoundException(packager.getProjectPath(), e): e);
 		}
+		finally{
+			executor.shutdownNow();
+		}
 
 		return null;
 	}
 
+	/**
+	 * @param name	The name of the stage, used to report its timing.
+	 * @param function	The function that loads a file.
+	 * @param executor	The executor the stage runs on.
+	 * @param dependencies	The stages that must be completed before this one starts.
+	 * @return	The stage, failed if the function or any of its dependencies failed.
+	 */
+	private CompletableFuture<Void> stage(final String name, final StageFunction function, final Executor executor,
+			final CompletableFuture<?>... dependencies){
+		return CompletableFuture.allOf(dependencies)
+			.thenRunAsync(() -> {
+				sleepOnPause();
+
+				final TimeWatch watch = TimeWatch.start();
+				try{
+					function.execute();
+				}
+				catch(final IOException | XMLStreamException e){
+					throw new CompletionException(e);
+				}
+				watch.stop();
+
+				LOGGER.info("Stage {} completed in {}", name, watch.toStringMillis());
+
+				setProgress(completedStages.incrementAndGet(), STAGES);
+			}, executor);
+	}
+
 }
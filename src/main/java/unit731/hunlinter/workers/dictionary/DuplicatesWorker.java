@@ -27,9 +27,9 @@ package unit731.hunlinter.workers.dictionary;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import unit731.hunlinter.datastructures.bloomfilter.BloomFilterInterface;
-import unit731.hunlinter.datastructures.bloomfilter.BloomFilterParameters;
-import unit731.hunlinter.datastructures.bloomfilter.ScalableInMemoryBloomFilter;
+import unit731.hunlinter.datastructures.bloomfilter.hash.HashFunction;
+import unit731.hunlinter.datastructures.bloomfilter.hash.Murmur3HashFunction;
+import unit731.hunlinter.datastructures.fsa.builders.LexicographicalComparator;
 import unit731.hunlinter.languages.BaseBuilder;
 import unit731.hunlinter.parsers.ParserManager;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
@@ -37,73 +37,53 @@ import unit731.hunlinter.parsers.dictionary.Duplicate;
 import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
-import unit731.hunlinter.services.ParserHelper;
+import unit731.hunlinter.services.sorters.externalsorter.ByteArrayExternalSorter;
+import unit731.hunlinter.services.system.JavaHelper;
 import unit731.hunlinter.workers.WorkerManager;
+import unit731.hunlinter.workers.core.IndexDataPair;
 import unit731.hunlinter.workers.core.WorkerDataParser;
 import unit731.hunlinter.workers.core.WorkerDictionary;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
-import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 
+/**
+ * Finds the inflections generated more than once (with the same Part-of-Speech and stem).
+ * <p>
+ * Each dictionary line is expanded only once. Every inflection becomes a compact record (hash of the inflection, the
+ * inflection itself, line index, and what is needed to report it). The records are sorted externally, so memory stays
+ * bounded, and a single pass over the sorted records finds the exact duplicates.
+ */
 public class DuplicatesWorker extends WorkerDictionary{
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(DuplicatesWorker.class);
 
-
-	private static class DuplicatesDictionaryBaseData extends BloomFilterParameters{
-
-		private static class SingletonHelper{
-			private static final DuplicatesDictionaryBaseData INSTANCE = new DuplicatesDictionaryBaseData();
-		}
-
-
-		public static DuplicatesDictionaryBaseData getInstance(){
-			return SingletonHelper.INSTANCE;
-		}
-
-		protected DuplicatesDictionaryBaseData(){}
-
-		@Override
-		public int getExpectedNumberOfElements(){
-			return 1_000_000;
-		}
-
-		@Override
-		public double getFalsePositiveProbability(){
-			return 0.000_000_4;
-		}
-
-		@Override
-		public double getGrowRatioWhenFull(){
-			return 1.3;
-		}
-
-	}
-
 	public static final String WORKER_NAME = "Duplicates extraction";
 
+	private static final HashFunction HASHER = new Murmur3HashFunction();
+	private static final byte FIELD_SEPARATOR = 0;
+	private static final int HASH_BYTES = Long.BYTES;
+
 
 	private final DictionaryParser dicParser;
 	private final WordGenerator wordGenerator;
 
 	private final Comparator<String> comparator;
-	private final BloomFilterParameters dictionaryBaseData;
 
 
 	public DuplicatesWorker(final ParserManager parserManager, final File outputFile){
@@ -127,15 +107,14 @@ public class DuplicatesWorker extends WorkerDictionary{
 		this.wordGenerator = wordGenerator;
 
 		comparator = BaseBuilder.getComparator(language);
-		dictionaryBaseData = BaseBuilder.getDictionaryBaseData(language);
 
-		final Function<Void, BloomFilterInterface<String>> step1 = ignored -> {
+		final Function<Void, ByteArrayExternalSorter> step1 = ignored -> {
 			prepareProcessing("Reading dictionary file (step 1/3)");
 
-			return collectDuplicates();
+			return collectInflections();
 		};
-		final Function<BloomFilterInterface<String>, List<Duplicate>> step2 = this::extractDuplicates;
-		final Function<List<Duplicate>, File> step3 = duplicates -> {
+		final Function<ByteArrayExternalSorter, List<List<Duplicate>>> step2 = this::extractDuplicates;
+		final Function<List<List<Duplicate>>, File> step3 = duplicates -> {
 			writeDuplicates(outputFile, duplicates);
 
 			finalizeProcessing("Duplicates extracted successfully");
@@ -146,120 +125,183 @@ public class DuplicatesWorker extends WorkerDictionary{
 		setProcessor(step1.andThen(step2).andThen(step3).andThen(step4));
 	}
 
-	private BloomFilterInterface<String> collectDuplicates(){
+	ByteArrayExternalSorter collectInflections(){
 		final File dicFile = dicParser.getDicFile();
 		final Charset charset = dicParser.getCharset();
 
-		final BloomFilterInterface<String> bloomFilter = new ScalableInMemoryBloomFilter<>(charset, dictionaryBaseData);
-		final BloomFilterInterface<String> duplicatesBloomFilter = new ScalableInMemoryBloomFilter<>(charset,
-			DuplicatesDictionaryBaseData.getInstance());
-
-		final BiConsumer<Integer, String> fun = (lineIndex, line) -> {
+		//records that don't fit into a quarter of the available memory are sorted and spilled to disk
+		final ByteArrayExternalSorter records = new ByteArrayExternalSorter(JavaHelper.estimateAvailableMemory() / 4,
+			LexicographicalComparator.lexicographicalComparator());
+		final Consumer<IndexDataPair<String>> lineProcessor = indexData -> {
+			//the reported index counts the lines after the header (the first entry is 0)
+			final int lineIndex = indexData.getIndex() - 1;
+			final String line = indexData.getData();
 			try{
 				final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
 				final Inflection[] inflections = wordGenerator.applyAffixRules(dicEntry);
 
-				for(final Inflection inflection : inflections){
-					final String str = inflection.toStringWithPartOfSpeechAndStem();
-					if(!bloomFilter.add(str))
-						duplicatesBloomFilter.add(str);
-				}
+				final String word = inflections[WordGenerator.BASE_INFLECTION_INDEX].getWord();
+				final byte[][] lineRecords = new byte[inflections.length][];
+				for(int i = 0; i < inflections.length; i ++)
+					lineRecords[i] = createRecord(inflections[i], word, lineIndex, i);
+				records.addAll(lineRecords);
 			}
 			catch(final LinterException e){
 				LOGGER.info(ParserManager.MARKER_APPLICATION, "{}, line {}: {}", e.getMessage(), lineIndex, line);
 			}
 		};
-		final Consumer<Integer> progressCallback = lineIndex -> {
-			setProgress(Math.min(lineIndex, 100));
+		processLines(dicFile.toPath(), charset, lineProcessor);
 
-			sleepOnPause();
-		};
-		ParserHelper.forEachLine(dicFile, charset, fun, progressCallback,
-			ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH);
+		LOGGER.info(ParserManager.MARKER_APPLICATION, "Total inflections: {}",
+			DictionaryParser.COUNTER_FORMATTER.format(records.size()));
+
+		return records;
+	}
 
-		bloomFilter.close();
-		final int totalInflections = bloomFilter.getAddedElements();
-		final double falsePositiveProbability = bloomFilter.getTrueFalsePositiveProbability();
-		bloomFilter.clear();
+	private List<List<Duplicate>> extractDuplicates(final ByteArrayExternalSorter records){
+		resetProcessing("Extracting duplicates (step 2/3)");
 
-		duplicatesBloomFilter.close();
+		final List<List<Duplicate>> result;
+		try(records){
+			result = groupDuplicates(records, this::sleepOnPause, percent -> setProgress(percent, 100));
+		}
+		catch(final IOException e){
+			throw new RuntimeException(e);
+		}
 
-		final int falsePositiveCount = (int)Math.ceil(totalInflections * falsePositiveProbability);
-		LOGGER.info(ParserManager.MARKER_APPLICATION, "Total inflections: {}", DictionaryParser.COUNTER_FORMATTER.format(totalInflections));
-		LOGGER.info(ParserManager.MARKER_APPLICATION, "False positive probability is {} (overall duplicates ≲ {})",
-			DictionaryParser.PERCENT_FORMATTER.format(falsePositiveProbability), falsePositiveCount);
+		if(result.isEmpty())
+			LOGGER.info(ParserManager.MARKER_APPLICATION, "No duplicates found, skip remaining steps");
+		else{
+			LOGGER.info(ParserManager.MARKER_APPLICATION, "Total duplicates: {}",
+				DictionaryParser.COUNTER_FORMATTER.format(result.stream().mapToInt(List::size).sum()));
 
-		return duplicatesBloomFilter;
+			result.sort(Comparator.<List<Duplicate>>comparingInt(List::size).reversed()
+				.thenComparing(list -> list.get(0).getInflectedWord(), comparator));
+		}
+		return result;
 	}
 
-	private List<Duplicate> extractDuplicates(final BloomFilterInterface<String> duplicatesBloomFilter){
-		final ArrayList<Duplicate> result = new ArrayList<>();
-
-		if(duplicatesBloomFilter.getAddedElements() > 0){
-			resetProcessing("Extracting duplicates (step 2/3)");
-
-			final Charset charset = dicParser.getCharset();
-			final File dicFile = dicParser.getDicFile();
-			final BiConsumer<Integer, String> fun = (lineIndex, line) -> {
-				try{
-					final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
-					final Inflection[] inflections = wordGenerator.applyAffixRules(dicEntry);
-
-					final String word = inflections[WordGenerator.BASE_INFLECTION_INDEX].getWord();
-					result.ensureCapacity(result.size() + inflections.length);
-					for(final Inflection inflection : inflections){
-						final String text = inflection.toStringWithPartOfSpeechAndStem();
-						if(duplicatesBloomFilter.contains(text))
-							result.add(new Duplicate(inflection, word, lineIndex));
-					}
-				}
-				catch(final LinterException e){
-					LOGGER.info(ParserManager.MARKER_APPLICATION, "{}, line {}: {}", e.getMessage(), lineIndex, line);
+	/**
+	 * Groups the records of the same inflection.
+	 *
+	 * @param records	The records created by {@link #createRecord(Inflection, String, int, int)}.
+	 * @param onRecord	Called after each record is read.
+	 * @param progressCallback	Called with the progress percentage, optional.
+	 * @return	The groups with more than one record, in record order.
+	 * @throws IOException	If a spilled run of records cannot be read.
+	 */
+	static List<List<Duplicate>> groupDuplicates(final ByteArrayExternalSorter records, final Runnable onRecord,
+			final Consumer<Integer> progressCallback) throws IOException{
+		final List<List<Duplicate>> result = new ArrayList<>();
+		final List<byte[]> group = new ArrayList<>();
+		//equal inflections are adjacent in sorted order
+		records.forEachSorted(record -> {
+				if(!group.isEmpty() && !haveSameKey(group.get(0), record)){
+					if(group.size() > 1)
+						result.add(toDuplicates(group));
+					group.clear();
 				}
-			};
-			final Consumer<Integer> progressCallback = lineIndex -> {
-				setProgress(Math.min(lineIndex, 100));
+				group.add(record);
 
-				sleepOnPause();
-			};
-			ParserHelper.forEachLine(dicFile, charset, fun, progressCallback,
-				ParserHelper.COMMENT_MARK_SHARP, ParserHelper.COMMENT_MARK_SLASH);
+				onRecord.run();
+			},
+			progressCallback);
+		if(group.size() > 1)
+			result.add(toDuplicates(group));
+		return result;
+	}
 
-			final int totalDuplicates = duplicatesBloomFilter.getAddedElements();
-			final double falsePositiveProbability = duplicatesBloomFilter.getTrueFalsePositiveProbability();
-			LOGGER.info(ParserManager.MARKER_APPLICATION, "Total duplicates: {}", DictionaryParser.COUNTER_FORMATTER.format(totalDuplicates));
-			LOGGER.info(ParserManager.MARKER_APPLICATION, "False positive probability is {} (overall duplicates ≲ {})",
-				DictionaryParser.PERCENT_FORMATTER.format(falsePositiveProbability), (int)Math.ceil(totalDuplicates * falsePositiveProbability));
+	/**
+	 * Creates a record with layout:
+	 * <pre>
+	 * hash(key) key 0 lineIndex inflectionIndex word 0 inflectedWord 0 partOfSpeech 0 rulesSequence
+	 * </pre>
+	 * where <code>key</code> is the inflection along with its Part-of-Speech and stem, and the indexes are 4-bytes integers.
+	 * <p>
+	 * Records of the same inflection are sorted one after the other (by line, then by inflection), and the indexes make two
+	 * records of different inflections always distinct.
+	 */
+	static byte[] createRecord(final Inflection inflection, final String word, final int lineIndex,
+			final int inflectionIndex){
+		final byte[] key = inflection.toStringWithPartOfSpeechAndStem().getBytes(StandardCharsets.UTF_8);
+		final byte[] dicWord = word.getBytes(StandardCharsets.UTF_8);
+		final byte[] inflectedWord = inflection.getWord().getBytes(StandardCharsets.UTF_8);
+		final byte[] partOfSpeech = String.join(", ", inflection.getMorphologicalFieldPartOfSpeech())
+			.getBytes(StandardCharsets.UTF_8);
+		final byte[] rulesSequence = (inflection.hasInflectionRules()? inflection.getRulesSequence(): StringUtils.EMPTY)
+			.getBytes(StandardCharsets.UTF_8);
+
+		return ByteBuffer.allocate(HASH_BYTES + key.length + 1 + Integer.BYTES * 2 + dicWord.length + 1
+				+ inflectedWord.length + 1 + partOfSpeech.length + 1 + rulesSequence.length)
+			.putLong(HASHER.hashMultiple(key)[0])
+			.put(key)
+			.put(FIELD_SEPARATOR)
+			.putInt(lineIndex)
+			.putInt(inflectionIndex)
+			.put(dicWord)
+			.put(FIELD_SEPARATOR)
+			.put(inflectedWord)
+			.put(FIELD_SEPARATOR)
+			.put(partOfSpeech)
+			.put(FIELD_SEPARATOR)
+			.put(rulesSequence)
+			.array();
+	}
 
-			duplicatesBloomFilter.clear();
+	static boolean haveSameKey(final byte[] record1, final byte[] record2){
+		final int keyEnd1 = indexOf(record1, HASH_BYTES);
+		final int keyEnd2 = indexOf(record2, HASH_BYTES);
+		return Arrays.equals(record1, 0, keyEnd1, record2, 0, keyEnd2);
+	}
 
-			result.sort((d1, d2) -> comparator.compare(d1.getInflection().getWord(), d2.getInflection().getWord()));
+	static List<Duplicate> toDuplicates(final List<byte[]> records){
+		final List<Duplicate> duplicates = new ArrayList<>(records.size());
+		for(final byte[] record : records){
+			final ByteBuffer buffer = ByteBuffer.wrap(record);
+			buffer.position(indexOf(record, HASH_BYTES) + 1);
+			final int lineIndex = buffer.getInt();
+			//skip inflection index
+			buffer.getInt();
+			final String word = nextField(buffer);
+			final String inflectedWord = nextField(buffer);
+			final String partOfSpeech = nextField(buffer);
+			final String rulesSequence = nextField(buffer);
+			duplicates.add(new Duplicate(inflectedWord, partOfSpeech, word, lineIndex, rulesSequence));
 		}
-		else
-			LOGGER.info(ParserManager.MARKER_APPLICATION, "No duplicates found, skip remaining steps");
+		return duplicates;
+	}
 
-		return result;
+	private static String nextField(final ByteBuffer buffer){
+		final byte[] array = buffer.array();
+		final int start = buffer.position();
+		final int end = indexOf(array, start);
+		buffer.position(Math.min(end + 1, array.length));
+		return new String(array, start, end - start, StandardCharsets.UTF_8);
 	}
 
-	private void writeDuplicates(final File duplicatesFile, final Collection<Duplicate> duplicates){
+	/** Returns the index of the next field separator starting from the given index, or the length of the array */
+	private static int indexOf(final byte[] record, final int fromIndex){
+		for(int i = fromIndex; i < record.length; i ++)
+			if(record[i] == FIELD_SEPARATOR)
+				return i;
+		return record.length;
+	}
+
+	private void writeDuplicates(final File duplicatesFile, final List<List<Duplicate>> duplicates){
 		final int totalSize = duplicates.size();
 		if(totalSize > 0){
 			LOGGER.info(ParserManager.MARKER_APPLICATION, "Write results to file (step 3/3)");
 
 			int writtenSoFar = 0;
-			final List<List<Duplicate>> mergedDuplicates = mergeDuplicates(duplicates);
 			try(final BufferedWriter writer = Files.newBufferedWriter(duplicatesFile.toPath(), dicParser.getCharset())){
-				for(final List<Duplicate> entries : mergedDuplicates){
-					final Inflection prod = entries.get(0).getInflection();
-					final String origin = prod.getWord() + "(" + String.join(", ", prod.getMorphologicalFieldPartOfSpeech())
-						+ "): ";
-					writer.write(origin);
+				for(final List<Duplicate> entries : duplicates){
+					final Duplicate first = entries.get(0);
+					writer.write(first.getInflectedWord() + "(" + first.getPartOfSpeech() + "): ");
 					final StringJoiner sj = new StringJoiner(", ");
-					if(entries != null)
-						for(final Duplicate duplicate : entries)
-							sj.add(StringUtils.join(Arrays.asList(duplicate.getWord(), " (", Integer.toString(duplicate.getLineIndex()),
-								(duplicate.getInflection().hasInflectionRules()?
-								" via " + duplicate.getInflection().getRulesSequence(): StringUtils.EMPTY), ")"), StringUtils.EMPTY));
+					for(final Duplicate duplicate : entries)
+						sj.add(StringUtils.join(Arrays.asList(duplicate.getWord(), " (", Integer.toString(duplicate.getLineIndex()),
+							(duplicate.hasInflectionRules()? " via " + duplicate.getRulesSequence(): StringUtils.EMPTY), ")"),
+							StringUtils.EMPTY));
 					writer.write(sj.toString());
 					writer.newLine();
 
@@ -276,23 +318,4 @@ public class DuplicatesWorker extends WorkerDictionary{
 		}
 	}
 
-	private List<List<Duplicate>> mergeDuplicates(final Collection<Duplicate> duplicates){
-		final Map<String, List<Duplicate>> dupls = duplicates.stream()
-			.collect(Collectors.toMap(duplicate -> duplicate.getInflection().toStringWithPartOfSpeechAndStem(),
-				duplicate -> {
-					final List<Duplicate> list = new ArrayList<>(1);
-					list.add(duplicate);
-					return list;
-				},
-				(oldValue, newValue) -> {
-					oldValue.addAll(newValue);
-					return oldValue;
-				}));
-
-		final List<List<Duplicate>> result = new ArrayList<>(dupls.values());
-		result.sort(Comparator.<List<Duplicate>>comparingInt(List::size).reversed()
-			.thenComparing(list -> list.get(0).getInflection().getWord(), comparator));
-		return result;
-	}
-
 }
@@ -25,7 +25,6 @@
 package unit731.hunlinter.workers.dictionary;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import unit731.hunlinter.languages.BaseBuilder;
@@ -37,20 +36,17 @@ import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.ParserHelper;
 import unit731.hunlinter.services.system.LoopHelper;
-import unit731.hunlinter.services.text.HammingDistance;
 import unit731.hunlinter.workers.WorkerManager;
 import unit731.hunlinter.workers.core.WorkerDataParser;
 import unit731.hunlinter.workers.core.WorkerDictionary;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -63,6 +59,14 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 
+/**
+ * Extracts the pairs of words that differs by a single consonant.
+ * <p>
+ * Every word is indexed once for each of its positions under the key "word without the character at that position"
+ * (its deletion neighbourhood): two words of the same length are at Hamming distance one if and only if they share one of
+ * these keys and differ in the masked character, so the pairs are found in time proportional to the total length of the
+ * words (plus the number of pairs) instead of comparing every couple of words of the same length.
+ */
 public class MinimalPairsWorker extends WorkerDictionary{
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(MinimalPairsWorker.class);
@@ -71,8 +75,6 @@ public class MinimalPairsWorker extends WorkerDictionary{
 
 	private static final String SLASH = "/";
 
-	private static final char[] NEW_LINE = {'\r', '\n'};
-
 
 	private final DictionaryCorrectnessChecker checker;
 	private final WordGenerator wordGenerator;
@@ -106,20 +108,15 @@ public class MinimalPairsWorker extends WorkerDictionary{
 
 		comparator = BaseBuilder.getComparator(language);
 
-		final Function<Void, File> step1 = ignored -> {
+		final Function<Void, List<String>> step1 = ignored -> {
 			prepareProcessing("Reading dictionary file (step 1/3)");
 
-			final List<String> words = extractWords();
-			writeSupportFile(outputFile, words);
-
-			LOGGER.info(ParserManager.MARKER_APPLICATION, "Support file written");
-
-			return outputFile;
+			return extractWords();
 		};
-		final Function<File, Map<String, List<String>>> step2 = supportFile -> {
+		final Function<List<String>, Map<String, List<String>>> step2 = words -> {
 			resetProcessing("Extracting minimal pairs (step 2/3)");
 
-			return extractMinimalPairs(outputFile);
+			return extractMinimalPairs(words);
 		};
 		final Function<Map<String, List<String>>, File> step3 = minimalPairs -> {
 			resetProcessing("Reordering minimal pairs (step 3/3)");
@@ -166,71 +163,75 @@ public class MinimalPairsWorker extends WorkerDictionary{
 		return list;
 	}
 
-	private void writeSupportFile(final File file, final Iterable<String> list){
-		final Charset charset = dicParser.getCharset();
-		try(final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), charset))){
-			LoopHelper.forEach(list, line -> writeLine(writer, line, NEW_LINE));
-		}
-		catch(final Exception e){
-			throw new RuntimeException(e);
-		}
-	}
+	Map<String, List<String>> extractMinimalPairs(final List<String> words){
+		final int size = words.size();
+		final String[] lowercaseWords = new String[size];
+		for(int i = 0; i < size; i ++)
+			lowercaseWords[i] = words.get(i).toLowerCase(Locale.ROOT);
 
-	private Map<String, List<String>> extractMinimalPairs(final File outputFile){
-		final Charset charset = dicParser.getCharset();
+		//each pair is coded as (index of the first word) << 32 | (index of the second word)
+		long[] pairs = new long[1024];
 		int totalPairs = 0;
-		final Map<String, List<String>> minimalPairs = new HashMap<>();
-		try(final BufferedReader sourceBR = Files.newBufferedReader(outputFile.toPath(), dicParser.getCharset())){
-			String sourceLine;
-			long readSoFarSource = 0;
-			final long totalSizeSource = outputFile.length();
-			while((sourceLine = sourceBR.readLine()) != null){
-				//FIXME find a way to have the newline size
-				readSoFarSource += sourceLine.getBytes(charset).length + 2;
-
-				sourceBR.mark((int)(totalSizeSource - readSoFarSource + 2));
-
-				try{
-					final String sourceLineLowercase = sourceLine.toLowerCase(Locale.ROOT);
-
-					String line2;
-					while((line2 = sourceBR.readLine()) != null && line2.length() == sourceLine.length()){
-						final String line2Lowercase = line2.toLowerCase(Locale.ROOT);
-
-						//calculate distance
-						final int distance = HammingDistance.getDistance(sourceLineLowercase, line2Lowercase);
-						if(distance == 1){
-							final Pair<Character, Character> difference = HammingDistance.findFirstDifference(sourceLineLowercase, line2Lowercase);
-							final char left = difference.getLeft();
-							final char right = difference.getRight();
-							if(checker.isConsonant(left) && checker.isConsonant(right)){
-								final String key = left + SLASH + right;
-								final String value = sourceLine + SLASH + line2;
-								minimalPairs.computeIfAbsent(key, k -> new ArrayList<>(1))
-									.add(value);
-
-								totalPairs ++;
-							}
-
-							sleepOnPause();
+		//words are sorted by length, so each length spans a contiguous range
+		int start = 0;
+		while(start < size){
+			final int length = words.get(start).length();
+			int end = start + 1;
+			while(end < size && words.get(end).length() == length)
+				end ++;
+
+			final int[] previousWithSameKey = new int[end - start];
+			for(int position = 0; position < length; position ++){
+				final Map<String, Integer> lastWithSameKey = new HashMap<>(end - start);
+				for(int index = start; index < end; index ++){
+					final String lowercaseWord = lowercaseWords[index];
+					//lowercasing can change the length, such a word cannot be compared position by position
+					if(lowercaseWord.length() != length)
+						continue;
+
+					final String key = lowercaseWord.substring(0, position) + lowercaseWord.substring(position + 1);
+					final Integer previousIndex = lastWithSameKey.put(key, index);
+					previousWithSameKey[index - start] = (previousIndex != null? previousIndex: -1);
+
+					final char right = lowercaseWord.charAt(position);
+					for(int other = previousWithSameKey[index - start]; other >= 0; other = previousWithSameKey[other - start]){
+						final char left = lowercaseWords[other].charAt(position);
+						if(left != right && checker.isConsonant(left) && checker.isConsonant(right)){
+							if(totalPairs == pairs.length)
+								pairs = Arrays.copyOf(pairs, pairs.length + (pairs.length >> 1));
+							pairs[totalPairs ++] = ((long)other << 32) | index;
 						}
 					}
 				}
-				catch(final Exception ignored){
-					//FIXME
-					//length varied, consider another line for minimal pair search
-				}
 
-				sourceBR.reset();
-
-				setProgress(readSoFarSource, totalSizeSource);
+				sleepOnPause();
 			}
 
-			LOGGER.info(ParserManager.MARKER_APPLICATION, "Total minimal pairs: {}", DictionaryParser.COUNTER_FORMATTER.format(totalPairs));
+			start = end;
+
+			setProgress(start, size);
 		}
-		catch(final Exception e){
-			throw new RuntimeException(e);
+
+		//report the pairs in the same order as the words are sorted
+		Arrays.sort(pairs, 0, totalPairs);
+		final Map<String, List<String>> minimalPairs = new HashMap<>();
+		for(int i = 0; i < totalPairs; i ++){
+			final int sourceIndex = (int)(pairs[i] >>> 32);
+			final int targetIndex = (int)pairs[i];
+			final String source = lowercaseWords[sourceIndex];
+			final String target = lowercaseWords[targetIndex];
+			int position = 0;
+			while(source.charAt(position) == target.charAt(position))
+				position ++;
+
+			final String key = source.charAt(position) + SLASH + target.charAt(position);
+			final String value = words.get(sourceIndex) + SLASH + words.get(targetIndex);
+			minimalPairs.computeIfAbsent(key, k -> new ArrayList<>(1))
+				.add(value);
 		}
+
+		LOGGER.info(ParserManager.MARKER_APPLICATION, "Total minimal pairs: {}", DictionaryParser.COUNTER_FORMATTER.format(totalPairs));
+
 		return minimalPairs;
 	}
 
@@ -49,7 +49,8 @@ import unit731.hunlinter.parsers.enums.MorphologicalTag;
 import unit731.hunlinter.parsers.enums.PartOfSpeechTag;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
-import unit731.hunlinter.services.sorters.SmoothSort;
+import unit731.hunlinter.services.sorters.externalsorter.ByteArrayExternalSorter;
+import unit731.hunlinter.services.system.JavaHelper;
 import unit731.hunlinter.services.text.StringHelper;
 import unit731.hunlinter.workers.WorkerManager;
 import unit731.hunlinter.workers.core.IndexDataPair;
@@ -57,9 +58,10 @@ import unit731.hunlinter.workers.core.WorkerDataParser;
 import unit731.hunlinter.workers.core.WorkerDictionary;
 import unit731.hunlinter.workers.exceptions.LinterException;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -113,7 +115,10 @@ public class PoSFSAWorker extends WorkerDictionary{
 		final SequenceEncoderInterface sequenceEncoder = metadata.getSequenceEncoderType().get();
 
 
-		final SimpleDynamicArray<byte[]> encodings = new SimpleDynamicArray<>(byte[].class, 50_000_000, 1.2f);
+		//sequences are sorted and deduplicated in parallel, spilling sorted runs to disk if they don't fit into a quarter of the
+		//available memory
+		final ByteArrayExternalSorter encodings = new ByteArrayExternalSorter(JavaHelper.estimateAvailableMemory() / 4,
+			LexicographicalComparator.lexicographicalComparator());
 		final Consumer<IndexDataPair<String>> lineProcessor = indexData -> {
 			final String line = indexData.getData();
 			final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
@@ -121,14 +126,14 @@ public class PoSFSAWorker extends WorkerDictionary{
 
 			final SimpleDynamicArray<byte[]> currentEncodings = encode(inflections, separator, sequenceEncoder);
 
-			encodings.addAll(currentEncodings);
+			encodings.addAll(currentEncodings.data, currentEncodings.limit);
 
 			sleepOnPause();
 		};
 		final FSABuilder builder = new FSABuilder();
 		final Consumer<byte[]> fsaProcessor = builder::add;
 
-		final Function<Void, SimpleDynamicArray<byte[]>> step1 = ignored -> {
+		final Function<Void, ByteArrayExternalSorter> step1 = ignored -> {
 			prepareProcessing("Reading dictionary file (step 1/5)");
 
 			final Path dicPath = dicParser.getDicFile().toPath();
@@ -136,44 +141,33 @@ public class PoSFSAWorker extends WorkerDictionary{
 
 			return encodings;
 		};
-		final Function<SimpleDynamicArray<byte[]>, SimpleDynamicArray<byte[]>> step2 = list -> {
+		final Function<ByteArrayExternalSorter, ByteArrayExternalSorter> step2 = sorter -> {
 			resetProcessing("Sorting (step 2/5)");
 
-			//sort list
-			SmoothSort.sort(list.data, 0, list.limit, LexicographicalComparator.lexicographicalComparator(),
-				percent -> {
-					setProgress(percent, 100);
+			//sort the sequences still in memory (the others were already sorted when spilled)
+			sorter.sort();
 
-					sleepOnPause();
-				});
-
-			return list;
+			return sorter;
 		};
-		final Function<SimpleDynamicArray<byte[]>, FSA> step3 = list -> {
+		final Function<ByteArrayExternalSorter, FSA> step3 = sorter -> {
 			resetProcessing("Creating FSA (step 3/5)");
 
 			getWorkerData()
 				.withNoHeader()
 				.withSequentialProcessing();
 
-			int progress = 0;
-			int progressIndex = 0;
-			final int progressStep = (int)Math.ceil(list.limit / 100.f);
-			for(int index = 0; index < list.limit; index ++){
-				final byte[] encoding = list.data[index];
-				fsaProcessor.accept(encoding);
-
-				//release memory
-				list.data[index] = null;
+			//merge the sorted runs directly into the builder
+			try(sorter){
+				sorter.forEachSorted(encoding -> {
+						fsaProcessor.accept(encoding);
 
-				if(++ progress % progressStep == 0)
-					setProgress(++ progressIndex, 100);
-
-				sleepOnPause();
+						sleepOnPause();
+					},
+					percent -> setProgress(percent, 100));
+			}
+			catch(final IOException e){
+				throw new LinterException(e.getMessage(), e, null);
 			}
-
-			//release memory
-			list.clear();
 
 			return builder.complete();
 		};
@@ -181,15 +175,13 @@ public class PoSFSAWorker extends WorkerDictionary{
 			resetProcessing("Compressing FSA (step 4/5)");
 
 			final FSASerializer serializer = new CFSA2Serializer();
-			try(final ByteArrayOutputStream os = new ByteArrayOutputStream()){
+			try(final OutputStream os = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()))){
 				serializer.serialize(fsa, os, percent -> {
 					setProgress(percent, 100);
 
 					sleepOnPause();
 				});
 
-				Files.write(outputFile.toPath(), os.toByteArray());
-
 				return outputFile;
 			}
 			catch(final Exception e){
@@ -33,8 +33,8 @@ import unit731.hunlinter.languages.BaseBuilder;
 import unit731.hunlinter.parsers.ParserManager;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.vos.CompactInflections;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
-import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.workers.core.IndexDataPair;
 import unit731.hunlinter.workers.core.WorkerDataParser;
 import unit731.hunlinter.workers.core.WorkerDictionary;
@@ -76,11 +76,10 @@ public class WordCountWorker extends WorkerDictionary{
 
 		final Consumer<IndexDataPair<String>> lineProcessor = indexData -> {
 			final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(indexData.getData());
-			final Inflection[] inflections = wordGenerator.applyAffixRules(dicEntry);
+			final CompactInflections inflections = wordGenerator.applyAffixRulesCompact(dicEntry);
 
-			totalInflections.addAndGet(inflections.length);
-			for(final Inflection inflection : inflections)
-				dictionary.add(inflection.getWord());
+			totalInflections.addAndGet(inflections.size());
+			inflections.forEachWord(dictionary::add);
 		};
 		final Consumer<Exception> cancelled = exception -> dictionary.close();
 
@@ -26,7 +26,6 @@ package unit731.hunlinter.workers.dictionary;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import unit731.hunlinter.datastructures.SimpleDynamicArray;
 import unit731.hunlinter.datastructures.fsa.FSA;
 import unit731.hunlinter.datastructures.fsa.builders.FSABuilder;
 import unit731.hunlinter.datastructures.fsa.builders.LexicographicalComparator;
@@ -40,17 +39,21 @@ import unit731.hunlinter.parsers.ParserManager;
 import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.vos.CompactInflections;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
-import unit731.hunlinter.parsers.vos.Inflection;
-import unit731.hunlinter.services.sorters.SmoothSort;
+import unit731.hunlinter.services.sorters.externalsorter.ByteArrayExternalSorter;
+import unit731.hunlinter.services.system.JavaHelper;
 import unit731.hunlinter.services.text.StringHelper;
 import unit731.hunlinter.workers.WorkerManager;
 import unit731.hunlinter.workers.core.IndexDataPair;
 import unit731.hunlinter.workers.core.WorkerDataParser;
 import unit731.hunlinter.workers.core.WorkerDictionary;
+import unit731.hunlinter.workers.exceptions.LinterException;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -97,15 +100,18 @@ public class WordlistFSAWorker extends WorkerDictionary{
 		}
 
 
-		final SimpleDynamicArray<byte[]> encodings = new SimpleDynamicArray<>(byte[].class, 50_000_000, 1.2f);
+		//sequences are sorted and deduplicated in parallel, spilling sorted runs to disk if they don't fit into a quarter of the
+		//available memory
+		final ByteArrayExternalSorter encodings = new ByteArrayExternalSorter(JavaHelper.estimateAvailableMemory() / 4,
+			LexicographicalComparator.lexicographicalComparator());
 		final Consumer<IndexDataPair<String>> lineProcessor = indexData -> {
 			final String line = indexData.getData();
 			final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
-			final Inflection[] inflections = wordGenerator.applyAffixRules(dicEntry);
+			final CompactInflections inflections = wordGenerator.applyAffixRulesCompact(dicEntry);
 
-			final byte[][] words = new byte[inflections.length][];
-			for(int i = 0; i < inflections.length; i ++)
-				words[i] = StringHelper.getRawBytes(inflections[i].getWord());
+			final byte[][] words = new byte[inflections.size()][];
+			for(int i = 0; i < words.length; i ++)
+				words[i] = StringHelper.getRawBytes(inflections.getWord(i));
 			encodings.addAll(words);
 
 			sleepOnPause();
@@ -113,7 +119,7 @@ public class WordlistFSAWorker extends WorkerDictionary{
 		final FSABuilder builder = new FSABuilder();
 		final Consumer<byte[]> fsaProcessor = builder::add;
 
-		final Function<Void, SimpleDynamicArray<byte[]>> step1 = ignored -> {
+		final Function<Void, ByteArrayExternalSorter> step1 = ignored -> {
 			prepareProcessing("Reading dictionary file (step 1/5)");
 
 			final Path dicPath = dicParser.getDicFile().toPath();
@@ -121,44 +127,33 @@ public class WordlistFSAWorker extends WorkerDictionary{
 
 			return encodings;
 		};
-		final Function<SimpleDynamicArray<byte[]>, SimpleDynamicArray<byte[]>> step2 = list -> {
+		final Function<ByteArrayExternalSorter, ByteArrayExternalSorter> step2 = sorter -> {
 			resetProcessing("Sorting (step 2/5)");
 
-			//sort list
-			SmoothSort.sort(list.data, 0, list.limit, LexicographicalComparator.lexicographicalComparator(),
-				percent -> {
-					setProgress(percent, 100);
+			//sort the sequences still in memory (the others were already sorted when spilled)
+			sorter.sort();
 
-					sleepOnPause();
-				});
-
-			return list;
+			return sorter;
 		};
-		final Function<SimpleDynamicArray<byte[]>, FSA> step3 = list -> {
+		final Function<ByteArrayExternalSorter, FSA> step3 = sorter -> {
 			resetProcessing("Creating FSA (step 3/5)");
 
 			getWorkerData()
 				.withNoHeader()
 				.withSequentialProcessing();
 
-			int progress = 0;
-			int progressIndex = 0;
-			final int progressStep = (int)Math.ceil(list.limit / 100.f);
-			for(int index = 0; index < list.limit; index ++){
-				final byte[] encoding = list.data[index];
-				fsaProcessor.accept(encoding);
-
-				//release memory
-				list.data[index] = null;
+			//merge the sorted runs directly into the builder
+			try(sorter){
+				sorter.forEachSorted(encoding -> {
+						fsaProcessor.accept(encoding);
 
-				if(++ progress % progressStep == 0)
-					setProgress(++ progressIndex, 100);
-
-				sleepOnPause();
+						sleepOnPause();
+					},
+					percent -> setProgress(percent, 100));
+			}
+			catch(final IOException e){
+				throw new LinterException(e.getMessage(), e, null);
 			}
-
-			//release memory
-			list.clear();
 
 			return builder.complete();
 		};
@@ -166,15 +161,13 @@ public class WordlistFSAWorker extends WorkerDictionary{
 			resetProcessing("Compress FSA (step 4/5)");
 
 			final FSASerializer serializer = new CFSA2Serializer();
-			try(final ByteArrayOutputStream os = new ByteArrayOutputStream()){
+			try(final OutputStream os = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()))){
 				serializer.serialize(fsa, os, percent -> {
 					setProgress(percent, 100);
 
 					sleepOnPause();
 				});
 
-				Files.write(outputFile.toPath(), os.toByteArray());
-
 				return outputFile;
 			}
 			catch(final Exception e){
@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 import unit731.hunlinter.parsers.ParserManager;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
 import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.vos.CompactInflections;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.sorters.externalsorter.ExternalSorter;
@@ -89,13 +90,20 @@ public class WordlistWorker extends WorkerDictionary{
 		}
 
 
-		final Function<Inflection, String> toString = (type == WorkerType.COMPLETE? Inflection::toString: Inflection::getWord);
-		final Consumer<IndexDataPair<String>> lineProcessor = indexData -> {
-			final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(indexData.getData());
-			final Inflection[] inflections = wordGenerator.applyAffixRules(dicEntry);
+		//plain words don't need the morphological fields, so the compact inflections suffice
+		final Consumer<IndexDataPair<String>> lineProcessor = (type == WorkerType.COMPLETE?
+			indexData -> {
+				final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(indexData.getData());
+				final Inflection[] inflections = wordGenerator.applyAffixRules(dicEntry);
 
-			forEach(inflections, inflection -> writeLine(writer, toString.apply(inflection), NEW_LINE));
-		};
+				forEach(inflections, inflection -> writeLine(writer, inflection.toString(), NEW_LINE));
+			}:
+			indexData -> {
+				final DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(indexData.getData());
+				final CompactInflections inflections = wordGenerator.applyAffixRulesCompact(dicEntry);
+
+				inflections.forEachWord(word -> writeLine(writer, word, NEW_LINE));
+			});
 
 		getWorkerData()
 			.withDataCancelledCallback(e -> closeWriter(writer));
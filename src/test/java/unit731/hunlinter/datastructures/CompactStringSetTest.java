@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.datastructures;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+class CompactStringSetTest{
+
+	@Test
+	void addAndContains(){
+		CompactStringSet set = new CompactStringSet();
+
+		for(int i = 0; i < 200_000; i ++)
+			Assertions.assertTrue(set.add("word" + i));
+		for(int i = 0; i < 200_000; i += 3)
+			Assertions.assertFalse(set.add("word" + i));
+		set.trimToSize();
+
+		Assertions.assertEquals(200_000, set.size());
+		for(int i = 0; i < 200_000; i ++)
+			Assertions.assertTrue(set.contains("word" + i));
+		Assertions.assertFalse(set.contains("word200000"));
+		Assertions.assertFalse(set.contains("word"));
+	}
+
+	@Test
+	void nonASCIIAndLongElements(){
+		CompactStringSet set = new CompactStringSet(2);
+		String longWord = StringUtils.repeat("ŧ", 300);
+
+		set.add(StringUtils.EMPTY);
+		set.add("àèéìòóù");
+		set.add(longWord);
+
+		Assertions.assertEquals(3, set.size());
+		Assertions.assertTrue(set.contains(StringUtils.EMPTY));
+		Assertions.assertTrue(set.contains("àèéìòóù"));
+		Assertions.assertTrue(set.contains(longWord));
+		Assertions.assertFalse(set.contains("aeeioou"));
+		Assertions.assertFalse(set.contains(longWord.substring(1)));
+	}
+
+}
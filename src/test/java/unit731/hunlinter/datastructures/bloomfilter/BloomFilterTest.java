@@ -31,6 +31,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 class BloomFilterTest{
@@ -102,4 +104,32 @@ class BloomFilterTest{
 		System.out.println("False positives found in two millions: " + fpp);
 	}
 
+	@Test
+	void concurrentAdd(){
+		BloomFilterParameters params = new BloomFilterParameters(){
+			@Override
+			public int getExpectedNumberOfElements(){
+				return MAX;
+			}
+
+			@Override
+			public double getFalsePositiveProbability(){
+				return FPP;
+			}
+		};
+		BloomFilterInterface<String> filter = new ScalableInMemoryBloomFilter<>(StandardCharsets.UTF_8, params);
+
+		List<String> contained = IntStream.range(0, 4 * MAX)
+			.mapToObj(index -> UUID.randomUUID().toString())
+			.collect(Collectors.toList());
+		contained.parallelStream()
+			.forEach(filter::add);
+
+		contained.parallelStream()
+			.map(filter::contains)
+			.forEach(Assertions::assertTrue);
+		Assertions.assertTrue(filter.getAddedElements() <= contained.size());
+		Assertions.assertTrue(filter.getAddedElements() > contained.size() * 0.9);
+	}
+
 }
@@ -30,6 +30,7 @@ import unit731.hunlinter.services.downloader.DownloaderHelper;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.stream.IntStream;
 
 
 class BitArrayTest{
@@ -55,14 +56,72 @@ class BitArrayTest{
 		File file = File.createTempFile(DownloaderHelper.APPLICATION_PROPERTIES.get(DownloaderHelper.PROPERTY_KEY_ARTIFACT_ID) + "-duplications-bitarray", ".bits");
 		file.deleteOnExit();
 		try(MemoryMappedFileBitArray bits = new MemoryMappedFileBitArray(file, MAX)){
-			for(int i = 0; i < MAX; i ++){
+			//up to the whole allocated size, not only the requested bits
+			for(int i = 0; i < bits.size(); i ++){
 				Assertions.assertFalse(bits.get(i));
 				bits.set(i);
 				Assertions.assertTrue(bits.get(i));
 				bits.clear(i);
 				Assertions.assertFalse(bits.get(i));
 			}
+			Assertions.assertThrows(IndexOutOfBoundsException.class, () -> bits.get(bits.size()));
+		}
+	}
+
+	@Test
+	void memoryMappedFileBuiltByBuilder() throws IOException{
+		try(BitArray bits = BitArrayBuilder.getBitArray(BitArrayBuilder.Type.MEMORY_MAPPED_FILE, MAX)){
+			Assertions.assertTrue(bits instanceof MemoryMappedFileBitArray);
+
+			Assertions.assertTrue(bits.set(MAX - 1));
+			Assertions.assertFalse(bits.set(MAX - 1));
+			bits.clearAll();
+			Assertions.assertFalse(bits.get(MAX - 1));
+		}
+	}
+
+	@Test
+	void memoryMappedFileBeyondIntegerRange() throws IOException{
+		File file = File.createTempFile(DownloaderHelper.APPLICATION_PROPERTIES.get(DownloaderHelper.PROPERTY_KEY_ARTIFACT_ID) + "-duplications-bitarray", ".bits");
+		file.deleteOnExit();
+		//spans two segments, the file is extended sparsely
+		long max = 3l << 32;
+		try(MemoryMappedFileBitArray bits = new MemoryMappedFileBitArray(file, max)){
+			long index = max - 1;
+			Assertions.assertFalse(bits.get(index));
+			Assertions.assertTrue(bits.set(index));
+			Assertions.assertTrue(bits.get(index));
+			Assertions.assertFalse(bits.get(index & Integer.MAX_VALUE));
 		}
 	}
 
+	@Test
+	void javaConcurrentSet() throws IOException{
+		try(JavaBitArray bits = new JavaBitArray(MAX)){
+			assertNoLostUpdates(bits);
+		}
+	}
+
+	@Test
+	void memoryMappedFileConcurrentSet() throws IOException{
+		File file = File.createTempFile(DownloaderHelper.APPLICATION_PROPERTIES.get(DownloaderHelper.PROPERTY_KEY_ARTIFACT_ID) + "-duplications-bitarray", ".bits");
+		file.deleteOnExit();
+		try(MemoryMappedFileBitArray bits = new MemoryMappedFileBitArray(file, MAX)){
+			assertNoLostUpdates(bits);
+		}
+	}
+
+	private static void assertNoLostUpdates(final BitArray bits){
+		//every thread sets one bit of every word, contending on the same words
+		IntStream.range(0, Long.SIZE)
+			.parallel()
+			.forEach(bit -> {
+				for(int word = 0; word < MAX / Long.SIZE; word ++)
+					Assertions.assertTrue(bits.set(word * Long.SIZE + bit));
+			});
+
+		for(int i = 0; i < MAX / Long.SIZE * Long.SIZE; i ++)
+			Assertions.assertTrue(bits.get(i));
+	}
+
 }
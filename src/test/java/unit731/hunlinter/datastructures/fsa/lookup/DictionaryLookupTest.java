@@ -34,13 +34,20 @@ import unit731.hunlinter.datastructures.fsa.stemming.EncoderType;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 class DictionaryLookupTest{
@@ -208,6 +215,175 @@ class DictionaryLookupTest{
 	}
 
 
+	@Test
+	void applyReplacementsSameAsSequentialReplacements(){
+		//keys do not overlap and no replacement produces a key, so the order in which they are applied does not matter
+		Map<String, String> conversion = new LinkedHashMap<>();
+		conversion.put("ae", "æ");
+		conversion.put("'", "’");
+		conversion.put("\\o", "ǫ");
+		conversion.put("\\e", "ę");
+		conversion.put("x", "ks");
+		String alphabet = "abeox'\\";
+
+		Random random = new Random(731);
+		for(int i = 0; i < 10_000; i ++){
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(12);
+			for(int j = 0; j < length; j ++)
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			String word = sb.toString();
+
+			Assertions.assertEquals(sequentialReplacements(word, conversion), DictionaryLookup.applyReplacements(word, conversion),
+				word);
+		}
+	}
+
+	@Test
+	void applyReplacementsPrefersLongestKey(){
+		Map<String, String> conversion = new HashMap<>();
+		conversion.put("a", "1");
+		conversion.put("ab", "2");
+		conversion.put("abc", "3");
+
+		Assertions.assertEquals("323", DictionaryLookup.applyReplacements("abcababc", conversion));
+		Assertions.assertEquals("312", DictionaryLookup.applyReplacements("abcaab", conversion));
+		//replaced text is not scanned again
+		Assertions.assertEquals("ab", DictionaryLookup.applyReplacements("b", Map.of("b", "ab")));
+	}
+
+	@Test
+	void applyReplacementsDoesNotChainReplacements(){
+		Map<String, String> conversion = new LinkedHashMap<>();
+		conversion.put("a", "b");
+		conversion.put("b", "c");
+
+		//the sequential replacement in this order gives "cc"
+		Assertions.assertEquals("cc", sequentialReplacements("ab", conversion));
+		Assertions.assertEquals("bc", DictionaryLookup.applyReplacements("ab", conversion));
+	}
+
+	@Test
+	void applyReplacementsAfterChangingTheMap(){
+		Map<String, String> conversion = new HashMap<>();
+		conversion.put("a", "1");
+		Assertions.assertEquals("1b", DictionaryLookup.applyReplacements("ab", conversion));
+
+		conversion.put("b", "2");
+		Assertions.assertEquals("12", DictionaryLookup.applyReplacements("ab", conversion));
+	}
+
+	@Test
+	void sameAsReferenceLookup() throws IOException{
+		for(String resource : List.of("/services/fsa/lookup/infix.dict", "/services/fsa/lookup/prefix.dict",
+				"/services/fsa/lookup/diacritics-utf8.dict")){
+			URL url = getClass().getResource(resource);
+			Dictionary d = Dictionary.read(url);
+			DictionaryLookup s = new DictionaryLookup(d);
+
+			for(String word : extractWords(s, d)){
+				List<String> expected = referenceLookup(d, word);
+				List<String> actual = toStrings(s.lookup(word), d);
+				Assertions.assertEquals(expected, actual, word);
+			}
+		}
+	}
+
+	@Test
+	void concurrentLookups() throws Exception{
+		URL url = getClass().getResource("/services/fsa/lookup/infix.dict");
+		Dictionary d = Dictionary.read(url);
+		DictionaryLookup s = new DictionaryLookup(d);
+
+		List<String> words = new ArrayList<>(extractWords(s, d));
+		Map<String, List<String>> expected = new HashMap<>();
+		for(String word : words)
+			expected.put(word, referenceLookup(d, word));
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try{
+			List<Future<?>> futures = new ArrayList<>();
+			for(int t = 0; t < 8; t ++){
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					List<String> shuffled = new ArrayList<>(words);
+					Collections.shuffle(shuffled, new Random(seed));
+					for(int round = 0; round < 5; round ++)
+						for(String word : shuffled)
+							Assertions.assertEquals(expected.get(word), toStrings(s.lookup(word), d), word);
+				}));
+			}
+			for(Future<?> future : futures)
+				future.get();
+		}
+		finally{
+			executor.shutdownNow();
+		}
+	}
+
+
+	/** The lookup as it was implemented before it was made thread-safe, used as a reference */
+	private static List<String> referenceLookup(Dictionary d, String word){
+		byte separator = d.metadata.getSeparator();
+		word = sequentialReplacements(word, d.metadata.getInputConversionPairs());
+		byte[] wordAsByteArray = word.getBytes(d.metadata.getCharset());
+
+		List<WordData> forms = new ArrayList<>();
+		FSAMatchResult match = new FSATraversal(d.fsa).match(wordAsByteArray, d.fsa.getRootNode());
+		if(match.kind == FSAMatchResult.PREFIX_MATCH){
+			int arc = d.fsa.getArc(match.node, separator);
+			if(arc != 0 && !d.fsa.isArcFinal(arc)){
+				ByteSequenceIterator finalStatesIterator = new ByteSequenceIterator(d.fsa, d.fsa.getEndNode(arc));
+				while(finalStatesIterator.hasNext()){
+					ByteBuffer bb = finalStatesIterator.next();
+					byte[] bbArray = bb.array();
+					int separatorIndex = 0;
+					while(bbArray[separatorIndex] != separator)
+						separatorIndex ++;
+
+					WordData wordData = new WordData();
+					wordData.setWord(sequentialReplacements(word, d.metadata.getOutputConversionPairs())
+						.getBytes(d.metadata.getCharset()));
+					wordData.setStem(d.metadata.getSequenceEncoderType().get()
+						.decode(wordAsByteArray, Arrays.copyOf(bbArray, separatorIndex)));
+					separatorIndex ++;
+					int tagSize = bb.remaining() - separatorIndex;
+					if(tagSize > 0)
+						wordData.setTag(Arrays.copyOfRange(bbArray, separatorIndex, separatorIndex + tagSize));
+					forms.add(wordData);
+				}
+			}
+		}
+		return toStrings(forms.toArray(WordData[]::new), d);
+	}
+
+	private static String sequentialReplacements(String word, Map<String, String> replacements){
+		StringBuilder sb = new StringBuilder(word);
+		for(Map.Entry<String, String> e : replacements.entrySet()){
+			String key = e.getKey();
+			int index = sb.indexOf(key);
+			while(index != - 1){
+				sb.replace(index, index + key.length(), e.getValue());
+				index = sb.indexOf(key, index + e.getValue().length());
+			}
+		}
+		return sb.toString();
+	}
+
+	private static Set<String> extractWords(DictionaryLookup s, Dictionary d){
+		Set<String> words = new HashSet<>();
+		for(WordData wd : s)
+			words.add(toString(wd.getWord(), d));
+		return words;
+	}
+
+	private static List<String> toStrings(WordData[] forms, Dictionary d){
+		List<String> result = new ArrayList<>();
+		for(WordData wd : forms)
+			result.add(toString(wd.getWord(), d) + " " + toString(wd.getStem(), d) + " " + toString(wd.getTag(), d));
+		return result;
+	}
+
 	private static void assertNoStemFor(DictionaryLookup s, String word, Dictionary d){
 		Assertions.assertArrayEquals(new String[]{}, stem(s, word, d));
 	}
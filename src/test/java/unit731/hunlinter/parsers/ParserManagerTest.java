@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.services.Packager;
+import unit731.hunlinter.services.system.FileHelper;
+
+import javax.swing.SwingUtilities;
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+class ParserManagerTest{
+
+	private static final String LANGUAGE = "xxx";
+
+	@TempDir
+	Path cacheDirectory;
+
+
+	private static final class TestPackager extends Packager{
+
+		private final File affFile;
+		private final File dicFile;
+		private final File theFile;
+		private final File acoFile;
+
+
+		TestPackager(final File affFile, final File dicFile, final File theFile, final File acoFile){
+			this.affFile = affFile;
+			this.dicFile = dicFile;
+			this.theFile = theFile;
+			this.acoFile = acoFile;
+		}
+
+		@Override
+		public String getLanguage(){
+			return LANGUAGE;
+		}
+
+		@Override
+		public File getAffixFile(){
+			return affFile;
+		}
+
+		@Override
+		public File getDictionaryFile(){
+			return dicFile;
+		}
+
+		@Override
+		public File getThesaurusDataFile(){
+			return theFile;
+		}
+
+		@Override
+		public File getAutoCorrectFile(){
+			return acoFile;
+		}
+
+	}
+
+
+	@Test
+	void reloadAddedDictionaryLines() throws IOException, XMLStreamException, InterruptedException, InvocationTargetException{
+		File dicFile = FileHelper.createDeleteOnExitFile(LANGUAGE, ".dic",
+			"2",
+			"abc/A",
+			"def");
+		ParserManager parserManager = createParserManager(createPackager(dicFile));
+		DictionaryParser dicParser = parserManager.getDicParser();
+		WordGenerator wordGenerator = parserManager.getWordGenerator();
+		Assertions.assertTrue(wordGenerator.getInclusionIndex().isInDictionary("abcs"));
+		Assertions.assertFalse(wordGenerator.getInclusionIndex().isInDictionary("ghis"));
+
+		//nothing changed
+		reload(parserManager, dicFile.toPath());
+		Files.write(dicFile.toPath(), List.of("3", "abc/A", "ghi/A", "def"), StandardCharsets.UTF_8);
+		reload(parserManager, dicFile.toPath());
+
+		Assertions.assertSame(dicParser, parserManager.getDicParser());
+		Assertions.assertSame(wordGenerator, parserManager.getWordGenerator());
+		Assertions.assertTrue(wordGenerator.getInclusionIndex().isInDictionary("ghi"));
+		Assertions.assertTrue(wordGenerator.getInclusionIndex().isInDictionary("ghis"));
+	}
+
+	@Test
+	void reloadRemovedDictionaryLines() throws IOException, XMLStreamException, InterruptedException,
+			InvocationTargetException{
+		File dicFile = FileHelper.createDeleteOnExitFile(LANGUAGE, ".dic",
+			"3",
+			"abc/A",
+			"ghi/A",
+			"def");
+		ParserManager parserManager = createParserManager(createPackager(dicFile));
+		WordGenerator wordGenerator = parserManager.getWordGenerator();
+		Assertions.assertTrue(wordGenerator.getInclusionIndex().isInDictionary("ghis"));
+
+		reload(parserManager, dicFile.toPath());
+		Files.write(dicFile.toPath(), List.of("2", "abc/A", "def"), StandardCharsets.UTF_8);
+		reload(parserManager, dicFile.toPath());
+
+		Assertions.assertTrue(wordGenerator.getInclusionIndex().isInDictionary("abcs"));
+		Assertions.assertFalse(wordGenerator.getInclusionIndex().isInDictionary("ghis"));
+	}
+
+	@Test
+	void reloadThesaurusOnly() throws IOException, XMLStreamException, InterruptedException, InvocationTargetException{
+		File dicFile = FileHelper.createDeleteOnExitFile(LANGUAGE, ".dic",
+			"1",
+			"abc");
+		TestPackager packager = createPackager(dicFile);
+		ParserManager parserManager = createParserManager(packager);
+		File theFile = packager.getThesaurusDataFile();
+		Assertions.assertEquals(1, parserManager.getTheParser().getSynonymsCount());
+		//not yet saved
+		parserManager.getAcoParser().insertCorrection("teh", "the", () -> true);
+
+		Files.write(theFile.toPath(), List.of("UTF-8", "abc|1", "(noun)|def", "def|1", "(noun)|abc"), StandardCharsets.UTF_8);
+		reload(parserManager, theFile.toPath());
+
+		Assertions.assertEquals(2, parserManager.getTheParser().getSynonymsCount());
+		Assertions.assertEquals(2, parserManager.getAcoParser().getCorrectionsCounter());
+	}
+
+
+	@Test
+	void skipReloadOfStoredFile() throws IOException, XMLStreamException, InterruptedException, InvocationTargetException{
+		File dicFile = FileHelper.createDeleteOnExitFile(LANGUAGE, ".dic",
+			"1",
+			"abc");
+		TestPackager packager = createPackager(dicFile);
+		ParserManager parserManager = createParserManager(packager);
+		File acoFile = packager.getAutoCorrectFile();
+		parserManager.getAcoParser().insertCorrection("teh", "the", () -> true);
+		parserManager.storeAutoCorrectFile();
+		//not yet saved, a reload would discard it
+		parserManager.getAcoParser().insertCorrection("adn", "and", () -> true);
+
+		//the event of the application's own write
+		reload(parserManager, acoFile.toPath());
+
+		Assertions.assertEquals(3, parserManager.getAcoParser().getCorrectionsCounter());
+
+		//a touch that leaves the content as stored
+		acoFile.setLastModified(acoFile.lastModified() + 2_000l);
+		reload(parserManager, acoFile.toPath());
+
+		Assertions.assertEquals(3, parserManager.getAcoParser().getCorrectionsCounter());
+
+		//an external write of the same size, within the same modification time
+		long lastModified = acoFile.lastModified();
+		String content = Files.readString(acoFile.toPath(), StandardCharsets.UTF_8);
+		Files.writeString(acoFile.toPath(), content.replace("\"teh\"", "\"hte\""), StandardCharsets.UTF_8);
+		acoFile.setLastModified(lastModified);
+		reload(parserManager, acoFile.toPath());
+
+		Assertions.assertEquals(2, parserManager.getAcoParser().getCorrectionsCounter());
+		Assertions.assertTrue(parserManager.getAcoParser().contains("hte", "the"));
+	}
+
+
+	private static TestPackager createPackager(final File dicFile) throws IOException{
+		File affFile = FileHelper.createDeleteOnExitFile(LANGUAGE, ".aff",
+			"SET UTF-8",
+			"SFX A Y 1",
+			"SFX A 0 s .");
+		File theFile = FileHelper.createDeleteOnExitFile(LANGUAGE, ".dat",
+			"UTF-8",
+			"abc|1",
+			"(noun)|def");
+		File acoFile = FileHelper.createDeleteOnExitFile("DocumentList", ".xml",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<block-list:block-list xmlns:block-list=\"http://openoffice.org/2001/block-list\">",
+			"<block-list:block block-list:abbreviated-name=\"abd\" block-list:name=\"abc\"/>",
+			"</block-list:block-list>");
+		return new TestPackager(affFile, dicFile, theFile, acoFile);
+	}
+
+	private ParserManager createParserManager(final Packager packager) throws IOException, XMLStreamException{
+		ParserManager parserManager = new ParserManager(packager, cacheDirectory);
+		parserManager.openAffixFile(packager.getAffixFile());
+		parserManager.getCorrectnessChecker();
+		parserManager.prepareDictionaryFile(packager.getDictionaryFile());
+		parserManager.openThesaurusFile(packager.getThesaurusDataFile());
+		parserManager.openAutoCorrectFile(packager.getAutoCorrectFile());
+		return parserManager;
+	}
+
+	/** Reloads the file, then waits for the swap of the parsers published on the event dispatch thread */
+	private static void reload(final ParserManager parserManager, final Path path) throws InterruptedException,
+			InvocationTargetException{
+		parserManager.reloadFile(path);
+		SwingUtilities.invokeAndWait(() -> {});
+	}
+
+}
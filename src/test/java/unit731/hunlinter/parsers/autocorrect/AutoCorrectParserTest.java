@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.autocorrect;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.services.system.FileHelper;
+import unit731.hunlinter.workers.exceptions.LinterException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+
+class AutoCorrectParserTest{
+
+	@Test
+	void parse() throws IOException, XMLStreamException{
+		File acoFile = FileHelper.createDeleteOnExitFile("DocumentList", ".xml",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<!DOCTYPE block-list:block-list PUBLIC \"-//OpenOffice.org//DTD OfficeDocument 1.0//EN\" \"block-list.dtd\">",
+			"<block-list:block-list xmlns:block-list=\"http://openoffice.org/2001/block-list\">",
+			"   <block-list:block block-list:abbreviated-name=\"abc\" block-list:name=\"&#224;bc\"/>",
+			"   <block-list:block block-list:abbreviated-name=\"x&amp;y\" block-list:name=\"xey\"></block-list:block>",
+			"</block-list:block-list>");
+		AutoCorrectParser parser = new AutoCorrectParser();
+
+		parser.parse(acoFile);
+
+		Assertions.assertEquals(List.of(new CorrectionEntry("abc", "àbc"), new CorrectionEntry("x&y", "xey")),
+			parser.getCorrectionsDictionary());
+		Assertions.assertTrue(parser.contains("x&y", "xey"));
+		Assertions.assertFalse(parser.contains("x&y", "xy"));
+	}
+
+	@Test
+	void invalidRoot() throws IOException{
+		File acoFile = FileHelper.createDeleteOnExitFile("DocumentList", ".xml",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<block-list xmlns:block-list=\"http://openoffice.org/2001/block-list\"/>");
+		AutoCorrectParser parser = new AutoCorrectParser();
+
+		Throwable exception = Assertions.assertThrows(LinterException.class, () -> parser.parse(acoFile));
+		Assertions.assertEquals("Invalid root element, expected `block-list:block-list`, was `block-list`", exception.getMessage());
+	}
+
+	@Test
+	void indexFollowsModifications(){
+		AutoCorrectParser parser = new AutoCorrectParser();
+		parser.insertCorrection("abc", "àbc", () -> true);
+		parser.insertCorrection("cde", "çde", () -> true);
+
+		Assertions.assertTrue(parser.insertCorrection("abc", "àbc", () -> false).getDuplicates()
+			.contains(new CorrectionEntry("abc", "àbc")));
+		Assertions.assertTrue(parser.insertCorrection("abc", "abç", () -> false).isForceInsertion());
+
+		parser.setCorrection(0, "abc", "ábc");
+		Assertions.assertFalse(parser.contains("abc", "àbc"));
+		Assertions.assertTrue(parser.contains("abc", "ábc"));
+		Assertions.assertTrue(parser.contains("abc", "abç"));
+
+		parser.deleteCorrection(1);
+		Assertions.assertFalse(parser.contains("cde", "çde"));
+		Assertions.assertEquals(2, parser.getCorrectionsCounter());
+	}
+
+	@Test
+	void saveAndParse() throws IOException, XMLStreamException{
+		File acoFile = FileHelper.createDeleteOnExitFile("DocumentList", ".xml");
+		AutoCorrectParser parser = new AutoCorrectParser();
+		parser.insertCorrection("abc", "àbc", () -> true);
+		parser.insertCorrection("x&y<z>", "ẑ€è😀", () -> true);
+
+		parser.save(acoFile);
+		AutoCorrectParser otherParser = new AutoCorrectParser();
+		otherParser.parse(acoFile);
+
+		Assertions.assertEquals(parser.getCorrectionsDictionary(), otherParser.getCorrectionsDictionary());
+		Assertions.assertTrue(otherParser.contains("x&y<z>", "ẑ€è😀"));
+	}
+
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.parsers.affix.AffixParser;
+import unit731.hunlinter.parsers.dictionary.generators.CompactCheckingWordGenerator;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.services.system.FileHelper;
+import unit731.hunlinter.workers.exceptions.LinterException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+
+class DictionaryInclusionIndexTest{
+
+	@Test
+	void lookup() throws IOException{
+		File dicFile = FileHelper.createDeleteOnExitFile("xxx", ".dic",
+			"2",
+			"work/AB",
+			"play");
+		DictionaryInclusionIndex index = createIndex(dicFile);
+
+		Assertions.assertTrue(index.isInDictionary("work"));
+		Assertions.assertTrue(index.isInDictionary("reworked"));
+		Assertions.assertTrue(index.isInDictionary("play"));
+		Assertions.assertFalse(index.isInDictionary("replay"));
+		Assertions.assertFalse(index.isInDictionary("2"));
+	}
+
+	@Test
+	void addAll() throws IOException{
+		File dicFile = FileHelper.createDeleteOnExitFile("xxx", ".dic",
+			"1",
+			"work/AB");
+		DictionaryInclusionIndex index = createIndex(dicFile);
+		Assertions.assertFalse(index.isInDictionary("play"));
+
+		index.addAll(List.of("play"));
+
+		Assertions.assertTrue(index.isInDictionary("play"));
+	}
+
+	@Test
+	void invalidateAndRebuild() throws IOException{
+		File dicFile = FileHelper.createDeleteOnExitFile("xxx", ".dic",
+			"1",
+			"work/AB");
+		DictionaryInclusionIndex index = createIndex(dicFile);
+		Assertions.assertTrue(index.isInDictionary("reworked"));
+
+		Files.writeString(dicFile.toPath(), "1\nplay/AB");
+		//still the index built on the former content
+		Assertions.assertTrue(index.isInDictionary("reworked"));
+
+		index.invalidate();
+
+		Assertions.assertFalse(index.isInDictionary("reworked"));
+		Assertions.assertTrue(index.isInDictionary("replayed"));
+	}
+
+	@Test
+	void rebuildAfterFailure() throws IOException{
+		File dicFile = FileHelper.createDeleteOnExitFile("xxx", ".dic",
+			"1",
+			"work/AB");
+		DictionaryInclusionIndex index = createIndex(dicFile);
+		Files.delete(dicFile.toPath());
+
+		Assertions.assertThrows(LinterException.class, () -> index.isInDictionary("work"));
+
+		Files.writeString(dicFile.toPath(), "1\nwork/AB");
+		//the failed build is kept until invalidated
+		Assertions.assertThrows(LinterException.class, () -> index.isInDictionary("work"));
+
+		index.invalidate();
+
+		Assertions.assertTrue(index.isInDictionary("reworked"));
+	}
+
+	@Test
+	void skipWrongLines() throws IOException{
+		File dicFile = FileHelper.createDeleteOnExitFile("xxx", ".dic",
+			"3",
+			"work/AB",
+			"play/Z",
+			"talk/B");
+		DictionaryInclusionIndex index = createIndex(dicFile);
+
+		Assertions.assertTrue(index.isInDictionary("reworked"));
+		Assertions.assertFalse(index.isInDictionary("play"));
+		Assertions.assertTrue(index.isInDictionary("talked"));
+	}
+
+	private static DictionaryInclusionIndex createIndex(final File dicFile) throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"PFX A Y 1",
+			"PFX A 0 re .",
+			"SFX B Y 1",
+			"SFX B 0 ed .");
+		AffixParser affParser = new AffixParser();
+		affParser.parse(affFile, language);
+		DictionaryParser dicParser = new DictionaryParser(dicFile, language, StandardCharsets.UTF_8);
+		WordGenerator wordGenerator = new CompactCheckingWordGenerator(affParser.getAffixData(), dicParser);
+		return wordGenerator.getInclusionIndex();
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+class DictionarySnapshotTest{
+
+	@Test
+	void identical() throws IOException{
+		DictionarySnapshot previous = snapshotOf("3", "a/A", "b", "c");
+		DictionarySnapshot current = snapshotOf("3", "a/A", "b", "c");
+
+		Assertions.assertTrue(previous.diff(current).isEmpty());
+	}
+
+	@Test
+	void headerOnly() throws IOException{
+		DictionarySnapshot previous = snapshotOf("3", "a/A", "b", "c");
+		DictionarySnapshot current = snapshotOf("30", "a/A", "b", "c");
+
+		Assertions.assertTrue(previous.diff(current).isEmpty());
+	}
+
+	@Test
+	void insertion() throws IOException{
+		DictionarySnapshot previous = snapshotOf("4", "a", "b", "c", "d");
+		DictionarySnapshot current = snapshotOf("5", "a", "b", "x", "c", "d");
+
+		List<DictionarySnapshot.ChangedRange> ranges = previous.diff(current);
+
+		Assertions.assertEquals(1, ranges.size());
+		assertRange(3, 3, 3, 4, ranges.get(0));
+		Assertions.assertFalse(ranges.get(0).removesLines());
+	}
+
+	@Test
+	void modification() throws IOException{
+		DictionarySnapshot previous = snapshotOf("4", "a", "b", "c", "d");
+		DictionarySnapshot current = snapshotOf("4", "a", "b/A", "c", "d");
+
+		List<DictionarySnapshot.ChangedRange> ranges = previous.diff(current);
+
+		Assertions.assertEquals(1, ranges.size());
+		assertRange(2, 3, 2, 3, ranges.get(0));
+		Assertions.assertTrue(ranges.get(0).removesLines());
+	}
+
+	@Test
+	void deletion() throws IOException{
+		DictionarySnapshot previous = snapshotOf("4", "a", "b", "c", "d");
+		DictionarySnapshot current = snapshotOf("3", "a", "c", "d");
+
+		List<DictionarySnapshot.ChangedRange> ranges = previous.diff(current);
+
+		Assertions.assertEquals(1, ranges.size());
+		assertRange(2, 3, 2, 2, ranges.get(0));
+		Assertions.assertTrue(ranges.get(0).removesLines());
+	}
+
+	@Test
+	void separateEdits() throws IOException{
+		List<String> previousLines = new ArrayList<>();
+		previousLines.add("100");
+		for(int i = 0; i < 100; i ++)
+			previousLines.add("word" + i);
+		List<String> currentLines = new ArrayList<>(previousLines);
+		currentLines.set(11, "changed");
+		currentLines.add(51, "inserted");
+		currentLines.remove(91);
+		DictionarySnapshot previous = snapshotOf(previousLines.toArray(String[]::new));
+		DictionarySnapshot current = snapshotOf(currentLines.toArray(String[]::new));
+
+		List<DictionarySnapshot.ChangedRange> ranges = previous.diff(current);
+
+		Assertions.assertEquals(3, ranges.size());
+		assertRange(11, 12, 11, 12, ranges.get(0));
+		assertRange(51, 51, 51, 52, ranges.get(1));
+		assertRange(90, 91, 91, 91, ranges.get(2));
+	}
+
+	@Test
+	void changedLines() throws IOException{
+		File previousFile = createFile("5", "a", "b", "c", "d", "e");
+		File currentFile = createFile("5", "a", "x", "c", "d", "y", "e");
+		DictionarySnapshot previous = DictionarySnapshot.of(previousFile, StandardCharsets.UTF_8);
+		DictionarySnapshot current = DictionarySnapshot.of(currentFile, StandardCharsets.UTF_8);
+
+		List<String> lines = new ArrayList<>();
+		DictionarySnapshot.forEachChangedLine(currentFile, StandardCharsets.UTF_8, previous.diff(current),
+			(lineIndex, line) -> lines.add(lineIndex + ":" + line));
+
+		Assertions.assertEquals(List.of("2:x", "5:y"), lines);
+	}
+
+
+	private static DictionarySnapshot snapshotOf(final String... lines) throws IOException{
+		return DictionarySnapshot.of(createFile(lines), StandardCharsets.UTF_8);
+	}
+
+	private static File createFile(final String... lines) throws IOException{
+		return FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic",
+			(String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void assertRange(final int previousStart, final int previousEnd, final int currentStart, final int currentEnd,
+			final DictionarySnapshot.ChangedRange range){
+		Assertions.assertEquals(previousStart, range.previousStart, range.toString());
+		Assertions.assertEquals(previousEnd, range.previousEnd, range.toString());
+		Assertions.assertEquals(currentStart, range.currentStart, range.toString());
+		Assertions.assertEquals(currentEnd, range.currentEnd, range.toString());
+	}
+
+}
@@ -31,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import unit731.hunlinter.datastructures.SetHelper;
 import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.affix.AffixParser;
+import unit731.hunlinter.parsers.dictionary.generators.CompactCheckingWordGenerator;
 import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
 import unit731.hunlinter.parsers.enums.AffixType;
 import unit731.hunlinter.services.system.FileHelper;
@@ -2149,7 +2150,7 @@ class RulesReducerTest{
 		File dicFile = FileHelper.createDeleteOnExitFile(language, ".dic",
 			"0");
 		DictionaryParser dicParser = new DictionaryParser(dicFile, affixData.getLanguage(), affixData.getCharset());
-		WordGenerator wordGenerator = new WordGenerator(affixData, dicParser);
+		WordGenerator wordGenerator = new CompactCheckingWordGenerator(affixData, dicParser);
 		RulesReducer reducer = new RulesReducer(affixData, wordGenerator);
 		return Pair.of(reducer, wordGenerator);
 	}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary.generators;
+
+import org.junit.jupiter.api.Assertions;
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.vos.AffixEntry;
+import unit731.hunlinter.parsers.vos.CompactInflections;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+
+import java.util.Arrays;
+
+
+/**
+ * Word generator that checks, on every expansion of a dictionary entry, that the compact generation produces the same
+ * words, continuation flags and applied rules (or fails the same way) as the full one.
+ */
+public class CompactCheckingWordGenerator extends WordGenerator{
+
+	public CompactCheckingWordGenerator(AffixData affixData, DictionaryParser dicParser){
+		super(affixData, dicParser);
+	}
+
+	@Override
+	public Inflection[] applyAffixRules(DictionaryEntry dicEntry){
+		Inflection[] inflections;
+		try{
+			inflections = super.applyAffixRules(dicEntry);
+		}
+		catch(RuntimeException e){
+			Assertions.assertThrows(e.getClass(), () -> super.applyAffixRulesCompact(dicEntry),
+				"compact generation of " + dicEntry);
+			throw e;
+		}
+
+		assertSameInflections(inflections, super.applyAffixRulesCompact(dicEntry), dicEntry);
+		return inflections;
+	}
+
+	private static void assertSameInflections(Inflection[] expected, CompactInflections actual, DictionaryEntry dicEntry){
+		Assertions.assertEquals(expected.length, actual.size(), "number of compact inflections of " + dicEntry);
+		for(int i = 0; i < expected.length; i ++){
+			String message = "compact inflection " + i + " of " + dicEntry;
+			Assertions.assertEquals(expected[i].getWord(), actual.getWord(i), message);
+			Assertions.assertArrayEquals(sorted(expected[i].getContinuationFlagIds()), sorted(actual.getContinuationFlagIds(i)),
+				message);
+			Assertions.assertArrayEquals(nullIfEmpty(expected[i].getAppliedRules()), actual.getAppliedRules(i), message);
+		}
+	}
+
+	private static int[] sorted(int[] flagIds){
+		if(flagIds == null || flagIds.length == 0)
+			return null;
+
+		int[] sorted = flagIds.clone();
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	private static AffixEntry[] nullIfEmpty(AffixEntry[] appliedRules){
+		return (appliedRules != null && appliedRules.length > 0? appliedRules: null);
+	}
+
+}
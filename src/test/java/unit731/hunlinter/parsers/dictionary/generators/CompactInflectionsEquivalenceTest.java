@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary.generators;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.RuleEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+
+
+/** The other fixtures are checked by {@link CompactCheckingWordGenerator} as they are expanded */
+class CompactInflectionsEquivalenceTest extends TestBase{
+
+	private static final String[] STEMS = {"bianco", "caza", "fiol", "castèl", "cantón", "parlar", "pagar", "sercar", "fazile",
+		"nobile", "grando", "sol", "verde", "stanco", "abate", "bon", "sposo", "ànema"};
+
+
+	@Test
+	void everyCombinationOfFlags() throws IOException, URISyntaxException{
+		File affFile = new File(CompactInflectionsEquivalenceTest.class.getResource("/parsers/vec.aff").toURI());
+		loadData(affFile, "vec-IT");
+		List<RuleEntry> rules = affixData.getRuleEntries();
+
+		int expanded = 0;
+		for(int combination = 1; combination < 1 << rules.size(); combination ++){
+			StringBuilder flags = new StringBuilder();
+			for(int i = 0; i < rules.size(); i ++)
+				if((combination & (1 << i)) != 0)
+					flags.append(rules.get(i).getFlag());
+
+			for(String stem : STEMS){
+				DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(stem + "/" + flags + " po:noun");
+				try{
+					//the compact generation is checked against the full one
+					wordGenerator.applyAffixRules(dicEntry);
+					expanded ++;
+				}
+				catch(RuntimeException ignored){}
+			}
+		}
+		Assertions.assertTrue(expanded > STEMS.length * 8, "expanded " + expanded);
+	}
+
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary.generators;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unit731.hunlinter.parsers.vos.CompactInflections;
+import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+
+class InflectionCacheTest extends TestBase{
+
+	@TempDir
+	Path cacheDirectory;
+
+
+	@Test
+	void reuseSavedInflections() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 2",
+			"SFX A 0 s [^s]",
+			"SFX A 0 es s",
+			"SFX B Y 1",
+			"SFX B 0 ing/A .",
+			"PFX P Y 1",
+			"PFX P 0 re .");
+		loadData(affFile, language);
+		DictionaryEntry[] dicEntries = {
+			wordGenerator.createFromDictionaryLine("work/ABP po:verb"),
+			wordGenerator.createFromDictionaryLine("bus/A po:noun"),
+			wordGenerator.createFromDictionaryLine("the")
+		};
+		WordGeneratorAffixRules generator = new WordGeneratorAffixRules(affixData);
+		AtomicInteger generated = new AtomicInteger();
+		Function<DictionaryEntry, Inflection[]> countingGenerator = dicEntry -> {
+			generated.incrementAndGet();
+			return generator.applyAffixRules(dicEntry);
+		};
+
+		InflectionCache cache = new InflectionCache(affixData, affFile, cacheDirectory);
+		for(DictionaryEntry dicEntry : dicEntries)
+			assertSameInflections(generator.applyAffixRules(dicEntry), cache.applyAffixRules(dicEntry, countingGenerator));
+		Assertions.assertEquals(dicEntries.length, generated.get());
+		cache.save();
+
+		generated.set(0);
+		InflectionCache reloadedCache = new InflectionCache(affixData, affFile, cacheDirectory);
+		for(DictionaryEntry dicEntry : dicEntries)
+			assertSameInflections(generator.applyAffixRules(dicEntry), reloadedCache.applyAffixRules(dicEntry, countingGenerator));
+		Assertions.assertEquals(0, generated.get());
+
+		//an edited line is generated again
+		DictionaryEntry editedEntry = wordGenerator.createFromDictionaryLine("bus/AP po:noun");
+		assertSameInflections(generator.applyAffixRules(editedEntry), reloadedCache.applyAffixRules(editedEntry, countingGenerator));
+		Assertions.assertEquals(1, generated.get());
+	}
+
+	@Test
+	void reuseJournaledInflections() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 1",
+			"SFX A 0 s .");
+		loadData(affFile, language);
+		DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine("work/A po:verb");
+		WordGeneratorAffixRules generator = new WordGeneratorAffixRules(affixData);
+		AtomicInteger generated = new AtomicInteger();
+		Function<DictionaryEntry, Inflection[]> countingGenerator = entry -> {
+			generated.incrementAndGet();
+			return generator.applyAffixRules(entry);
+		};
+
+		InflectionCache cache = new InflectionCache(affixData, affFile, cacheDirectory);
+		cache.applyAffixRules(dicEntry, countingGenerator);
+		//not yet saved, read back from the journal
+		assertSameInflections(generator.applyAffixRules(dicEntry), cache.applyAffixRules(dicEntry, countingGenerator));
+		Assertions.assertEquals(1, generated.get());
+
+		cache.save();
+		assertSameInflections(generator.applyAffixRules(dicEntry), cache.applyAffixRules(dicEntry, countingGenerator));
+		Assertions.assertEquals(1, generated.get());
+	}
+
+	@Test
+	void compactInflectionsFromSnapshot() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 2",
+			"SFX A 0 s [^s]",
+			"SFX A 0 es s",
+			"SFX B Y 1",
+			"SFX B 0 ing/A .",
+			"PFX P Y 1",
+			"PFX P 0 re .");
+		loadData(affFile, language);
+		DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine("work/ABP po:verb");
+		WordGeneratorAffixRules generator = new WordGeneratorAffixRules(affixData);
+		Inflection[] expected = generator.applyAffixRules(dicEntry);
+		AtomicInteger generated = new AtomicInteger();
+		Function<DictionaryEntry, CompactInflections> countingGenerator = entry -> {
+			generated.incrementAndGet();
+			return generator.applyAffixRulesCompact(entry, () -> generator.applyAffixRules(entry));
+		};
+
+		InflectionCache cache = new InflectionCache(affixData, affFile, cacheDirectory);
+		//not cached, generated compactly
+		assertSameInflections(expected, cache.applyAffixRulesCompact(dicEntry, () -> expected, countingGenerator));
+		Assertions.assertEquals(1, generated.get());
+
+		cache.applyAffixRules(dicEntry, generator::applyAffixRules);
+		cache.save();
+		InflectionCache reloadedCache = new InflectionCache(affixData, affFile, cacheDirectory);
+		CompactInflections compact = reloadedCache.applyAffixRulesCompact(dicEntry, () -> expected, countingGenerator);
+		assertSameInflections(expected, compact);
+		Assertions.assertEquals(1, generated.get());
+		Assertions.assertSame(expected, compact.getInflections());
+	}
+
+	@Test
+	void deleteStaleSnapshots() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 1",
+			"SFX A 0 s .");
+		loadData(affFile, language);
+		Path recentSnapshot = Files.write(cacheDirectory.resolve("inflections-0123456789abcdef-3.dat"), new byte[]{1, 2, 3});
+		Path unusedSnapshot = Files.write(cacheDirectory.resolve("inflections-fedcba9876543210-12.dat"), new byte[]{1, 2, 3});
+		Path leftJournal = Files.write(cacheDirectory.resolve("inflections-123.journal"), new byte[]{1, 2, 3});
+		Files.write(cacheDirectory.resolve("other.dat"), new byte[]{1, 2, 3});
+		long unusedSince = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31);
+		Assertions.assertTrue(unusedSnapshot.toFile().setLastModified(unusedSince));
+		Assertions.assertTrue(leftJournal.toFile().setLastModified(unusedSince));
+
+		InflectionCache cache = new InflectionCache(affixData, affFile, cacheDirectory);
+		cache.applyAffixRules(wordGenerator.createFromDictionaryLine("work/A"), new WordGeneratorAffixRules(affixData)::applyAffixRules);
+		cache.save();
+		cache.applyAffixRules(wordGenerator.createFromDictionaryLine("play/A"), new WordGeneratorAffixRules(affixData)::applyAffixRules);
+		cache.close();
+
+		//the snapshot of another affix file still in use is kept
+		String[] filenames = cacheDirectory.toFile().list();
+		Arrays.sort(filenames);
+		Assertions.assertArrayEquals(new String[]{recentSnapshot.getFileName().toString(), filenames[1], "other.dat"}, filenames);
+		Assertions.assertTrue(filenames[1].startsWith("inflections-") && filenames[1].endsWith("-2.dat"), filenames[1]);
+	}
+
+	@Test
+	void reuseJournaledCompactInflections() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 2",
+			"SFX A 0 s [^s]",
+			"SFX A 0 es s",
+			"SFX B Y 1",
+			"SFX B 0 ing/A .",
+			"PFX P Y 1",
+			"PFX P 0 re .");
+		loadData(affFile, language);
+		DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine("work/ABP po:verb");
+		WordGeneratorAffixRules generator = new WordGeneratorAffixRules(affixData);
+		Inflection[] expected = generator.applyAffixRules(dicEntry);
+		AtomicInteger generated = new AtomicInteger();
+		Function<DictionaryEntry, CompactInflections> countingGenerator = entry -> {
+			generated.incrementAndGet();
+			return generator.applyAffixRulesCompact(entry, () -> generator.applyAffixRules(entry));
+		};
+
+		InflectionCache cache = new InflectionCache(affixData, affFile, cacheDirectory);
+		cache.applyAffixRulesCompact(dicEntry, () -> expected, countingGenerator);
+		//not yet saved, read back from the journal
+		assertSameInflections(expected, cache.applyAffixRulesCompact(dicEntry, () -> expected, countingGenerator));
+		Assertions.assertEquals(1, generated.get());
+
+		cache.close();
+		InflectionCache reloadedCache = new InflectionCache(affixData, affFile, cacheDirectory);
+		assertSameInflections(expected, reloadedCache.applyAffixRulesCompact(dicEntry, () -> expected, countingGenerator));
+		Assertions.assertEquals(1, generated.get());
+
+		//the full inflections are not in a compact record
+		AtomicInteger generatedFull = new AtomicInteger();
+		Function<DictionaryEntry, Inflection[]> countingFullGenerator = entry -> {
+			generatedFull.incrementAndGet();
+			return generator.applyAffixRules(entry);
+		};
+		assertSameInflections(expected, reloadedCache.applyAffixRules(dicEntry, countingFullGenerator));
+		assertSameInflections(expected, reloadedCache.applyAffixRules(dicEntry, countingFullGenerator));
+		Assertions.assertEquals(1, generatedFull.get());
+		reloadedCache.close();
+	}
+
+	@Test
+	void concurrentUse() throws Exception{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 2",
+			"SFX A 0 s [^s]",
+			"SFX A 0 es s",
+			"PFX P Y 1",
+			"PFX P 0 re .");
+		loadData(affFile, language);
+		DictionaryEntry[] dicEntries = new DictionaryEntry[200];
+		for(int i = 0; i < dicEntries.length; i ++)
+			dicEntries[i] = wordGenerator.createFromDictionaryLine("word" + i + "/AP");
+		WordGeneratorAffixRules generator = new WordGeneratorAffixRules(affixData);
+
+		InflectionCache cache = new InflectionCache(affixData, affFile, cacheDirectory);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			List<Future<?>> futures = new ArrayList<>();
+			for(int t = 0; t < 4; t ++)
+				futures.add(executor.submit(() -> {
+					for(int round = 0; round < 3; round ++)
+						for(DictionaryEntry dicEntry : dicEntries)
+							assertSameInflections(generator.applyAffixRules(dicEntry),
+								cache.applyAffixRules(dicEntry, generator::applyAffixRules));
+				}));
+			//saves while the entries are read and generated
+			for(int i = 0; i < 5; i ++)
+				cache.save();
+			for(Future<?> future : futures)
+				future.get();
+		}
+		finally{
+			executor.shutdown();
+		}
+		cache.close();
+
+		AtomicInteger generated = new AtomicInteger();
+		InflectionCache reloadedCache = new InflectionCache(affixData, affFile, cacheDirectory);
+		for(DictionaryEntry dicEntry : dicEntries)
+			assertSameInflections(generator.applyAffixRules(dicEntry), reloadedCache.applyAffixRules(dicEntry, entry -> {
+				generated.incrementAndGet();
+				return generator.applyAffixRules(entry);
+			}));
+		Assertions.assertEquals(0, generated.get());
+		reloadedCache.close();
+	}
+
+	@Test
+	void readAcrossSegments() throws IOException{
+		byte[] bytes = new byte[100];
+		new Random(731).nextBytes(bytes);
+		Path file = cacheDirectory.resolve("segments.dat");
+		Files.write(file, bytes);
+
+		ByteBuffer expected = ByteBuffer.wrap(bytes);
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			//segments of 16 bytes
+			InflectionCache.MappedFile mappedFile = new InflectionCache.MappedFile(channel, 4);
+
+			Assertions.assertEquals(bytes.length, mappedFile.size());
+			for(int position = 0; position + Long.BYTES <= bytes.length; position ++){
+				Assertions.assertEquals(expected.getInt(position), mappedFile.getInt(position), "int at " + position);
+				Assertions.assertEquals(expected.getLong(position), mappedFile.getLong(position), "long at " + position);
+			}
+			byte[] data = new byte[70];
+			mappedFile.get(13, data);
+			Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 13, 83), data);
+		}
+	}
+
+	private void assertSameInflections(Inflection[] expected, CompactInflections actual){
+		Assertions.assertEquals(expected.length, actual.size());
+		for(int i = 0; i < expected.length; i ++){
+			Assertions.assertEquals(expected[i].getWord(), actual.getWord(i));
+			int[] flagIds = expected[i].getContinuationFlagIds();
+			if(flagIds != null)
+				for(int flagId : flagIds)
+					Assertions.assertTrue(actual.hasContinuationFlag(i, flagId));
+			Assertions.assertArrayEquals(expected[i].getAppliedRules(), actual.getAppliedRules(i));
+		}
+	}
+
+	private void assertSameInflections(Inflection[] expected, Inflection[] actual){
+		Assertions.assertEquals(expected.length, actual.length);
+		for(int i = 0; i < expected.length; i ++){
+			Assertions.assertEquals(expected[i].toString(), actual[i].toString());
+			Assertions.assertArrayEquals(expected[i].getAppliedRules(), actual[i].getAppliedRules());
+		}
+	}
+
+}
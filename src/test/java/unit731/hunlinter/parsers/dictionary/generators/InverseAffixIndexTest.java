@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.dictionary.generators;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.affix.AffixParser;
+import unit731.hunlinter.parsers.vos.AffixEntry;
+import unit731.hunlinter.parsers.vos.RuleEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+class InverseAffixIndexTest{
+
+	@Test
+	void sameEntriesAsLinearScan() throws IOException, URISyntaxException{
+		AffixData affixData = loadAffixData();
+		List<RuleEntry> ruleEntries = affixData.getRuleEntries();
+		InverseAffixIndex index = new InverseAffixIndex(ruleEntries);
+
+		//words built around every appending part, plus random ones
+		Set<String> words = new HashSet<>();
+		words.add("");
+		for(RuleEntry ruleEntry : ruleEntries)
+			for(AffixEntry affixEntry : ruleEntry.getEntries()){
+				String appending = affixEntry.getAppending();
+				words.add(appending);
+				words.add("gat" + appending);
+				words.add(appending + "gat");
+				words.add(appending.isEmpty()? appending: appending.substring(1));
+			}
+		String alphabet = "abcdeghilmnoprstuvzàèéìòóù";
+		Random random = new Random(731);
+		for(int i = 0; i < 5000; i ++){
+			StringBuilder sb = new StringBuilder();
+			int length = 1 + random.nextInt(10);
+			for(int j = 0; j < length; j ++)
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			words.add(sb.toString());
+		}
+
+		for(String word : words){
+			List<AffixEntry> expected = new ArrayList<>();
+			List<RuleEntry> expectedRules = new ArrayList<>();
+			for(RuleEntry ruleEntry : ruleEntries)
+				for(AffixEntry affixEntry : ruleEntry.getEntries())
+					if(affixEntry.canInverseApplyTo(word)){
+						expected.add(affixEntry);
+						expectedRules.add(ruleEntry);
+					}
+
+			int[] indexes = index.inverseApplicableEntries(word);
+			List<AffixEntry> actual = new ArrayList<>();
+			List<RuleEntry> actualRules = new ArrayList<>();
+			for(int idx : indexes){
+				actual.add(index.getEntry(idx));
+				actualRules.add(index.getRule(idx));
+			}
+			Assertions.assertEquals(expected, actual, "entries for '" + word + "'");
+			Assertions.assertEquals(expectedRules, actualRules, "rules for '" + word + "'");
+		}
+	}
+
+
+	static AffixData loadAffixData() throws IOException, URISyntaxException{
+		File affFile = new File(InverseAffixIndexTest.class.getResource("/parsers/vec.aff").toURI());
+		AffixParser affParser = new AffixParser();
+		affParser.parse(affFile, "vec-IT");
+		return affParser.getAffixData();
+	}
+
+}
@@ -28,6 +28,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import unit731.hunlinter.parsers.affix.ConversionTable;
 import unit731.hunlinter.parsers.enums.AffixOption;
+import unit731.hunlinter.parsers.vos.CompactInflections;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
 import unit731.hunlinter.parsers.vos.Inflection;
 import unit731.hunlinter.services.system.FileHelper;
@@ -919,4 +920,100 @@ class WordGeneratorAffixTest extends TestBase{
 		Assertions.assertTrue(words.length == 0);
 	}
 
+	@Test
+	void compactInflections() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"NEEDAFFIX X",
+			"SFX A Y 2",
+			"SFX A 0 -suf/B . is:suf",
+			"SFX A 0 -pseudosuf/XB .",
+			"SFX B Y 1",
+			"SFX B 0 -bar .",
+			"PFX C Y 2",
+			"PFX C 0 pre- .",
+			"PFX C 0 pseudopre-/X .");
+		loadData(affFile, language);
+
+		String line = "foo/AC po:noun";
+		DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+		Inflection[] words = wordGenerator.applyAffixRules(dicEntry);
+		CompactInflections compact = wordGenerator.applyAffixRulesCompact(dicEntry);
+
+		Assertions.assertEquals(words.length, compact.size());
+		for(int i = 0; i < words.length; i ++)
+			Assertions.assertEquals(words[i].getWord(), compact.getWord(i));
+		Assertions.assertArrayEquals(words, compact.getInflections());
+		Assertions.assertEquals("st:foo po:noun is:suf", compact.getInflections()[1].getMorphologicalFields());
+	}
+
+	@Test
+	void compactInflectionsCircumfix() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"CIRCUMFIX X",
+			"PFX a Y 4",
+			"PFX a 0 a .",
+			"PFX a 0 n .",
+			"PFX a 0 t .",
+			"PFX a 0 y .",
+			"PFX c Y 5",
+			"PFX c a g/X a[^y]",
+			"PFX c a f/X a[^y]",
+			"PFX c 0 t/X [^a]",
+			"PFX c 0 lt/X [^a]",
+			"PFX c 0 wlt/X [^a]",
+			"SFX b Y 1",
+			"SFX b 0 i/cX .",
+			"PFX d Y 1",
+			"PFX d 0 y/X .",
+			"SFX e Y 2",
+			"SFX e 0 un/cdX .",
+			"SFX e 0 n/cdX .");
+		loadData(affFile, language);
+
+		String line = "bark/abe";
+		DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+		Inflection[] words = wordGenerator.applyAffixRules(dicEntry);
+		CompactInflections compact = wordGenerator.applyAffixRulesCompact(dicEntry);
+
+		Assertions.assertEquals(17, compact.size());
+		int eFlagId = affixData.getFlagRegistry().getId("e");
+		for(int i = 0; i < words.length; i ++){
+			Assertions.assertEquals(words[i].getWord(), compact.getWord(i));
+			Assertions.assertEquals(words[i].hasContinuationFlag("e"), compact.hasContinuationFlag(i, eFlagId));
+		}
+		Assertions.assertNull(compact.getAppliedRules(0));
+		Assertions.assertArrayEquals(words[5].getAppliedRules(), compact.getAppliedRules(5));
+		Assertions.assertArrayEquals(words[16].getAppliedRules(), compact.getAppliedRules(16));
+	}
+
+	@Test
+	void compactInflectionsInvalidTwofold(){
+		Throwable exception = Assertions.assertThrows(LinterException.class, () -> {
+			String language = "xxx";
+			File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+				"SET UTF-8",
+				"FLAG long",
+				"SFX S1 Y 1",
+				"SFX S1 0 s1/S2P1",
+				"SFX S2 Y 1",
+				"SFX S2 0 s2/S3",
+				"SFX S3 Y 1",
+				"SFX S3 0 s3",
+				"PFX P1 Y 1",
+				"PFX P1 0 p1/P2",
+				"PFX P2 Y 1",
+				"PFX P2 0 p2");
+			loadData(affFile, language);
+
+			String line = "aa/S1";
+			DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+			wordGenerator.applyAffixRulesCompact(dicEntry);
+		});
+		Assertions.assertEquals("Twofold rule violated for `p1aas1/S2,P2\tst:aa\tfrom\tSFX S1 0 s1/S2P1 . > PFX P1 0 p1/P2 . from S1 > P1` (S1 > P1 still has rules P2)", exception.getMessage());
+	}
+
 }
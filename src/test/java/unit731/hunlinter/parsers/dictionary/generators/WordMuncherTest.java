@@ -24,18 +24,28 @@
  */
 package unit731.hunlinter.parsers.dictionary.generators;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import unit731.hunlinter.parsers.affix.AffixData;
 import unit731.hunlinter.parsers.affix.AffixParser;
 import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.vos.AffixEntry;
 import unit731.hunlinter.parsers.vos.DictionaryEntry;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.parsers.vos.RuleEntry;
 import unit731.hunlinter.services.system.FileHelper;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 
 class WordMuncherTest{
@@ -156,12 +166,116 @@ class WordMuncherTest{
 	}
 
 
+	@Test
+	void sameOriginatorsAsLinearScan() throws IOException, URISyntaxException{
+		AffixData affixData = InverseAffixIndexTest.loadAffixData();
+		String[] lines = {"gato/ACD", "caro/ACDP", "porta/AC", "bianco/ACD", "can/A", "bèl/A", "leon/A", "vizin/AP",
+			"fàsile/D", "ciave/A", "parlar/BP", "pagar/B", "cascar/B", "studiar/B", "ferar/BP", "sèrvo/AP"};
+		File dicFile = FileHelper.createDeleteOnExitFile("vec", ".dic", lines.length + "\n" + String.join("\n", lines));
+		DictionaryParser dicParser = new DictionaryParser(dicFile, affixData.getLanguage(), affixData.getCharset());
+		WordGenerator wordGenerator = new CompactCheckingWordGenerator(affixData, dicParser);
+		WordMuncher muncher = new WordMuncher(affixData, dicParser, wordGenerator);
+
+		Set<String> dictionaryWords = new HashSet<>();
+		Set<String> words = new TreeSet<>();
+		for(String line : lines){
+			DictionaryEntry dicEntry = wordGenerator.createFromDictionaryLine(line);
+			for(Inflection inflection : wordGenerator.applyAffixRules(dicEntry)){
+				dictionaryWords.add(inflection.getWord());
+				words.add(inflection.getWord());
+			}
+		}
+		words.add("xyz");
+
+		int checked = 0;
+		for(String word : words){
+			DictionaryEntry dicEntry = DictionaryEntry.createFromDictionaryLine(word, affixData);
+			List<String> expected;
+			try{
+				List<DictionaryEntry> originators = extractAllAffixesByLinearScan(dicEntry, affixData, wordGenerator);
+				originators.add(0, dicEntry);
+				originators.removeIf(originator -> !dictionaryWords.contains(originator.getWord()));
+				expected = toStrings(originators);
+			}
+			catch(NoApplicableRuleException e){
+				Assertions.assertThrows(NoApplicableRuleException.class, () -> muncher.inferAffixRules(dicEntry), word);
+				continue;
+			}
+
+			Assertions.assertEquals(expected, toStrings(muncher.inferAffixRules(dicEntry)), word);
+			//once more, now answered from the memoized originators
+			Assertions.assertEquals(expected, toStrings(muncher.inferAffixRules(dicEntry)), word);
+			checked ++;
+		}
+		Assertions.assertTrue(checked > 100);
+	}
+
+	@Test
+	void propagatesNoApplicableRule() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 1",
+			"SFX A 0 s [^x]"
+		);
+		File dicFile = FileHelper.createDeleteOnExitFile(language, ".dic",
+			"1",
+			"x");
+		String line = "xs";
+		Pair<WordMuncher, DictionaryEntry> pair = createMuncher(affFile, dicFile, language, line);
+		WordMuncher muncher = pair.getLeft();
+		DictionaryEntry dicEntry = pair.getRight();
+
+		//the originator `x/A` cannot be expanded, as the condition of the only entry of `A` excludes `x`
+		Assertions.assertThrows(NoApplicableRuleException.class, () -> muncher.inferAffixRules(dicEntry));
+		//the failure is not memoized as a missing originator
+		Assertions.assertThrows(NoApplicableRuleException.class, () -> muncher.inferAffixRules(dicEntry));
+	}
+
+
+	/** The extraction of the originators as it was done before the introduction of {@link InverseAffixIndex} */
+	private static List<DictionaryEntry> extractAllAffixesByLinearScan(DictionaryEntry dicEntry, AffixData affixData,
+			WordGenerator wordGenerator){
+		String word = dicEntry.getWord();
+		String[] partOfSpeech = dicEntry.getMorphologicalFieldPartOfSpeech();
+
+		List<DictionaryEntry> originators = new ArrayList<>();
+		for(RuleEntry ruleEntry : affixData.getRuleEntries())
+			for(AffixEntry affixEntry : ruleEntry.getEntries())
+				if(affixEntry.canInverseApplyTo(word)){
+					String originatingWord = affixEntry.undoRule(word);
+					if(originatingWord != null){
+						DictionaryEntry originatorEntry = wordGenerator.createFromDictionaryLineNoStemTag(originatingWord + "/"
+							+ affixEntry.getFlag());
+
+						Inflection[] inflections = wordGenerator.applyAffixRules(originatorEntry, ruleEntry);
+						inflections = ArrayUtils.remove(inflections, WordGenerator.BASE_INFLECTION_INDEX);
+						if(inflections.length != 1)
+							continue;
+
+						String[] baseInflectionPartOfSpeech = inflections[0].getMorphologicalFieldPartOfSpeech();
+						if(baseInflectionPartOfSpeech != null && (baseInflectionPartOfSpeech.length == 0 && partOfSpeech.length == 0
+								|| Arrays.equals(baseInflectionPartOfSpeech, partOfSpeech)))
+							originators.add(originatorEntry);
+					}
+				}
+		return originators;
+	}
+
+	private static List<String> toStrings(List<DictionaryEntry> entries){
+		List<String> strings = new ArrayList<>(entries.size());
+		for(DictionaryEntry entry : entries)
+			strings.add(entry.toString());
+		return strings;
+	}
+
+
 	private Pair<WordMuncher, DictionaryEntry> createMuncher(final File affFile, final File dicFile, final String language, final String line) throws IOException{
 		AffixParser affParser = new AffixParser();
 		affParser.parse(affFile, language);
 		AffixData affixData = affParser.getAffixData();
 		DictionaryParser dicParser = new DictionaryParser(dicFile, affixData.getLanguage(), affixData.getCharset());
-		WordGenerator wordGenerator = new WordGenerator(affixData, dicParser);
+		WordGenerator wordGenerator = new CompactCheckingWordGenerator(affixData, dicParser);
 		WordMuncher muncher = new WordMuncher(affixData, dicParser, wordGenerator);
 		final DictionaryEntry dicEntry = DictionaryEntry.createFromDictionaryLine(line, affixData);
 		return Pair.of(muncher, dicEntry);
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.exceptions;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.languages.BaseBuilder;
+import unit731.hunlinter.services.system.FileHelper;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+class ExceptionsParserTest{
+
+	@Test
+	void parse() throws IOException, XMLStreamException{
+		File wexFile = FileHelper.createDeleteOnExitFile("WordExceptList", ".xml",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<block-list:block-list xmlns:block-list=\"http://openoffice.org/2001/block-list\">",
+			"   <block-list:block block-list:abbreviated-name=\"TVs\"/>",
+			"   <block-list:block block-list:abbreviated-name=\"CDs\"/>",
+			"</block-list:block-list>");
+		ExceptionsParser parser = new ExceptionsParser("WordExceptList.xml");
+
+		parser.parse(wexFile, "vec-IT");
+
+		Assertions.assertEquals(List.of("CDs", "TVs"), parser.getExceptionsDictionary());
+		Assertions.assertTrue(parser.contains("TVs"));
+		Assertions.assertFalse(parser.contains("DVDs"));
+	}
+
+	@Test
+	void modify() throws IOException, XMLStreamException{
+		File wexFile = FileHelper.createDeleteOnExitFile("WordExceptList", ".xml",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<block-list:block-list xmlns:block-list=\"http://openoffice.org/2001/block-list\">",
+			"   <block-list:block block-list:abbreviated-name=\"TVs\"/>",
+			"   <block-list:block block-list:abbreviated-name=\"CDs\"/>",
+			"</block-list:block-list>");
+		ExceptionsParser parser = new ExceptionsParser("WordExceptList.xml");
+		parser.parse(wexFile, "vec-IT");
+
+		List<String> additions = List.of("ŧò", "DVDs", "ABs", "Zs", "èAs");
+		parser.modify(ExceptionsParser.TagChangeType.ADD, additions);
+
+		List<String> expected = new ArrayList<>(additions);
+		expected.addAll(List.of("CDs", "TVs"));
+		expected.sort(BaseBuilder.getComparator("vec-IT"));
+		Assertions.assertEquals(expected, parser.getExceptionsDictionary());
+		Assertions.assertTrue(parser.contains("ŧò"));
+
+		parser.modify(ExceptionsParser.TagChangeType.REMOVE, List.of("ŧò", "CDs"));
+
+		expected.removeAll(List.of("ŧò", "CDs"));
+		Assertions.assertEquals(expected, parser.getExceptionsDictionary());
+		Assertions.assertFalse(parser.contains("ŧò"));
+		Assertions.assertFalse(parser.contains("CDs"));
+	}
+
+	@Test
+	void saveAndParse() throws IOException, XMLStreamException{
+		File wexFile = FileHelper.createDeleteOnExitFile("WordExceptList", ".xml",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<block-list:block-list xmlns:block-list=\"http://openoffice.org/2001/block-list\">",
+			"   <block-list:block block-list:abbreviated-name=\"TVs\"/>",
+			"</block-list:block-list>");
+		ExceptionsParser parser = new ExceptionsParser("WordExceptList.xml");
+		parser.parse(wexFile, "vec-IT");
+		parser.modify(ExceptionsParser.TagChangeType.ADD, List.of("x&y<z>", "èAs"));
+
+		parser.save(wexFile);
+		ExceptionsParser otherParser = new ExceptionsParser("WordExceptList.xml");
+		otherParser.parse(wexFile, "vec-IT");
+
+		Assertions.assertEquals(parser.getExceptionsDictionary(), otherParser.getExceptionsDictionary());
+	}
+
+}
@@ -302,6 +302,63 @@ class HyphenationParserTest{
 		Assertions.assertArrayEquals(new String[]{"a", "bcd"}, hyphenation.getSyllabes());
 	}
 
+	@Test
+	void hyphenationOkWithAddedRule(){
+		Map<String, String> hyphenations = new HashMap<>();
+		addRule(hyphenations, "ab1cd");
+		AhoCorasickTrie<String> patterns1stLevel = new AhoCorasickTrieBuilder<String>()
+			.build(hyphenations);
+		Map<HyphenationParser.Level, AhoCorasickTrie<String>> allPatterns = new HashMap<>();
+		allPatterns.put(HyphenationParser.Level.NON_COMPOUND, patterns1stLevel);
+		HyphenationOptionsParser optParser = new HyphenationOptionsParser();
+		Comparator<String> comparator = BaseBuilder.getComparator("vec-IT");
+		HyphenationParser parser = new HyphenationParser(comparator, allPatterns, null, optParser);
+
+		HyphenatorInterface hyphenator = new Hyphenator(parser, HyphenationParser.BREAK_CHARACTER);
+		Hyphenation hyphenation = hyphenator.hyphenate("abcdef", "d1e", HyphenationParser.Level.NON_COMPOUND);
+
+		Assertions.assertArrayEquals(new String[]{"ab", "cd", "ef"}, hyphenation.getSyllabes());
+		Assertions.assertFalse(parser.hasRule("d1e", HyphenationParser.Level.NON_COMPOUND));
+		Assertions.assertArrayEquals(new String[]{"ab", "cdef"}, hyphenator.hyphenate("abcdef").getSyllabes());
+	}
+
+	@Test
+	void hyphenationWithAddedRuleAlreadyPresent(){
+		Map<String, String> hyphenations = new HashMap<>();
+		addRule(hyphenations, "ab1cd");
+		AhoCorasickTrie<String> patterns1stLevel = new AhoCorasickTrieBuilder<String>()
+			.build(hyphenations);
+		Map<HyphenationParser.Level, AhoCorasickTrie<String>> allPatterns = new HashMap<>();
+		allPatterns.put(HyphenationParser.Level.NON_COMPOUND, patterns1stLevel);
+		HyphenationOptionsParser optParser = new HyphenationOptionsParser();
+		Comparator<String> comparator = BaseBuilder.getComparator("vec-IT");
+		HyphenationParser parser = new HyphenationParser(comparator, allPatterns, null, optParser);
+
+		HyphenatorInterface hyphenator = new Hyphenator(parser, HyphenationParser.BREAK_CHARACTER);
+		Hyphenation hyphenation = hyphenator.hyphenate("abcd", "a2bcd", HyphenationParser.Level.NON_COMPOUND);
+
+		Assertions.assertArrayEquals(new String[]{"ab", "cd"}, hyphenation.getSyllabes());
+	}
+
+	@Test
+	void addAndRemoveRule(){
+		Map<String, String> hyphenations = new HashMap<>();
+		addRule(hyphenations, "ab1cd");
+		AhoCorasickTrie<String> patterns1stLevel = new AhoCorasickTrieBuilder<String>()
+			.build(hyphenations);
+		Map<HyphenationParser.Level, AhoCorasickTrie<String>> allPatterns = new HashMap<>();
+		allPatterns.put(HyphenationParser.Level.NON_COMPOUND, patterns1stLevel);
+		HyphenationOptionsParser optParser = new HyphenationOptionsParser();
+		Comparator<String> comparator = BaseBuilder.getComparator("vec-IT");
+		HyphenationParser parser = new HyphenationParser(comparator, allPatterns, null, optParser);
+
+		Assertions.assertNull(parser.addRule("d1e", HyphenationParser.Level.NON_COMPOUND));
+		check(parser, "abcdef", "ab", "cd", "ef");
+
+		Assertions.assertTrue(parser.removeRule("d1e", HyphenationParser.Level.NON_COMPOUND));
+		check(parser, "abcdef", "ab", "cdef");
+	}
+
 	@Test
 	void competingRules(){
 		Map<String, String> hyphenations = new HashMap<>();
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.strategies;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
+
+
+class FlagRegistryTest{
+
+	@Test
+	void idsAreScopedToTheRegistry(){
+		FlagRegistry registry = new FlagRegistry();
+		FlagRegistry otherRegistry = new FlagRegistry();
+
+		int id1 = registry.register("7301");
+		int id2 = registry.register("7302");
+		Assertions.assertEquals(0, id1);
+		Assertions.assertEquals(1, id2);
+		Assertions.assertEquals(id1, registry.register("7301"));
+		Assertions.assertEquals("7302", registry.getFlag(id2));
+		Assertions.assertEquals(-1, otherRegistry.getId("7301"));
+		Assertions.assertEquals(0, otherRegistry.register("7302"));
+		Assertions.assertEquals(-1, registry.getId(null));
+	}
+
+	@Test
+	void toIdsKeepOrder(){
+		FlagRegistry registry = new FlagRegistry();
+		registry.register("Ψ");
+
+		int[] ids = registry.toIds(new String[]{"Ζ", "Ψ", "Ζ"});
+
+		Assertions.assertArrayEquals(new int[]{1, 0}, ids);
+		Assertions.assertArrayEquals(new String[]{"Ζ", "Ψ"}, registry.toFlags(ids));
+		Assertions.assertNull(registry.toIds(null));
+		Assertions.assertNull(registry.toIds(new String[0]));
+		Assertions.assertNull(registry.toFlags(null));
+	}
+
+	@Test
+	void contains(){
+		int[] ids = {7, 1, 4};
+
+		Assertions.assertTrue(FlagRegistry.contains(ids, 4));
+		Assertions.assertFalse(FlagRegistry.contains(ids, 5));
+		Assertions.assertFalse(FlagRegistry.contains(ids, -1));
+		Assertions.assertFalse(FlagRegistry.contains(null, 1));
+	}
+
+	@Test
+	void union(){
+		int[] ids = {7, 1, 4};
+
+		Assertions.assertArrayEquals(new int[]{7, 1, 4, 9, 0}, FlagRegistry.union(ids, new int[]{9, 4, 0}));
+		Assertions.assertSame(ids, FlagRegistry.union(ids, new int[]{4}));
+		Assertions.assertSame(ids, FlagRegistry.union(null, ids));
+		Assertions.assertSame(ids, FlagRegistry.union(ids, null));
+	}
+
+	@Test
+	void remove(){
+		int[] ids = {7, 4, 1};
+
+		Assertions.assertArrayEquals(new int[]{7, 1}, FlagRegistry.remove(ids, 4));
+		Assertions.assertSame(ids, FlagRegistry.remove(ids, 5));
+		Assertions.assertSame(ids, FlagRegistry.remove(ids, -1));
+		Assertions.assertNull(FlagRegistry.remove(new int[]{4}, 4));
+		Assertions.assertNull(FlagRegistry.remove(null, 4));
+	}
+
+}
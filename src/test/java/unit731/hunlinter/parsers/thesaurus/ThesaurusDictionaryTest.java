@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.thesaurus;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+class ThesaurusDictionaryTest{
+
+	private static final String[] PART_OF_SPEECHES = {"noun", "adj", "verb"};
+
+
+	@Test
+	void contains(){
+		ThesaurusDictionary dictionary = new ThesaurusDictionary("xxx");
+		dictionary.add(new String[]{"noun", "adj"}, new String[]{"casa", "abitazione (fam.)", "dimora"});
+
+		Assertions.assertTrue(dictionary.contains("casa", new String[]{"adj", "noun"}, "abitazione"));
+		Assertions.assertTrue(dictionary.contains("abitazione", new String[]{"noun", "adj"}, "casa"));
+		Assertions.assertFalse(dictionary.contains("casa", new String[]{"noun"}, "dimora"));
+		Assertions.assertFalse(dictionary.contains("casa", new String[]{"noun", "adj"}, "casa"));
+		Assertions.assertTrue(dictionary.contains(new String[]{"noun"}, new String[]{"casa", "dimora"}));
+		Assertions.assertFalse(dictionary.contains(new String[]{"verb"}, new String[]{"casa", "dimora"}));
+	}
+
+	@Test
+	void deleteDefinition(){
+		ThesaurusDictionary dictionary = new ThesaurusDictionary("xxx");
+		dictionary.add(new String[]{"noun"}, new String[]{"casa", "dimora"});
+		dictionary.add(new String[]{"noun"}, new String[]{"tetto", "copertura"});
+
+		dictionary.deleteDefinition("casa", null);
+
+		Assertions.assertEquals(2, dictionary.size());
+		Assertions.assertFalse(dictionary.contains("dimora", new String[]{"noun"}, "casa"));
+		Assertions.assertTrue(dictionary.extractDuplicates(new String[]{"noun"}, new String[]{"casa", "dimora"}).isEmpty());
+		Assertions.assertEquals(2, dictionary.extractDuplicates(new String[]{"noun"}, new String[]{"tetto"}).size());
+	}
+
+	@Test
+	void sameAsLinearScan(){
+		Random random = new Random(731);
+		ThesaurusDictionary dictionary = new ThesaurusDictionary("xxx");
+		for(int i = 0; i < 2_000; i ++){
+			dictionary.add(randomPartOfSpeeches(random), randomSynonyms(random));
+
+			if(i % 100 == 99){
+				List<ThesaurusEntry> entries = dictionary.getSynonymsDictionary();
+				dictionary.deleteDefinition(entries.get(random.nextInt(entries.size())).getDefinition(), null);
+			}
+		}
+
+		List<ThesaurusEntry> entries = dictionary.getSynonymsDictionary();
+		for(ThesaurusEntry entry : entries)
+			for(SynonymsEntry synonymsEntry : entry.getSynonyms())
+				for(String synonym : synonymsEntry.getSynonyms()){
+					String definition = ThesaurusDictionary.removeSynonymUse(synonym);
+					ThesaurusEntry reference = find(entries, definition);
+					boolean expected = (reference != null
+						&& reference.containsPartOfSpeechesAndSynonym(synonymsEntry.getPartOfSpeeches(), entry.getDefinition()));
+					Assertions.assertEquals(expected, dictionary.contains(definition, synonymsEntry.getPartOfSpeeches(),
+						entry.getDefinition()));
+				}
+
+		for(int i = 0; i < 2_000; i ++){
+			String[] partOfSpeeches = randomPartOfSpeeches(random);
+			String[] synonyms = randomSynonyms(random);
+			List<String> pos = Arrays.asList(partOfSpeeches);
+			List<String> syns = Arrays.asList(synonyms);
+
+			List<ThesaurusEntry> expectedDuplicates = new ArrayList<>();
+			boolean expectedContained = false;
+			for(ThesaurusEntry entry : entries){
+				if(entry.intersects(pos, syns))
+					expectedDuplicates.add(entry);
+				expectedContained |= entry.contains(pos, syns);
+			}
+
+			Assertions.assertEquals(expectedDuplicates, dictionary.extractDuplicates(partOfSpeeches, synonyms));
+			Assertions.assertEquals(expectedContained, dictionary.contains(partOfSpeeches, synonyms));
+		}
+	}
+
+
+	private static ThesaurusEntry find(final List<ThesaurusEntry> entries, final String definition){
+		for(final ThesaurusEntry entry : entries)
+			if(entry.getDefinition().equals(definition))
+				return entry;
+		return null;
+	}
+
+	private static String[] randomPartOfSpeeches(final Random random){
+		return (random.nextBoolean()?
+			new String[]{PART_OF_SPEECHES[random.nextInt(PART_OF_SPEECHES.length)]}:
+			new String[]{PART_OF_SPEECHES[0], PART_OF_SPEECHES[1 + random.nextInt(PART_OF_SPEECHES.length - 1)]});
+	}
+
+	private static String[] randomSynonyms(final Random random){
+		Set<String> synonyms = new LinkedHashSet<>();
+		int size = 2 + random.nextInt(3);
+		while(synonyms.size() < size)
+			synonyms.add("w" + random.nextInt(500) + (random.nextInt(10) == 0? " (fig.)": ""));
+		return synonyms.toArray(String[]::new);
+	}
+
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.thesaurus;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+
+class ThesaurusParserTest{
+
+	@Test
+	void incrementalSaveSameAsFullSave() throws IOException{
+		File dataFile = FileHelper.createDeleteOnExitFile("th_xxx", ".dat");
+		File indexFile = FileHelper.createDeleteOnExitFile("th_xxx", ".idx");
+		ThesaurusParser theParser = new ThesaurusParser("xxx");
+		Random random = new Random(731);
+		for(int i = 0; i < 200; i ++)
+			theParser.insertSynonyms(randomSynonyms(random), duplicates -> true);
+		theParser.save(indexFile, dataFile);
+		theParser.parse(dataFile);
+
+		for(int i = 0; i < 50; i ++){
+			if(i % 5 == 4){
+				List<ThesaurusEntry> entries = theParser.getSynonymsDictionary();
+				theParser.deleteDefinitionAndSynonyms(entries.get(random.nextInt(entries.size())).getDefinition(), null);
+			}
+			else
+				theParser.insertSynonyms(randomSynonyms(random), duplicates -> true);
+			theParser.save(indexFile, dataFile);
+
+			assertSameAsFullSave(theParser, indexFile, dataFile);
+		}
+	}
+
+	@Test
+	void sameLengthEdit() throws IOException{
+		File dataFile = FileHelper.createDeleteOnExitFile("th_xxx", ".dat",
+			"UTF-8",
+			"aaa|1",
+			"noun:bbb",
+			"bbb|1",
+			"noun:aaa",
+			"ccc|1",
+			"noun:ddd",
+			"ddd|1",
+			"noun:ccc",
+			"");
+		File indexFile = FileHelper.createDeleteOnExitFile("th_xxx", ".idx");
+		ThesaurusParser theParser = new ThesaurusParser("xxx");
+		theParser.parse(dataFile);
+
+		theParser.deleteDefinitionAndSynonyms("aaa", null);
+		theParser.insertSynonyms("(verb)|aaa|bbb", duplicates -> true);
+		theParser.save(indexFile, dataFile);
+
+		Assertions.assertEquals(List.of("UTF-8", "aaa|1", "verb:bbb", "bbb|1", "verb:aaa", "ccc|1", "noun:ddd", "ddd|1",
+			"noun:ccc"), Files.readAllLines(dataFile.toPath()));
+		assertSameAsFullSave(theParser, indexFile, dataFile);
+	}
+
+	@Test
+	void notCanonicalFile() throws IOException{
+		File dataFile = FileHelper.createDeleteOnExitFile("th_xxx", ".dat",
+			"UTF-8",
+			"CCC|1",
+			"(noun)|ddd",
+			"",
+			"aaa|1",
+			"(noun)|bbb");
+		File indexFile = FileHelper.createDeleteOnExitFile("th_xxx", ".idx");
+		ThesaurusParser theParser = new ThesaurusParser("xxx");
+		theParser.parse(dataFile);
+
+		theParser.insertSynonyms("(verb)|eee|fff", duplicates -> true);
+		theParser.save(indexFile, dataFile);
+
+		//saved in the canonical form
+		Assertions.assertEquals(List.of("UTF-8", "aaa|1", "noun:bbb", "ccc|1", "noun:ddd", "eee|1", "verb:fff", "fff|1",
+			"verb:eee"), Files.readAllLines(dataFile.toPath()));
+		assertSameAsFullSave(theParser, indexFile, dataFile);
+	}
+
+	@Test
+	void externallyModifiedFile() throws IOException{
+		File dataFile = FileHelper.createDeleteOnExitFile("th_xxx", ".dat",
+			"UTF-8",
+			"aaa|1",
+			"(noun)|bbb",
+			"bbb|1",
+			"(noun)|aaa");
+		File indexFile = FileHelper.createDeleteOnExitFile("th_xxx", ".idx");
+		ThesaurusParser theParser = new ThesaurusParser("xxx");
+		theParser.parse(dataFile);
+		Files.write(dataFile.toPath(), List.of("UTF-8", "zzz|1", "(noun)|yyy"), StandardCharsets.UTF_8);
+
+		theParser.insertSynonyms("(verb)|eee|fff", duplicates -> true);
+		theParser.save(indexFile, dataFile);
+
+		assertSameAsFullSave(theParser, indexFile, dataFile);
+	}
+
+
+	private static String randomSynonyms(final Random random){
+		StringBuilder sb = new StringBuilder("(")
+			.append(random.nextBoolean()? "noun": "verb")
+			.append(")");
+		int size = 2 + random.nextInt(3);
+		int start = random.nextInt(300);
+		for(int i = 0; i < size; i ++)
+			sb.append('|').append("wörd").append(start + i * (1 + random.nextInt(20)));
+		return sb.toString();
+	}
+
+	/** Saves the same thesaurus from scratch into other files, and compares them */
+	private static void assertSameAsFullSave(final ThesaurusParser theParser, final File indexFile, final File dataFile)
+			throws IOException{
+		File fullDataFile = FileHelper.createDeleteOnExitFile("th_xxx_full", ".dat");
+		File fullIndexFile = FileHelper.createDeleteOnExitFile("th_xxx_full", ".idx");
+		ThesaurusParser fullParser = new ThesaurusParser("xxx");
+		for(ThesaurusEntry entry : theParser.getSynonymsDictionary())
+			fullParser.getDictionary().add(entry);
+		fullParser.save(fullIndexFile, fullDataFile);
+
+		Assertions.assertArrayEquals(Files.readAllBytes(fullDataFile.toPath()), Files.readAllBytes(dataFile.toPath()));
+		Assertions.assertArrayEquals(Files.readAllBytes(fullIndexFile.toPath()), Files.readAllBytes(indexFile.toPath()));
+	}
+
+}
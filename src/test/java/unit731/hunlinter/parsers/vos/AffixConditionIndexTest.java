@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.vos;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
+import unit731.hunlinter.parsers.affix.strategies.ParsingStrategyFactory;
+import unit731.hunlinter.parsers.enums.AffixType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+class AffixConditionIndexTest{
+
+	private static final String ALPHABET = "abcdefghilmnoprstuvzàèéìòóù";
+
+
+	@Test
+	void suffixVenetian(){
+		RuleEntry rule = createRule(AffixType.SUFFIX, "SFX A0 Y 12",
+			"SFX A0 o i o",
+			"SFX A0 o a o",
+			"SFX A0 o e o",
+			"SFX A0 0 i [^aeiouèéòó]",
+			"SFX A0 0 o [^aeiouèéòó]",
+			"SFX A0 0 e [lnr]",
+			"SFX A0 ol ói ol",
+			"SFX A0 ar er [^c]ar",
+			"SFX A0 ar ier [cg]ar",
+			"SFX A0 èl ei èl",
+			"SFX A0 0 ti .",
+			"SFX A0 ón oni [^i]ón");
+
+		assertSameAsLinearScan(rule);
+	}
+
+	@Test
+	void prefixVenetian(){
+		RuleEntry rule = createRule(AffixType.PREFIX, "PFX p0 Y 8",
+			"PFX p0 0 stra [^aeiou]",
+			"PFX p0 0 str [aeiou]",
+			"PFX p0 0 re .",
+			"PFX p0 s ds s[^aeiou]",
+			"PFX p0 0 in [^bp]",
+			"PFX p0 0 im [bp]",
+			"PFX p0 a sa a",
+			"PFX p0 0 dis [^s][aeiou]");
+
+		assertSameAsLinearScan(rule);
+	}
+
+	@Test
+	void sharedPrefixesInConditions(){
+		RuleEntry rule = createRule(AffixType.SUFFIX, "SFX B Y 7",
+			"SFX B 0 s [^s]",
+			"SFX B 0 es s",
+			"SFX B 0 es ss",
+			"SFX B 0 es [^a]ss",
+			"SFX B y ies [^aeiou]y",
+			"SFX B 0 s [aeiou]y",
+			"SFX B 0 s [aeiou]y");
+
+		assertSameAsLinearScan(rule);
+	}
+
+	@Test
+	void keepsDefinitionOrder(){
+		RuleEntry rule = createRule(AffixType.SUFFIX, "SFX C Y 3",
+			"SFX C 0 s [^a]",
+			"SFX C 0 t .",
+			"SFX C 0 u o");
+
+		AffixEntry[] entries = rule.getApplicableEntries("ciao");
+
+		Assertions.assertArrayEquals(rule.getEntries(), entries);
+	}
+
+	@Test
+	void wordShorterThanCondition(){
+		RuleEntry rule = createRule(AffixType.SUFFIX, "SFX D Y 1",
+			"SFX D 0 s [aeiou]lo");
+
+		Assertions.assertEquals(0, rule.getApplicableEntries("lo").length);
+		Assertions.assertFalse(rule.isProductiveFor("lo"));
+		Assertions.assertTrue(rule.isProductiveFor("alo"));
+	}
+
+
+	private static RuleEntry createRule(final AffixType type, final String header, final String... lines){
+		final FlagParsingStrategy strategy = ParsingStrategyFactory.createASCIIParsingStrategy();
+		final String[] headerParts = header.split(" ");
+		final RuleEntry rule = new RuleEntry(type, headerParts[1], headerParts[2].charAt(0));
+		final AffixEntry[] entries = new AffixEntry[lines.length];
+		final FlagRegistry flagRegistry = new FlagRegistry();
+		for(int i = 0; i < lines.length; i ++)
+			entries[i] = new AffixEntry(lines[i], i, type, headerParts[1], strategy, flagRegistry, null, null, null);
+		rule.setEntries(entries);
+		return rule;
+	}
+
+	private static void assertSameAsLinearScan(final RuleEntry rule){
+		final Random random = new Random(731);
+		for(int i = 0; i < 20_000; i ++){
+			final StringBuilder sb = new StringBuilder();
+			final int length = 1 + random.nextInt(8);
+			for(int j = 0; j < length; j ++)
+				sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			final String word = sb.toString();
+
+			final List<AffixEntry> expected = new ArrayList<>();
+			for(final AffixEntry entry : rule.getEntries())
+				if(entry.canApplyTo(word))
+					expected.add(entry);
+
+			Assertions.assertArrayEquals(expected.toArray(AffixEntry[]::new), rule.getApplicableEntries(word), word);
+			Assertions.assertEquals(!expected.isEmpty(), rule.isProductiveFor(word), word);
+		}
+	}
+
+}
@@ -27,6 +27,7 @@ package unit731.hunlinter.parsers.vos;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.FlagRegistry;
 import unit731.hunlinter.parsers.affix.strategies.ParsingStrategyFactory;
 import unit731.hunlinter.parsers.enums.AffixType;
 import unit731.hunlinter.workers.exceptions.LinterException;
@@ -230,7 +231,7 @@ class AffixEntryTest{
 
 
 	private AffixEntry createAffixEntry(final String line, final RuleEntry parent, final FlagParsingStrategy strategy){
-		return new AffixEntry(line, 0, parent.getType(), parent.getFlag(), strategy, null, null);
+		return new AffixEntry(line, 0, parent.getType(), parent.getFlag(), strategy, new FlagRegistry(), null, null, null);
 	}
 
 }
@@ -53,7 +53,7 @@ class DictionaryEntryTest{
 		DictionaryEntry entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abcdef", entry.getWord());
-		Assertions.assertNull(entry.continuationFlags);
+		Assertions.assertNull(entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abcdef"}, entry.morphologicalFields);
 
 
@@ -61,7 +61,7 @@ class DictionaryEntryTest{
 		entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abcdef", entry.word);
-		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.continuationFlags);
+		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abcdef"}, entry.morphologicalFields);
 
 
@@ -69,7 +69,7 @@ class DictionaryEntryTest{
 		entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abcdef", entry.word);
-		Assertions.assertNull(entry.continuationFlags);
+		Assertions.assertNull(entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abcdef", "po:noun"}, entry.morphologicalFields);
 
 
@@ -77,7 +77,7 @@ class DictionaryEntryTest{
 		entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abcdef", entry.word);
-		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.continuationFlags);
+		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abcdef", "po:noun"}, entry.morphologicalFields);
 
 
@@ -85,7 +85,7 @@ class DictionaryEntryTest{
 		entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abc/def", entry.getWord());
-		Assertions.assertNull(entry.continuationFlags);
+		Assertions.assertNull(entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abc/def"}, entry.morphologicalFields);
 
 
@@ -93,7 +93,7 @@ class DictionaryEntryTest{
 		entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abc/def", entry.word);
-		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.continuationFlags);
+		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abc/def"}, entry.morphologicalFields);
 
 
@@ -101,7 +101,7 @@ class DictionaryEntryTest{
 		entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abc/def", entry.word);
-		Assertions.assertNull(entry.continuationFlags);
+		Assertions.assertNull(entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abc/def", "po:noun"}, entry.morphologicalFields);
 
 
@@ -109,8 +109,29 @@ class DictionaryEntryTest{
 		entry = DictionaryEntry.createFromDictionaryLine(line, affParser.getAffixData());
 
 		Assertions.assertEquals("abc/def", entry.word);
-		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.continuationFlags);
+		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, entry.getContinuationFlags());
 		Assertions.assertArrayEquals(new String[]{"st:abc/def", "po:noun"}, entry.morphologicalFields);
 	}
 
+	@Test
+	void internedMorphologicalFieldsAreScopedToTheAffixData() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8");
+		AffixParser affParser = new AffixParser();
+		affParser.parse(affFile, language);
+		AffixParser otherAffParser = new AffixParser();
+		otherAffParser.parse(affFile, language);
+
+
+		DictionaryEntry entry = DictionaryEntry.createFromDictionaryLine("abc	po:noun", affParser.getAffixData());
+		DictionaryEntry sameDataEntry = DictionaryEntry.createFromDictionaryLine("def	po:noun", affParser.getAffixData());
+		DictionaryEntry otherDataEntry = DictionaryEntry.createFromDictionaryLine("ghi	po:noun", otherAffParser.getAffixData());
+
+		Assertions.assertEquals("po:noun", entry.morphologicalFields[1]);
+		Assertions.assertSame(entry.morphologicalFields[1], sameDataEntry.morphologicalFields[1]);
+		Assertions.assertEquals(entry.morphologicalFields[1], otherDataEntry.morphologicalFields[1]);
+		Assertions.assertNotSame(entry.morphologicalFields[1], otherDataEntry.morphologicalFields[1]);
+	}
+
 }
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.parsers.vos;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.parsers.affix.strategies.FlagParsingStrategy;
+import unit731.hunlinter.parsers.affix.strategies.ParsingStrategyFactory;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+class DictionaryLineTokenizerTest{
+
+	/** The regex previously used to parse a dictionary line, kept as reference */
+	private static final Pattern PATTERN_ENTRY = Pattern.compile("^(?<word>[^\\s]+?)(?:(?<!\\\\)\\/(?<flags>[^\\s]+))?(?:[\\s]+(?<morphologicalFields>.+))?$");
+
+	private static final String ALPHABET = "ab/\\/\\ \t\t,:01é \u001C\u000B";
+
+
+	@Test
+	void edgeCases(){
+		String[] lines = {"", " ", "a", "a ", "a  ", "a \t", " a", "/", "//", "a/", "/a", "a//", "a/b/c", "a\\/b", "a\\/b/C",
+			"a\\/", "\\/a", "a\\\\/b", "a/B po:noun", "a/B\tpo:noun  is:sing ", "a\tpo:noun", "a/B  x", "a \u001Cb",
+			"a\\/b\\/c/DE\t\tst:x", "a/\\/B", "a/1,2,,3 po:x", "àèì/ÀÈ\t\tpo:verbo"};
+		for(String line : lines)
+			assertSameAsRegex(line);
+	}
+
+	@Test
+	void randomLines(){
+		Random random = new Random(731l);
+		for(int i = 0; i < 200_000; i ++){
+			int length = random.nextInt(12);
+			StringBuilder sb = new StringBuilder(length);
+			for(int j = 0; j < length; j ++)
+				sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			assertSameAsRegex(sb.toString());
+		}
+	}
+
+	@Test
+	void flagsOnRange(){
+		String line = "word/ABC\tpo:noun";
+		FlagParsingStrategy strategy = ParsingStrategyFactory.createUTF8ParsingStrategy();
+		Assertions.assertArrayEquals(new String[]{"A", "B", "C"}, strategy.parseFlags(line, 5, 8));
+
+		line = "word/AaBbCc\tpo:noun";
+		strategy = ParsingStrategyFactory.createDoubleASCIIParsingStrategy();
+		Assertions.assertArrayEquals(new String[]{"Aa", "Bb", "Cc"}, strategy.parseFlags(line, 5, 11));
+
+		line = "word/,12,,3,\tpo:noun";
+		strategy = ParsingStrategyFactory.createNumericalParsingStrategy();
+		Assertions.assertArrayEquals(new String[]{"12", "3"}, strategy.parseFlags(line, 5, 12));
+
+		Assertions.assertNull(strategy.parseFlags(line, 4, 4));
+	}
+
+
+	private static void assertSameAsRegex(final String line){
+		final Matcher m = PATTERN_ENTRY.matcher(line);
+		final DictionaryLineTokenizer tokens = DictionaryLineTokenizer.tokenize(line);
+		if(!m.find()){
+			Assertions.assertNull(tokens, () -> "`" + line + "`");
+			return;
+		}
+
+		Assertions.assertNotNull(tokens, () -> "`" + line + "`");
+		Assertions.assertEquals(StringUtils.replace(m.group("word"), "\\/", "/"), tokens.word(line), () -> "`" + line + "`");
+		Assertions.assertEquals(m.group("flags"), tokens.flags(line), () -> "`" + line + "`");
+		Assertions.assertEquals(m.group("morphologicalFields"), tokens.morphologicalFields(line), () -> "`" + line + "`");
+		Assertions.assertArrayEquals(StringUtils.split(m.group("morphologicalFields")), tokens.splitMorphologicalFields(line),
+			() -> "`" + line + "`");
+	}
+
+}
@@ -29,6 +29,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 
@@ -138,4 +139,34 @@ class HunSpellRegexWordGeneratorTest{
 		Assertions.assertEquals(expected, words);
 	}
 
+	@Test
+	void ambiguousRuleGeneratesEachWordOnce(){
+		String[] regex = new String[]{"a", "*", "a", "*"};
+
+		HunSpellRegexWordGenerator generator = new HunSpellRegexWordGenerator(regex);
+		List<List<String>> words = generator.generateAll(1, 3);
+
+		List<List<String>> expected = Arrays.asList(
+			Collections.singletonList("a"),
+			Arrays.asList("a", "a"),
+			Arrays.asList("a", "a", "a")
+		);
+		Assertions.assertEquals(expected, words);
+	}
+
+	@Test
+	void manyZeroOrMore(){
+		String[] regex = new String[]{"a", "*", "b", "*", "c", "*", "d", "*", "e", "*", "f", "*"};
+
+		HunSpellRegexWordGenerator generator = new HunSpellRegexWordGenerator(regex);
+		List<List<String>> words = generator.generateAll(2, 10_000);
+
+		Assertions.assertEquals(10_000, words.size());
+		Assertions.assertEquals(10_000, new HashSet<>(words).size());
+		Assertions.assertEquals(Arrays.asList("a", "a"), words.get(0));
+		Assertions.assertEquals(Arrays.asList("e", "f"), words.get(19));
+		Assertions.assertEquals(Arrays.asList("f", "f"), words.get(20));
+		Assertions.assertEquals(Arrays.asList("a", "a", "a"), words.get(21));
+	}
+
 }
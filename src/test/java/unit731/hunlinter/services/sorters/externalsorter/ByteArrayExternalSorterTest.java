@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.services.sorters.externalsorter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.datastructures.fsa.builders.LexicographicalComparator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+
+class ByteArrayExternalSorterTest{
+
+	private static final Comparator<byte[]> COMPARATOR = LexicographicalComparator.lexicographicalComparator();
+
+
+	@Test
+	void inMemory() throws IOException{
+		ByteArrayExternalSorter sorter = new ByteArrayExternalSorter(Long.MAX_VALUE, COMPARATOR);
+		sorter.add(bytes("c"));
+		sorter.addAll(new byte[][]{bytes("a"), bytes("b"), bytes("a")});
+
+		List<String> sorted = new ArrayList<>();
+		sorter.forEachSorted(sequence -> sorted.add(new String(sequence, StandardCharsets.UTF_8)), null);
+
+		Assertions.assertEquals(List.of("a", "b", "c"), sorted);
+		Assertions.assertEquals(4, sorter.size());
+	}
+
+	@Test
+	void spillingToDiskFromManyThreads() throws IOException{
+		Random random = new Random(731);
+		List<byte[]> input = new ArrayList<>();
+		TreeSet<byte[]> expected = new TreeSet<>(COMPARATOR);
+		for(int i = 0; i < 50_000; i ++){
+			byte[] sequence = new byte[1 + random.nextInt(10)];
+			for(int j = 0; j < sequence.length; j ++)
+				sequence[j] = (byte)('a' + random.nextInt(6));
+			input.add(sequence);
+			expected.add(sequence);
+		}
+
+		//a budget of few kilobytes forces a lot of runs
+		try(ByteArrayExternalSorter sorter = new ByteArrayExternalSorter(16 * 1024, COMPARATOR)){
+			IntStream.range(0, input.size() / 10)
+				.parallel()
+				.forEach(i -> sorter.addAll(input.subList(i * 10, (i + 1) * 10).toArray(byte[][]::new)));
+			sorter.sort();
+
+			List<byte[]> sorted = new ArrayList<>();
+			List<Integer> progress = new ArrayList<>();
+			sorter.forEachSorted(sorted::add, progress::add);
+
+			Assertions.assertEquals(expected.size(), sorted.size());
+			int index = 0;
+			for(byte[] sequence : expected)
+				Assertions.assertArrayEquals(sequence, sorted.get(index ++));
+			Assertions.assertFalse(progress.isEmpty());
+		}
+	}
+
+
+	private static byte[] bytes(String text){
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
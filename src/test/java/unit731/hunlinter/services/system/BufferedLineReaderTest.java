@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.services.system;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+
+class BufferedLineReaderTest{
+
+	@Test
+	void linesAcrossBufferRefills() throws IOException{
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 1000; i ++)
+			sb.append("line").append(i).append(i % 3 == 0? "\r\n": "\n");
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", sb.toString().getBytes(StandardCharsets.UTF_8));
+
+		try(BufferedLineReader reader = new BufferedLineReader(file.toPath(), StandardCharsets.UTF_8, 16)){
+			for(int i = 0; i < 1000; i ++)
+				Assertions.assertEquals("line" + i, reader.readLine());
+			Assertions.assertNull(reader.readLine());
+			Assertions.assertEquals(file.length(), reader.position());
+			Assertions.assertEquals(file.length(), reader.size());
+		}
+	}
+
+	@Test
+	void carriageReturnsAcrossBufferRefills() throws IOException{
+		StringBuilder sb = new StringBuilder();
+		String[] terminators = {"\n", "\r\n", "\r"};
+		for(int i = 0; i < 1000; i ++)
+			sb.append("line").append(i).append(terminators[i % 3]);
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", sb.toString().getBytes(StandardCharsets.UTF_8));
+
+		//buffer sizes that split the `\r\n` pairs
+		for(int bufferSize = 5; bufferSize <= 9; bufferSize ++){
+			List<String> lines = readAll(file, bufferSize);
+
+			Assertions.assertEquals(1000, lines.size());
+			for(int i = 0; i < 1000; i ++)
+				Assertions.assertEquals("line" + i, lines.get(i));
+		}
+		Assertions.assertEquals(List.of("a", "", "b"), readAll(
+			FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", "a\r\rb\r".getBytes(StandardCharsets.UTF_8)), 16));
+	}
+
+	@Test
+	void bomLongLinesAndLastLineWithoutTerminator() throws IOException{
+		String longLine = "x".repeat(300);
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic",
+			("\uFEFF3\n" + longLine + "\n\nàèé").getBytes(StandardCharsets.UTF_8));
+
+		Assertions.assertEquals(List.of("3", longLine, "", "àèé"), readAll(file, 8));
+	}
+
+	@Test
+	void gzipped() throws IOException{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try(GZIPOutputStream os = new GZIPOutputStream(baos)){
+			os.write("2\nàba\nbàb\n".getBytes(StandardCharsets.UTF_8));
+		}
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic.gz", baos.toByteArray());
+
+		Assertions.assertEquals(List.of("2", "àba", "bàb"), readAll(file, 4));
+		try(BufferedLineReader reader = new BufferedLineReader(file.toPath(), StandardCharsets.UTF_8)){
+			Assertions.assertEquals(12, reader.size());
+		}
+	}
+
+	@Test
+	void emptyFile() throws IOException{
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", new byte[0]);
+
+		Assertions.assertEquals(List.of(), readAll(file, 16));
+	}
+
+
+	private static List<String> readAll(final File file, final int bufferSize) throws IOException{
+		final List<String> lines = new ArrayList<>();
+		try(final BufferedLineReader reader = new BufferedLineReader(file.toPath(), StandardCharsets.UTF_8, bufferSize)){
+			String line;
+			while((line = reader.readLine()) != null)
+				lines.add(line);
+		}
+		return lines;
+	}
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.services.system;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+
+class ChunkedLineReaderTest{
+
+	@Test
+	void keepsLineIndexesAcrossChunks() throws IOException{
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 1000; i ++)
+			sb.append("line").append(i).append(i % 3 == 0? "\r\n": "\n");
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", sb.toString().getBytes(StandardCharsets.UTF_8));
+
+		Map<Integer, String> lines = new ConcurrentHashMap<>();
+		AtomicInteger progress = new AtomicInteger();
+		ChunkedLineReader.forEachLine(file.toPath(), StandardCharsets.UTF_8, 64, lines::put,
+			percent -> progress.accumulateAndGet(percent, Math::max));
+
+		Assertions.assertEquals(1000, lines.size());
+		for(int i = 0; i < 1000; i ++)
+			Assertions.assertEquals("line" + i, lines.get(i));
+		Assertions.assertEquals(100, progress.get());
+	}
+
+	@Test
+	void mixedLineTerminators() throws IOException{
+		StringBuilder sb = new StringBuilder();
+		String[] terminators = {"\n", "\r\n", "\r"};
+		for(int i = 0; i < 1000; i ++)
+			sb.append("line").append(i).append(terminators[i % 3]);
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", sb.toString().getBytes(StandardCharsets.UTF_8));
+
+		Map<Integer, String> lines = new ConcurrentHashMap<>();
+		ChunkedLineReader.forEachLine(file.toPath(), StandardCharsets.UTF_8, 64, lines::put, null);
+
+		Assertions.assertEquals(1000, lines.size());
+		for(int i = 0; i < 1000; i ++)
+			Assertions.assertEquals("line" + i, lines.get(i));
+	}
+
+	@Test
+	void progressOfGZippedFile() throws IOException{
+		File file = File.createTempFile("hunlinter-test", ".dic.gz");
+		file.deleteOnExit();
+		try(Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8)){
+			for(int i = 0; i < 1000; i ++)
+				writer.write("line" + i + "\n");
+		}
+
+		AtomicInteger lines = new AtomicInteger();
+		List<Integer> progresses = Collections.synchronizedList(new ArrayList<>());
+		ChunkedLineReader.forEachLine(file.toPath(), StandardCharsets.UTF_8, 64, (index, line) -> lines.incrementAndGet(),
+			progresses::add);
+
+		Assertions.assertEquals(1000, lines.get());
+		Assertions.assertFalse(progresses.isEmpty());
+		Assertions.assertTrue(progresses.stream().allMatch(percent -> percent <= 100), progresses.toString());
+		Assertions.assertEquals(100, Collections.max(progresses));
+		//the compressed file is way smaller than the content, the progress must not reach 100% on the first chunks
+		Assertions.assertTrue(Collections.min(progresses) < 100, progresses.toString());
+	}
+
+	@Test
+	void stopsOnInterrupt() throws IOException, InterruptedException{
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 10_000; i ++)
+			sb.append("line").append(i).append('\n');
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", sb.toString().getBytes(StandardCharsets.UTF_8));
+
+		Thread caller = Thread.currentThread();
+		AtomicInteger lines = new AtomicInteger();
+		Throwable exception = Assertions.assertThrows(IOException.class,
+			() -> ChunkedLineReader.forEachLine(file.toPath(), StandardCharsets.UTF_8, 64,
+				(index, line) -> {
+					if(lines.incrementAndGet() == 10)
+						caller.interrupt();
+				}, null));
+		Assertions.assertTrue(Thread.interrupted());
+		Assertions.assertTrue(exception.getCause() instanceof InterruptedException);
+
+		//no chunk is still running after returning
+		int processed = lines.get();
+		Thread.sleep(100);
+		Assertions.assertEquals(processed, lines.get());
+		Assertions.assertTrue(processed < 10_000, "processed " + processed);
+	}
+
+	@Test
+	void lastLineWithoutTerminatorAndLongLines() throws IOException{
+		String longLine = "x".repeat(300);
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic",
+			"\uFEFF3", longLine, "", "àèé");
+
+		Map<Integer, String> lines = new TreeMap<>();
+		ChunkedLineReader.forEachLine(file.toPath(), StandardCharsets.UTF_8, 16,
+			(index, line) -> {
+				synchronized(lines){
+					lines.put(index, line);
+				}
+			}, null);
+
+		Assertions.assertEquals(Map.of(0, "3", 1, longLine, 2, "", 3, "àèé"), lines);
+	}
+
+	@Test
+	void propagatesProcessorException() throws IOException{
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", "a", "b", "c");
+
+		Throwable exception = Assertions.assertThrows(IllegalArgumentException.class,
+			() -> ChunkedLineReader.forEachLine(file.toPath(), StandardCharsets.UTF_8, 2,
+				(index, line) -> {
+					if("b".equals(line))
+						throw new IllegalArgumentException("wrong line " + index);
+				}, null));
+		Assertions.assertEquals("wrong line 1", exception.getMessage());
+	}
+
+	@Test
+	void emptyFile() throws IOException{
+		File file = FileHelper.createDeleteOnExitFile("hunlinter-test", ".dic", new byte[0]);
+
+		ChunkedLineReader.forEachLine(file.toPath(), StandardCharsets.UTF_8, 16,
+			(index, line) -> Assertions.fail("no line expected"), null);
+
+		Assertions.assertEquals(0, Files.size(file.toPath()));
+	}
+
+}
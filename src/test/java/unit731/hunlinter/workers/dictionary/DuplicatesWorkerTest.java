@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.workers.dictionary;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.datastructures.fsa.builders.LexicographicalComparator;
+import unit731.hunlinter.parsers.affix.AffixParser;
+import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.dictionary.Duplicate;
+import unit731.hunlinter.parsers.dictionary.generators.CompactCheckingWordGenerator;
+import unit731.hunlinter.parsers.dictionary.generators.WordGenerator;
+import unit731.hunlinter.parsers.vos.Inflection;
+import unit731.hunlinter.services.sorters.externalsorter.ByteArrayExternalSorter;
+import unit731.hunlinter.services.system.FileHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+class DuplicatesWorkerTest{
+
+	private static final String[] DICTIONARY_LINES = {
+		"6",
+		"cat/A po:noun",
+		"cat po:noun",
+		"cats po:noun",
+		"tomato/AB po:noun",
+		"cat po:verb",
+		"çità/A po:noun"
+	};
+
+
+	@Test
+	void recordRoundTrip() throws IOException{
+		WordGenerator wordGenerator = createWordGenerator();
+		Inflection[] inflections = wordGenerator.applyAffixRules(wordGenerator.createFromDictionaryLine("çità/A po:noun"));
+
+		Inflection inflection = inflections[1];
+		byte[] record = DuplicatesWorker.createRecord(inflection, "çità", 6, 1);
+		List<Duplicate> duplicates = DuplicatesWorker.toDuplicates(List.of(record));
+
+		Assertions.assertEquals(1, duplicates.size());
+		Duplicate duplicate = duplicates.get(0);
+		Assertions.assertEquals("çitàs", duplicate.getInflectedWord());
+		Assertions.assertEquals("po:noun", duplicate.getPartOfSpeech());
+		Assertions.assertEquals("çità", duplicate.getWord());
+		Assertions.assertEquals(6, duplicate.getLineIndex());
+		Assertions.assertEquals(inflection.getRulesSequence(), duplicate.getRulesSequence());
+		Assertions.assertTrue(duplicate.hasInflectionRules());
+	}
+
+	@Test
+	void sameKey() throws IOException{
+		WordGenerator wordGenerator = createWordGenerator();
+		Inflection cat = wordGenerator.applyAffixRules(wordGenerator.createFromDictionaryLine("cat po:noun"))[0];
+		Inflection cats = wordGenerator.applyAffixRules(wordGenerator.createFromDictionaryLine("cat/A po:noun"))[1];
+		Inflection catVerb = wordGenerator.applyAffixRules(wordGenerator.createFromDictionaryLine("cat po:verb"))[0];
+
+		//same inflection on different lines
+		Assertions.assertTrue(DuplicatesWorker.haveSameKey(DuplicatesWorker.createRecord(cat, "cat", 1, 0),
+			DuplicatesWorker.createRecord(cat, "cat", 2, 0)));
+		//one key is a prefix of the other
+		Assertions.assertFalse(DuplicatesWorker.haveSameKey(DuplicatesWorker.createRecord(cat, "cat", 1, 0),
+			DuplicatesWorker.createRecord(cats, "cat", 1, 1)));
+		//different Part-of-Speech
+		Assertions.assertFalse(DuplicatesWorker.haveSameKey(DuplicatesWorker.createRecord(cat, "cat", 1, 0),
+			DuplicatesWorker.createRecord(catVerb, "cat", 5, 0)));
+	}
+
+	@Test
+	void sameDuplicatesAsGroupingByKey() throws IOException{
+		List<String> expected = groupByKey(createWordGenerator());
+
+		Assertions.assertFalse(expected.isEmpty());
+		Assertions.assertEquals(expected, groupRecords(createWordGenerator(), Long.MAX_VALUE));
+		//force every record to be spilled to disk
+		Assertions.assertEquals(expected, groupRecords(createWordGenerator(), 1l));
+	}
+
+	@Test
+	void reportedLineIndexes() throws IOException{
+		File dicFile = FileHelper.createDeleteOnExitFile("xxx", ".dic", DICTIONARY_LINES);
+		DictionaryParser dicParser = new DictionaryParser(dicFile, "xxx", StandardCharsets.UTF_8);
+		File outputFile = FileHelper.createDeleteOnExitFile("duplicates", ".txt");
+		DuplicatesWorker worker = new DuplicatesWorker("xxx", dicParser, createWordGenerator(), outputFile);
+
+		List<List<Duplicate>> duplicates;
+		try(ByteArrayExternalSorter records = worker.collectInflections()){
+			duplicates = DuplicatesWorker.groupDuplicates(records, () -> {}, null);
+		}
+
+		//"cat/A" and "cat" are the first two lines after the header
+		List<Duplicate> cat = duplicates.stream()
+			.filter(group -> group.get(0).getInflectedWord().equals("cat"))
+			.findFirst()
+			.orElseThrow();
+		Assertions.assertEquals(List.of(0, 1), cat.stream().map(Duplicate::getLineIndex).collect(Collectors.toList()));
+		//"tomatos" is generated twice by the fourth line after the header
+		List<Duplicate> tomatos = duplicates.stream()
+			.filter(group -> group.get(0).getInflectedWord().equals("tomatos"))
+			.findFirst()
+			.orElseThrow();
+		Assertions.assertEquals(List.of(3, 3), tomatos.stream().map(Duplicate::getLineIndex).collect(Collectors.toList()));
+	}
+
+	private static List<String> groupRecords(final WordGenerator wordGenerator, final long memoryBudget) throws IOException{
+		try(ByteArrayExternalSorter records = new ByteArrayExternalSorter(memoryBudget,
+				LexicographicalComparator.lexicographicalComparator())){
+			for(int lineIndex = 1; lineIndex < DICTIONARY_LINES.length; lineIndex ++){
+				Inflection[] inflections = wordGenerator.applyAffixRules(
+					wordGenerator.createFromDictionaryLine(DICTIONARY_LINES[lineIndex]));
+				String word = inflections[WordGenerator.BASE_INFLECTION_INDEX].getWord();
+				byte[][] lineRecords = new byte[inflections.length][];
+				for(int i = 0; i < inflections.length; i ++)
+					lineRecords[i] = DuplicatesWorker.createRecord(inflections[i], word, lineIndex, i);
+				records.addAll(lineRecords);
+			}
+
+			return DuplicatesWorker.groupDuplicates(records, () -> {}, null).stream()
+				.map(group -> group.stream()
+					.map(duplicate -> toString(duplicate.getInflectedWord(), duplicate.getPartOfSpeech(), duplicate.getWord(),
+						duplicate.getLineIndex(), duplicate.getRulesSequence()))
+					.collect(Collectors.joining(", ")))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+	}
+
+	/** The grouping done before the records were introduced */
+	private static List<String> groupByKey(final WordGenerator wordGenerator){
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		for(int lineIndex = 1; lineIndex < DICTIONARY_LINES.length; lineIndex ++){
+			Inflection[] inflections = wordGenerator.applyAffixRules(
+				wordGenerator.createFromDictionaryLine(DICTIONARY_LINES[lineIndex]));
+			String word = inflections[WordGenerator.BASE_INFLECTION_INDEX].getWord();
+			for(Inflection inflection : inflections)
+				groups.computeIfAbsent(inflection.toStringWithPartOfSpeechAndStem(), k -> new ArrayList<>())
+					.add(toString(inflection.getWord(), String.join(", ", inflection.getMorphologicalFieldPartOfSpeech()),
+						word, lineIndex, (inflection.hasInflectionRules()? inflection.getRulesSequence(): StringUtils.EMPTY)));
+		}
+		return groups.values().stream()
+			.filter(group -> group.size() > 1)
+			.map(group -> String.join(", ", group))
+			.sorted()
+			.collect(Collectors.toList());
+	}
+
+	private static String toString(final String inflectedWord, final String partOfSpeech, final String word,
+			final int lineIndex, final String rulesSequence){
+		return inflectedWord + "(" + partOfSpeech + ") " + word + " (" + lineIndex + " via " + rulesSequence + ")";
+	}
+
+	private static WordGenerator createWordGenerator() throws IOException{
+		String language = "xxx";
+		File affFile = FileHelper.createDeleteOnExitFile(language, ".aff",
+			"SET UTF-8",
+			"SFX A Y 2",
+			"SFX A 0 s .",
+			"SFX A 0 es o",
+			"SFX B Y 1",
+			"SFX B o os o");
+		AffixParser affParser = new AffixParser();
+		affParser.parse(affFile, language);
+		return new CompactCheckingWordGenerator(affParser.getAffixData(), null);
+	}
+
+}
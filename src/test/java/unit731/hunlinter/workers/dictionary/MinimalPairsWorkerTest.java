@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2019-2020 Mauro Trevisan
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package unit731.hunlinter.workers.dictionary;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import unit731.hunlinter.languages.BaseBuilder;
+import unit731.hunlinter.languages.DictionaryCorrectnessChecker;
+import unit731.hunlinter.parsers.affix.AffixData;
+import unit731.hunlinter.parsers.affix.AffixParser;
+import unit731.hunlinter.parsers.dictionary.DictionaryParser;
+import unit731.hunlinter.parsers.dictionary.generators.CompactCheckingWordGenerator;
+import unit731.hunlinter.services.system.FileHelper;
+import unit731.hunlinter.services.text.HammingDistance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+
+class MinimalPairsWorkerTest{
+
+	private static final String LANGUAGE = "vec-IT";
+	private static final String LETTERS = "bcdlmnrstaeioòèBCTA";
+	private static final String VOWELS = "aeioòè";
+
+
+	@Test
+	void samePairsAsComparingEveryCouple() throws IOException{
+		Random random = new Random(731l);
+		List<String> words = new ArrayList<>();
+		for(int i = 0; i < 3000; i ++){
+			StringBuilder sb = new StringBuilder();
+			int length = 2 + random.nextInt(3);
+			for(int j = 0; j < length; j ++)
+				sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+			words.add(sb.toString());
+		}
+		//as sorted by the worker
+		words.sort(BaseBuilder.COMPARATOR_LENGTH.thenComparing(BaseBuilder.getComparator(LANGUAGE)));
+		AffixData affixData = loadAffixData();
+		DictionaryCorrectnessChecker checker = createChecker(affixData);
+
+		Map<String, List<String>> expected = extractMinimalPairsByComparingEveryCouple(words, checker);
+		Map<String, List<String>> minimalPairs = createWorker(affixData, checker).extractMinimalPairs(words);
+
+		Assertions.assertFalse(expected.isEmpty());
+		Assertions.assertEquals(expected, minimalPairs);
+	}
+
+	/** The extraction done before the deletion-neighbourhood index was introduced */
+	private static Map<String, List<String>> extractMinimalPairsByComparingEveryCouple(final List<String> words,
+			final DictionaryCorrectnessChecker checker){
+		Map<String, List<String>> minimalPairs = new HashMap<>();
+		for(int i = 0; i < words.size(); i ++){
+			String source = words.get(i);
+			String sourceLowercase = source.toLowerCase(Locale.ROOT);
+			for(int j = i + 1; j < words.size() && words.get(j).length() == source.length(); j ++){
+				String target = words.get(j);
+				String targetLowercase = target.toLowerCase(Locale.ROOT);
+				if(HammingDistance.getDistance(sourceLowercase, targetLowercase) == 1){
+					Pair<Character, Character> difference = HammingDistance.findFirstDifference(sourceLowercase, targetLowercase);
+					char left = difference.getLeft();
+					char right = difference.getRight();
+					if(checker.isConsonant(left) && checker.isConsonant(right))
+						minimalPairs.computeIfAbsent(left + "/" + right, k -> new ArrayList<>(1))
+							.add(source + "/" + target);
+				}
+			}
+		}
+		return minimalPairs;
+	}
+
+	private static MinimalPairsWorker createWorker(final AffixData affixData, final DictionaryCorrectnessChecker checker)
+			throws IOException{
+		File dicFile = FileHelper.createDeleteOnExitFile("xxx", ".dic", "0");
+		DictionaryParser dicParser = new DictionaryParser(dicFile, LANGUAGE, StandardCharsets.UTF_8);
+		File outputFile = FileHelper.createDeleteOnExitFile("minimal-pairs", ".txt");
+		return new MinimalPairsWorker(LANGUAGE, dicParser, checker, new CompactCheckingWordGenerator(affixData, null),
+			outputFile);
+	}
+
+	private static AffixData loadAffixData() throws IOException{
+		File affFile = FileHelper.createDeleteOnExitFile("xxx", ".aff",
+			"SET UTF-8");
+		AffixParser affParser = new AffixParser();
+		affParser.parse(affFile, LANGUAGE);
+		return affParser.getAffixData();
+	}
+
+	private static DictionaryCorrectnessChecker createChecker(final AffixData affixData){
+		return new DictionaryCorrectnessChecker(affixData, null){
+			@Override
+			public boolean isConsonant(final char chr){
+				return (VOWELS.indexOf(chr) < 0);
+			}
+		};
+	}
+
+}